@@ -12,7 +12,9 @@ import com.google.common.collect.BiMap;
 
 import _sim.GameUniverse;
 import _sim.RelativeSide;
+import _sim.SimulationDriver;
 import _sim.plane.Plane;
+import _sim.plane.PlaneSet;
 import _sim.vectors.IVector;
 import _utilities.couplets.Pair;
 import _utilities.couplets.Triplet;
@@ -38,6 +40,8 @@ public class WorldGraphics extends PApplet {
 	private final float fps;
 	public static final int BORDER = 30;
 	private int planeNumber = 0; // TODO for now we will use the all-planes number
+	/** if not null, the world is ticked by this rather than by the draw loop */
+	private SimulationDriver driver;
 	// private Set<Pair<Line2D.Float, Integer>> showLines = new HashSet<>();
 	// TODO allow interpreting the world using a culture as a 'lens,' i.e. using its
 	// language and stuff like that
@@ -49,6 +53,29 @@ public class WorldGraphics extends PApplet {
 
 	}
 
+	/**
+	 * Create a window which only draws the world, leaving the ticking to the given
+	 * driver (which is started once the window is set up, and stopped when it is
+	 * disposed)
+	 * 
+	 * @param driver
+	 * @param fps
+	 */
+	public WorldGraphics(SimulationDriver driver, float fps) {
+		this(driver.getUniverse(), fps);
+		this.driver = driver;
+	}
+
+	/**
+	 * The driver which ticks the world, or null if the world is ticked on each
+	 * frame
+	 * 
+	 * @return
+	 */
+	public SimulationDriver getDriver() {
+		return driver;
+	}
+
 	public GameUniverse getWorld() {
 		return world;
 	}
@@ -83,6 +110,30 @@ public class WorldGraphics extends PApplet {
 		frameRate(fps);
 		world.worldSetup();
 		this.windowResizable(true);
+		if (driver != null && !driver.isRunning()) {
+			driver.start();
+		}
+	}
+
+	@Override
+	public void dispose() {
+		if (driver != null) {
+			driver.stop();
+		}
+		super.dispose();
+	}
+
+	@Override
+	protected void dequeueEvents() {
+		if (driver == null) {
+			super.dequeueEvents();
+			return;
+		}
+		// input handlers read and change the world, so keep them out of the driver's
+		// ticks
+		synchronized (world.getTickLock()) {
+			super.dequeueEvents();
+		}
 	}
 
 	/**
@@ -154,8 +205,7 @@ public class WorldGraphics extends PApplet {
 			this.changeDisplay(new GraphRenderer("Noosphere", this.world.getNoosphere().getUnmappedConceptGraphView(),
 					IConcept.EXISTENCE, this.world.rand()), Display.KNOWLEDGE);
 		} else if (event.getKeyCode() == KeyEvent.VK_X) {
-			IActor ac = world.getMainMap().getActors().stream()
-					.filter((a) -> IVector.distance(getWorldMouseVector(), a.getPosition()) <= 1)
+			IActor ac = world.getMainMap().getActorsWithin(getWorldMouseVector(), 1, null).stream()
 					.filter((a) -> !a.getBody().getAllTetheredSpirits().isEmpty()).findAny().orElse(null);
 			if (ac != null) {
 
@@ -165,8 +215,7 @@ public class WorldGraphics extends PApplet {
 
 			}
 		} else if (event.getKeyCode() == KeyEvent.VK_B) {
-			IActor ac = world.getMainMap().getActors().stream()
-					.filter((a) -> IVector.distance(getWorldMouseVector(), a.getPosition()) <= 1).findAny()
+			IActor ac = world.getMainMap().getActorsWithin(getWorldMouseVector(), 1, null).stream().findAny()
 					.orElse(null);
 			if (ac != null) {
 
@@ -215,8 +264,7 @@ public class WorldGraphics extends PApplet {
 					Display.SOCIAL);
 		} else if (event.getKeyCode() == KeyEvent.VK_K) {
 
-			IActor ac = world.getMainMap().getActors().stream()
-					.filter((a) -> IVector.distance(getWorldMouseVector(), a.getPosition()) <= 1)
+			IActor ac = world.getMainMap().getActorsWithin(getWorldMouseVector(), 1, null).stream()
 					.filter((a) -> !a.getBody().getAllTetheredSpirits().isEmpty()).findAny().orElse(null);
 			if (ac != null) {
 				ISpirit spir = ac.getBody().getAllTetheredSpirits().stream().findAny().get();
@@ -235,8 +283,7 @@ public class WorldGraphics extends PApplet {
 
 		} else if (event.getKeyCode() == KeyEvent.VK_T) {
 
-			IActor ac = world.getMainMap().getActors().stream()
-					.filter((a) -> IVector.distance(getWorldMouseVector(), a.getPosition()) <= 1)
+			IActor ac = world.getMainMap().getActorsWithin(getWorldMouseVector(), 1, null).stream()
 					.filter((a) -> !a.getBody().getAllTetheredSpirits().isEmpty()).findAny().orElse(null);
 			if (ac != null) {
 				ISoul spir = ac.getBody().getAllTetheredSpirits().stream().filter((a) -> a instanceof ISoul)
@@ -263,8 +310,7 @@ public class WorldGraphics extends PApplet {
 
 		} else if (event.getKeyCode() == KeyEvent.VK_E) {
 
-			IActor ac = world.getMainMap().getActors().stream()
-					.filter((a) -> IVector.distance(getWorldMouseVector(), a.getPosition()) <= 1)
+			IActor ac = world.getMainMap().getActorsWithin(getWorldMouseVector(), 1, null).stream()
 					.filter((a) -> !a.getBody().getAllTetheredSpirits().isEmpty()).findAny().orElse(null);
 			if (ac != null) {
 				ISoul spir = ac.getBody().getAllTetheredSpirits().stream().filter((a) -> a instanceof ISoul)
@@ -291,8 +337,7 @@ public class WorldGraphics extends PApplet {
 
 		} else if (event.getKeyCode() == KeyEvent.VK_P) {
 
-			IActor ac = world.getMainMap().getActors().stream()
-					.filter((a) -> IVector.distance(getWorldMouseVector(), a.getPosition()) <= 1)
+			IActor ac = world.getMainMap().getActorsWithin(getWorldMouseVector(), 1, null).stream()
 					.filter((a) -> !a.getBody().getAllTetheredSpirits().isEmpty()).findAny().orElse(null);
 			if (ac != null) {
 				ISoul spir = ac.getBody().getAllTetheredSpirits().stream().filter((a) -> a instanceof ISoul)
@@ -319,8 +364,7 @@ public class WorldGraphics extends PApplet {
 
 		} else if (event.getKeyCode() == KeyEvent.VK_F) {
 
-			IActor ac = world.getMainMap().getActors().stream()
-					.filter((a) -> IVector.distance(getWorldMouseVector(), a.getPosition()) <= 1)
+			IActor ac = world.getMainMap().getActorsWithin(getWorldMouseVector(), 1, null).stream()
 					.filter((a) -> !a.getBody().getAllTetheredSpirits().isEmpty()).findAny().orElse(null);
 			if (ac != null) {
 				ISoul spir = ac.getBody().getAllTetheredSpirits().stream().filter((a) -> a instanceof ISoul)
@@ -379,8 +423,7 @@ public class WorldGraphics extends PApplet {
 			mStartWorldPos = null;
 			mStartPos = null;
 			float fortz = timespan / 1000f * 50;
-			Set<IActor> acs = world.getMainMap().getActors().stream()
-					.filter((a) -> IVector.distance(aMouseVec, a.getPosition()) <= 1).collect(Collectors.toSet());
+			Set<IActor> acs = world.getMainMap().getActorsWithin(aMouseVec, 1, null).stream().collect(Collectors.toSet());
 			for (IActor actor : acs) {
 				world.getMainMap().queueAction(() -> {
 					List<IComponentPart> abpSet = actor.getBody().getContiguousParts().stream()
@@ -393,7 +436,7 @@ public class WorldGraphics extends PApplet {
 						}
 						System.out.println("\t>Apply to " + abp.componentReport());
 						ForceResult res = actor.applyForce(abp, null, genForce.withMagnitude(fortz), ForceType.BLUNT,
-								RelativeSide.LEFT, Plane.PHYSICAL.getPrime());
+								RelativeSide.LEFT, PlaneSet.of(Plane.PHYSICAL));
 						return res;
 					}).collect(Collectors.toList()));
 					;
@@ -432,7 +475,13 @@ public class WorldGraphics extends PApplet {
 		background(color(0, 100, 100));
 		g.push();
 		g.translate(BORDER, BORDER);
-		world.tickWorlds(this);
+		if (driver == null) {
+			world.tickWorlds(this);
+		} else {
+			synchronized (world.getTickLock()) {
+				world.drawWorlds(this);
+			}
+		}
 		g.pop();
 		if (this.currentScreen != null) {
 			g.pushStyle();
@@ -0,0 +1,226 @@
+package _main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import _utilities.graph.GraphBackend;
+import _utilities.graph.IInvertibleRelationType;
+import _utilities.graph.IModifiableRelationGraph;
+import _utilities.property.IProperty;
+import things.interfaces.UniqueType;
+import thinker.concepts.profile.IProfile;
+import thinker.concepts.profile.Profile;
+import thinker.concepts.relations.descriptive.ProfileInterrelationType;
+import thinker.knowledge.base.individual.IndividualKnowledgeBase;
+
+/**
+ * Compares the memory use and query throughput of each {@link GraphBackend} on
+ * the same randomly generated graph, and then on the same knowledge in an
+ * {@link IndividualKnowledgeBase} (a tenth as many concepts). Pass "[nodes]
+ * [edges per node] [rounds]" to change the size of the graph and how many
+ * rounds of each query to time.
+ *
+ * @author borah
+ *
+ */
+public class GraphBenchmark {
+
+	private static final IProperty<Float> WEIGHT = IProperty.make("weight", Float.class, 1f);
+
+	/** Relations used by the benchmark graph */
+	private static enum Link implements IInvertibleRelationType {
+		NEAR, PARENT_OF, CHILD_OF;
+
+		@Override
+		public Link invert() {
+			switch (this) {
+			case PARENT_OF:
+				return CHILD_OF;
+			case CHILD_OF:
+				return PARENT_OF;
+			default:
+				return this;
+			}
+		}
+
+		@Override
+		public boolean bidirectional() {
+			return this == NEAR;
+		}
+
+		@Override
+		public Object checkEndType(Object node) {
+			return null;
+		}
+	}
+
+	public static void main(String[] args) {
+		int nodes = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+		int degree = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+		int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+		System.out.println("Graph of " + nodes + " nodes with ~" + degree + " edges each, " + rounds + " rounds");
+		for (GraphBackend backend : GraphBackend.values()) {
+			run(backend, nodes, degree, rounds);
+		}
+		List<IProfile> figures = new ArrayList<>();
+		for (int n = 0; n < nodes / 10; n++) {
+			figures.add(new Profile(new UUID(5, n), UniqueType.FIGURE));
+		}
+		System.out.println("Knowledge of " + figures.size() + " figures with ~" + degree + " social bonds each");
+		for (GraphBackend backend : GraphBackend.values()) {
+			runKnowledge(backend, figures, degree, rounds);
+		}
+	}
+
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * Build a graph with the given backend, then report how much memory it takes
+	 * and how long each kind of query takes
+	 */
+	private static void run(GraphBackend backend, int nodes, int degree, int rounds) {
+		long before = usedMemory();
+		long start = System.nanoTime();
+		IModifiableRelationGraph<Integer, Link> graph = build(backend, nodes, degree);
+		long buildNanos = System.nanoTime() - start;
+		long memory = usedMemory() - before;
+		System.out.println(backend + ": " + graph.size() + " nodes, " + graph.edgeCount() + " edges, "
+				+ (memory / 1024) + " KiB (" + (memory / Math.max(1, graph.edgeCount())) + " bytes/edge), built in "
+				+ (buildNanos / 1_000_000) + " ms");
+
+		Random rand = new Random(7);
+		int queries = nodes * 4;
+		long found = 0;
+		start = System.nanoTime();
+		for (int r = 0; r < rounds; r++) {
+			for (int q = 0; q < queries; q++) {
+				if (graph.containsEdge(rand.nextInt(nodes), Link.NEAR, rand.nextInt(nodes))) {
+					found++;
+				}
+			}
+		}
+		report("containsEdge", System.nanoTime() - start, (long) rounds * queries);
+
+		double total = 0;
+		start = System.nanoTime();
+		for (int r = 0; r < rounds; r++) {
+			for (int n = 1; n < nodes; n++) {
+				total += graph.getProperty(n, Link.CHILD_OF, n / 2, WEIGHT);
+			}
+		}
+		report("getProperty", System.nanoTime() - start, (long) rounds * (nodes - 1));
+
+		start = System.nanoTime();
+		for (int r = 0; r < rounds; r++) {
+			for (int n = 0; n < nodes; n++) {
+				found += graph.getNeighbors(n).size();
+			}
+		}
+		report("getNeighbors", System.nanoTime() - start, (long) rounds * nodes);
+
+		start = System.nanoTime();
+		for (int r = 0; r < rounds; r++) {
+			int[] count = new int[1];
+			graph.traverseBFS(0, List.of(Link.values()), (a) -> count[0]++, (p, v) -> true);
+			found += count[0];
+		}
+		report("traverseBFS", System.nanoTime() - start, rounds);
+		// print the results so the queries are not optimized away
+		System.out.println("\t(checksum " + found + ", " + total + ")");
+	}
+
+	/**
+	 * Build an individual knowledge base of bonds between the figures with the
+	 * given backend, then report how much memory it takes and how long its
+	 * relation queries take
+	 */
+	private static void runKnowledge(GraphBackend backend, List<IProfile> figures, int degree, int rounds) {
+		int count = figures.size();
+		long before = usedMemory();
+		long start = System.nanoTime();
+		IndividualKnowledgeBase base = new IndividualKnowledgeBase(figures.get(0), backend);
+		Random rand = new Random(42);
+		for (IProfile figure : figures) {
+			base.learnConcept(figure);
+		}
+		for (int n = 0; n < count; n++) {
+			for (int e = 0; e < degree; e++) {
+				int other = rand.nextInt(count);
+				if (other != n) {
+					base.addDubiousRelation(figures.get(n), ProfileInterrelationType.HAS_SOCIAL_BOND_TO,
+							figures.get(other), rand.nextFloat());
+				}
+			}
+		}
+		long buildNanos = System.nanoTime() - start;
+		long memory = usedMemory() - before;
+		System.out.println(backend + ": " + base.countConcepts() + " concepts, " + base.countRelations()
+				+ " relations, " + (memory / 1024) + " KiB (" + (memory / Math.max(1, base.countConcepts()))
+				+ " bytes/concept), built in " + (buildNanos / 1_000_000) + " ms");
+
+		rand = new Random(7);
+		int queries = count * 4;
+		long found = 0;
+		double total = 0;
+		start = System.nanoTime();
+		for (int r = 0; r < rounds; r++) {
+			for (int q = 0; q < queries; q++) {
+				IProfile from = figures.get(rand.nextInt(count));
+				IProfile to = figures.get(rand.nextInt(count));
+				if (base.hasAnyValenceRelation(from, ProfileInterrelationType.HAS_SOCIAL_BOND_TO, to)) {
+					total += base.getConfidence(from, ProfileInterrelationType.HAS_SOCIAL_BOND_TO, to);
+					found++;
+				}
+			}
+		}
+		report("hasRelation", System.nanoTime() - start, (long) rounds * queries);
+
+		start = System.nanoTime();
+		for (int r = 0; r < rounds; r++) {
+			for (IProfile figure : figures) {
+				found += base.countConnectedConcepts(figure);
+			}
+		}
+		report("countConnectedConcepts", System.nanoTime() - start, (long) rounds * count);
+		System.out.println("\t(checksum " + found + ", " + total + ")");
+	}
+
+	private static IModifiableRelationGraph<Integer, Link> build(GraphBackend backend, int nodes, int degree) {
+		IModifiableRelationGraph<Integer, Link> graph = backend
+				.create(Map.of(WEIGHT, (Supplier<Object>) WEIGHT::defaultValue));
+		Random rand = new Random(42);
+		for (int n = 0; n < nodes; n++) {
+			graph.add(n);
+		}
+		// a binary tree so everything is reachable, plus random links
+		for (int n = 1; n < nodes; n++) {
+			graph.addEdge(n / 2, Link.PARENT_OF, n);
+			graph.setProperty(n / 2, Link.PARENT_OF, n, WEIGHT, rand.nextFloat());
+		}
+		for (int n = 0; n < nodes; n++) {
+			for (int e = 1; e < degree; e++) {
+				int other = rand.nextInt(nodes);
+				if (other != n) {
+					graph.addEdge(n, Link.NEAR, other);
+				}
+			}
+		}
+		return graph;
+	}
+
+	private static void report(String name, long nanos, long operations) {
+		System.out.println("\t" + name + ": " + (nanos / 1_000_000) + " ms (" + (nanos / Math.max(1, operations))
+				+ " ns/op)");
+	}
+
+}
@@ -7,6 +7,7 @@ import com.google.common.collect.ImmutableMap;
 import _graphics.WorldGraphics;
 import _sim.GameUniverse;
 import _sim.MapLayer;
+import _sim.SimulationDriver;
 import _sim.dimension.Dim;
 import _sim.dimension.DimensionBuilder;
 import _sim.vectors.IVector;
@@ -26,16 +27,48 @@ import things.form.shape.property.ShapeProperty.RollableShape;
 
 public class Main {
 
+	/** Simulated ticks per second, and frame rate of the window */
+	public static final float TICK_RATE = 15f;
+
+	/**
+	 * Pass "headless [ticks] [parallel]" to run the test world without a window, as
+	 * fast as possible, for the given number of ticks (ticking actors in parallel
+	 * if "parallel" is given); otherwise the world is ticked in real time by a
+	 * {@link SimulationDriver} while a window draws it
+	 */
 	public static void main(String[] args) {
 		GameUniverse universe = new GameUniverse(UUID.randomUUID(), "game");
 
 		createTestWorld(universe);
 
-		PApplet.runSketch(new String[] { "World" }, new WorldGraphics(universe, 15f));
+		if (args.length > 0 && args[0].equalsIgnoreCase("headless")) {
+			long ticks = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+			universe.getMainMap().setParallelTicking(args.length > 2 && args[2].equalsIgnoreCase("parallel"));
+			SimulationDriver driver = new SimulationDriver(universe, TICK_RATE).setUnthrottled(true);
+			long nanos = driver.runTicks(ticks);
+			System.out.println("Ran " + ticks + " ticks in " + (nanos / 1e9) + " seconds ("
+					+ (ticks / (nanos / 1e9)) + " ticks/second)");
+			return;
+		}
+
+		SimulationDriver driver = new SimulationDriver(universe, TICK_RATE);
+		PApplet.runSketch(new String[] { "World" }, new WorldGraphics(driver, TICK_RATE));
 
 	}
 
 	public static void createTestWorld(GameUniverse universe) {
+		createTestWorld(universe, 100, true);
+	}
+
+	/**
+	 * Set up the test world with the given number of actors, a third of them
+	 * humanoids and the rest tools, queued to spawn on the next tick
+	 *
+	 * @param universe
+	 * @param actorCount
+	 * @param report     whether to print a report of each actor
+	 */
+	public static void createTestWorld(GameUniverse universe, int actorCount, boolean report) {
 
 		universe.setUpWorld(DimensionBuilder.of(Dim.EARTH).createTileRectangle(0, 0, 1, 1).addProp(
 				WorldProperty.LAYER_BLOCKS,
@@ -56,8 +89,10 @@ public class Main {
 
 		universe.loadMap(universe.getTile(Dim.EARTH, 0, 0), true);
 
-		for (int i = 0; i < 100; i++) {
-			UUID aID = UUID.randomUUID();
+		for (int i = 0; i < actorCount; i++) {
+			// drawn from the universe's seeded random, so the same universe id gives the
+			// same world
+			UUID aID = new UUID(universe.rand().nextLong(), universe.rand().nextLong());
 			Actor singleActor = new Actor(aID).setName("Hum" + aID.toString().substring(0, 5));
 			if (i % 3 == 0) {
 				singleActor.setKind(kind);
@@ -74,10 +109,12 @@ public class Main {
 			singleActor.setVelocity(
 					IVector.fromAngle(universe.rand().nextDouble() * 360, 2 + 0.1 * universe.rand().nextDouble()));
 			universe.getMainMap().queueAction(() -> universe.getMainMap().spawnIntoWorld(singleActor));
-			System.out.println(singleActor.report());
+			if (report)
+				System.out.println(singleActor.report());
 		}
 		long time2 = System.currentTimeMillis();
-		System.out.println("Actor Creation+Printing: " + ((time2 - time1) / 1000d) + " seconds");
+		if (report)
+			System.out.println("Actor Creation+Printing: " + ((time2 - time1) / 1000d) + " seconds");
 
 	}
 
@@ -0,0 +1,201 @@
+package _main.benchmark;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/**
+ * A small JMH-style harness: each benchmark is warmed up for a while, then run
+ * for several fixed-length measurement iterations, recording the time and the
+ * bytes allocated (by the measuring thread) per operation. Results can be
+ * written to a CSV file so they can be compared between releases.
+ *
+ * @author borah
+ *
+ */
+public class BenchmarkRunner {
+
+	/** The result of measuring one benchmark with one set of parameters */
+	public static class Result {
+		private final String name;
+		private final String params;
+		private final double nanosPerOp;
+		private final double errorNanos;
+		private final double bytesPerOp;
+
+		private Result(String name, String params, double nanosPerOp, double errorNanos, double bytesPerOp) {
+			this.name = name;
+			this.params = params;
+			this.nanosPerOp = nanosPerOp;
+			this.errorNanos = errorNanos;
+			this.bytesPerOp = bytesPerOp;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getParams() {
+			return params;
+		}
+
+		/** mean time per operation across measurement iterations */
+		public double getNanosPerOp() {
+			return nanosPerOp;
+		}
+
+		/** standard deviation of the time per operation across iterations */
+		public double getErrorNanos() {
+			return errorNanos;
+		}
+
+		public double getOpsPerSecond() {
+			return 1e9 / nanosPerOp;
+		}
+
+		/** mean bytes allocated per operation, or -1 if this is not supported */
+		public double getBytesPerOp() {
+			return bytesPerOp;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%-36s %-16s %14.1f +- %-10.1f ns/op %14.1f ops/s %12s B/op", name, params,
+					nanosPerOp, errorNanos, getOpsPerSecond(),
+					bytesPerOp < 0 ? "?" : String.format("%.1f", bytesPerOp));
+		}
+	}
+
+	/**
+	 * Results are folded into this so the JIT cannot remove the operations being
+	 * measured
+	 */
+	private static volatile long sink;
+
+	private final long warmupNanos;
+	private final long iterationNanos;
+	private final int iterations;
+	private final List<Result> results = new ArrayList<>();
+	private final com.sun.management.ThreadMXBean threads;
+	private final PrintStream report;
+
+	/**
+	 * @param warmupMillis    how long to run each benchmark before measuring
+	 * @param iterationMillis how long each measurement iteration lasts
+	 * @param iterations      number of measurement iterations
+	 * @param report          where to print each result as it is measured
+	 */
+	public BenchmarkRunner(long warmupMillis, long iterationMillis, int iterations, PrintStream report) {
+		if (iterations <= 0) {
+			throw new IllegalArgumentException("Need at least one iteration: " + iterations);
+		}
+		this.warmupNanos = warmupMillis * 1_000_000L;
+		this.iterationNanos = iterationMillis * 1_000_000L;
+		this.iterations = iterations;
+		this.report = report;
+		com.sun.management.ThreadMXBean mx = null;
+		if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean sun
+				&& sun.isThreadAllocatedMemorySupported()) {
+			sun.setThreadAllocatedMemoryEnabled(true);
+			mx = sun;
+		}
+		this.threads = mx;
+	}
+
+	private long allocatedBytes() {
+		return threads == null ? 0 : threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Measure an operation; the operation should return some value depending on
+	 * its work, which is consumed so the work is not optimized away
+	 *
+	 * @param name
+	 * @param params description of the fixture parameters, e.g. "actors=100"
+	 * @param op
+	 * @return
+	 */
+	public Result measure(String name, String params, LongSupplier op) {
+		long acc = 0;
+		long end = System.nanoTime() + warmupNanos;
+		do {
+			acc += op.getAsLong();
+		} while (System.nanoTime() < end);
+
+		double[] perOp = new double[iterations];
+		long totalOps = 0;
+		long totalBytes = 0;
+		for (int i = 0; i < iterations; i++) {
+			long ops = 0;
+			long bytes = allocatedBytes();
+			long start = System.nanoTime();
+			long now;
+			do {
+				acc += op.getAsLong();
+				ops++;
+				now = System.nanoTime();
+			} while (now - start < iterationNanos);
+			totalBytes += allocatedBytes() - bytes;
+			totalOps += ops;
+			perOp[i] = (double) (now - start) / ops;
+		}
+		sink += acc;
+
+		double mean = 0;
+		for (double d : perOp) {
+			mean += d;
+		}
+		mean /= iterations;
+		double var = 0;
+		for (double d : perOp) {
+			var += (d - mean) * (d - mean);
+		}
+		double error = iterations > 1 ? Math.sqrt(var / (iterations - 1)) : 0;
+		Result result = new Result(name, params, mean, error,
+				threads == null ? -1 : (double) totalBytes / totalOps);
+		results.add(result);
+		report.println(result);
+		return result;
+	}
+
+	private static String decimal(double d) {
+		return String.format(Locale.ROOT, "%.2f", d);
+	}
+
+	/** All results measured so far */
+	public List<Result> getResults() {
+		return results;
+	}
+
+	/**
+	 * Append all results to a CSV file (writing a header first if the file is
+	 * new), tagged with the given label, e.g. a release name
+	 *
+	 * @param path
+	 * @param label
+	 * @throws IOException
+	 */
+	public void appendCsv(String path, String label) throws IOException {
+		boolean exists = new File(path).exists();
+		try (PrintWriter out = new PrintWriter(new FileWriter(path, true))) {
+			if (!exists) {
+				out.println("label,time,benchmark,params,ns_per_op,error_ns,ops_per_s,bytes_per_op");
+			}
+			String time = LocalDateTime.now().withNano(0).toString();
+			for (Result r : results) {
+				out.println(String.join(",", label, time, r.getName(), r.getParams().replace(',', ';'),
+						decimal(r.getNanosPerOp()), decimal(r.getErrorNanos()), decimal(r.getOpsPerSecond()),
+						decimal(r.getBytesPerOp())));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,526 @@
+package _main.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import _main.Main;
+import _sim.plane.Plane;
+import _sim.plane.PlaneHelper;
+import _sim.plane.PlaneSet;
+import _sim.vectors.IVector;
+import _sim.world.GameMap;
+import _utilities.couplets.Triplet;
+import _utilities.graph.RelationGraph;
+import _utilities.graph.ShortestPaths;
+import metaphysics.being.IBeing;
+import metaphysics.soul.ISoul;
+import metaphysics.spirit.ISpirit;
+import things.actor.Actor;
+import things.actor.IActor;
+import things.actor.categories.HumanoidKind;
+import things.actor.categories.StickToolKind;
+import things.form.channelsystems.IChannelCenter;
+import things.form.channelsystems.IChannelNeed;
+import things.form.channelsystems.IChannelSystem;
+import things.form.channelsystems.signal.SignalChannelSystem;
+import things.form.graph.connections.PartConnection;
+import things.form.kinds.multipart.MultipartKind;
+import things.form.kinds.settings.IKindSettings;
+import things.form.soma.ISoma;
+import things.form.soma.component.IComponentPart;
+import things.interfaces.UniqueType;
+import thinker.actions.searching.ActionCache;
+import thinker.actions.searching.ActionFinder;
+import thinker.concepts.IConcept;
+import thinker.concepts.general_types.IPropertyConcept;
+import thinker.concepts.general_types.IValueConcept;
+import thinker.concepts.profile.IProfile;
+import thinker.concepts.profile.Profile;
+import thinker.concepts.relations.descriptive.PropertyRelationType;
+import thinker.concepts.relations.technical.KnowledgeRelationType;
+import thinker.goals.IGoalConcept;
+import thinker.helpers.ConceptRelationsMap;
+import thinker.helpers.ProfilePropertyMap;
+import thinker.helpers.RelationValence;
+import thinker.helpers.RelationsHelper;
+import thinker.knowledge.base.individual.IndividualKnowledgeBase;
+import thinker.knowledge.base.section.SectionKnowledgeBase;
+import thinker.mind.needs.INeedConcept;
+import thinker.mind.util.IBeingAccess;
+
+/**
+ * Runs the benchmark suites for the hot paths of the simulation: relation
+ * graph traversal and edge-property lookups, knowledge queries on synthetic
+ * concept graphs (relation maps, profile-trait search, group membership),
+ * action finding, actor movement, body generation, and full universe ticks,
+ * each over fixtures of several sizes.
+ * <br>
+ * Arguments (all optional):
+ * <ul>
+ * <li>{@code quick}: only the smallest fixture of each suite, with short
+ * iterations</li>
+ * <li>{@code suites=graph,knowledge,action,physics,spawn,tick,determinism}:
+ * which suites to run; {@code determinism} is not a benchmark but a check that
+ * the same world gives the same state whether actors tick serially or in
+ * parallel</li>
+ * <li>{@code out=FILE.csv}: append the results to this CSV file</li>
+ * <li>{@code label=NAME}: label for the results in the CSV, e.g. a release</li>
+ * </ul>
+ *
+ * @author borah
+ *
+ */
+public class Benchmarks {
+
+	private static final int[] GRAPH_SIZES = { 1000, 10000, 100000 };
+	private static final int[] CONCEPT_SIZES = { 100, 1000, 10000 };
+	private static final int[] ACTOR_COUNTS = { 100, 1000, 10000 };
+
+	public static void main(String[] args) throws IOException {
+		boolean quick = false;
+		Set<String> suites = Set.of("graph", "knowledge", "action", "physics", "spawn", "tick", "determinism");
+		String out = null;
+		String label = "dev";
+		for (String arg : args) {
+			if (arg.equals("quick")) {
+				quick = true;
+			} else if (arg.startsWith("suites=")) {
+				suites = Set.of(arg.substring(7).split(","));
+			} else if (arg.startsWith("out=")) {
+				out = arg.substring(4);
+			} else if (arg.startsWith("label=")) {
+				label = arg.substring(6);
+			} else {
+				throw new IllegalArgumentException("Unknown argument " + arg);
+			}
+		}
+		// the simulation prints debug reports while it runs; keep only our own output
+		PrintStream report = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		BenchmarkRunner runner = quick ? new BenchmarkRunner(200, 200, 3, report)
+				: new BenchmarkRunner(2000, 1000, 5, report);
+		if (suites.contains("graph")) {
+			graphSuite(runner, sizes(GRAPH_SIZES, quick));
+		}
+		if (suites.contains("knowledge")) {
+			knowledgeSuite(runner, sizes(CONCEPT_SIZES, quick));
+		}
+		if (suites.contains("action")) {
+			actionSuite(runner, sizes(ACTOR_COUNTS, quick));
+		}
+		if (suites.contains("physics")) {
+			physicsSuite(runner, sizes(ACTOR_COUNTS, quick));
+		}
+		if (suites.contains("spawn")) {
+			spawnSuite(runner, sizes(ACTOR_COUNTS, quick));
+		}
+		if (suites.contains("tick")) {
+			tickSuite(runner, report, sizes(ACTOR_COUNTS, quick));
+		}
+		if (suites.contains("determinism")) {
+			determinismCheck(report, quick ? 30 : 150, quick ? 20 : 100);
+		}
+		if (out != null) {
+			runner.appendCsv(out, label);
+			report.println("Appended " + runner.getResults().size() + " results to " + out);
+		}
+	}
+
+	private static int[] sizes(int[] all, boolean quick) {
+		return quick ? Arrays.copyOf(all, 1) : all;
+	}
+
+	private static void graphSuite(BenchmarkRunner runner, int[] sizes) {
+		for (int size : sizes) {
+			RelationGraph<Integer, PartConnection> graph = Fixtures.graph(size, 3);
+			String params = "nodes=" + size;
+			List<PartConnection> all = List.of(PartConnection.values());
+			int[] next = { 0 };
+			runner.measure("graph.traverseBFS", params,
+					() -> graph.traverseBFS(next[0]++ % size, all, (a) -> {
+					}, (p, v) -> true).size());
+			runner.measure("graph.nodeIteratorDFS.first100", params, () -> {
+				long count = 0;
+				Iterator<Integer> iter = graph.nodeTraversalIteratorDFS(next[0]++ % size, all, (p, v) -> true);
+				for (int i = 0; i < 100 && iter.hasNext(); i++) {
+					count += iter.next();
+				}
+				return count;
+			});
+			runner.measure("graph.getProperty", params, () -> {
+				int n = 1 + next[0]++ % (size - 1);
+				return graph.getProperty(n / 2, PartConnection.JOINED, n, Fixtures.WEIGHT).longValue();
+			});
+			runner.measure("graph.forEachEdgeProperty", params, () -> {
+				long[] sum = { 0 };
+				graph.forEachEdgeProperty(next[0]++ % size, PartConnection.HOLDING, Fixtures.WEIGHT,
+						(Float w) -> sum[0] += w == null ? 0 : 1);
+				return sum[0];
+			});
+			// the same scan of a node's edges, with and without a triplet for each edge
+			runner.measure("graph.outgoingEdges", params, () -> {
+				long sum = 0;
+				Iterator<Triplet<Integer, PartConnection, Integer>> edges = graph.outgoingEdges(next[0]++ % size);
+				while (edges.hasNext()) {
+					sum += edges.next().getThird();
+				}
+				return sum;
+			});
+			runner.measure("graph.forEachEdge", params, () -> {
+				long[] sum = { 0 };
+				graph.forEachEdge(next[0]++ % size, (a, type, b) -> {
+					sum[0] += b;
+					return true;
+				});
+				return sum[0];
+			});
+			runner.measure("graph.shortestPath", params, () -> ShortestPaths
+					.search(graph, next[0]++ % size, (next[0] * 7919) % size, all, Fixtures.WEIGHT, null,
+							Double.POSITIVE_INFINITY)
+					.reachedNodes().size());
+		}
+	}
+
+	private static void knowledgeSuite(BenchmarkRunner runner, int[] sizes) {
+		for (int size : sizes) {
+			Fixtures.Concepts concepts = Fixtures.concepts(size);
+			String params = "profiles=" + size;
+			List<IProfile> profiles = concepts.profiles;
+			List<IPropertyConcept> properties = concepts.properties;
+			List<IProfile> groups = concepts.groups;
+			int[] next = { 0 };
+			runner.measure("knowledge.conceptRelationsMap", params,
+					() -> new ConceptRelationsMap(profiles.get(next[0]++ % profiles.size()), concepts.base)
+							.get(PropertyRelationType.HAS_TRAIT).size());
+			runner.measure("knowledge.outgoingEdges", params, () -> {
+				long count = 0;
+				Iterator<?> edges = concepts.base.getOutgoingEdges(profiles.get(next[0]++ % profiles.size()));
+				while (edges.hasNext()) {
+					count += edges.next() != null ? 1 : 0;
+				}
+				return count;
+			});
+			runner.measure("knowledge.forEachOutgoingEdge", params, () -> {
+				long[] count = { 0 };
+				concepts.base.forEachOutgoingEdge(profiles.get(next[0]++ % profiles.size()), (a, type, b) -> {
+					count[0] += b != null ? 1 : 0;
+					return true;
+				});
+				return count[0];
+			});
+			runner.measure("knowledge.profileProperties", params,
+					() -> RelationsHelper
+							.getProfileProperties(profiles.get(next[0]++ % profiles.size()), concepts.base,
+									RelationValence.IS)
+							.size());
+			runner.measure("knowledge.profilePropertyLookup", params, () -> {
+				int i = next[0]++;
+				ProfilePropertyMap map = RelationsHelper.getProfileProperties(profiles.get(i % profiles.size()),
+						concepts.base, RelationValence.IS);
+				IPropertyConcept property = properties.get(i % properties.size());
+				return map.containsKey(property) ? map.get(property).hashCode() : map.size();
+			});
+			// the same lookups on maps kept between queries, answered from their snapshots
+			List<ProfilePropertyMap> materialized = profiles.stream()
+					.map((p) -> RelationsHelper.getProfileProperties(p, concepts.base, RelationValence.IS).materialize())
+					.collect(Collectors.toList());
+			runner.measure("knowledge.profilePropertyLookupMaterialized", params, () -> {
+				int i = next[0]++;
+				ProfilePropertyMap map = materialized.get(i % materialized.size());
+				IPropertyConcept property = properties.get(i % properties.size());
+				return map.containsKey(property) ? map.get(property).hashCode() : map.size();
+			});
+			runner.measure("knowledge.profilesWithTrait", params,
+					() -> RelationsHelper
+							.profilesWithTrait(properties.get(next[0]++ % properties.size()), concepts.base, -1)
+							.count());
+			runner.measure("knowledge.profilesWithTraitNearby", params,
+					() -> RelationsHelper
+							.profilesWithTrait(properties.get(next[0]++ % properties.size()), concepts.base, 10)
+							.count());
+			runner.measure("knowledge.profilesWithTraits", params, () -> {
+				int i = next[0]++;
+				Map<IPropertyConcept, IValueConcept> traits = Map.of(properties.get(i % properties.size()),
+						IValueConcept.PRESENT, properties.get((i * 7 + 1) % properties.size()), IValueConcept.PRESENT);
+				return RelationsHelper.profilesWithTraits(concepts.base, traits, Map.of(), 0, false).count();
+			});
+			runner.measure("knowledge.groupKnowsConcept", params, () -> {
+				int i = next[0]++;
+				return concepts.base.groupKnowsConcept(profiles.get(i % profiles.size()),
+						groups.get(i % groups.size())) ? 1 : 0;
+			});
+			// read-only lookups by concept; should not allocate anything
+			runner.measure("knowledge.knowsConcept", params,
+					() -> concepts.base.knowsConcept(profiles.get(next[0]++ % profiles.size())) ? 1 : 0);
+			runner.measure("knowledge.groupHasRelation", params, () -> {
+				int i = next[0]++;
+				return concepts.base.groupHasAnyValenceRelation(profiles.get(i % profiles.size()),
+						PropertyRelationType.HAS_TRAIT, properties.get(i % properties.size()),
+						groups.get(i % groups.size())) ? 1 : 0;
+			});
+			// a member's own knowledge base, asking its groups about what it does not know
+			IndividualKnowledgeBase member = new IndividualKnowledgeBase(new Profile(new UUID(4, size), UniqueType.FIGURE));
+			member.addParents(
+					groups.stream().map((g) -> new SectionKnowledgeBase(g, concepts.base)).collect(Collectors.toList()));
+			runner.measure("knowledge.knowsConceptCheckParent", params,
+					() -> member.knowsConceptCheckParent(profiles.get(next[0]++ % profiles.size())) != null ? 1 : 0);
+			runner.measure("knowledge.groupsThatKnow", params,
+					() -> concepts.base.groupsThatKnow(profiles.get(next[0]++ % profiles.size())).size());
+			runner.measure("knowledge.groupCountRelations", params, () -> {
+				int i = next[0]++;
+				return concepts.base.groupCountRelations(profiles.get(i % profiles.size()),
+						groups.get(i % groups.size()));
+			});
+			runner.measure("knowledge.groupCountRelationsOfType", params, () -> {
+				int i = next[0]++;
+				return concepts.base.groupCountRelationsOfType(profiles.get(i % profiles.size()),
+						PropertyRelationType.HAS_TRAIT, groups.get(i % groups.size()));
+			});
+		}
+	}
+
+	private static void actionSuite(BenchmarkRunner runner, int[] sizes) {
+		for (int size : sizes) {
+			Fixtures.World world = Fixtures.world(size);
+			if (world.being == null) {
+				System.err.println("No mind in a world of " + size + " actors; skipping action finding");
+				continue;
+			}
+			IBeing being = world.being;
+			ActionFinder finder = new ActionFinder();
+			UUID process = new UUID(3, 0);
+			runner.measure("action.findAction", "actors=" + size, () -> {
+				IBeingAccess info = IBeingAccess.create(being, world.universe.getMainMap().getTicks(),
+						world.universe.getMainMap());
+				return finder.findAction(info, world.goal, process, false).size();
+			});
+			// the full search, as when the knowledge changes between plans
+			runner.measure("action.findActionUncached", "actors=" + size, () -> {
+				IBeingAccess info = IBeingAccess.create(being, world.universe.getMainMap().getTicks(),
+						world.universe.getMainMap());
+				finder.getCache().clear();
+				return finder.findAction(info, world.goal, process, false).size();
+			});
+			// as the will plans, marking the relations it used as accessed
+			runner.measure("action.findActionAccessing", "actors=" + size, () -> {
+				IBeingAccess info = IBeingAccess.create(being, world.universe.getMainMap().getTicks(),
+						world.universe.getMainMap());
+				return finder.findAction(info, world.goal, process, true).size();
+			});
+			runner.measure("action.findActionAccessingUncached", "actors=" + size, () -> {
+				IBeingAccess info = IBeingAccess.create(being, world.universe.getMainMap().getTicks(),
+						world.universe.getMainMap());
+				finder.getCache().clear();
+				return finder.findAction(info, world.goal, process, true).size();
+			});
+		}
+	}
+
+	private static void physicsSuite(BenchmarkRunner runner, int[] sizes) {
+		for (int size : sizes) {
+			Fixtures.World world = Fixtures.world(size);
+			Actor actor = (Actor) world.universe.getMainMap().getActors().iterator().next();
+			IVector start = actor.getPosition();
+			IVector velocity = IVector.of(0.05, 0.02);
+			// one steady-state movement step; should not allocate anything
+			runner.measure("physics.actorMove", "actors=" + size, () -> {
+				actor.setPosition(start);
+				actor.setVelocity(velocity);
+				actor.movementTick(Main.TICK_RATE);
+				return (long) (actor.getPositionX() * 1000);
+			});
+			// the plane check made for every force applied to a part
+			PlaneSet[] planes = { PlaneSet.of(Plane.PHYSICAL), PlaneSet.of(Plane.SPIRITUAL),
+					PlaneSet.of(Plane.PHYSICAL, Plane.SPECTRAL), PlaneSet.of(Plane.PHASE_SHIFT, Plane.DIVINE) };
+			runner.measure("physics.planeInteract", "actors=" + size, () -> {
+				long interacting = 0;
+				for (PlaneSet p1 : planes) {
+					for (PlaneSet p2 : planes) {
+						if (PlaneHelper.canInteract(p1, p2))
+							interacting++;
+					}
+				}
+				return interacting;
+			});
+			// the tick of the parts of a body; tools at rest should have nothing to do
+			for (Class<?> kind : List.of(HumanoidKind.class, StickToolKind.class)) {
+				IActor bodied = firstOfKind(world, kind);
+				if (bodied == null)
+					continue;
+				ISoma body = bodied.getBody();
+				long[] ticks = { world.universe.getMainMap().getTicks() };
+				runner.measure("physics.somaTick", "actors=" + size + ",kind=" + bodied.getKind().name(), () -> {
+					body.runTick(++ticks[0]);
+					return ticks[0];
+				});
+			}
+			// one tick of every automatic channel center (hearts, stomachs...) of a body
+			IActor living = firstOfKind(world, HumanoidKind.class);
+			if (living != null) {
+				ISoma body = living.getBody();
+				List<IComponentPart> centers = body.getPartGraph().stream()
+						.filter(IComponentPart::hasAutomaticChannelCenter).collect(Collectors.toList());
+				long[] ticks = { world.universe.getMainMap().getTicks() };
+				runner.measure("physics.channelTick", "actors=" + size, () -> {
+					ticks[0]++;
+					for (IComponentPart part : centers) {
+						for (IChannelCenter center : part.getAutomaticChannelCenters()) {
+							center.automaticTick(body, part, ticks[0]);
+						}
+					}
+					return ticks[0];
+				});
+			}
+			// which sides of each part of a body are covered, asked by sight for every
+			// part it looks at
+			IActor seen = firstOfKind(world, HumanoidKind.class);
+			if (seen != null) {
+				ISoma body = seen.getBody();
+				runner.measure("physics.coverage", "actors=" + size, () -> {
+					long sides = 0;
+					for (IComponentPart part : body.getCoverageGraph()) {
+						sides += body.getOverallCoverage(part).size();
+					}
+					return sides;
+				});
+			}
+			// the parts a brain reaches with signals, found on every control tick
+			IActor thinking = firstOfKind(world, HumanoidKind.class);
+			if (thinking != null) {
+				ISoma body = thinking.getBody();
+				IComponentPart brain = body.getPartGraph().stream().filter(IComponentPart::hasControlCenter)
+						.findFirst().orElse(null);
+				for (IChannelSystem system : body.getChannelSystems()) {
+					if (brain == null || !(system instanceof SignalChannelSystem signals))
+						continue;
+					runner.measure("physics.signalReach", "actors=" + size, () -> body
+							.getReachableParts(brain, signals.getSignalResource(), signals.getChannelConnectionTypes())
+							.size());
+				}
+			}
+		}
+	}
+
+	private static void spawnSuite(BenchmarkRunner runner, int[] sizes) {
+		for (int size : sizes) {
+			Fixtures.World world = Fixtures.world(size);
+			GameMap map = world.universe.getMainMap();
+			IActor template = firstOfKind(world, HumanoidKind.class);
+			if (template == null) {
+				System.err.println("No humanoid in a world of " + size + " actors; skipping spawning");
+				continue;
+			}
+			MultipartKind kind = (MultipartKind) template.getKind();
+			IKindSettings settings = template.getBody().getCreationSettings();
+			long[] next = { 0 };
+			// a whole new body, as when an actor spawns
+			runner.measure("spawn.makeBody", "actors=" + size, () -> {
+				Actor actor = new Actor(new UUID(5, next[0]++));
+				actor.setKind(kind);
+				return actor.makeBody(settings, true, map).getPartGraph().size();
+			});
+			runner.measure("spawn.generateSoma", "actors=" + size, () -> {
+				return kind.generateSoma(settings, template).getPartGraph().size();
+			});
+			// building the body from scratch, as before it was cloned from a template
+			runner.measure("spawn.generateSomaUncached", "actors=" + size, () -> {
+				kind.clearTemplates();
+				return kind.generateSoma(settings, template).getPartGraph().size();
+			});
+		}
+	}
+
+	private static IActor firstOfKind(Fixtures.World world, Class<?> kind) {
+		return world.universe.getMainMap().getActors().stream().filter((a) -> kind.isInstance(a.getKind()))
+				.findFirst().orElse(null);
+	}
+
+	/**
+	 * Run the same seeded world with actors ticking serially and in parallel, and
+	 * throw an exception if the actors end up in different states
+	 */
+	private static void determinismCheck(PrintStream report, int actors, int ticks) {
+		String serial = Fixtures.runSeeded(actors, ticks, false);
+		String parallel = Fixtures.runSeeded(actors, ticks, true);
+		boolean same = serial.equals(parallel);
+		report.println("determinism actors=" + actors + " ticks=" + ticks + " serial==parallel: " + same);
+		if (!same) {
+			throw new IllegalStateException(
+					"Serial and parallel ticks diverged:\nserial:\n" + serial + "parallel:\n" + parallel);
+		}
+	}
+
+	private static void tickSuite(BenchmarkRunner runner, PrintStream report, int[] sizes) {
+		for (int size : sizes) {
+			Fixtures.World world = Fixtures.world(size);
+			runner.measure("tick.universe", "actors=" + size, () -> {
+				world.driver.tick();
+				return world.driver.getTicksRun();
+			});
+			// nothing in the tick plans yet, so plan for each soul's hunger after each
+			// tick as a goal thought would, with the memory the tick left
+			UUID process = new UUID(5, 0);
+			runner.measure("tick.universePlanning", "actors=" + size, () -> {
+				world.driver.tick();
+				long found = 0;
+				for (ISoul soul : souls(world)) {
+					IGoalConcept goal = hungerGoal(soul);
+					if (goal != null) {
+						IBeingAccess info = IBeingAccess.create(soul, world.universe.getMainMap().getTicks(),
+								world.universe.getMainMap());
+						found += soul.getWill().getActionFinder().findAction(info, goal, process, true).size();
+					}
+				}
+				return found;
+			});
+			Set<ActionCache> caches = Collections.newSetFromMap(new IdentityHashMap<>());
+			for (ISoul soul : souls(world)) {
+				if (soul.getWill().getActionFinder() instanceof ActionFinder finder) {
+					caches.add(finder.getCache());
+				}
+			}
+			for (ActionCache cache : caches) {
+				report.println(
+						"tick.universePlanning actors=" + size + " " + cache + " hit rate: " + cache.getHitRate());
+			}
+		}
+	}
+
+	private static List<ISoul> souls(Fixtures.World world) {
+		List<ISoul> souls = new ArrayList<>();
+		for (IActor actor : world.universe.getMainMap().getActors()) {
+			for (ISpirit spirit : actor.getBody().getAllTetheredSpirits()) {
+				if (spirit instanceof ISoul soul) {
+					souls.add(soul);
+				}
+			}
+		}
+		return souls;
+	}
+
+	/**
+	 * The goal of satisfying hunger, as the soul knows it, or null if it does not
+	 */
+	private static IGoalConcept hungerGoal(ISoul soul) {
+		IChannelNeed need = HumanoidKind.FOOD_SYSTEM.getChannelSystemNeeds().iterator().next();
+		for (IConcept concept : soul.getKnowledge().getConnectedConcepts(need,
+				KnowledgeRelationType.C_PERCEPTOR_OF)) {
+			if (concept instanceof INeedConcept needConcept) {
+				return needConcept.getRequirements();
+			}
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,233 @@
+package _main.benchmark;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import _main.Main;
+import _sim.GameUniverse;
+import _sim.SimulationDriver;
+import _utilities.graph.IInvertibleRelationType;
+import _utilities.graph.RelationGraph;
+import _utilities.couplets.Pair;
+import _utilities.property.IProperty;
+import metaphysics.being.IBeing;
+import metaphysics.spirit.ISpirit;
+import things.actor.IActor;
+import things.actor.categories.HumanoidKind;
+import things.form.channelsystems.IChannelNeed;
+import things.form.graph.connections.PartConnection;
+import things.interfaces.UniqueType;
+import thinker.concepts.IConcept;
+import thinker.concepts.general_types.IPropertyConcept;
+import thinker.concepts.general_types.PropertyConcept;
+import thinker.concepts.profile.IProfile;
+import thinker.concepts.profile.Profile;
+import thinker.concepts.relations.descriptive.ProfileInterrelationType;
+import thinker.concepts.relations.descriptive.PropertyRelationType;
+import thinker.concepts.relations.technical.KnowledgeRelationType;
+import thinker.goals.IGoalConcept;
+import thinker.mind.memory.IMindKnowledgeBase;
+import thinker.knowledge.base.noosphere.NoosphereKnowledgeBase;
+import thinker.mind.needs.NeedConcept;
+
+/**
+ * Builds the worlds and graphs which benchmarks run against. Everything random
+ * is seeded, so fixtures of the same size are the same between runs.
+ *
+ * @author borah
+ *
+ */
+public class Fixtures {
+
+	/** Weight property set on some edges of synthetic graphs */
+	public static final IProperty<Float> WEIGHT = IProperty.make("weight", Float.class, 1f);
+
+	private Fixtures() {
+	}
+
+	/** A test world, as in {@link Main#createTestWorld}, with its actors spawned */
+	public static class World {
+		public final GameUniverse universe;
+		public final SimulationDriver driver;
+		/** the mind of some humanoid in the world */
+		public final IBeing being;
+		/** the goal of satisfying that humanoid's hunger */
+		public final IGoalConcept goal;
+
+		private World(GameUniverse universe, SimulationDriver driver, IBeing being, IGoalConcept goal) {
+			this.universe = universe;
+			this.driver = driver;
+			this.being = being;
+			this.goal = goal;
+		}
+	}
+
+	/**
+	 * Create the test world with the given number of actors, and run one tick so
+	 * they spawn
+	 *
+	 * @param actors
+	 * @return
+	 */
+	public static World world(int actors) {
+		GameUniverse universe = new GameUniverse(new UUID(0, actors), "bench");
+		Main.createTestWorld(universe, actors, false);
+		SimulationDriver driver = new SimulationDriver(universe, Main.TICK_RATE).setUnthrottled(true);
+		driver.tick();
+		IBeing being = null;
+		for (IActor actor : universe.getMainMap().getActors()) {
+			for (ISpirit spirit : actor.getBody().getAllTetheredSpirits()) {
+				being = spirit;
+				break;
+			}
+			if (being != null)
+				break;
+		}
+		IChannelNeed need = HumanoidKind.FOOD_SYSTEM.getChannelSystemNeeds().iterator().next();
+		NeedConcept needC = new NeedConcept(need);
+		IGoalConcept goal = needC.getRequirements();
+		if (being != null) {
+			// learn the need the same way a need perception thought would, if the first
+			// tick did not already
+			IMindKnowledgeBase knowledge = being.getKnowledge();
+			if (!knowledge.knowsConcept(needC)) {
+				knowledge.learnConcept(IConcept.NECESSITY);
+				knowledge.learnConcept(need);
+				knowledge.learnConcept(needC);
+				knowledge.addConfidentRelation(need, KnowledgeRelationType.C_PERCEPTOR_OF, needC);
+				knowledge.addConfidentRelation(needC, PropertyRelationType.OF_PRINCIPLE, IConcept.NECESSITY);
+			}
+			knowledge.learnConcept(goal);
+		}
+		return new World(universe, driver, being, goal);
+	}
+
+	/**
+	 * Create the test world with the given number of actors, tick it the given
+	 * number of times with actors ticking serially or in parallel, and describe
+	 * the state of every actor (by id). The world is made from a fixed universe
+	 * id, so runs with the same arguments should give the same description.
+	 *
+	 * @param actors
+	 * @param ticks
+	 * @param parallel
+	 * @return
+	 */
+	public static String runSeeded(int actors, int ticks, boolean parallel) {
+		GameUniverse universe = new GameUniverse(new UUID(1, actors), "determinism");
+		Main.createTestWorld(universe, actors, false);
+		universe.getMainMap().setParallelTicking(parallel);
+		new SimulationDriver(universe, Main.TICK_RATE).setUnthrottled(true).runTicks(ticks);
+		List<IActor> all = new ArrayList<>(universe.getMainMap().getActors());
+		all.sort(Comparator.comparing(IActor::getUUID));
+		StringBuilder state = new StringBuilder();
+		for (IActor actor : all) {
+			state.append(actor.getUUID()).append(' ').append(actor.getPosition()).append(' ')
+					.append(actor.velocity()).append(' ').append(actor.mass());
+			if (actor.getBody() != null) {
+				state.append(' ').append(actor.getBody().getAllTetheredSpirits().size());
+			}
+			state.append('\n');
+		}
+		return state.toString();
+	}
+
+	/** A synthetic concept graph in a noosphere */
+	public static class Concepts {
+		public final NoosphereKnowledgeBase base;
+		public final List<IProfile> profiles;
+		public final List<IPropertyConcept> properties;
+		public final List<IProfile> groups;
+
+		private Concepts(NoosphereKnowledgeBase base, List<IProfile> profiles, List<IPropertyConcept> properties,
+				List<IProfile> groups) {
+			this.base = base;
+			this.profiles = profiles;
+			this.properties = properties;
+			this.groups = groups;
+		}
+	}
+
+	/**
+	 * Create a noosphere holding the given number of type profiles, each with a few
+	 * traits out of a pool of properties (about one property per ten profiles),
+	 * with every concept known to one of a few groups, the traits of each profile
+	 * known to its group, and every profile somewhere in the environment (at a
+	 * distance under 100)
+	 *
+	 * @param profileCount
+	 * @return
+	 */
+	public static Concepts concepts(int profileCount) {
+		Random rand = new Random(profileCount);
+		NoosphereKnowledgeBase base = new NoosphereKnowledgeBase();
+		List<IProfile> groups = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			groups.add(new Profile(new UUID(1, i), UniqueType.COLLECTIVE).setIdentifierName("group" + i));
+		}
+		List<IPropertyConcept> properties = new ArrayList<>();
+		for (int i = 0; i < Math.max(4, profileCount / 10); i++) {
+			IPropertyConcept prop = new PropertyConcept("property" + i);
+			properties.add(prop);
+			base.groupLearnConcept(prop, groups.get(i % groups.size()));
+		}
+		IProfile any = IProfile.anyOf(UniqueType.FORM);
+		base.learnConcept(any);
+		List<IProfile> profiles = new ArrayList<>();
+		for (int i = 0; i < profileCount; i++) {
+			IProfile profile = IProfile.typeOf(UniqueType.FORM, new UUID(2, i), "type" + i);
+			profiles.add(profile);
+			IProfile group = groups.get(rand.nextInt(groups.size()));
+			base.groupLearnConcept(profile, group);
+			base.addConfidentRelation(any, ProfileInterrelationType.IS_SUPERTYPE_OF, profile);
+			for (int t = 0; t < 3; t++) {
+				IPropertyConcept trait = properties.get(rand.nextInt(properties.size()));
+				base.addConfidentRelation(profile, PropertyRelationType.HAS_TRAIT, trait);
+				base.groupLearnConcept(trait, group);
+				base.groupAddConfidentRelation(profile, PropertyRelationType.HAS_TRAIT, trait, group);
+			}
+			base.setDistance(profile, (i * 37) % 100);
+		}
+		return new Concepts(base, profiles, properties, groups);
+	}
+
+	/**
+	 * Create a relation graph of the given number of nodes: a binary tree of
+	 * {@link PartConnection#JOINED} edges (so everything is connected), plus
+	 * random {@link PartConnection#HOLDING} edges, about a quarter of them
+	 * weighted
+	 *
+	 * @param nodes
+	 * @param degree average number of extra edges per node
+	 * @return
+	 */
+	public static RelationGraph<Integer, PartConnection> graph(int nodes, int degree) {
+		Random rand = new Random(nodes);
+		RelationGraph<Integer, PartConnection> graph = new RelationGraph<>() {
+			@Override
+			public Pair<Object, Object> checkEdgeEndsPermissible(Object first, IInvertibleRelationType type,
+					Object second) {
+				return Pair.of(null, null);
+			}
+		};
+		for (int n = 0; n < nodes; n++) {
+			graph.add(n);
+		}
+		for (int n = 1; n < nodes; n++) {
+			graph.addEdge(n / 2, PartConnection.JOINED, n);
+		}
+		for (int n = 0; n < nodes; n++) {
+			for (int e = 0; e < degree; e++) {
+				int other = rand.nextInt(nodes);
+				if (other != n && graph.addEdge(n, PartConnection.HOLDING, other) && rand.nextInt(4) == 0) {
+					graph.setProperty(n, PartConnection.HOLDING, other, WEIGHT, rand.nextFloat());
+				}
+			}
+		}
+		return graph;
+	}
+
+}
@@ -66,6 +66,7 @@ public class GameUniverse {
 	private Map<IKind, IKindCollective> kindGroups;
 	private Map<MapTile, IMapData> mapData = new HashMap<>();
 	private String saveFolder;
+	private final Object tickLock = new Object();
 
 	/**
 	 * UUID is to generate the random as well as to save it
@@ -224,30 +225,60 @@ public class GameUniverse {
 		return universeTicks;
 	}
 
+	/**
+	 * Lock held while a tick is being run; anything which reads the world from
+	 * another thread (e.g. rendering) should hold it to see only committed state
+	 * 
+	 * @return
+	 */
+	public Object getTickLock() {
+		return tickLock;
+	}
+
 	/**
 	 * Runs a tick on each world and draws the main game map after
 	 * 
 	 * @param g
 	 */
 	public void tickWorlds(WorldGraphics g) {
+		synchronized (tickLock) {
+			tickWorlds(g.getFps());
+			drawWorlds(g);
+		}
+	}
+
+	/**
+	 * Runs a tick on each group and each loaded world, without rendering anything.
+	 * 
+	 * @param ticksPerSecond the simulated number of ticks per second
+	 */
+	public void tickWorlds(float ticksPerSecond) {
 		for (IParty party : this.partyRelations) {
 			if (party instanceof IGroup group) {
 				group.runTick(this, universeTicks);
 			}
 		}
 		if (mainMap != null) {
-			mainMap.tick(g.getFps());
+			mainMap.tick(ticksPerSecond);
 		}
 		for (GameMap map : this.loadedMaps.values()) {
 			if (map == mainMap) {
 				continue;
 			}
-			map.tick(g.getFps());
+			map.tick(ticksPerSecond);
 		}
+		universeTicks++;
+	}
+
+	/**
+	 * Draws the main game map as of the last completed tick
+	 * 
+	 * @param g
+	 */
+	public void drawWorlds(WorldGraphics g) {
 		if (mainMap != null) {
 			mainMap.draw(g);
 		}
-		universeTicks++;
 	}
 
 	/**
@@ -42,6 +42,7 @@ public enum MapLayer {
 	OTHER;
 
 	private static List<MapLayer> BLOCK_LAYERS;
+	private static final MapLayer[] VALUES = values();
 
 	private int blockLayerOrdinal = -1;
 	private boolean isBlockLayer;
@@ -82,6 +83,24 @@ public enum MapLayer {
 		return blockLayerOrdinal;
 	}
 
+	/**
+	 * Return the layer below this one, or null if this is {@link #LOWEST}
+	 * 
+	 * @return
+	 */
+	public MapLayer below() {
+		return this == LOWEST ? null : VALUES[ordinal() - 1];
+	}
+
+	/**
+	 * Return the layer above this one, or null if this is the highest layer
+	 * 
+	 * @return
+	 */
+	public MapLayer above() {
+		return ordinal() + 1 < VALUES.length ? VALUES[ordinal() + 1] : null;
+	}
+
 	/**
 	 * Return all layers that can have blocks
 	 * 
@@ -22,6 +22,9 @@ import _utilities.graph.IInvertibleRelationType;
 public enum RelativeSide implements IInvertibleRelationType {
 	LEFT, RIGHT(LEFT), TOP, BOTTOM(TOP), FRONT, HIND(FRONT);
 
+	/** the {@link #bit() bits} of all sides together */
+	public static final int ALL_BITS = (1 << values().length) - 1;
+
 	private RelativeSide reverse;
 	private static final List<RelativeSide> horizontals;
 	private static final List<RelativeSide> verticals;
@@ -56,6 +59,15 @@ public enum RelativeSide implements IInvertibleRelationType {
 		return this == LEFT || this == RIGHT || this == FRONT || this == HIND;
 	}
 
+	/**
+	 * Return this side as a bit, for sets of sides kept as bitmasks
+	 * 
+	 * @return
+	 */
+	public int bit() {
+		return 1 << ordinal();
+	}
+
 	/**
 	 * Get the opposite side
 	 * 
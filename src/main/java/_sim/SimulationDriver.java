@@ -0,0 +1,198 @@
+package _sim;
+
+/**
+ * Drives a {@link GameUniverse} (and every {@link _sim.world.GameMap} loaded in
+ * it) independently of any rendering. Ticks are run at a fixed simulated rate
+ * ({@link #getTicksPerSecond()}); in real-time mode the driver sleeps between
+ * ticks to hold that rate, whereas in unthrottled mode it runs ticks back to
+ * back as fast as possible (e.g. for batch runs on headless machines). Each
+ * tick is run while holding {@link GameUniverse#getTickLock()}, so a renderer
+ * that draws under the same lock only ever sees committed state.
+ *
+ * @author borah
+ *
+ */
+public class SimulationDriver implements Runnable {
+
+	/** How long (in ticks) the driver may fall behind before dropping ticks */
+	private static final int MAX_CATCH_UP_TICKS = 10;
+
+	private GameUniverse universe;
+	private float ticksPerSecond;
+	private volatile boolean unthrottled;
+	private volatile boolean running;
+	private volatile long tickLimit = -1;
+	private volatile long ticksRun;
+	private Thread thread;
+
+	/**
+	 * Create a driver for the given universe which simulates the given number of
+	 * ticks per (simulated) second
+	 *
+	 * @param universe
+	 * @param ticksPerSecond
+	 */
+	public SimulationDriver(GameUniverse universe, float ticksPerSecond) {
+		if (ticksPerSecond <= 0) {
+			throw new IllegalArgumentException("Tick rate must be positive: " + ticksPerSecond);
+		}
+		this.universe = universe;
+		this.ticksPerSecond = ticksPerSecond;
+	}
+
+	public GameUniverse getUniverse() {
+		return universe;
+	}
+
+	/**
+	 * The simulated rate of ticks, i.e. what each map is told the length of a tick
+	 * is
+	 *
+	 * @return
+	 */
+	public float getTicksPerSecond() {
+		return ticksPerSecond;
+	}
+
+	/**
+	 * Whether this driver runs ticks as fast as possible rather than in real time
+	 *
+	 * @return
+	 */
+	public boolean isUnthrottled() {
+		return unthrottled;
+	}
+
+	/**
+	 * Set whether this driver runs ticks as fast as possible rather than in real
+	 * time
+	 *
+	 * @param unthrottled
+	 * @return
+	 */
+	public SimulationDriver setUnthrottled(boolean unthrottled) {
+		this.unthrottled = unthrottled;
+		return this;
+	}
+
+	/**
+	 * Set a number of ticks after which a running driver stops by itself; a
+	 * negative number means no limit
+	 *
+	 * @param tickLimit
+	 * @return
+	 */
+	public SimulationDriver setTickLimit(long tickLimit) {
+		this.tickLimit = tickLimit;
+		return this;
+	}
+
+	/**
+	 * Number of ticks this driver has run so far
+	 *
+	 * @return
+	 */
+	public long getTicksRun() {
+		return ticksRun;
+	}
+
+	/**
+	 * Whether this driver is currently running on its own thread
+	 *
+	 * @return
+	 */
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Run a single tick of the universe on the calling thread
+	 */
+	public void tick() {
+		synchronized (universe.getTickLock()) {
+			universe.tickWorlds(ticksPerSecond);
+		}
+		ticksRun++;
+	}
+
+	/**
+	 * Run the given number of ticks on the calling thread as fast as possible,
+	 * returning the time it took in nanoseconds
+	 *
+	 * @param ticks
+	 * @return
+	 */
+	public long runTicks(long ticks) {
+		long start = System.nanoTime();
+		for (long i = 0; i < ticks; i++) {
+			tick();
+		}
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Start running this driver on its own (daemon) thread
+	 */
+	public synchronized void start() {
+		if (running) {
+			throw new IllegalStateException("Simulation driver is already running");
+		}
+		running = true;
+		thread = new Thread(this, "Simulation-" + universe.getUniverseID());
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stop running this driver, waiting for the current tick to finish
+	 */
+	public void stop() {
+		Thread th;
+		synchronized (this) {
+			running = false;
+			th = thread;
+			thread = null;
+		}
+		if (th != null && th != Thread.currentThread()) {
+			try {
+				th.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	public void run() {
+		long tickNanos = (long) (1_000_000_000L / ticksPerSecond);
+		long nextTick = System.nanoTime();
+		while (running) {
+			if (tickLimit >= 0 && ticksRun >= tickLimit) {
+				break;
+			}
+			if (unthrottled) {
+				tick();
+				nextTick = System.nanoTime();
+				continue;
+			}
+			long now = System.nanoTime();
+			if (now < nextTick) {
+				try {
+					long wait = nextTick - now;
+					Thread.sleep(wait / 1_000_000L, (int) (wait % 1_000_000L));
+				} catch (InterruptedException e) {
+					break;
+				}
+				continue;
+			}
+			tick();
+			nextTick += tickNanos;
+			if (System.nanoTime() - nextTick > MAX_CATCH_UP_TICKS * tickNanos) {
+				// too far behind; drop the backlog rather than spiraling
+				nextTick = System.nanoTime();
+			}
+		}
+		running = false;
+	}
+
+}
@@ -39,13 +39,17 @@ public enum Plane implements IPlane {
 	DIVINE;
 
 	private int prime;
+	/** the bit of this plane in a {@link PlaneSet}, or -1 if it has none */
+	private int index;
 
 	private Plane(int p) {
 		this.prime = p;
+		this.index = -1;
 	}
 
 	private Plane() {
 		this.prime = PlaneHelper.nextIndex();
+		this.index = MathUtils.primeIndex(prime);
 	}
 
 	@Override
@@ -58,6 +62,16 @@ public enum Plane implements IPlane {
 		return prime;
 	}
 
+	/**
+	 * The bit of this plane in a {@link PlaneSet}, or -1 for the omniplane and no
+	 * plane
+	 * 
+	 * @return
+	 */
+	public int getIndex() {
+		return index;
+	}
+
 	/**
 	 * Whether this number only contains the planes in the given set and no others.
 	 * Returns false for 0.
@@ -69,20 +83,12 @@ public enum Plane implements IPlane {
 	public static boolean matches(int number, Iterable<Plane> planes) {
 		if (number == 0)
 			return false;
-		int num = number;
+		PlaneSet set = PlaneSet.NONE;
 		for (Plane p : planes) {
-			if (p == OMNIPLANE)
-				continue;
-			boolean is = false;
-			while (num % p.prime == 0) {
-				num /= p.prime;
-				is = true;
-			}
-			if (!is) {
-				return false;
-			}
+			if (p != OMNIPLANE)
+				set = set.union(PlaneSet.of(p));
 		}
-		return num == 1;
+		return PlaneSet.fromPrimes(number).equals(set);
 	}
 
 	/**
@@ -96,7 +102,7 @@ public enum Plane implements IPlane {
 	public static boolean contains(int number, Plane plane) {
 		if (plane == OMNIPLANE)
 			throw new IllegalArgumentException("Does not make sense to check if omniplane is contained in " + number);
-		return number % plane.prime == 0;
+		return PlaneSet.fromPrimes(number).contains(plane);
 	}
 
 	/**
@@ -109,10 +115,11 @@ public enum Plane implements IPlane {
 	public static boolean contains(int number, Iterable<Plane> planes) {
 		if (number == 0)
 			return true;
+		PlaneSet set = PlaneSet.fromPrimes(number);
 		for (Plane p : planes) {
 			if (p == OMNIPLANE)
 				throw new IllegalArgumentException("Why does " + planes + " include the omniplane?");
-			if (number % p.prime != 0) {
+			if (!set.contains(p)) {
 				return false;
 			}
 		}
@@ -132,10 +139,11 @@ public enum Plane implements IPlane {
 			return Collections.singleton(Plane.NO_PLANE);
 
 		Set<Plane> planes = new HashSet<>(values().length);
+		PlaneSet set = PlaneSet.fromPrimes(number);
 		for (Plane p : values()) {
 			if (p == OMNIPLANE || p == NO_PLANE)
 				continue;
-			if (number % p.prime == 0) {
+			if (set.contains(p)) {
 				planes.add(p);
 			}
 		}
@@ -20,16 +20,29 @@ public class PlaneHelper {
 	}
 
 	/**
-	 * check if two composite plane numbers can interact
+	 * check if two composite plane numbers can interact, i.e. whether they share a
+	 * prime; this is for code still using the prime encoding. Each number is
+	 * looked up as a (cached) {@link PlaneSet}, so that the check itself is a
+	 * bitwise and rather than factoring
 	 * 
 	 * @param p1
 	 * @param p2
 	 * @return
 	 */
 	public static boolean canInteract(int p1, int p2) {
-		if (p1 == 0 || p2 == 0)
-			return true;
-		return MathUtils.findFirstPrimeFactor(p1, p2) != 1;
+		return PlaneSet.fromPrimes(p1).intersects(PlaneSet.fromPrimes(p2));
+	}
+
+	/**
+	 * check if two sets of planes can interact; a single bitwise and for sets of
+	 * the first 64 planes
+	 * 
+	 * @param o1
+	 * @param o2
+	 * @return
+	 */
+	public static boolean canInteract(PlaneSet o1, PlaneSet o2) {
+		return o1.intersects(o2);
 	}
 
 	/**
@@ -40,13 +53,7 @@ public class PlaneHelper {
 	 * @return
 	 */
 	public static boolean canInteract(Collection<IPlane> o1, Collection<IPlane> o2) {
-		int p1 = 1;
-		for (IPlane p : o1)
-			p1 *= p.getPrime();
-		int p2 = 1;
-		for (IPlane p : o2)
-			p2 *= p.getPrime();
-		return MathUtils.findFirstPrimeFactor(p1, p2) != 1;
+		return PlaneSet.of(o1).intersects(PlaneSet.of(o2));
 	}
 
 }
@@ -0,0 +1,343 @@
+package _sim.plane;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+import _utilities.MathUtils;
+
+/**
+ * An immutable set of planes stored as bits, where the plane with the
+ * {@link MathUtils#getNthPrime(int) n-th prime} is bit n, so that unions,
+ * intersections and membership are bitwise operations rather than factoring.
+ * Unlike the prime encoding (see {@link Plane}), a plane set is not limited to
+ * as many planes as fit in the product of their primes; parts, visages and
+ * stats store their planes as plane sets, and {@link #toPrimes()} is only for
+ * code still using the prime encoding (e.g.
+ * {@link _sim.IRenderable#visibilityPlanes()}). {@link #ALL}
+ * stands for the {@link Plane#OMNIPLANE omniplane} (encoded as 0) and
+ * {@link #NONE} for {@link Plane#NO_PLANE no plane} (encoded as 1); use
+ * {@link #fromPrimes(int)} and {@link #toPrimes()} to convert from and to the
+ * prime encoding.
+ *
+ * @author borah
+ *
+ */
+public final class PlaneSet {
+
+	private static final long[] NO_WORDS = new long[0];
+
+	/** the omniplane; contains and interacts with every plane */
+	public static final PlaneSet ALL = new PlaneSet(true, NO_WORDS);
+	/** no plane at all */
+	public static final PlaneSet NONE = new PlaneSet(false, NO_WORDS);
+
+	/** plane sets for small prime-encoded numbers, by number */
+	private static final PlaneSet[] SMALL = new PlaneSet[4096];
+	private static final Map<Integer, PlaneSet> LARGE = new ConcurrentHashMap<>();
+
+	private final boolean all;
+	/** the bits of the planes in this set; the last word is never 0 */
+	private final long[] words;
+
+	private PlaneSet(boolean all, long[] words) {
+		this.all = all;
+		this.words = words;
+	}
+
+	private static PlaneSet of(long[] words) {
+		int length = words.length;
+		while (length > 0 && words[length - 1] == 0)
+			length--;
+		if (length == 0)
+			return NONE;
+		return new PlaneSet(false, length == words.length ? words : Arrays.copyOf(words, length));
+	}
+
+	/**
+	 * Return the index of the bit of this plane, or -1 if it has none (i.e. it is
+	 * the omniplane or no plane)
+	 *
+	 * @param plane
+	 * @return
+	 */
+	static int indexOf(IPlane plane) {
+		if (plane instanceof Plane p)
+			return p.getIndex();
+		return MathUtils.primeIndex(plane.getPrime());
+	}
+
+	/**
+	 * Return the set of the given planes; if any is the omniplane, return
+	 * {@link #ALL}
+	 *
+	 * @param planes
+	 * @return
+	 */
+	public static PlaneSet of(IPlane... planes) {
+		return of(Arrays.asList(planes));
+	}
+
+	/**
+	 * See {@link #of(IPlane...)}
+	 *
+	 * @param planes
+	 * @return
+	 */
+	public static PlaneSet of(Iterable<? extends IPlane> planes) {
+		long[] words = NO_WORDS;
+		for (IPlane plane : planes) {
+			if (plane.getPrime() == 0)
+				return ALL;
+			int index = indexOf(plane);
+			if (index < 0)
+				continue;
+			if (index >> 6 >= words.length)
+				words = Arrays.copyOf(words, (index >> 6) + 1);
+			words[index >> 6] |= 1L << index;
+		}
+		return of(words);
+	}
+
+	/**
+	 * Return the set of planes whose primes are the prime factors of this number; 0
+	 * is {@link #ALL} and 1 is {@link #NONE}. Prime factors beyond the known primes
+	 * are ignored. Results are cached, so this is cheap for numbers seen before.
+	 *
+	 * @param number
+	 * @return
+	 */
+	public static PlaneSet fromPrimes(int number) {
+		if (number >= 0 && number < SMALL.length) {
+			PlaneSet set = SMALL[number];
+			if (set == null) {
+				SMALL[number] = set = factor(number);
+			}
+			return set;
+		}
+		return LARGE.computeIfAbsent(number, PlaneSet::factor);
+	}
+
+	private static PlaneSet factor(int number) {
+		if (number == 0)
+			return ALL;
+		int num = Math.abs(number);
+		long[] words = NO_WORDS;
+		for (int i = 0; i < MathUtils.getPrimeCount() && num > 1; i++) {
+			int prime = MathUtils.getNthPrime(i);
+			if (num % prime != 0)
+				continue;
+			while (num % prime == 0)
+				num /= prime;
+			if (i >> 6 >= words.length)
+				words = Arrays.copyOf(words, (i >> 6) + 1);
+			words[i >> 6] |= 1L << i;
+		}
+		return of(words);
+	}
+
+	/**
+	 * Return the product of the primes of the planes in this set (0 for
+	 * {@link #ALL}, 1 for {@link #NONE}), for code which uses the prime encoding.
+	 * Throws an {@link IllegalStateException} if the product is larger than
+	 * {@link Integer#MAX_VALUE}.
+	 *
+	 * @return
+	 */
+	public int toPrimes() {
+		if (all)
+			return 0;
+		int product = 1;
+		for (int w = 0; w < words.length; w++) {
+			for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+				int index = (w << 6) + Long.numberOfTrailingZeros(bits);
+				try {
+					product = Math.multiplyExact(product, MathUtils.getNthPrime(index));
+				} catch (ArithmeticException e) {
+					throw new IllegalStateException(this + " has too many planes to encode as primes", e);
+				}
+			}
+		}
+		return product;
+	}
+
+	/**
+	 * Whether this is {@link #ALL}, the omniplane
+	 *
+	 * @return
+	 */
+	public boolean isAll() {
+		return all;
+	}
+
+	/**
+	 * Whether this set has no planes
+	 *
+	 * @return
+	 */
+	public boolean isEmpty() {
+		return !all && words.length == 0;
+	}
+
+	/**
+	 * Whether this set contains the given plane. Every set contains
+	 * {@link Plane#NO_PLANE}, and {@link #ALL} contains every plane; throws an
+	 * exception if asked about the omniplane.
+	 *
+	 * @param plane
+	 * @return
+	 */
+	public boolean contains(IPlane plane) {
+		if (plane.getPrime() == 0)
+			throw new IllegalArgumentException("Does not make sense to check if omniplane is contained in " + this);
+		if (all)
+			return true;
+		int index = indexOf(plane);
+		if (index < 0)
+			return true;
+		return index >> 6 < words.length && (words[index >> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * Whether this set contains every plane in the other set
+	 *
+	 * @param other
+	 * @return
+	 */
+	public boolean containsAll(PlaneSet other) {
+		if (all)
+			return true;
+		if (other.all || other.words.length > words.length)
+			return false;
+		for (int w = 0; w < other.words.length; w++) {
+			if ((other.words[w] & ~words[w]) != 0)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Whether things on the planes of this set and the other can interact, i.e.
+	 * whether the sets share a plane; {@link #ALL} interacts with everything
+	 *
+	 * @param other
+	 * @return
+	 */
+	public boolean intersects(PlaneSet other) {
+		if (all || other.all)
+			return true;
+		int length = Math.min(words.length, other.words.length);
+		for (int w = 0; w < length; w++) {
+			if ((words[w] & other.words[w]) != 0)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Return the planes in either set
+	 *
+	 * @param other
+	 * @return
+	 */
+	public PlaneSet union(PlaneSet other) {
+		if (all || other.all)
+			return ALL;
+		if (other.words.length > words.length)
+			return other.union(this);
+		if (containsAll(other))
+			return this;
+		if (other.containsAll(this))
+			return other;
+		long[] result = words.clone();
+		for (int w = 0; w < other.words.length; w++) {
+			result[w] |= other.words[w];
+		}
+		return of(result);
+	}
+
+	/**
+	 * Return the planes in both sets
+	 *
+	 * @param other
+	 * @return
+	 */
+	public PlaneSet intersect(PlaneSet other) {
+		if (all)
+			return other;
+		if (other.all)
+			return this;
+		long[] result = Arrays.copyOf(words, Math.min(words.length, other.words.length));
+		for (int w = 0; w < result.length; w++) {
+			result[w] &= other.words[w];
+		}
+		return of(result);
+	}
+
+	/**
+	 * Return the planes in this set but not the other; {@link #ALL} minus anything
+	 * is still {@link #ALL}, and anything minus {@link #ALL} is {@link #NONE}
+	 *
+	 * @param other
+	 * @return
+	 */
+	public PlaneSet difference(PlaneSet other) {
+		if (all)
+			return ALL;
+		if (other.all)
+			return NONE;
+		long[] result = words.clone();
+		for (int w = 0; w < Math.min(result.length, other.words.length); w++) {
+			result[w] &= ~other.words[w];
+		}
+		return of(result);
+	}
+
+	/**
+	 * How many planes this set has (0 for {@link #ALL}, which is not a set of
+	 * specific planes)
+	 *
+	 * @return
+	 */
+	public int size() {
+		int size = 0;
+		for (long word : words) {
+			size += Long.bitCount(word);
+		}
+		return size;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		return obj instanceof PlaneSet other && all == other.all && Arrays.equals(words, other.words);
+	}
+
+	@Override
+	public int hashCode() {
+		return all ? -1 : Arrays.hashCode(words);
+	}
+
+	@Override
+	public String toString() {
+		if (all)
+			return "{" + Plane.OMNIPLANE + "}";
+		StringJoiner joiner = new StringJoiner(",", "{", "}");
+		Plane[] planes = Plane.values();
+		for (int w = 0; w < words.length; w++) {
+			for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+				int index = (w << 6) + Long.numberOfTrailingZeros(bits);
+				String name = "plane" + MathUtils.getNthPrime(index);
+				for (Plane plane : planes) {
+					if (plane.getIndex() == index)
+						name = plane.name();
+				}
+				joiner.add(name);
+			}
+		}
+		return joiner.toString();
+	}
+
+}
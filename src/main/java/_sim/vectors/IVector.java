@@ -327,7 +327,7 @@ public interface IVector {
 			return null;
 		}
 
-		return this.withLayer(MapLayer.values()[getLayer().ordinal() - 1]);
+		return this.withLayer(getLayer().below());
 	}
 
 	/**
@@ -340,7 +340,7 @@ public interface IVector {
 			return null;
 		}
 
-		return this.withLayer(MapLayer.values()[getLayer().ordinal() + 1]);
+		return this.withLayer(getLayer().above());
 	}
 
 	/**
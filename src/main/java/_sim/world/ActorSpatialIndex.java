@@ -0,0 +1,300 @@
+package _sim.world;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import _sim.MapLayer;
+import _sim.vectors.IVector;
+import things.actor.IActor;
+
+/**
+ * A uniform grid over a map, one grid per {@link MapLayer} (plus one for actors
+ * with no layer), bucketing actors by the cell their position is in. Positions
+ * are stored as of the last time an actor was {@linkplain #update(IActor)
+ * updated}, so queries see the last committed position of each actor rather
+ * than whatever it is in the middle of a tick. Positions outside the map are
+ * clamped into the edge cells.
+ *
+ * @author borah
+ *
+ */
+public class ActorSpatialIndex {
+
+	/** index of the grid for actors without a layer */
+	private static final int NO_LAYER = MapLayer.values().length;
+
+	private final int cols;
+	private final int rows;
+	private final double cellSize;
+	/** layer-major, then row-major buckets; created lazily */
+	private final List<Entry>[] cells;
+	private final Map<IActor, Entry> entries = new HashMap<>();
+
+	/**
+	 * Create an index covering a map of the given width and height (in blocks),
+	 * with each cell being the given size
+	 *
+	 * @param width
+	 * @param height
+	 * @param cellSize
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public ActorSpatialIndex(int width, int height, double cellSize) {
+		if (cellSize <= 0) {
+			throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+		}
+		this.cellSize = cellSize;
+		this.cols = Math.max(1, (int) Math.ceil(width / cellSize));
+		this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+		this.cells = new List[(NO_LAYER + 1) * cols * rows];
+	}
+
+	/** Number of actors in this index */
+	public int size() {
+		return entries.size();
+	}
+
+	/** Whether this actor is in the index */
+	public boolean contains(IActor actor) {
+		return entries.containsKey(actor);
+	}
+
+	private static int layerIndex(MapLayer layer) {
+		return layer == null ? NO_LAYER : layer.ordinal();
+	}
+
+	private int col(double x) {
+		return Math.min(cols - 1, Math.max(0, (int) Math.floor(x / cellSize)));
+	}
+
+	private int row(double y) {
+		return Math.min(rows - 1, Math.max(0, (int) Math.floor(y / cellSize)));
+	}
+
+	private int index(int layer, int col, int row) {
+		return layer * cols * rows + row * cols + col;
+	}
+
+	/**
+	 * Add this actor at its current position, or move it there if it is already in
+	 * the index
+	 *
+	 * @param actor
+	 */
+	public void update(IActor actor) {
+		double x = actor.getPositionX();
+		double y = actor.getPositionY();
+		int layer = layerIndex(actor.getLayer());
+		int cell = index(layer, col(x), row(y));
+		Entry entry = entries.get(actor);
+		if (entry == null) {
+			entry = new Entry(actor);
+			entries.put(actor, entry);
+		} else if (entry.cell != cell) {
+			unlink(entry);
+		}
+		entry.x = x;
+		entry.y = y;
+		if (entry.cell != cell) {
+			link(entry, cell);
+		}
+	}
+
+	/**
+	 * Remove this actor from the index
+	 *
+	 * @param actor
+	 */
+	public void remove(IActor actor) {
+		Entry entry = entries.remove(actor);
+		if (entry != null) {
+			unlink(entry);
+		}
+	}
+
+	/** Remove every actor from the index */
+	public void clear() {
+		entries.clear();
+		for (int i = 0; i < cells.length; i++) {
+			cells[i] = null;
+		}
+	}
+
+	private void link(Entry entry, int cell) {
+		List<Entry> bucket = cells[cell];
+		if (bucket == null) {
+			bucket = cells[cell] = new ArrayList<>(4);
+		}
+		entry.cell = cell;
+		entry.slot = bucket.size();
+		bucket.add(entry);
+	}
+
+	private void unlink(Entry entry) {
+		List<Entry> bucket = cells[entry.cell];
+		Entry last = bucket.remove(bucket.size() - 1);
+		if (last != entry) {
+			bucket.set(entry.slot, last);
+			last.slot = entry.slot;
+		}
+		entry.cell = -1;
+	}
+
+	/**
+	 * Return all actors within the given radius of the center, on the given layer
+	 * (or on all layers if the layer is null)
+	 *
+	 * @param center
+	 * @param radius
+	 * @param layer
+	 * @return
+	 */
+	public List<IActor> withinRadius(IVector center, double radius, MapLayer layer) {
+		double cx = center.getUnadjustedX();
+		double cy = center.getUnadjustedY();
+		double r2 = radius * radius;
+		List<IActor> found = new ArrayList<>();
+		int minC = col(cx - radius), maxC = col(cx + radius);
+		int minR = row(cy - radius), maxR = row(cy + radius);
+		for (int l = 0; l <= NO_LAYER; l++) {
+			if (layer != null && l != layer.ordinal()) {
+				continue;
+			}
+			for (int r = minR; r <= maxR; r++) {
+				for (int c = minC; c <= maxC; c++) {
+					List<Entry> bucket = cells[index(l, c, r)];
+					if (bucket == null)
+						continue;
+					for (int i = 0; i < bucket.size(); i++) {
+						Entry e = bucket.get(i);
+						double dx = e.x - cx, dy = e.y - cy;
+						if (dx * dx + dy * dy <= r2) {
+							found.add(e.actor);
+						}
+					}
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Return all actors in the rectangle between the given corners (inclusive), on
+	 * the given layer (or on all layers if the layer is null)
+	 *
+	 * @return
+	 */
+	public List<IActor> withinRectangle(double minX, double minY, double maxX, double maxY, MapLayer layer) {
+		List<IActor> found = new ArrayList<>();
+		int minC = col(minX), maxC = col(maxX);
+		int minR = row(minY), maxR = row(maxY);
+		for (int l = 0; l <= NO_LAYER; l++) {
+			if (layer != null && l != layer.ordinal()) {
+				continue;
+			}
+			for (int r = minR; r <= maxR; r++) {
+				for (int c = minC; c <= maxC; c++) {
+					List<Entry> bucket = cells[index(l, c, r)];
+					if (bucket == null)
+						continue;
+					for (int i = 0; i < bucket.size(); i++) {
+						Entry e = bucket.get(i);
+						if (e.x >= minX && e.x <= maxX && e.y >= minY && e.y <= maxY) {
+							found.add(e.actor);
+						}
+					}
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Return the (at most) k actors nearest to the center, closest first, on the
+	 * given layer (or on all layers if the layer is null). Searches outward ring by
+	 * ring of cells, stopping once no unsearched cell can hold anything closer.
+	 *
+	 * @param center
+	 * @param k
+	 * @param layer
+	 * @return
+	 */
+	public List<IActor> nearest(IVector center, int k, MapLayer layer) {
+		if (k <= 0 || entries.isEmpty()) {
+			return Collections.emptyList();
+		}
+		double cx = center.getUnadjustedX();
+		double cy = center.getUnadjustedY();
+		int cc = col(cx), cr = row(cy);
+		// max-heap on distance, so the farthest of the best k is on top
+		PriorityQueue<double[]> best = new PriorityQueue<>(k + 1, (a, b) -> Double.compare(b[0], a[0]));
+		List<Entry> found = new ArrayList<>();
+		int maxRing = Math.max(Math.max(cc, cols - 1 - cc), Math.max(cr, rows - 1 - cr));
+		// the ring bound only holds if the center is not itself clamped into the grid
+		boolean inGrid = cx >= 0 && cy >= 0 && cx < cols * cellSize && cy < rows * cellSize;
+		for (int ring = 0; ring <= maxRing; ring++) {
+			if (inGrid && best.size() >= k) {
+				// nearest any point of this ring can be to the center
+				double reach = (ring - 1) * cellSize;
+				if (reach > 0 && reach * reach > best.peek()[0]) {
+					break;
+				}
+			}
+			for (int r = cr - ring; r <= cr + ring; r++) {
+				if (r < 0 || r >= rows)
+					continue;
+				boolean edgeRow = r == cr - ring || r == cr + ring;
+				for (int c = cc - ring; c <= cc + ring; c += (edgeRow ? 1 : 2 * ring)) {
+					if (c >= 0 && c < cols) {
+						for (int l = 0; l <= NO_LAYER; l++) {
+							if (layer != null && l != layer.ordinal()) {
+								continue;
+							}
+							List<Entry> bucket = cells[index(l, c, r)];
+							if (bucket == null)
+								continue;
+							for (int i = 0; i < bucket.size(); i++) {
+								Entry e = bucket.get(i);
+								double dx = e.x - cx, dy = e.y - cy;
+								double d2 = dx * dx + dy * dy;
+								if (best.size() < k || d2 < best.peek()[0]) {
+									best.add(new double[] { d2, found.size() });
+									found.add(e);
+									if (best.size() > k) {
+										best.poll();
+									}
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+		double[][] sorted = best.toArray(new double[best.size()][]);
+		Arrays.sort(sorted, (a, b) -> Double.compare(a[0], b[0]));
+		List<IActor> result = new ArrayList<>(sorted.length);
+		for (double[] d : sorted) {
+			result.add(found.get((int) d[1]).actor);
+		}
+		return result;
+	}
+
+	/** The position of an actor as of the last update, in one cell of a grid */
+	private static class Entry {
+		private final IActor actor;
+		private double x;
+		private double y;
+		private int cell = -1;
+		private int slot;
+
+		private Entry(IActor actor) {
+			this.actor = actor;
+		}
+	}
+
+}
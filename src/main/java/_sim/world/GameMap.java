@@ -8,12 +8,15 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.IntStream;
 
 import _graphics.IRenderable;
 import _graphics.WorldGraphics;
 import _sim.GameUniverse;
+import _sim.MapLayer;
 import _sim.dimension.DimensionBuilder;
 import _sim.vectors.IVector;
 import _utilities.collections.ImmutableCollection;
@@ -60,6 +63,12 @@ public class GameMap implements IRenderable {
 	private Map<UUID, IBeing> untetheredBeings = Collections.synchronizedMap(new HashMap<>());
 	private long ticks = 0;
 	private List<Runnable> nextTicksQueue = Collections.synchronizedList(new ArrayList<>());
+	/** positions of actors, as of the end of the last tick */
+	private ActorSpatialIndex actorIndex = new ActorSpatialIndex(mapWidth, mapHeight, 1);
+	/** whether actors are ticked in parallel rather than one after another */
+	private boolean parallelTicking;
+	/** the actor being ticked on the current thread, if any */
+	private final ThreadLocal<ActorTickContext> actorTickContext = new ThreadLocal<>();
 
 	public GameMap(MapTile tile, GameUniverse universe, DimensionBuilder builder) {
 		this.mapTile = tile;
@@ -89,6 +98,54 @@ public class GameMap implements IRenderable {
 		return actorsById.get(act);
 	}
 
+	/**
+	 * Return all actors within the given distance of the given location, on the
+	 * given layer (or any layer if null). Uses actor positions as of the end of the
+	 * last tick (or when they were last moved outside a tick).
+	 */
+	public List<IActor> getActorsWithin(IVector center, double radius, MapLayer layer) {
+		synchronized (actorsById) {
+			return actorIndex.withinRadius(center, radius, layer);
+		}
+	}
+
+	/**
+	 * Return all actors in the given rectangle (corners inclusive), on the given
+	 * layer (or any layer if null)
+	 */
+	public List<IActor> getActorsInRectangle(double minX, double minY, double maxX, double maxY, MapLayer layer) {
+		synchronized (actorsById) {
+			return actorIndex.withinRectangle(minX, minY, maxX, maxY, layer);
+		}
+	}
+
+	/**
+	 * Return the (at most) k actors nearest the given location, nearest first, on
+	 * the given layer (or any layer if null)
+	 */
+	public List<IActor> getNearestActors(IVector center, int k, MapLayer layer) {
+		synchronized (actorsById) {
+			return actorIndex.nearest(center, k, layer);
+		}
+	}
+
+	/**
+	 * Called by actors when their position changes, to keep the spatial index up to
+	 * date; if the actor is in the middle of its tick, the change is committed
+	 * after all actors have ticked
+	 */
+	public void onActorMoved(IActor actor) {
+		ActorTickContext context = actorTickContext.get();
+		if (context != null && context.map == this && context.actor == actor) {
+			return;
+		}
+		synchronized (actorsById) {
+			if (actorsById.get(actor.getUUID()) == actor) {
+				actorIndex.update(actor);
+			}
+		}
+	}
+
 	/** Returns an untethered being by its id */
 	public IBeing getUntetheredByUUID(UUID being) {
 		return untetheredBeings.get(being);
@@ -101,12 +158,65 @@ public class GameMap implements IRenderable {
 
 	/**
 	 * Queue a process to run the next tick. Use this whenever you need to
-	 * synchronize stuff.
+	 * synchronize stuff. Actions queued while an actor is ticking are buffered and
+	 * committed in actor order once all actors have ticked, so the order they run
+	 * in does not depend on how the actor ticks were scheduled.
 	 * 
 	 * @param action
 	 */
 	public void queueAction(Runnable action) {
-		this.nextTicksQueue.add(action);
+		ActorTickContext context = actorTickContext.get();
+		if (context != null && context.map == this) {
+			context.queued.add(action);
+		} else {
+			this.nextTicksQueue.add(action);
+		}
+	}
+
+	/**
+	 * Run the tick of a spirit (its perception, will and memory). Spirits read and
+	 * change knowledge shared with other beings (e.g. the noosphere and its
+	 * indices), which is not safe to touch from several threads at once; so while
+	 * an actor of this map is ticking, the spirit tick is put off until every
+	 * actor's body has ticked, and then the spirit ticks of all actors are run one
+	 * after another in actor order. This is done whether or not actors tick in
+	 * parallel, so both modes give the same results.
+	 * 
+	 * @param spiritTick
+	 */
+	public void runSpiritTick(Runnable spiritTick) {
+		ActorTickContext context = actorTickContext.get();
+		if (context != null && context.map == this) {
+			context.spiritTicks.add(spiritTick);
+		} else {
+			spiritTick.run();
+		}
+	}
+
+	/**
+	 * Whether actors on this map are ticked in parallel
+	 * 
+	 * @return
+	 */
+	public boolean isParallelTicking() {
+		return parallelTicking;
+	}
+
+	/**
+	 * Set whether actors on this map are ticked in parallel (on the common
+	 * ForkJoin pool). Only the bodies (physics, channels, materials) of actors are
+	 * ticked in parallel; spirit ticks always run one after another (see
+	 * {@link #runSpiritTick(Runnable)}). Body ticks must only change state
+	 * belonging to that actor, and anything touching other actors or the map must
+	 * go through {@link #queueAction(Runnable)}; the results of a tick are the
+	 * same in both modes.
+	 * 
+	 * @param parallelTicking
+	 * @return
+	 */
+	public GameMap setParallelTicking(boolean parallelTicking) {
+		this.parallelTicking = parallelTicking;
+		return this;
 	}
 
 	/**
@@ -137,22 +247,96 @@ public class GameMap implements IRenderable {
 
 		}
 		this.actorsTicking = true;
+		List<IActor> actors;
 		synchronized (actorsById) {
-			Set<IActor> mustRemove = new HashSet<>();
-			for (IActor actor : actorsById.values()) {
-				actor.tick(ticks, ticksPerSecond);
-				if (actor.needsToBeRemoved())
-					mustRemove.add(actor);
+			actors = new ArrayList<>(actorsById.values());
+		}
+		ActorTickContext[] contexts = new ActorTickContext[actors.size()];
+		if (parallelTicking && actors.size() > 1) {
+			IntStream.range(0, contexts.length).parallel()
+					.forEach((i) -> contexts[i] = tickActor(actors.get(i), ticksPerSecond));
+		} else {
+			for (int i = 0; i < contexts.length; i++) {
+				contexts[i] = tickActor(actors.get(i), ticksPerSecond);
 			}
-			for (IActor remover : mustRemove) {
-				remover.onRemoveFromMap(this);
-				actorsById.remove(remover.getUUID(), remover);
+		}
+		// spirit phase: run the spirit ticks put off during body ticks, in actor order
+		for (ActorTickContext context : contexts) {
+			if (!context.spiritTicks.isEmpty()) {
+				runInContext(context, () -> context.spiritTicks.forEach(Runnable::run));
+			}
+		}
+		// commit phase: replay buffered actions and removals in actor order
+		synchronized (actorsById) {
+			for (ActorTickContext context : contexts) {
+				if (!context.queued.isEmpty()) {
+					this.nextTicksQueue.addAll(context.queued);
+				}
+				if (context.actor.needsToBeRemoved()) {
+					context.actor.onRemoveFromMap(this);
+					actorsById.remove(context.actor.getUUID(), context.actor);
+					actorIndex.remove(context.actor);
+				} else if (actorIndex.contains(context.actor)) {
+					actorIndex.update(context.actor);
+				}
 			}
 		}
 		this.actorsTicking = false;
 
 	}
 
+	/**
+	 * Tick a single actor with its own context, so that whatever it queues or
+	 * draws at random is independent of what other actors are doing
+	 */
+	private ActorTickContext tickActor(IActor actor, float ticksPerSecond) {
+		ActorTickContext context = new ActorTickContext(this, actor);
+		runInContext(context, () -> actor.tick(ticks, ticksPerSecond));
+		return context;
+	}
+
+	/**
+	 * Run something on the current thread as part of the tick of the given
+	 * context's actor
+	 */
+	private void runInContext(ActorTickContext context, Runnable run) {
+		ActorTickContext prior = actorTickContext.get();
+		actorTickContext.set(context);
+		try {
+			run.run();
+		} finally {
+			actorTickContext.set(prior);
+		}
+	}
+
+	/**
+	 * The state of a single actor's tick; holds the actions it queued, the spirit
+	 * ticks put off until all bodies have ticked, and the random stream it uses
+	 */
+	private static class ActorTickContext {
+		private final GameMap map;
+		private final IActor actor;
+		private final List<Runnable> queued = new ArrayList<>(0);
+		private final List<Runnable> spiritTicks = new ArrayList<>(0);
+		private Random random;
+
+		private ActorTickContext(GameMap map, IActor actor) {
+			this.map = map;
+			this.actor = actor;
+		}
+
+		private Random random() {
+			if (random == null) {
+				long seed = map.universe.getUniverseID().getMostSignificantBits();
+				seed = seed * 31 + map.universe.getUniverseTicks();
+				seed = seed * 31 + actor.getUUID().getMostSignificantBits();
+				seed = seed * 31 + actor.getUUID().getLeastSignificantBits();
+				random = new Random(seed);
+			}
+			return random;
+		}
+	}
+
 	@Override
 	public int visibilityPlanes() {
 		return 0;
@@ -167,6 +351,9 @@ public class GameMap implements IRenderable {
 	public void spawnIntoWorld(IActor actor) {
 		this.actorsById.put(actor.getUUID(), actor);
 		actor.onSpawnIntoMap(this);
+		synchronized (actorsById) {
+			this.actorIndex.update(actor);
+		}
 
 	}
 
@@ -179,6 +366,9 @@ public class GameMap implements IRenderable {
 	public void load(IActor actor) {
 		this.actorsById.put(actor.getUUID(), actor);
 		actor.onLoad(this);
+		synchronized (actorsById) {
+			this.actorIndex.update(actor);
+		}
 
 	}
 
@@ -216,7 +406,10 @@ public class GameMap implements IRenderable {
 	 */
 	public void removeFromWorld(IActor actor) {
 		actor.onRemoveFromMap(this);
-		this.actorsById.remove(actor.getUUID());
+		synchronized (actorsById) {
+			this.actorsById.remove(actor.getUUID());
+			this.actorIndex.remove(actor);
+		}
 
 	}
 
@@ -236,7 +429,10 @@ public class GameMap implements IRenderable {
 		}
 		// TODO check persistency of actor
 		actor.onUnload(this);
-		this.actorsById.remove(actor.getUUID());
+		synchronized (actorsById) {
+			this.actorsById.remove(actor.getUUID());
+			this.actorIndex.remove(actor);
+		}
 
 	}
 
@@ -316,14 +512,33 @@ public class GameMap implements IRenderable {
 	}
 
 	/**
-	 * Return a random float
+	 * Return a random float. While an actor is ticking, this is drawn from a
+	 * stream particular to that actor and tick (seeded from the universe), so
+	 * results do not depend on the order actors are ticked in.
 	 * 
 	 * @return
 	 */
 	public float random() {
+		ActorTickContext context = actorTickContext.get();
+		if (context != null && context.map == this) {
+			return context.random().nextFloat();
+		}
 		return universe.random();
 	}
 
+	/**
+	 * Return a new random id, drawn the same way as {@link #random()}, so that
+	 * things made during a tick (e.g. actors broken off other actors) get the same
+	 * ids however the tick is run
+	 * 
+	 * @return
+	 */
+	public UUID randomUUID() {
+		ActorTickContext context = actorTickContext.get();
+		Random random = context != null && context.map == this ? context.random() : universe.rand();
+		return new UUID(random.nextLong(), random.nextLong());
+	}
+
 	/** Called when the map is loded for the first tim */
 	public void onFirstLoad(IMapData dat) {
 		for (IKind kind : this.universe.getEntityKinds()) {
@@ -342,7 +557,7 @@ public class GameMap implements IRenderable {
 								IBeing bing = kind.generateBeing(sets);
 								this.untetheredBeings.put(bing.getUUID(), bing);
 							} else {
-								UUID id1 = UUID.randomUUID();
+								UUID id1 = this.randomUUID();
 								Actor actor = new Actor(id1, kind.name() + i);
 								actor.setKind(kind);
 								actor.makeBody(sets, true, this);
@@ -463,8 +678,11 @@ public class GameMap implements IRenderable {
 	}
 
 	public boolean outOfBounds(IVector location) {
-		return location.getX() < 0 || location.getY() < 0 || location.getX() >= this.mapWidth
-				|| location.getY() >= this.mapHeight;
+		return outOfBounds(location.getX(), location.getY());
+	}
+
+	public boolean outOfBounds(int x, int y) {
+		return x < 0 || y < 0 || x >= this.mapWidth || y >= this.mapHeight;
 	}
 
 }
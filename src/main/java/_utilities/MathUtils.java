@@ -1,6 +1,7 @@
 package _utilities;
 
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Scanner;
 import java.util.Set;
 import java.util.TreeSet;
@@ -73,6 +74,27 @@ public final class MathUtils {
 		return primes[index % primes.length];
 	}
 
+	/**
+	 * How many primes are loaded
+	 * 
+	 * @return
+	 */
+	public static int getPrimeCount() {
+		return primes.length;
+	}
+
+	/**
+	 * Return n such that this is the nth prime number (see
+	 * {@link #getNthPrime(int)}), or -1 if it is not one of the loaded primes
+	 * 
+	 * @param prime
+	 * @return
+	 */
+	public static int primeIndex(int prime) {
+		int index = Arrays.binarySearch(primes, prime);
+		return index < 0 ? -1 : index;
+	}
+
 	/**
 	 * Stream all primes loaded
 	 * 
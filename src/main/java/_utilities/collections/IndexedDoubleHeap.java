@@ -0,0 +1,183 @@
+package _utilities.collections;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap of int ids (0 to some capacity), each with a double key,
+ * which supports decreasing the key of an id already in the heap. Keys and
+ * positions are kept in primitive arrays indexed by id, so nothing is boxed;
+ * the arrays grow as larger ids are inserted.
+ *
+ * @author borah
+ *
+ */
+public class IndexedDoubleHeap {
+
+	/** heap-ordered array of ids */
+	private int[] heap;
+	/** position of each id in the heap, or -1 if absent */
+	private int[] positions;
+	/** key of each id */
+	private double[] keys;
+	private int size;
+
+	public IndexedDoubleHeap() {
+		this(16);
+	}
+
+	public IndexedDoubleHeap(int capacity) {
+		capacity = Math.max(1, capacity);
+		this.heap = new int[capacity];
+		this.positions = new int[capacity];
+		this.keys = new double[capacity];
+		Arrays.fill(positions, -1);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/** Whether the given id is currently in the heap */
+	public boolean contains(int id) {
+		return id >= 0 && id < positions.length && positions[id] >= 0;
+	}
+
+	/** The key of an id in the heap */
+	public double getKey(int id) {
+		if (!contains(id)) {
+			throw new NoSuchElementException("" + id);
+		}
+		return keys[id];
+	}
+
+	/** The id with the smallest key, without removing it */
+	public int peek() {
+		if (size == 0) {
+			throw new NoSuchElementException();
+		}
+		return heap[0];
+	}
+
+	/** The smallest key in the heap */
+	public double peekKey() {
+		return keys[peek()];
+	}
+
+	/**
+	 * Insert the id with the given key, or lower its key if it is already present
+	 * with a greater one. Return true if the heap changed.
+	 *
+	 * @param id
+	 * @param key
+	 * @return
+	 */
+	public boolean offer(int id, double key) {
+		if (id < 0) {
+			throw new IllegalArgumentException("" + id);
+		}
+		ensureCapacity(id + 1);
+		if (positions[id] >= 0) {
+			if (key >= keys[id]) {
+				return false;
+			}
+			keys[id] = key;
+			siftUp(positions[id]);
+			return true;
+		}
+		if (size == heap.length) {
+			heap = Arrays.copyOf(heap, heap.length * 2);
+		}
+		keys[id] = key;
+		heap[size] = id;
+		positions[id] = size;
+		siftUp(size++);
+		return true;
+	}
+
+	/** Remove and return the id with the smallest key */
+	public int poll() {
+		int top = peek();
+		int last = heap[--size];
+		positions[top] = -1;
+		if (size > 0) {
+			heap[0] = last;
+			positions[last] = 0;
+			siftDown(0);
+		}
+		return top;
+	}
+
+	/** Remove all ids */
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			positions[heap[i]] = -1;
+		}
+		size = 0;
+	}
+
+	private void ensureCapacity(int ids) {
+		if (ids > positions.length) {
+			int old = positions.length;
+			int cap = Math.max(ids, old * 2);
+			positions = Arrays.copyOf(positions, cap);
+			Arrays.fill(positions, old, cap, -1);
+			keys = Arrays.copyOf(keys, cap);
+		}
+	}
+
+	private void siftUp(int pos) {
+		int id = heap[pos];
+		double key = keys[id];
+		while (pos > 0) {
+			int parent = (pos - 1) >>> 1;
+			int pid = heap[parent];
+			if (keys[pid] <= key) {
+				break;
+			}
+			heap[pos] = pid;
+			positions[pid] = pos;
+			pos = parent;
+		}
+		heap[pos] = id;
+		positions[id] = pos;
+	}
+
+	private void siftDown(int pos) {
+		int id = heap[pos];
+		double key = keys[id];
+		int half = size >>> 1;
+		while (pos < half) {
+			int child = 2 * pos + 1;
+			int right = child + 1;
+			if (right < size && keys[heap[right]] < keys[heap[child]]) {
+				child = right;
+			}
+			int cid = heap[child];
+			if (key <= keys[cid]) {
+				break;
+			}
+			heap[pos] = cid;
+			positions[cid] = pos;
+			pos = child;
+		}
+		heap[pos] = id;
+		positions[id] = pos;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("{");
+		for (int i = 0; i < size; i++) {
+			builder.append(heap[i]).append('=').append(keys[heap[i]]);
+			if (i < size - 1)
+				builder.append(", ");
+		}
+		return builder.append('}').toString();
+	}
+
+}
@@ -15,9 +15,6 @@ public class Triplet<A, B, C> implements Table.Cell<A, B, C> {
 	private A first;
 	private B second;
 	private C third;
-	private String firstLabel;
-	private String secondLabel;
-	private String thirdLabel;
 
 	private static final Triplet EMPTY = new Triplet(null, null, null);
 
@@ -29,16 +26,16 @@ public class Triplet<A, B, C> implements Table.Cell<A, B, C> {
 	}
 
 	public static final <A, B, C> Triplet<A, B, C> of(String al, A first, String bl, B second, String cl, C third) {
-		return new Triplet<>(al, first, bl, second, cl, third);
+		return new Labeled<>(al, first, bl, second, cl, third);
 	}
 
-	private Triplet(String al, A first, String bl, B second, String cl, C third) {
-		this.first = first;
-		this.firstLabel = al;
-		this.second = second;
-		this.secondLabel = bl;
-		this.third = third;
-		this.thirdLabel = cl;
+	/**
+	 * Return a new triplet of nulls (never the shared empty triplet), to be reused
+	 * as a cursor by setting its items, e.g. when checking many edges of a graph
+	 * against a predicate of triplets
+	 */
+	public static final <A, B, C> Triplet<A, B, C> cursor() {
+		return new Triplet<>(null, null, null);
 	}
 
 	private Triplet(A first, B second, C third) {
@@ -57,8 +54,9 @@ public class Triplet<A, B, C> implements Table.Cell<A, B, C> {
 		return first;
 	}
 
+	/** Label of the first item, or null if this triplet has no labels */
 	public String getFirstLabel() {
-		return firstLabel;
+		return null;
 	}
 
 	/** Alias of {@link #getFirst()} to represent a directional triplet */
@@ -106,8 +104,9 @@ public class Triplet<A, B, C> implements Table.Cell<A, B, C> {
 		return second;
 	}
 
+	/** Label of the second item, or null if this triplet has no labels */
 	public String getSecondLabel() {
-		return secondLabel;
+		return null;
 	}
 
 	/** Third item in this triplet */
@@ -115,8 +114,9 @@ public class Triplet<A, B, C> implements Table.Cell<A, B, C> {
 		return third;
 	}
 
+	/** Label of the third item, or null if this triplet has no labels */
 	public String getThirdLabel() {
-		return thirdLabel;
+		return null;
 	}
 
 	public void setFirst(A first) {
@@ -133,9 +133,7 @@ public class Triplet<A, B, C> implements Table.Cell<A, B, C> {
 
 	@Override
 	public String toString() {
-		return "<" + (firstLabel != null ? firstLabel + "=" : "") + first + ","
-				+ (secondLabel != null ? secondLabel + "=" : "") + second + ","
-				+ (thirdLabel != null ? thirdLabel + "=" : "") + third + ">";
+		return "<" + first + "," + second + "," + third + ">";
 	}
 
 	@Override
@@ -195,4 +193,48 @@ public class Triplet<A, B, C> implements Table.Cell<A, B, C> {
 		}
 	}
 
+	/**
+	 * A triplet whose items have labels; kept apart so that the triplets made in
+	 * bulk (e.g. the edges of graphs) do not carry three unused label fields
+	 * 
+	 * @author borah
+	 *
+	 */
+	private static final class Labeled<A, B, C> extends Triplet<A, B, C> {
+
+		private final String firstLabel;
+		private final String secondLabel;
+		private final String thirdLabel;
+
+		private Labeled(String al, A first, String bl, B second, String cl, C third) {
+			super(first, second, third);
+			this.firstLabel = al;
+			this.secondLabel = bl;
+			this.thirdLabel = cl;
+		}
+
+		@Override
+		public String getFirstLabel() {
+			return firstLabel;
+		}
+
+		@Override
+		public String getSecondLabel() {
+			return secondLabel;
+		}
+
+		@Override
+		public String getThirdLabel() {
+			return thirdLabel;
+		}
+
+		@Override
+		public String toString() {
+			return "<" + (firstLabel != null ? firstLabel + "=" : "") + getFirst() + ","
+					+ (secondLabel != null ? secondLabel + "=" : "") + getSecond() + ","
+					+ (thirdLabel != null ? thirdLabel + "=" : "") + getThird() + ">";
+		}
+
+	}
+
 }
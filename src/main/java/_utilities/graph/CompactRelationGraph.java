@@ -0,0 +1,2476 @@
+package _utilities.graph;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+
+import _utilities.MathUtils;
+import _utilities.collections.ImmutableSetView;
+import _utilities.couplets.Pair;
+import _utilities.couplets.Triplet;
+import _utilities.property.IProperty;
+
+/**
+ * A relation graph which gives each node a dense int id instead of a node
+ * object. The edges of each node are kept in a single growable int array of
+ * (relation type, other node, edge id) entries, and edge properties are kept
+ * in one column per {@link IProperty}, indexed by edge id; columns for
+ * boolean, int, float and double properties are primitive arrays. An edge and
+ * its inverse share an id, and so share their properties. This takes a small
+ * fraction of the memory of a {@link RelationGraph}, at the cost of finding a
+ * particular edge by scanning the edges of its start node, so it suits graphs
+ * with many nodes of modest degree. As with a {@link RelationGraph}, subclasses
+ * can keep their own indices of nodes through {@link #onNodeAdded} and
+ * {@link #onNodeRemoved}.
+ *
+ * @author borah
+ *
+ * @param <E>
+ * @param <R>
+ */
+public class CompactRelationGraph<E, R extends IInvertibleRelationType> extends AbstractSet<E>
+		implements IModifiableRelationGraph<E, R>, Cloneable {
+
+	private static final int NONE = -1;
+	/** ints per entry of an adjacency array: type, other node, edge */
+	private static final int STRIDE = 3;
+	private static final int TOO_LONG_LINE = 150;
+
+	protected Map<IProperty<?>, Supplier<Object>> edgeProperties;
+
+	private Map<E, Integer> ids = new HashMap<>();
+	private Object[] values = new Object[8];
+	private int[][] adjacency = new int[8][];
+	/** number of ints used in each adjacency array */
+	private int[] adjacencySizes = new int[8];
+	private int[] freeNodeIds = new int[0];
+	private int freeNodeIdCount;
+	private int nextNodeId;
+
+	private Map<R, Integer> typeIds = new HashMap<>();
+	private Object[] types = new Object[4];
+	private int[] inverseTypes = new int[4];
+	/** number of edges whose forward type is each type */
+	private int[] typeEdgeCounts = new int[4];
+	private int typeCount;
+
+	private int[] edgeStarts = new int[8];
+	private int[] edgeEnds = new int[8];
+	/** forward type of each edge, or NONE if the id is free */
+	private int[] edgeTypes = new int[8];
+	private int[] freeEdgeIds = new int[0];
+	private int freeEdgeIdCount;
+	private int nextEdgeId;
+	private int edgeCount;
+
+	private Map<IProperty<?>, PropertyColumn> columns = new HashMap<>();
+	private WeakHashMap<SubGraphView, Boolean> views = new WeakHashMap<>();
+
+	public CompactRelationGraph() {
+		this.edgeProperties = Collections.emptyMap();
+	}
+
+	/**
+	 *
+	 * @param edgeProperties map of properties that should return their default
+	 *                       value if not initialized; all others return null
+	 */
+	public CompactRelationGraph(Set<IProperty<?>> edgeProperties) {
+		this.edgeProperties = ImmutableMap.copyOf(Maps.asMap(edgeProperties, (prop) -> prop::defaultValue));
+	}
+
+	/**
+	 *
+	 * @param edgeProperties map of property -> supplier of default value that every
+	 *                       edge should return if it has not initialized the
+	 *                       property
+	 */
+	public CompactRelationGraph(Map<IProperty<?>, Supplier<Object>> edgeProperties) {
+		this.edgeProperties = ImmutableMap.copyOf(edgeProperties);
+	}
+
+	/**
+	 * Copy the nodes and edges of another graph into a new compact graph
+	 *
+	 * @param other
+	 */
+	public CompactRelationGraph(IRelationGraph<? extends E, ? extends R> other) {
+		this();
+		if (other instanceof RelationGraph rg) {
+			this.edgeProperties = rg.edgeProperties;
+		} else if (other instanceof CompactRelationGraph cg) {
+			this.edgeProperties = cg.edgeProperties;
+		}
+		this.addAll(other);
+		Iterator<? extends Triplet<? extends E, ? extends R, ? extends E>> edges = other.edgeIterator();
+		while (edges.hasNext()) {
+			Triplet<? extends E, ? extends R, ? extends E> edge = edges.next();
+			addNewEdge(node(edge.getFirst(), 1), registerType(edge.getSecond()), node(edge.getThird(), 2));
+		}
+	}
+
+	/**
+	 * A graph that copies of this graph and traversal results are made into;
+	 * subclasses may override this to keep their own type
+	 */
+	protected CompactRelationGraph<E, R> newGraph() {
+		return new CompactRelationGraph<>(edgeProperties);
+	}
+
+	/**
+	 * Graph which traversals record visited nodes and edges into; edges are not
+	 * checked against their relation type
+	 */
+	private CompactRelationGraph<E, R> newTraversalGraph() {
+		CompactRelationGraph<E, R> graph = new CompactRelationGraph<>() {
+			public Pair<Object, Object> checkEdgeEndsPermissible(Object first, IInvertibleRelationType type,
+					Object second) {
+				return Pair.of(null, null);
+			};
+		};
+		graph.edgeProperties = this.edgeProperties;
+		return graph;
+	}
+
+	/*
+	 * --------------------------------------------------------------------------
+	 * ids
+	 * --------------------------------------------------------------------------
+	 */
+
+	private int id(Object value) {
+		Integer id = ids.get(value);
+		return id == null ? NONE : id;
+	}
+
+	/**
+	 * Get the id of a node or throw an exception
+	 */
+	private int node(Object value) {
+		Integer id = ids.get(value);
+		if (id == null) {
+			throw new NodeNotFoundException(value);
+		}
+		return id;
+	}
+
+	/**
+	 * same as {@link #node(Object)} but allows to specify which ordinal when using
+	 * multiple arguments
+	 */
+	private int node(Object value, int ordinal) {
+		Integer id = ids.get(value);
+		if (id == null) {
+			throw new NodeNotFoundException(value, ordinal);
+		}
+		return id;
+	}
+
+	@SuppressWarnings("unchecked")
+	private E value(int id) {
+		return (E) values[id];
+	}
+
+	@SuppressWarnings("unchecked")
+	private R type(int id) {
+		return (R) types[id];
+	}
+
+	private int typeId(Object type) {
+		Integer id = typeIds.get(type);
+		return id == null ? NONE : id;
+	}
+
+	/**
+	 * Return the id of this type, giving it (and its inverse) ids if it has none
+	 */
+	@SuppressWarnings("unchecked")
+	private int registerType(R type) {
+		Integer id = typeIds.get(type);
+		if (id != null) {
+			return id;
+		}
+		int t = addType(type);
+		R inverse = (R) type.invert();
+		if (inverse == null || inverse.equals(type)) {
+			inverseTypes[t] = t;
+		} else {
+			Integer inv = typeIds.get(inverse);
+			int i = inv == null ? addType(inverse) : inv;
+			inverseTypes[t] = i;
+			inverseTypes[i] = t;
+		}
+		return t;
+	}
+
+	private int addType(R type) {
+		if (typeCount == types.length) {
+			int cap = typeCount * 2;
+			types = Arrays.copyOf(types, cap);
+			inverseTypes = Arrays.copyOf(inverseTypes, cap);
+			typeEdgeCounts = Arrays.copyOf(typeEdgeCounts, cap);
+		}
+		types[typeCount] = type;
+		typeIds.put(type, typeCount);
+		return typeCount++;
+	}
+
+	/**
+	 * A mask over type ids of the given types, or null if all types are allowed
+	 */
+	private boolean[] typeMask(Collection<? extends R> allowed) {
+		if (allowed == null) {
+			return null;
+		}
+		boolean[] mask = new boolean[typeCount];
+		for (R type : allowed) {
+			int t = typeId(type);
+			if (t != NONE) {
+				mask[t] = true;
+			}
+		}
+		return mask;
+	}
+
+	private int acquireNodeId() {
+		if (freeNodeIdCount > 0) {
+			return freeNodeIds[--freeNodeIdCount];
+		}
+		if (nextNodeId == values.length) {
+			int cap = nextNodeId * 2;
+			values = Arrays.copyOf(values, cap);
+			adjacency = Arrays.copyOf(adjacency, cap);
+			adjacencySizes = Arrays.copyOf(adjacencySizes, cap);
+		}
+		return nextNodeId++;
+	}
+
+	private int acquireEdgeId() {
+		if (freeEdgeIdCount > 0) {
+			return freeEdgeIds[--freeEdgeIdCount];
+		}
+		if (nextEdgeId == edgeTypes.length) {
+			int cap = nextEdgeId * 2;
+			edgeStarts = Arrays.copyOf(edgeStarts, cap);
+			edgeEnds = Arrays.copyOf(edgeEnds, cap);
+			edgeTypes = Arrays.copyOf(edgeTypes, cap);
+		}
+		return nextEdgeId++;
+	}
+
+	private static int[] push(int[] stack, int count, int value) {
+		if (count == stack.length) {
+			stack = Arrays.copyOf(stack, Math.max(8, count * 2));
+		}
+		stack[count] = value;
+		return stack;
+	}
+
+	/*
+	 * --------------------------------------------------------------------------
+	 * adjacency
+	 * --------------------------------------------------------------------------
+	 */
+
+	/**
+	 * Index in the node's adjacency array of its edge of the given type to the
+	 * other node, or NONE
+	 */
+	private int find(int node, int type, int other) {
+		int[] adj = adjacency[node];
+		int size = adjacencySizes[node];
+		for (int i = 0; i < size; i += STRIDE) {
+			if (adj[i] == type && adj[i + 1] == other) {
+				return i;
+			}
+		}
+		return NONE;
+	}
+
+	private void link(int node, int type, int other, int edge) {
+		int[] adj = adjacency[node];
+		int size = adjacencySizes[node];
+		if (adj == null) {
+			adj = adjacency[node] = new int[STRIDE * 2];
+		} else if (size == adj.length) {
+			adj = adjacency[node] = Arrays.copyOf(adj, size * 2);
+		}
+		adj[size] = type;
+		adj[size + 1] = other;
+		adj[size + 2] = edge;
+		adjacencySizes[node] = size + STRIDE;
+	}
+
+	/** Remove the entry of this edge from the node's adjacency array */
+	private void unlink(int node, int edge) {
+		int[] adj = adjacency[node];
+		int size = adjacencySizes[node];
+		for (int i = 0; i < size; i += STRIDE) {
+			if (adj[i + 2] == edge) {
+				int last = size - STRIDE;
+				adj[i] = adj[last];
+				adj[i + 1] = adj[last + 1];
+				adj[i + 2] = adj[last + 2];
+				adjacencySizes[node] = last;
+				return;
+			}
+		}
+		throw new IllegalStateException("Node " + values[node] + " is not connected by edge " + edge);
+	}
+
+	/**
+	 * Add a new edge and return its id, or return NONE and do nothing if there is
+	 * already an edge
+	 */
+	private int addNewEdge(int from, int type, int to) {
+		if (from == to) {
+			throw new IllegalArgumentException("Cannot connect " + values[from] + " to itself");
+		}
+		if (find(from, type, to) != NONE) {
+			return NONE;
+		}
+		int edge = acquireEdgeId();
+		edgeStarts[edge] = from;
+		edgeEnds[edge] = to;
+		edgeTypes[edge] = type;
+		link(from, type, to, edge);
+		link(to, inverseTypes[type], from, edge);
+		typeEdgeCounts[type]++;
+		edgeCount++;
+		return edge;
+	}
+
+	private void removeEdgeById(int edge) {
+		unlink(edgeStarts[edge], edge);
+		unlink(edgeEnds[edge], edge);
+		typeEdgeCounts[edgeTypes[edge]]--;
+		edgeTypes[edge] = NONE;
+		edgeCount--;
+		for (PropertyColumn column : columns.values()) {
+			column.remove(edge);
+		}
+		for (SubGraphView view : views.keySet()) {
+			view.addedEdges.clear(edge);
+		}
+		freeEdgeIds = push(freeEdgeIds, freeEdgeIdCount++, edge);
+	}
+
+	/**
+	 * Remove every edge of the node whose entry matches the given type and other
+	 * node (either may be NONE to match anything); return whether any were removed
+	 */
+	private boolean removeEdges(int node, int type, int other) {
+		boolean removed = false;
+		int[] adj = adjacency[node];
+		for (int i = adjacencySizes[node] - STRIDE; i >= 0; i -= STRIDE) {
+			if ((type == NONE || adj[i] == type) && (other == NONE || adj[i + 1] == other)) {
+				removeEdgeById(adj[i + 2]);
+				// this swaps in the last entry, which was already checked
+				removed = true;
+			}
+		}
+		return removed;
+	}
+
+	/**
+	 * Remove the edges and value of a node and free its id, without touching the
+	 * id map
+	 */
+	private void discard(int id) {
+		removeEdges(id, NONE, NONE);
+		E value = value(id);
+		values[id] = null;
+		adjacency[id] = null;
+		adjacencySizes[id] = 0;
+		for (SubGraphView view : views.keySet()) {
+			view.members.clear(id);
+		}
+		freeNodeIds = push(freeNodeIds, freeNodeIdCount++, id);
+		onNodeRemoved(value);
+	}
+
+	/**
+	 * Called after a node with this value is put into the graph, so subclasses can
+	 * keep their own indices of nodes
+	 * 
+	 * @param value
+	 */
+	protected void onNodeAdded(E value) {
+	}
+
+	/**
+	 * Called after the node with this value is taken out of the graph
+	 * 
+	 * @param value
+	 */
+	protected void onNodeRemoved(E value) {
+	}
+
+	/*
+	 * --------------------------------------------------------------------------
+	 * properties
+	 * --------------------------------------------------------------------------
+	 */
+
+	private PropertyColumn column(IProperty<?> prop) {
+		PropertyColumn column = columns.get(prop);
+		if (column == null) {
+			column = PropertyColumn.forType(prop.getType());
+			columns.put(prop, column);
+		}
+		return column;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <X> X rawProperty(int edge, IProperty<X> prop) {
+		PropertyColumn column = columns.get(prop);
+		return column == null ? null : (X) column.get(edge);
+	}
+
+	private void setRawProperty(int edge, IProperty<?> prop, Object value) {
+		if (value == null) {
+			PropertyColumn column = columns.get(prop);
+			if (column != null) {
+				column.remove(edge);
+			}
+		} else {
+			column(prop).set(edge, value);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private <X> X defaultProperty(IProperty<X> prop) {
+		Supplier<Object> sup = edgeProperties.get(prop);
+		return sup != null ? (X) sup.get() : prop.defaultValue();
+	}
+
+	/** All properties set on this edge */
+	private Map<IProperty<?>, Object> propertiesMap(int edge) {
+		Map<IProperty<?>, Object> map = new LinkedHashMap<>();
+		for (Map.Entry<IProperty<?>, PropertyColumn> entry : columns.entrySet()) {
+			Object val = entry.getValue().get(edge);
+			if (val != null) {
+				map.put(entry.getKey(), val);
+			}
+		}
+		return map;
+	}
+
+	/** Copy the properties of an edge of another graph onto an edge of this one */
+	private void copyProperties(int edge, CompactRelationGraph<?, ?> from, int fromEdge) {
+		for (Map.Entry<IProperty<?>, PropertyColumn> entry : from.columns.entrySet()) {
+			Object val = entry.getValue().get(fromEdge);
+			if (val != null) {
+				column(entry.getKey()).set(edge, val);
+			}
+		}
+	}
+
+	/**
+	 * Whether the predicate accepts every property of this edge, including the
+	 * properties with default values which the edge has not set
+	 */
+	private boolean testProperties(int edge, BiPredicate<IProperty<?>, Object> pred) {
+		for (Map.Entry<IProperty<?>, PropertyColumn> entry : columns.entrySet()) {
+			Object val = entry.getValue().get(edge);
+			if (val != null && !pred.test(entry.getKey(), val)) {
+				return false;
+			}
+		}
+		for (Map.Entry<IProperty<?>, Supplier<Object>> entry : edgeProperties.entrySet()) {
+			PropertyColumn column = columns.get(entry.getKey());
+			if ((column == null || column.get(edge) == null) && !pred.test(entry.getKey(), entry.getValue().get())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * --------------------------------------------------------------------------
+	 * views
+	 * --------------------------------------------------------------------------
+	 */
+
+	private static boolean shows(CompactRelationGraph<?, ?>.SubGraphView view, int node) {
+		return view == null || view.showsNode(node);
+	}
+
+	/** Whether the view shows this edge, as seen from the "from" node */
+	private boolean shows(SubGraphView view, int from, int type, int to, int edge) {
+		if (view == null) {
+			return true;
+		}
+		if (!view.showsNode(from) || !view.showsNode(to)) {
+			return false;
+		}
+		return view.edgepred == null || view.addedEdges.get(edge)
+				|| view.edgepred.test(Triplet.of(value(from), type(type), value(to)));
+	}
+
+	/*
+	 * --------------------------------------------------------------------------
+	 * shared implementations, for the whole graph (null view) or a view
+	 * --------------------------------------------------------------------------
+	 */
+
+	private int size(SubGraphView view) {
+		if (view == null) {
+			return ids.size();
+		}
+		int count = 0;
+		for (int i = 0; i < nextNodeId; i++) {
+			if (values[i] != null && view.showsNode(i)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private boolean contains(SubGraphView view, Object o) {
+		int id = id(o);
+		return id != NONE && shows(view, id);
+	}
+
+	private int degree(SubGraphView view, Object node, int type) {
+		int x = id(node);
+		if (x == NONE || !shows(view, x)) {
+			return 0;
+		}
+		if (view == null && type == NONE) {
+			return adjacencySizes[x] / STRIDE;
+		}
+		int count = 0;
+		int[] adj = adjacency[x];
+		for (int i = 0; i < adjacencySizes[x]; i += STRIDE) {
+			if ((type == NONE || adj[i] == type) && shows(view, x, adj[i], adj[i + 1], adj[i + 2])) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private Set<E> neighbors(SubGraphView view, int x, int type) {
+		Set<E> set = new HashSet<>();
+		int[] adj = adjacency[x];
+		for (int i = 0; i < adjacencySizes[x]; i += STRIDE) {
+			if ((type == NONE || adj[i] == type) && shows(view, x, adj[i], adj[i + 1], adj[i + 2])) {
+				set.add(value(adj[i + 1]));
+			}
+		}
+		return set;
+	}
+
+	private boolean hasEdge(SubGraphView view, Object one, int type, Object two) {
+		int x = id(one);
+		int y = id(two);
+		if (x == NONE || y == NONE) {
+			return false;
+		}
+		int[] adj = adjacency[x];
+		for (int i = 0; i < adjacencySizes[x]; i += STRIDE) {
+			if (adj[i + 1] == y && (type == NONE || adj[i] == type) && shows(view, x, adj[i], y, adj[i + 2])) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private Set<R> edgeTypes(SubGraphView view, int x, int other) {
+		Set<R> set = new HashSet<>();
+		int[] adj = adjacency[x];
+		for (int i = 0; i < adjacencySizes[x]; i += STRIDE) {
+			if ((other == NONE || adj[i + 1] == other) && shows(view, x, adj[i], adj[i + 1], adj[i + 2])) {
+				set.add(type(adj[i]));
+			}
+		}
+		return set;
+	}
+
+	private int edgeCount(SubGraphView view) {
+		if (view == null) {
+			return edgeCount;
+		}
+		int count = 0;
+		for (int e = 0; e < nextEdgeId; e++) {
+			if (edgeTypes[e] != NONE && shows(view, edgeStarts[e], edgeTypes[e], edgeEnds[e], e)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private Set<R> typesInUse(SubGraphView view) {
+		Set<R> set = new HashSet<>();
+		if (view == null) {
+			for (int t = 0; t < typeCount; t++) {
+				if (typeEdgeCounts[t] > 0) {
+					set.add(type(t));
+				}
+			}
+			return set;
+		}
+		for (int e = 0; e < nextEdgeId; e++) {
+			if (edgeTypes[e] != NONE && shows(view, edgeStarts[e], edgeTypes[e], edgeEnds[e], e)) {
+				set.add(type(edgeTypes[e]));
+			}
+		}
+		return set;
+	}
+
+	/**
+	 * Run getSet on the given property of every edge from x matching the type and
+	 * other node (either may be NONE to match anything); the input is the value
+	 * set on the edge (possibly null), and a non-null output different from it is
+	 * set as the new value
+	 */
+	@SuppressWarnings("unchecked")
+	private <X> void forEachEdgeProperty(SubGraphView view, int x, int type, int other, IProperty<X> prop,
+			Function<X, X> getSet) {
+		int[] adj = adjacency[x];
+		for (int i = 0; i < adjacencySizes[x]; i += STRIDE) {
+			if ((type == NONE || adj[i] == type) && (other == NONE || adj[i + 1] == other)
+					&& shows(view, x, adj[i], adj[i + 1], adj[i + 2])) {
+				int edge = adj[i + 2];
+				X val = rawProperty(edge, prop);
+				X output = getSet.apply(val);
+				if (output != null && output != val) {
+					column(prop).set(edge, output);
+				}
+			}
+		}
+	}
+
+	private <X> X getProperty(SubGraphView view, E one, R type, E two, IProperty<X> prop, boolean computeIfAbsent) {
+		int x = node(one, 1);
+		int y = node(two, 2);
+		int t = typeId(type);
+		int at = t == NONE ? NONE : find(x, t, y);
+		if (at == NONE || !shows(view, x, t, y, adjacency[x][at + 2])) {
+			return null;
+		}
+		int edge = adjacency[x][at + 2];
+		X obj = rawProperty(edge, prop);
+		if (obj == null) {
+			obj = defaultProperty(prop);
+			if (computeIfAbsent && obj != null) {
+				column(prop).set(edge, obj);
+			}
+		}
+		return obj;
+	}
+
+	private <X> X setProperty(SubGraphView view, E one, R type, E two, IProperty<X> prop, X val) {
+		int x = node(one, 1);
+		int y = node(two, 2);
+		int t = typeId(type);
+		int at = t == NONE ? NONE : find(x, t, y);
+		if (at == NONE || !shows(view, x, t, y, adjacency[x][at + 2])) {
+			throw new EdgeNotFoundException(Triplet.of(one, type, two));
+		}
+		int edge = adjacency[x][at + 2];
+		X obj = rawProperty(edge, prop);
+		setRawProperty(edge, prop, Objects.equals(prop.defaultValue(), val) ? null : val);
+		return obj;
+	}
+
+	private String edgeString(int from, int type, int to, int edge, Function<E, String> converter,
+			Function<R, String> econverter) {
+		Map<IProperty<?>, Object> props = propertiesMap(edge);
+		return "(" + converter.apply(value(from)) + ")>==[" + econverter.apply(type(type)) + "]"
+				+ (props.isEmpty() ? "" : props) + "==>(" + converter.apply(value(to)) + ")";
+	}
+
+	private String representation(SubGraphView view, Function<E, String> converter,
+			BiFunction<Triplet<E, R, E>, Map<IProperty<?>, Object>, String> edgeConverter) {
+		int size = size(view);
+		StringBuilder builder = new StringBuilder("{\n\tNodes (" + size + ")={\n\t\t");
+		int cols = MathUtils.largestPrimeFactor(size);
+		int lincount = 0;
+		int i = 0;
+		for (int n = 0; n < nextNodeId; n++) {
+			if (values[n] == null || !shows(view, n)) {
+				continue;
+			}
+			String nam = converter.apply(value(n));
+			builder.append(nam);
+			if (i++ % cols == 0 || lincount > TOO_LONG_LINE) {
+				builder.append("\n\t\t");
+				lincount = 0;
+			} else {
+				builder.append(",\t");
+				lincount += nam.length();
+			}
+		}
+		builder.append("\n\t},");
+		int edges = edgeCount(view);
+		builder.append("\n\tEdges (" + edges + ")={\n\t\t");
+		cols = MathUtils.largestPrimeFactor(edges);
+		i = 0;
+		for (int e = 0; e < nextEdgeId; e++) {
+			if (edgeTypes[e] == NONE || !shows(view, edgeStarts[e], edgeTypes[e], edgeEnds[e], e)) {
+				continue;
+			}
+			builder.append(edgeConverter.apply(Triplet.of(value(edgeStarts[e]), type(edgeTypes[e]), value(edgeEnds[e])),
+					propertiesMap(e)));
+			if (i++ % cols == 0) {
+				builder.append("\n\t\t");
+			} else {
+				builder.append(",\t");
+			}
+		}
+		builder.append("\n\t}");
+		return builder.append("\n}").toString();
+	}
+
+	private String edgeToString(SubGraphView view, E first, R second, E third, boolean includeEnds) {
+		int x = id(first);
+		int y = id(third);
+		int t = typeId(second);
+		int at = x == NONE || y == NONE || t == NONE ? NONE : find(x, t, y);
+		if (at == NONE || !shows(view, x, t, y, adjacency[x][at + 2])) {
+			if (includeEnds) {
+				return "[" + second + "]";
+			}
+			return "(" + first + ")>==[" + second + "]==>(" + third + ")";
+		}
+		int edge = adjacency[x][at + 2];
+		if (includeEnds) {
+			return edgeString(x, t, y, edge, Object::toString, Object::toString);
+		}
+		Map<IProperty<?>, Object> props = propertiesMap(edge);
+		return "[" + second + "]" + (props.isEmpty() ? "" : props);
+	}
+
+	/**
+	 * Copy the nodes and edges shown by the view into a new graph, mapping nodes
+	 * and edge types
+	 */
+	@SuppressWarnings("unchecked")
+	private <E2, R2 extends IInvertibleRelationType> void copyInto(CompactRelationGraph<E2, R2> graph,
+			SubGraphView view, Function<E, E2> nmapper, Function<R, R2> emapper) {
+		int[] newIds = new int[nextNodeId];
+		for (int n = 0; n < nextNodeId; n++) {
+			newIds[n] = NONE;
+			if (values[n] != null && shows(view, n)) {
+				E2 val = nmapper.apply(value(n));
+				graph.add(val);
+				newIds[n] = graph.id(val);
+			}
+		}
+		int[] newTypes = new int[typeCount];
+		for (int t = 0; t < typeCount; t++) {
+			newTypes[t] = graph.registerType(emapper.apply(type(t)));
+		}
+		for (int e = 0; e < nextEdgeId; e++) {
+			if (edgeTypes[e] == NONE || newIds[edgeStarts[e]] == NONE || newIds[edgeEnds[e]] == NONE
+					|| !shows(view, edgeStarts[e], edgeTypes[e], edgeEnds[e], e)) {
+				continue;
+			}
+			int edge = graph.addNewEdge(newIds[edgeStarts[e]], newTypes[edgeTypes[e]], newIds[edgeEnds[e]]);
+			if (edge != NONE) {
+				graph.copyProperties(edge, this, e);
+			}
+		}
+	}
+
+	/*
+	 * --------------------------------------------------------------------------
+	 * Set
+	 * --------------------------------------------------------------------------
+	 */
+
+	@Override
+	public int size() {
+		return ids.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return ids.isEmpty();
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return ids.containsKey(o);
+	}
+
+	/**
+	 * Add a node to this graph with the given value
+	 */
+	@Override
+	public boolean add(E e) {
+		if (ids.containsKey(e)) {
+			return false;
+		}
+		int id = acquireNodeId();
+		values[id] = e;
+		ids.put(e, id);
+		onNodeAdded(e);
+		return true;
+	}
+
+	/**
+	 * Remove the node with the given value
+	 */
+	@Override
+	public boolean remove(Object o) {
+		Integer id = ids.remove(o);
+		if (id == null) {
+			return false;
+		}
+		discard(id);
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		for (E value : ids.keySet()) {
+			onNodeRemoved(value);
+		}
+		ids.clear();
+		Arrays.fill(values, null);
+		Arrays.fill(adjacency, null);
+		Arrays.fill(adjacencySizes, 0);
+		freeNodeIdCount = 0;
+		nextNodeId = 0;
+		Arrays.fill(edgeTypes, NONE);
+		Arrays.fill(typeEdgeCounts, 0);
+		freeEdgeIdCount = 0;
+		nextEdgeId = 0;
+		edgeCount = 0;
+		columns.clear();
+		for (SubGraphView view : views.keySet()) {
+			view.members.clear();
+			view.addedEdges.clear();
+		}
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new NodeIterator(null);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj instanceof IRelationGraph g) {
+			return this.ids.keySet().equals(g.getNodeSetImmutable())
+					&& ImmutableSet.copyOf(() -> this.edgeIterator()).equals(ImmutableSet.copyOf(() -> g.edgeIterator()));
+		}
+		return super.equals(obj);
+	}
+
+	@Override
+	public int hashCode() {
+		return ids.keySet().hashCode() + edgeCount;
+	}
+
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + "[V=" + ids.size() + ",E=" + edgeCount + "]";
+	}
+
+	/*
+	 * --------------------------------------------------------------------------
+	 * IModifiableRelationGraph
+	 * --------------------------------------------------------------------------
+	 */
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean addEdge(E first, R type, E second) {
+		Pair<Object, Object> edgmsg = checkEdgeEndsPermissible(first, type, second);
+		if ((edgmsg.getFirst() == null || edgmsg.getFirst() instanceof Integer)
+				&& (edgmsg.getSecond() == null || edgmsg.getSecond() instanceof Integer)) {
+			Integer firstCount = (Integer) edgmsg.getFirst();
+			Integer secondCount = (Integer) edgmsg.getSecond();
+			int x = node(first, 1);
+			int y = node(second, 2);
+			if (firstCount != null && degree(second, (R) type.invert()) >= firstCount) {
+				throw new IllegalArgumentException("Cannot add edge between " + first + " and " + second + " of type "
+						+ type + ", because (inverse) " + type.invert() + " caps count at " + firstCount
+						+ " and these edges already exist: " + getNeighbors(second, (R) type.invert()));
+			}
+			if (secondCount != null && degree(first, type) >= secondCount) {
+				throw new IllegalArgumentException("Cannot add edge between " + first + " and " + second + " of type "
+						+ type + ", because " + type + " caps count at " + secondCount
+						+ " and these edges already exist " + getNeighbors(first, type));
+			}
+			return addNewEdge(x, registerType(type), y) != NONE;
+		}
+		throw new IllegalArgumentException("Cannot add edge between " + first + " and " + second + " of type " + type
+				+ ", because of reasons: " + edgmsg);
+	}
+
+	@Override
+	public Pair<Object, Object> checkEdgeEndsPermissible(Object first, IInvertibleRelationType type, Object second) {
+		Pair<Object, Object> ends = Pair.of(null, null);
+		if (first != null) {
+			Object msg = type.invert().checkEndType(first);
+			if (msg != null) {
+				ends.setFirst(msg);
+			}
+		}
+		if (second != null) {
+			Object msg = type.checkEndType(second);
+			if (msg != null) {
+				ends.setSecond(msg);
+			}
+		}
+		return ends;
+	}
+
+	@Override
+	public E get(Object of) {
+		int id = id(of);
+		return id == NONE ? null : value(id);
+	}
+
+	@Override
+	public void set(Object oldNode, E newNode) {
+		if (oldNode.equals(newNode)) {
+			return;
+		}
+		int x = node(oldNode);
+		int y = id(newNode);
+		if (y != NONE) {
+			// move every edge of the old node onto the new one
+			int[] adj = adjacency[x];
+			for (int i = 0; i < adjacencySizes[x]; i += STRIDE) {
+				int edge = addNewEdge(y, adj[i], adj[i + 1]);
+				if (edge != NONE) {
+					copyProperties(edge, this, adj[i + 2]);
+				}
+			}
+			remove(oldNode);
+		} else {
+			E oldValue = value(x);
+			ids.remove(oldNode);
+			onNodeRemoved(oldValue);
+			values[x] = newNode;
+			ids.put(newNode, x);
+			onNodeAdded(newNode);
+		}
+	}
+
+	@Override
+	public boolean removeAllConnections(Object value) {
+		return removeEdges(node(value), NONE, NONE);
+	}
+
+	@Override
+	public boolean removeAllConnections(Object value, R type) {
+		int x = node(value);
+		int t = typeId(type);
+		return t != NONE && removeEdges(x, t, NONE);
+	}
+
+	@Override
+	public boolean removeAllConnections(Object value, Object other) {
+		return removeEdges(node(value, 1), NONE, node(other, 2));
+	}
+
+	@Override
+	public boolean removeEdge(Object value, R type, Object other) {
+		int x = node(value, 1);
+		int y = node(other, 2);
+		int t = typeId(type);
+		return t != NONE && removeEdges(x, t, y);
+	}
+
+	@Override
+	public void removeBareNodes() {
+		Iterator<Map.Entry<E, Integer>> iterator = ids.entrySet().iterator();
+		while (iterator.hasNext()) {
+			int id = iterator.next().getValue();
+			if (adjacencySizes[id] == 0) {
+				iterator.remove();
+				discard(id);
+			}
+		}
+	}
+
+	@Override
+	public <X> X getProperty(E one, R type, E two, IProperty<X> prop) {
+		return getProperty(null, one, type, two, prop, false);
+	}
+
+	@Override
+	public <X> X getProperty(E one, R type, E two, IProperty<X> prop, boolean computeIfAbsent) {
+		return getProperty(null, one, type, two, prop, computeIfAbsent);
+	}
+
+	@Override
+	public <X> X setProperty(E one, R type, E two, IProperty<X> prop, X val) {
+		return setProperty(null, one, type, two, prop, val);
+	}
+
+	@Override
+	public <X> void forEachEdgeProperty(E one, E two, IProperty<X> prop, Consumer<X> get) {
+		forEachEdgeProperty(null, node(one, 1), NONE, node(two, 2), prop, (a) -> {
+			get.accept(a);
+			return null;
+		});
+	}
+
+	@Override
+	public <X> void forEachEdgeProperty(E one, IProperty<X> prop, Consumer<X> get) {
+		forEachEdgeProperty(null, node(one, 1), NONE, NONE, prop, (a) -> {
+			get.accept(a);
+			return null;
+		});
+	}
+
+	@Override
+	public <X> void forEachEdgeProperty(E one, R type, IProperty<X> prop, Consumer<X> get) {
+		int t = typeId(type);
+		int x = node(one, 1);
+		if (t != NONE) {
+			forEachEdgeProperty(null, x, t, NONE, prop, (a) -> {
+				get.accept(a);
+				return null;
+			});
+		}
+	}
+
+	@Override
+	public <X> void forEachEdgeProperty(E one, E two, IProperty<X> prop, Function<X, X> getSet) {
+		forEachEdgeProperty(null, node(one, 1), NONE, node(two, 2), prop, getSet);
+	}
+
+	@Override
+	public <X> void forEachEdgeProperty(E one, IProperty<X> prop, Function<X, X> getSet) {
+		forEachEdgeProperty(null, node(one, 1), NONE, NONE, prop, getSet);
+	}
+
+	@Override
+	public <X> void forEachEdgeProperty(E one, R type, IProperty<X> prop, Function<X, X> getSet) {
+		int t = typeId(type);
+		int x = node(one, 1);
+		if (t != NONE) {
+			forEachEdgeProperty(null, x, t, NONE, prop, getSet);
+		}
+	}
+
+	@Override
+	public Set<E> getNeighbors(E node) {
+		return neighbors(null, node(node), NONE);
+	}
+
+	@Override
+	public Set<E> getNeighbors(E node, R type) {
+		int x = node(node);
+		int t = typeId(type);
+		return t == NONE ? new HashSet<>() : neighbors(null, x, t);
+	}
+
+	@Override
+	public boolean containsEdge(Object one, Object two) {
+		return hasEdge(null, one, NONE, two);
+	}
+
+	@Override
+	public boolean containsEdge(Object one, Object type, Object two) {
+		int t = typeId(type);
+		return t != NONE && hasEdge(null, one, t, two);
+	}
+
+	@Override
+	public int degree(E node) {
+		return degree(null, node, NONE);
+	}
+
+	@Override
+	public int degree(E node, R type) {
+		int t = typeId(type);
+		return t == NONE ? 0 : degree(null, node, t);
+	}
+
+	@Override
+	public boolean nodeHasConnections(Object one, R type) {
+		int t = typeId(type);
+		return t != NONE && degree(null, one, t) > 0;
+	}
+
+	@Override
+	public Set<R> getEdgeTypesBetween(E one, E two) {
+		int y = node(two, 2);
+		return edgeTypes(null, node(one, 1), y);
+	}
+
+	@Override
+	public Set<R> getOutgoingEdgeTypes(E node) {
+		return edgeTypes(null, node(node), NONE);
+	}
+
+	@Override
+	public int edgeCount() {
+		return edgeCount;
+	}
+
+	@Override
+	public Collection<R> getEdgeTypes() {
+		return typesInUse(null);
+	}
+
+	@Override
+	public Set<E> getNodeSetImmutable() {
+		return ImmutableSetView.from(ids.keySet());
+	}
+
+	@Override
+	public Iterable<E> getBareNodes() {
+		return () -> ids.entrySet().stream().filter((a) -> adjacencySizes[a.getValue()] == 0).map(Map.Entry::getKey)
+				.iterator();
+	}
+
+	@Override
+	public Iterator<Triplet<E, R, E>> edgeIterator() {
+		return new EdgeIterator(null, null);
+	}
+
+	@Override
+	public Iterator<Triplet<E, R, E>> edgeIterator(Collection<? extends R> forTypes) {
+		return new EdgeIterator(null, inverseClosedMask(forTypes));
+	}
+
+	/**
+	 * Mask over type ids of the given types and their inverses, or null if the
+	 * collection is empty
+	 */
+	private boolean[] inverseClosedMask(Collection<? extends R> forTypes) {
+		if (forTypes.isEmpty()) {
+			return null;
+		}
+		boolean[] mask = typeMask(forTypes);
+		for (int t = 0; t < typeCount; t++) {
+			if (mask[t]) {
+				mask[inverseTypes[t]] = true;
+			}
+		}
+		return mask;
+	}
+
+	@Override
+	public Iterator<Triplet<E, R, E>> outgoingEdges(E forNode) {
+		return new OutgoingEdgeIterator(null, node(forNode), NONE);
+	}
+
+	@Override
+	public Iterator<Triplet<E, R, E>> outgoingEdges(E forNode, R type) {
+		int x = node(forNode);
+		int t = typeId(type);
+		return t == NONE ? Collections.emptyIterator() : new OutgoingEdgeIterator(null, x, t);
+	}
+
+	@Override
+	public boolean forEachEdge(E forNode, EdgeVisitor<? super E, ? super R> visitor) {
+		return forEachEdge(null, node(forNode), NONE, visitor);
+	}
+
+	@Override
+	public boolean forEachEdge(E forNode, R type, EdgeVisitor<? super E, ? super R> visitor) {
+		int x = node(forNode);
+		int t = typeId(type);
+		return t == NONE || forEachEdge(null, x, t, visitor);
+	}
+
+	/**
+	 * Visit the edges out of this node of this type (or any type, if NONE) which
+	 * are shown in the view (or all, if it is null)
+	 */
+	private boolean forEachEdge(SubGraphView view, int node, int type, EdgeVisitor<? super E, ? super R> visitor) {
+		int[] adj = adjacency[node];
+		E start = value(node);
+		for (int at = 0; at < adjacencySizes[node]; at += STRIDE) {
+			if ((type == NONE || adj[at] == type) && shows(view, node, adj[at], adj[at + 1], adj[at + 2])) {
+				if (!visitor.visit(start, type(adj[at]), value(adj[at + 1])))
+					return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String representation() {
+		return this.representation(Object::toString);
+	}
+
+	@Override
+	public String representation(Function<E, String> converter) {
+		return this.representation(converter, (Function<R, String>) Object::toString);
+	}
+
+	@Override
+	public String representation(Function<E, String> converter, Function<R, String> edgeConverter) {
+		return representation(null, converter, (t, p) -> this.edgeToString(t, true));
+	}
+
+	@Override
+	public String representation(Function<E, String> converter,
+			BiFunction<Triplet<E, R, E>, Map<IProperty<?>, Object>, String> edgeConverter) {
+		return representation(null, converter, edgeConverter);
+	}
+
+	@Override
+	public String edgeToString(E first, R second, E third, boolean includeEnds) {
+		return edgeToString(null, first, second, third, includeEnds);
+	}
+
+	@Override
+	public CompactRelationGraph<E, R> traverseBFS(E startPoint, Collection<? extends R> allowedEdgeTypes,
+			Consumer<E> forEachNode, BiPredicate<IProperty<?>, Object> applyAcrossObject) {
+		NodeTraversalIterator iter = new NodeTraversalIterator(null, startPoint, allowedEdgeTypes, applyAcrossObject,
+				true);
+		iter.forEachRemaining(forEachNode);
+		return iter.getVisited();
+	}
+
+	@Override
+	public CompactRelationGraph<E, R> traverseDFS(E startPoint, Collection<? extends R> allowedEdgeTypes,
+			Consumer<E> forEachNode, BiPredicate<IProperty<?>, Object> applyAcrossObject) {
+		NodeTraversalIterator iter = new NodeTraversalIterator(null, startPoint, allowedEdgeTypes, applyAcrossObject,
+				false);
+		iter.forEachRemaining(forEachNode);
+		return iter.getVisited();
+	}
+
+	@Override
+	public NodeTraversalIterator nodeTraversalIteratorBFS(E startPoint, Collection<? extends R> allowedEdgeTypes,
+			BiPredicate<IProperty<?>, Object> applyAcrossObject) {
+		return new NodeTraversalIterator(null, startPoint, allowedEdgeTypes, applyAcrossObject, true);
+	}
+
+	@Override
+	public NodeTraversalIterator nodeTraversalIteratorDFS(E startPoint, Collection<? extends R> allowedEdgeTypes,
+			BiPredicate<IProperty<?>, Object> applyAcrossObject) {
+		return new NodeTraversalIterator(null, startPoint, allowedEdgeTypes, applyAcrossObject, false);
+	}
+
+	@Override
+	public Iterator<Triplet<E, R, E>> edgeTraversalIteratorBFS(E startPoint, Collection<? extends R> allowedEdgeTypes,
+			BiPredicate<IProperty<?>, Object> applyAcrossObject) {
+		return new EdgeTraversalIterator(null, startPoint, allowedEdgeTypes, applyAcrossObject, true);
+	}
+
+	@Override
+	public Iterator<Triplet<E, R, E>> edgeTraversalIteratorDFS(E startPoint, Collection<? extends R> allowedEdgeTypes,
+			BiPredicate<IProperty<?>, Object> applyAcrossObject) {
+		return new EdgeTraversalIterator(null, startPoint, allowedEdgeTypes, applyAcrossObject, false);
+	}
+
+	@Override
+	public void forEachWeightedEdge(E node, Collection<? extends R> allowedEdgeTypes,
+			IProperty<? extends Number> weight, ShortestPaths.WeightedEdgeConsumer<E, R> action) {
+		int x = node(node);
+		boolean[] mask = typeMask(allowedEdgeTypes);
+		Object defaultVal = defaultProperty(weight);
+		PropertyColumn column = columns.get(weight);
+		int[] adj = adjacency[x];
+		for (int i = 0; i < adjacencySizes[x]; i += STRIDE) {
+			if (mask != null && !mask[adj[i]]) {
+				continue;
+			}
+			Object w = column == null ? null : column.get(adj[i + 2]);
+			if (w == null) {
+				w = defaultVal;
+			}
+			if (w != null) {
+				action.accept(type(adj[i]), value(adj[i + 1]), ((Number) w).doubleValue());
+			}
+		}
+	}
+
+	@Override
+	public SubGraphView subgraph(Iterable<? extends E> nodes) {
+		return new SubGraphView(nodes, null, null);
+	}
+
+	@Override
+	public SubGraphView subgraph(Iterable<? extends E> nodes, Predicate<Triplet<E, R, E>> edgePred) {
+		return new SubGraphView(nodes, null, edgePred);
+	}
+
+	@Override
+	public SubGraphView subgraph(Predicate<? super E> nodes, Predicate<Triplet<E, R, E>> edgePred) {
+		return new SubGraphView(Collections.emptySet(), nodes, edgePred);
+	}
+
+	@Override
+	public boolean addAll(IRelationGraph<E, R> subgraph) {
+		boolean mod = this.addAll((Collection<? extends E>) subgraph);
+		Iterator<Triplet<E, R, E>> edges = subgraph.edgeIterator();
+		while (edges.hasNext()) {
+			Triplet<E, R, E> edge = edges.next();
+			mod |= this.addEdge(edge.getFirst(), edge.getSecond(), edge.getThird());
+		}
+		return mod;
+	}
+
+	@Override
+	public CompactRelationGraph<E, R> copy() {
+		return deepCopy(Function.identity());
+	}
+
+	/**
+	 * Copy this graph (keeping its class) with every node passed through the
+	 * cloner; the arrays are copied directly, so node and edge ids are kept
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public CompactRelationGraph<E, R> deepCopy(Function<E, E> cloner) {
+		CompactRelationGraph<E, R> graph;
+		try {
+			graph = (CompactRelationGraph<E, R>) clone();
+		} catch (CloneNotSupportedException e) {
+			throw new RuntimeException(e);
+		}
+		graph.ids = new HashMap<>(ids.size() * 4 / 3 + 1);
+		graph.values = new Object[values.length];
+		for (int n = 0; n < nextNodeId; n++) {
+			if (values[n] != null) {
+				E val = cloner.apply(value(n));
+				graph.values[n] = val;
+				graph.ids.put(val, n);
+				graph.onNodeAdded(val);
+			}
+		}
+		graph.adjacency = new int[adjacency.length][];
+		for (int n = 0; n < nextNodeId; n++) {
+			if (adjacency[n] != null) {
+				graph.adjacency[n] = Arrays.copyOf(adjacency[n], Math.max(STRIDE, adjacencySizes[n]));
+			}
+		}
+		graph.adjacencySizes = adjacencySizes.clone();
+		graph.freeNodeIds = freeNodeIds.clone();
+		graph.typeIds = new HashMap<>(typeIds);
+		graph.types = types.clone();
+		graph.inverseTypes = inverseTypes.clone();
+		graph.typeEdgeCounts = typeEdgeCounts.clone();
+		graph.edgeStarts = edgeStarts.clone();
+		graph.edgeEnds = edgeEnds.clone();
+		graph.edgeTypes = edgeTypes.clone();
+		graph.freeEdgeIds = freeEdgeIds.clone();
+		graph.columns = new HashMap<>();
+		for (Map.Entry<IProperty<?>, PropertyColumn> entry : columns.entrySet()) {
+			graph.columns.put(entry.getKey(), entry.getValue().copy());
+		}
+		graph.views = new WeakHashMap<>();
+		return graph;
+	}
+
+	@Override
+	public <E2, R2 extends IInvertibleRelationType> CompactRelationGraph<E2, R2> mapCopy(Function<E, E2> nodeMapper,
+			Function<R, R2> edgeMapper) {
+		CompactRelationGraph<E2, R2> graph = new CompactRelationGraph<>(edgeProperties);
+		copyInto(graph, null, nodeMapper, edgeMapper);
+		return graph;
+	}
+
+	@Override
+	public IModifiableRelationGraph<E, R> editableCopy() {
+		return copy();
+	}
+
+	/*
+	 * --------------------------------------------------------------------------
+	 * iterators
+	 * --------------------------------------------------------------------------
+	 */
+
+	/** Iterates the nodes of the graph or a view */
+	private class NodeIterator implements Iterator<E> {
+		private final SubGraphView view;
+		private final Iterator<Map.Entry<E, Integer>> entries = ids.entrySet().iterator();
+		private Map.Entry<E, Integer> next;
+		private Map.Entry<E, Integer> former;
+
+		private NodeIterator(SubGraphView view) {
+			this.view = view;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (next == null && entries.hasNext()) {
+				Map.Entry<E, Integer> entry = entries.next();
+				if (shows(view, entry.getValue())) {
+					next = entry;
+				}
+			}
+			return next != null;
+		}
+
+		@Override
+		public E next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			former = next;
+			next = null;
+			return former.getKey();
+		}
+
+		@Override
+		public void remove() {
+			if (former == null || next != null) {
+				throw new IllegalStateException();
+			}
+			int id = former.getValue();
+			entries.remove();
+			discard(id);
+			former = null;
+		}
+	}
+
+	/**
+	 * Iterates the edges of the graph or a view in their forward direction,
+	 * optionally only those whose type is in a mask
+	 */
+	private class EdgeIterator implements Iterator<Triplet<E, R, E>> {
+		private final SubGraphView view;
+		private final boolean[] mask;
+		private int nextEdge = -1;
+		private int former = NONE;
+
+		private EdgeIterator(SubGraphView view, boolean[] mask) {
+			this.view = view;
+			this.mask = mask;
+			advance();
+		}
+
+		private void advance() {
+			for (nextEdge++; nextEdge < nextEdgeId; nextEdge++) {
+				int t = edgeTypes[nextEdge];
+				if (t != NONE && (mask == null || (t < mask.length && mask[t]))
+						&& shows(view, edgeStarts[nextEdge], t, edgeEnds[nextEdge], nextEdge)) {
+					return;
+				}
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return nextEdge < nextEdgeId;
+		}
+
+		@Override
+		public Triplet<E, R, E> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			former = nextEdge;
+			advance();
+			return Triplet.of(value(edgeStarts[former]), type(edgeTypes[former]), value(edgeEnds[former]));
+		}
+
+		@Override
+		public void remove() {
+			if (former == NONE) {
+				throw new IllegalStateException();
+			}
+			if (edgeTypes[former] != NONE) {
+				removeEdgeById(former);
+			}
+			former = NONE;
+		}
+	}
+
+	/**
+	 * Iterates the edges going out of one node (optionally only of one type); the
+	 * graph should not be changed while this is in use
+	 */
+	private class OutgoingEdgeIterator implements Iterator<Triplet<E, R, E>> {
+		private final SubGraphView view;
+		private final int node;
+		private final int type;
+		private int at = -STRIDE;
+
+		private OutgoingEdgeIterator(SubGraphView view, int node, int type) {
+			this.view = view;
+			this.node = node;
+			this.type = type;
+			advance();
+		}
+
+		private void advance() {
+			int[] adj = adjacency[node];
+			for (at += STRIDE; at < adjacencySizes[node]; at += STRIDE) {
+				if ((type == NONE || adj[at] == type) && shows(view, node, adj[at], adj[at + 1], adj[at + 2])) {
+					return;
+				}
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return at < adjacencySizes[node];
+		}
+
+		@Override
+		public Triplet<E, R, E> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			int[] adj = adjacency[node];
+			Triplet<E, R, E> trip = Triplet.of(value(node), type(adj[at]), value(adj[at + 1]));
+			advance();
+			return trip;
+		}
+	}
+
+	/**
+	 * Iterates over the nodes reachable from a start node, each exactly once. The
+	 * frontier is an int array of (from, type, to, edge) entries, used as a queue
+	 * for BFS or a stack for DFS, and visited nodes are marked in a bitset. The
+	 * spanning tree is recorded in the same form and only built into a graph when
+	 * {@link #getVisited()} is called.
+	 */
+	public class NodeTraversalIterator implements Iterator<E> {
+
+		private final SubGraphView view;
+		private final boolean BFS;
+		private final boolean[] mask;
+		private final BiPredicate<IProperty<?>, Object> propertyPredicate;
+		private final BitSet seen = new BitSet();
+		private int[] frontier = new int[32];
+		private int head;
+		private int tail;
+		private int[] tree = new int[32];
+		private int treeSize;
+		private int priorNode = NONE;
+		private CompactRelationGraph<E, R> visited;
+		private int built;
+
+		private NodeTraversalIterator(SubGraphView view, E firstNode, Collection<? extends R> allowedEdgeTypes,
+				BiPredicate<IProperty<?>, Object> propertyPredicate, boolean BFS) {
+			int start = node(firstNode);
+			if (!shows(view, start)) {
+				throw new NodeNotFoundException(firstNode);
+			}
+			this.view = view;
+			this.BFS = BFS;
+			this.mask = typeMask(allowedEdgeTypes);
+			this.propertyPredicate = propertyPredicate;
+			if (BFS) {
+				seen.set(start);
+			}
+			offer(NONE, NONE, start, NONE);
+		}
+
+		private void offer(int from, int type, int to, int edge) {
+			if (tail + 4 > frontier.length) {
+				if (head > 0) {
+					System.arraycopy(frontier, head, frontier, 0, tail - head);
+					tail -= head;
+					head = 0;
+				}
+				if (tail + 4 > frontier.length) {
+					frontier = Arrays.copyOf(frontier, frontier.length * 2);
+				}
+			}
+			frontier[tail] = from;
+			frontier[tail + 1] = type;
+			frontier[tail + 2] = to;
+			frontier[tail + 3] = edge;
+			tail += 4;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (!BFS) {
+				// DFS marks nodes when popped, so the stack may hold stale entries
+				while (tail > head && seen.get(frontier[tail - 2])) {
+					tail -= 4;
+				}
+			}
+			return tail > head;
+		}
+
+		@Override
+		public E next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			int at;
+			if (BFS) {
+				at = head;
+				head += 4;
+			} else {
+				tail -= 4;
+				at = tail;
+			}
+			int to = frontier[at + 2];
+			seen.set(to);
+			if (treeSize + 4 > tree.length) {
+				tree = Arrays.copyOf(tree, tree.length * 2);
+			}
+			System.arraycopy(frontier, at, tree, treeSize, 4);
+			treeSize += 4;
+			priorNode = to;
+			int[] adj = adjacency[to];
+			for (int i = 0; i < adjacencySizes[to]; i += STRIDE) {
+				int type = adj[i];
+				int other = adj[i + 1];
+				int edge = adj[i + 2];
+				if (seen.get(other) || (mask != null && (type >= mask.length || !mask[type]))
+						|| !shows(view, to, type, other, edge)
+						|| (propertyPredicate != null && !testProperties(edge, propertyPredicate))) {
+					continue;
+				}
+				if (BFS) {
+					// BFS marks nodes when queued, so each is queued once
+					seen.set(other);
+				}
+				offer(to, type, other, edge);
+			}
+			return value(to);
+		}
+
+		/**
+		 * Return a graph of all already-visited nodes, connected by the edges they were
+		 * reached by
+		 *
+		 * @return
+		 */
+		public CompactRelationGraph<E, R> getVisited() {
+			if (visited == null) {
+				visited = newTraversalGraph();
+			}
+			for (; built < treeSize; built += 4) {
+				int from = tree[built];
+				int to = tree[built + 2];
+				if (values[to] == null) {
+					continue;
+				}
+				visited.add(value(to));
+				// the start may be missing if it was removed during iteration
+				int vfrom = from == NONE || values[from] == null ? NONE : visited.id(value(from));
+				if (vfrom != NONE) {
+					int edge = visited.addNewEdge(vfrom, visited.registerType(type(tree[built + 1])),
+							visited.id(value(to)));
+					if (edge != NONE) {
+						visited.copyProperties(edge, CompactRelationGraph.this, tree[built + 3]);
+					}
+				}
+			}
+			return visited;
+		}
+
+		/**
+		 * Removes the current node from graph
+		 */
+		@Override
+		public void remove() {
+			if (priorNode == NONE) {
+				throw new IllegalStateException();
+			}
+			E val = value(priorNode);
+			getVisited().remove(val);
+			CompactRelationGraph.this.remove(val);
+			priorNode = NONE;
+		}
+
+	}
+
+	/**
+	 * Iterates over the edges reachable from a start node, each once, in the
+	 * direction they were reached in
+	 */
+	public class EdgeTraversalIterator implements Iterator<Triplet<E, R, E>> {
+
+		private final SubGraphView view;
+		private final boolean BFS;
+		private final boolean[] mask;
+		private final BiPredicate<IProperty<?>, Object> propertyPredicate;
+		private final BitSet seen = new BitSet();
+		private int[] frontier = new int[32];
+		private int head;
+		private int tail;
+		private int priorEdge = NONE;
+
+		private EdgeTraversalIterator(SubGraphView view, E firstNode, Collection<? extends R> allowedEdgeTypes,
+				BiPredicate<IProperty<?>, Object> propertyPredicate, boolean BFS) {
+			int start = node(firstNode);
+			if (!shows(view, start)) {
+				throw new NodeNotFoundException(firstNode);
+			}
+			this.view = view;
+			this.BFS = BFS;
+			this.mask = typeMask(allowedEdgeTypes);
+			this.propertyPredicate = propertyPredicate;
+			expand(start);
+		}
+
+		private void expand(int node) {
+			int[] adj = adjacency[node];
+			for (int i = 0; i < adjacencySizes[node]; i += STRIDE) {
+				int type = adj[i];
+				int edge = adj[i + 2];
+				if (seen.get(edge) || (mask != null && (type >= mask.length || !mask[type]))
+						|| !shows(view, node, type, adj[i + 1], edge)
+						|| (propertyPredicate != null && !testProperties(edge, propertyPredicate))) {
+					continue;
+				}
+				seen.set(edge);
+				if (tail + 3 > frontier.length) {
+					if (head > 0) {
+						System.arraycopy(frontier, head, frontier, 0, tail - head);
+						tail -= head;
+						head = 0;
+					}
+					if (tail + 3 > frontier.length) {
+						frontier = Arrays.copyOf(frontier, frontier.length * 2);
+					}
+				}
+				frontier[tail] = node;
+				frontier[tail + 1] = type;
+				frontier[tail + 2] = edge;
+				tail += 3;
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return tail > head;
+		}
+
+		@Override
+		public Triplet<E, R, E> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			int at;
+			if (BFS) {
+				at = head;
+				head += 3;
+			} else {
+				tail -= 3;
+				at = tail;
+			}
+			int from = frontier[at];
+			int edge = frontier[at + 2];
+			int to = edgeStarts[edge] == from ? edgeEnds[edge] : edgeStarts[edge];
+			priorEdge = edge;
+			Triplet<E, R, E> trip = Triplet.of(value(from), type(frontier[at + 1]), value(to));
+			expand(to);
+			return trip;
+		}
+
+		/**
+		 * Removes the current edge from graph
+		 */
+		@Override
+		public void remove() {
+			if (priorEdge == NONE) {
+				throw new IllegalStateException();
+			}
+			if (edgeTypes[priorEdge] != NONE) {
+				removeEdgeById(priorEdge);
+			}
+			priorEdge = NONE;
+		}
+
+	}
+
+	/*
+	 * --------------------------------------------------------------------------
+	 * property columns
+	 * --------------------------------------------------------------------------
+	 */
+
+	/**
+	 * The values of one property for every edge, indexed by edge id; null means
+	 * the edge has not set the property
+	 */
+	private static abstract class PropertyColumn {
+
+		/** which edges have a value */
+		protected BitSet present = new BitSet();
+
+		static PropertyColumn forType(Class<?> type) {
+			if (type == Boolean.class || type == boolean.class) {
+				return new BooleanColumn();
+			} else if (type == Integer.class || type == int.class) {
+				return new IntColumn();
+			} else if (type == Float.class || type == float.class) {
+				return new FloatColumn();
+			} else if (type == Double.class || type == double.class) {
+				return new DoubleColumn();
+			}
+			return new ObjectColumn();
+		}
+
+		Object get(int edge) {
+			return present.get(edge) ? read(edge) : null;
+		}
+
+		void set(int edge, Object value) {
+			write(edge, value);
+			present.set(edge);
+		}
+
+		void remove(int edge) {
+			present.clear(edge);
+		}
+
+		protected abstract Object read(int edge);
+
+		protected abstract void write(int edge, Object value);
+
+		protected abstract PropertyColumn copy();
+
+		protected static int grow(int length, int edge) {
+			return Math.max(edge + 1, Math.max(8, length * 2));
+		}
+	}
+
+	private static class BooleanColumn extends PropertyColumn {
+		private BitSet values = new BitSet();
+
+		@Override
+		protected Object read(int edge) {
+			return values.get(edge);
+		}
+
+		@Override
+		protected void write(int edge, Object value) {
+			values.set(edge, (Boolean) value);
+		}
+
+		@Override
+		protected PropertyColumn copy() {
+			BooleanColumn col = new BooleanColumn();
+			col.present = (BitSet) present.clone();
+			col.values = (BitSet) values.clone();
+			return col;
+		}
+	}
+
+	private static class IntColumn extends PropertyColumn {
+		private int[] values = new int[0];
+
+		@Override
+		protected Object read(int edge) {
+			return values[edge];
+		}
+
+		@Override
+		protected void write(int edge, Object value) {
+			if (edge >= values.length) {
+				values = Arrays.copyOf(values, grow(values.length, edge));
+			}
+			values[edge] = (Integer) value;
+		}
+
+		@Override
+		protected PropertyColumn copy() {
+			IntColumn col = new IntColumn();
+			col.present = (BitSet) present.clone();
+			col.values = values.clone();
+			return col;
+		}
+	}
+
+	private static class FloatColumn extends PropertyColumn {
+		private float[] values = new float[0];
+
+		@Override
+		protected Object read(int edge) {
+			return values[edge];
+		}
+
+		@Override
+		protected void write(int edge, Object value) {
+			if (edge >= values.length) {
+				values = Arrays.copyOf(values, grow(values.length, edge));
+			}
+			values[edge] = (Float) value;
+		}
+
+		@Override
+		protected PropertyColumn copy() {
+			FloatColumn col = new FloatColumn();
+			col.present = (BitSet) present.clone();
+			col.values = values.clone();
+			return col;
+		}
+	}
+
+	private static class DoubleColumn extends PropertyColumn {
+		private double[] values = new double[0];
+
+		@Override
+		protected Object read(int edge) {
+			return values[edge];
+		}
+
+		@Override
+		protected void write(int edge, Object value) {
+			if (edge >= values.length) {
+				values = Arrays.copyOf(values, grow(values.length, edge));
+			}
+			values[edge] = (Double) value;
+		}
+
+		@Override
+		protected PropertyColumn copy() {
+			DoubleColumn col = new DoubleColumn();
+			col.present = (BitSet) present.clone();
+			col.values = values.clone();
+			return col;
+		}
+	}
+
+	private static class ObjectColumn extends PropertyColumn {
+		private Object[] values = new Object[0];
+
+		@Override
+		protected Object read(int edge) {
+			return values[edge];
+		}
+
+		@Override
+		protected void write(int edge, Object value) {
+			if (edge >= values.length) {
+				values = Arrays.copyOf(values, grow(values.length, edge));
+			}
+			values[edge] = value;
+		}
+
+		@Override
+		void remove(int edge) {
+			super.remove(edge);
+			if (edge < values.length) {
+				values[edge] = null;
+			}
+		}
+
+		@Override
+		protected PropertyColumn copy() {
+			ObjectColumn col = new ObjectColumn();
+			col.present = (BitSet) present.clone();
+			col.values = values.clone();
+			return col;
+		}
+	}
+
+	/*
+	 * --------------------------------------------------------------------------
+	 * subgraph views
+	 * --------------------------------------------------------------------------
+	 */
+
+	/**
+	 * A view of some nodes of the graph (those added to the view, plus those
+	 * matching a predicate) and the edges between them which match an edge
+	 * predicate, or which were added through the view. Changes made through the
+	 * view are made to the graph.
+	 */
+	public class SubGraphView extends AbstractSet<E> implements IModifiableRelationGraph<E, R> {
+
+		/** ids of the nodes added to this view */
+		private final BitSet members = new BitSet();
+		private final Predicate<? super E> nodepred;
+		/** null if every edge between shown nodes is shown */
+		private final Predicate<Triplet<E, R, E>> edgepred;
+		/** ids of the edges added through this view */
+		private final BitSet addedEdges = new BitSet();
+		private final CompactRelationGraph<E, R> self = CompactRelationGraph.this;
+
+		private SubGraphView(Iterable<?> nodes, Predicate<? super E> nodepred, Predicate<Triplet<E, R, E>> edgepred) {
+			this.nodepred = nodepred;
+			this.edgepred = edgepred;
+			for (Object node : nodes) {
+				int id = self.id(node);
+				if (id == NONE) {
+					throw new IllegalArgumentException("Not in graph: " + node);
+				}
+				members.set(id);
+			}
+			views.put(this, true);
+		}
+
+		private boolean showsNode(int id) {
+			return members.get(id) || (nodepred != null && nodepred.test(value(id)));
+		}
+
+		/** Get the id of a node in this view or throw an exception */
+		private int check(Object node) {
+			int id = self.node(node);
+			if (!showsNode(id)) {
+				throw new NodeNotFoundException(node);
+			}
+			return id;
+		}
+
+		private Predicate<Triplet<E, R, E>> andEdges(Predicate<Triplet<E, R, E>> other) {
+			if (edgepred == null) {
+				return other;
+			}
+			Predicate<Triplet<E, R, E>> mine = (trip) -> edgepred.test(trip)
+					|| addedEdges.get(edgeId(trip.getFirst(), trip.getSecond(), trip.getThird()));
+			return other == null ? mine : mine.and(other);
+		}
+
+		private int edgeId(E one, R type, E two) {
+			int x = self.id(one);
+			int y = self.id(two);
+			int t = typeId(type);
+			int at = x == NONE || y == NONE || t == NONE ? NONE : find(x, t, y);
+			return at == NONE ? 0 : adjacency[x][at + 2];
+		}
+
+		@Override
+		public int size() {
+			return self.size(this);
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return !iterator().hasNext();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return self.contains(this, o);
+		}
+
+		@Override
+		public boolean add(E e) {
+			self.add(e);
+			int id = self.id(e);
+			boolean had = members.get(id);
+			members.set(id);
+			return !had;
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			return contains(o) && self.remove(o);
+		}
+
+		@Override
+		public void clear() {
+			self.removeAll(new ArrayList<>(this));
+			members.clear();
+			addedEdges.clear();
+		}
+
+		@Override
+		public Iterator<E> iterator() {
+			return new NodeIterator(this);
+		}
+
+		@Override
+		public boolean subgraphRemove(E node) {
+			int id = self.id(node);
+			if (id == NONE || !members.get(id)) {
+				return false;
+			}
+			members.clear(id);
+			return true;
+		}
+
+		@Override
+		public boolean addEdge(E first, R type, E second) {
+			int x = check(first);
+			int y = check(second);
+			if (!self.addEdge(first, type, second)) {
+				return false;
+			}
+			addedEdges.set(adjacency[x][find(x, typeId(type), y) + 2]);
+			return true;
+		}
+
+		@Override
+		public Pair<Object, Object> checkEdgeEndsPermissible(Object first, IInvertibleRelationType type,
+				Object second) {
+			return self.checkEdgeEndsPermissible(first, type, second);
+		}
+
+		@Override
+		public E get(Object of) {
+			int id = self.id(of);
+			return id != NONE && showsNode(id) ? value(id) : null;
+		}
+
+		@Override
+		public void set(Object oldNode, E newNode) {
+			int x = check(oldNode);
+			boolean member = members.get(x);
+			self.set(oldNode, newNode);
+			if (member) {
+				members.set(self.id(newNode));
+			}
+		}
+
+		@Override
+		public boolean removeAllConnections(Object value) {
+			return contains(value) && self.removeEdges(self.id(value), NONE, NONE);
+		}
+
+		@Override
+		public boolean removeAllConnections(Object value, R type) {
+			int t = typeId(type);
+			return contains(value) && t != NONE && self.removeEdges(self.id(value), t, NONE);
+		}
+
+		@Override
+		public boolean removeAllConnections(Object value, Object other) {
+			return contains(value) && contains(other) && self.removeEdges(self.id(value), NONE, self.id(other));
+		}
+
+		@Override
+		public boolean removeEdge(Object value, R type, Object other) {
+			return containsEdge(value, type, other) && self.removeEdge(value, type, other);
+		}
+
+		@Override
+		public void removeBareNodes() {
+			List<E> bare = new ArrayList<>();
+			getBareNodes().forEach(bare::add);
+			self.removeAll(bare);
+		}
+
+		@Override
+		public <X> X getProperty(E one, R type, E two, IProperty<X> prop) {
+			check(one);
+			check(two);
+			return self.getProperty(this, one, type, two, prop, false);
+		}
+
+		@Override
+		public <X> X getProperty(E one, R type, E two, IProperty<X> prop, boolean computeIfAbsent) {
+			check(one);
+			check(two);
+			return self.getProperty(this, one, type, two, prop, computeIfAbsent);
+		}
+
+		@Override
+		public <X> X setProperty(E one, R type, E two, IProperty<X> prop, X val) {
+			check(one);
+			check(two);
+			return self.setProperty(this, one, type, two, prop, val);
+		}
+
+		@Override
+		public <X> void forEachEdgeProperty(E one, E two, IProperty<X> prop, Consumer<X> get) {
+			self.forEachEdgeProperty(this, check(one), NONE, check(two), prop, (a) -> {
+				get.accept(a);
+				return null;
+			});
+		}
+
+		@Override
+		public <X> void forEachEdgeProperty(E one, IProperty<X> prop, Consumer<X> get) {
+			self.forEachEdgeProperty(this, check(one), NONE, NONE, prop, (a) -> {
+				get.accept(a);
+				return null;
+			});
+		}
+
+		@Override
+		public <X> void forEachEdgeProperty(E one, R type, IProperty<X> prop, Consumer<X> get) {
+			int x = check(one);
+			int t = typeId(type);
+			if (t != NONE) {
+				self.forEachEdgeProperty(this, x, t, NONE, prop, (a) -> {
+					get.accept(a);
+					return null;
+				});
+			}
+		}
+
+		@Override
+		public <X> void forEachEdgeProperty(E one, E two, IProperty<X> prop, Function<X, X> getSet) {
+			self.forEachEdgeProperty(this, check(one), NONE, check(two), prop, getSet);
+		}
+
+		@Override
+		public <X> void forEachEdgeProperty(E one, IProperty<X> prop, Function<X, X> getSet) {
+			self.forEachEdgeProperty(this, check(one), NONE, NONE, prop, getSet);
+		}
+
+		@Override
+		public <X> void forEachEdgeProperty(E one, R type, IProperty<X> prop, Function<X, X> getSet) {
+			int x = check(one);
+			int t = typeId(type);
+			if (t != NONE) {
+				self.forEachEdgeProperty(this, x, t, NONE, prop, getSet);
+			}
+		}
+
+		@Override
+		public Set<E> getNeighbors(E node) {
+			return self.neighbors(this, check(node), NONE);
+		}
+
+		@Override
+		public Set<E> getNeighbors(E node, R type) {
+			int x = check(node);
+			int t = typeId(type);
+			return t == NONE ? new HashSet<>() : self.neighbors(this, x, t);
+		}
+
+		@Override
+		public boolean containsEdge(Object one, Object two) {
+			return self.hasEdge(this, one, NONE, two);
+		}
+
+		@Override
+		public boolean containsEdge(Object one, Object type, Object two) {
+			int t = typeId(type);
+			return t != NONE && self.hasEdge(this, one, t, two);
+		}
+
+		@Override
+		public int degree(E node) {
+			return self.degree(this, node, NONE);
+		}
+
+		@Override
+		public int degree(E node, R type) {
+			int t = typeId(type);
+			return t == NONE ? 0 : self.degree(this, node, t);
+		}
+
+		@Override
+		public boolean nodeHasConnections(Object one, R type) {
+			int t = typeId(type);
+			return t != NONE && self.degree(this, one, t) > 0;
+		}
+
+		@Override
+		public Set<R> getEdgeTypesBetween(E one, E two) {
+			int y = check(two);
+			return self.edgeTypes(this, check(one), y);
+		}
+
+		@Override
+		public Set<R> getOutgoingEdgeTypes(E node) {
+			return self.edgeTypes(this, check(node), NONE);
+		}
+
+		@Override
+		public int edgeCount() {
+			return self.edgeCount(this);
+		}
+
+		@Override
+		public Collection<R> getEdgeTypes() {
+			return self.typesInUse(this);
+		}
+
+		@Override
+		public Set<E> getNodeSetImmutable() {
+			return ImmutableSet.copyOf(this);
+		}
+
+		@Override
+		public Iterable<E> getBareNodes() {
+			return () -> this.stream().filter((a) -> self.degree(this, a, NONE) == 0).iterator();
+		}
+
+		@Override
+		public Iterator<Triplet<E, R, E>> edgeIterator() {
+			return new EdgeIterator(this, null);
+		}
+
+		@Override
+		public Iterator<Triplet<E, R, E>> edgeIterator(Collection<? extends R> forTypes) {
+			return new EdgeIterator(this, inverseClosedMask(forTypes));
+		}
+
+		@Override
+		public Iterator<Triplet<E, R, E>> outgoingEdges(E forNode) {
+			return new OutgoingEdgeIterator(this, check(forNode), NONE);
+		}
+
+		@Override
+		public Iterator<Triplet<E, R, E>> outgoingEdges(E forNode, R type) {
+			int x = check(forNode);
+			int t = typeId(type);
+			return t == NONE ? Collections.emptyIterator() : new OutgoingEdgeIterator(this, x, t);
+		}
+
+		@Override
+		public boolean forEachEdge(E forNode, EdgeVisitor<? super E, ? super R> visitor) {
+			return CompactRelationGraph.this.forEachEdge(this, check(forNode), NONE, visitor);
+		}
+
+		@Override
+		public boolean forEachEdge(E forNode, R type, EdgeVisitor<? super E, ? super R> visitor) {
+			int x = check(forNode);
+			int t = typeId(type);
+			return t == NONE || CompactRelationGraph.this.forEachEdge(this, x, t, visitor);
+		}
+
+		@Override
+		public String representation() {
+			return representation(Object::toString);
+		}
+
+		@Override
+		public String representation(Function<E, String> converter) {
+			return representation(converter, (Function<R, String>) Object::toString);
+		}
+
+		@Override
+		public String representation(Function<E, String> converter, Function<R, String> edgeConverter) {
+			return self.representation(this, converter, (t, p) -> edgeToString(t, true));
+		}
+
+		@Override
+		public String representation(Function<E, String> converter,
+				BiFunction<Triplet<E, R, E>, Map<IProperty<?>, Object>, String> edgeConverter) {
+			return self.representation(this, converter, edgeConverter);
+		}
+
+		@Override
+		public String edgeToString(E first, R second, E third, boolean includeEnds) {
+			return self.edgeToString(this, first, second, third, includeEnds);
+		}
+
+		@Override
+		public CompactRelationGraph<E, R> traverseBFS(E startPoint, Collection<? extends R> allowedEdgeTypes,
+				Consumer<E> forEachNode, BiPredicate<IProperty<?>, Object> applyAcrossObject) {
+			NodeTraversalIterator iter = new NodeTraversalIterator(this, startPoint, allowedEdgeTypes,
+					applyAcrossObject, true);
+			iter.forEachRemaining(forEachNode);
+			return iter.getVisited();
+		}
+
+		@Override
+		public CompactRelationGraph<E, R> traverseDFS(E startPoint, Collection<? extends R> allowedEdgeTypes,
+				Consumer<E> forEachNode, BiPredicate<IProperty<?>, Object> applyAcrossObject) {
+			NodeTraversalIterator iter = new NodeTraversalIterator(this, startPoint, allowedEdgeTypes,
+					applyAcrossObject, false);
+			iter.forEachRemaining(forEachNode);
+			return iter.getVisited();
+		}
+
+		@Override
+		public Iterator<E> nodeTraversalIteratorBFS(E startPoint, Collection<? extends R> allowedEdgeTypes,
+				BiPredicate<IProperty<?>, Object> applyAcrossObject) {
+			return new NodeTraversalIterator(this, startPoint, allowedEdgeTypes, applyAcrossObject, true);
+		}
+
+		@Override
+		public Iterator<E> nodeTraversalIteratorDFS(E startPoint, Collection<? extends R> allowedEdgeTypes,
+				BiPredicate<IProperty<?>, Object> applyAcrossObject) {
+			return new NodeTraversalIterator(this, startPoint, allowedEdgeTypes, applyAcrossObject, false);
+		}
+
+		@Override
+		public Iterator<Triplet<E, R, E>> edgeTraversalIteratorBFS(E startPoint,
+				Collection<? extends R> allowedEdgeTypes, BiPredicate<IProperty<?>, Object> applyAcrossObject) {
+			return new EdgeTraversalIterator(this, startPoint, allowedEdgeTypes, applyAcrossObject, true);
+		}
+
+		@Override
+		public Iterator<Triplet<E, R, E>> edgeTraversalIteratorDFS(E startPoint,
+				Collection<? extends R> allowedEdgeTypes, BiPredicate<IProperty<?>, Object> applyAcrossObject) {
+			return new EdgeTraversalIterator(this, startPoint, allowedEdgeTypes, applyAcrossObject, false);
+		}
+
+		@Override
+		public SubGraphView subgraph(Iterable<? extends E> nodes) {
+			return subgraph(nodes, null);
+		}
+
+		@Override
+		public SubGraphView subgraph(Iterable<? extends E> nodes, Predicate<Triplet<E, R, E>> edgePred) {
+			for (E node : nodes) {
+				if (!contains(node)) {
+					throw new IllegalArgumentException(node + " not in graph: " + this);
+				}
+			}
+			return new SubGraphView(nodes, null, andEdges(edgePred));
+		}
+
+		@Override
+		public SubGraphView subgraph(Predicate<? super E> nodes, Predicate<Triplet<E, R, E>> edgePred) {
+			Predicate<E> nodePred = (e) -> nodes.test(e) && contains(e);
+			return new SubGraphView(Collections.emptySet(), nodePred, andEdges(edgePred));
+		}
+
+		@Override
+		public boolean addAll(IRelationGraph<E, R> subgraph) {
+			boolean mod = false;
+			for (E node : subgraph) {
+				mod |= this.add(node);
+			}
+			Iterator<Triplet<E, R, E>> edges = subgraph.edgeIterator();
+			while (edges.hasNext()) {
+				Triplet<E, R, E> edge = edges.next();
+				mod |= this.addEdge(edge.getFirst(), edge.getSecond(), edge.getThird());
+			}
+			return mod;
+		}
+
+		@Override
+		public CompactRelationGraph<E, R> copy() {
+			return deepCopy(Function.identity());
+		}
+
+		@Override
+		public CompactRelationGraph<E, R> deepCopy(Function<E, E> cloner) {
+			CompactRelationGraph<E, R> graph = newGraph();
+			copyInto(graph, this, cloner, Function.identity());
+			return graph;
+		}
+
+		@Override
+		public <E2, R2 extends IInvertibleRelationType> CompactRelationGraph<E2, R2> mapCopy(
+				Function<E, E2> nodeMapper, Function<R, R2> edgeMapper) {
+			CompactRelationGraph<E2, R2> graph = new CompactRelationGraph<>(edgeProperties);
+			copyInto(graph, this, nodeMapper, edgeMapper);
+			return graph;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj instanceof IRelationGraph g) {
+				return this.getNodeSetImmutable().equals(g.getNodeSetImmutable()) && ImmutableSet
+						.copyOf(() -> this.edgeIterator()).equals(ImmutableSet.copyOf(() -> g.edgeIterator()));
+			}
+			return super.equals(obj);
+		}
+
+		@Override
+		public int hashCode() {
+			return getNodeSetImmutable().hashCode() + edgeCount();
+		}
+
+		@Override
+		public String toString() {
+			return this.getClass().getSimpleName() + "[V=" + size() + "/" + self.size() + ",E=" + edgeCount() + "/"
+					+ self.edgeCount() + "]";
+		}
+
+	}
+
+}
@@ -0,0 +1,70 @@
+package _utilities.graph;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import _utilities.property.IProperty;
+
+/**
+ * Which implementation backs a modifiable relation graph. {@link #HASHED} is
+ * the {@link RelationGraph}, with a node object and edge objects for every
+ * connection, which is quick to look up single edges in; {@link #COMPACT} is
+ * the {@link CompactRelationGraph}, which keeps nodes and edges in int arrays
+ * and takes far less memory for large graphs.
+ *
+ * @author borah
+ *
+ */
+public enum GraphBackend {
+	HASHED, COMPACT;
+
+	/**
+	 * Create an empty graph with this backend
+	 *
+	 * @param <E>
+	 * @param <R>
+	 * @return
+	 */
+	public <E, R extends IInvertibleRelationType> IModifiableRelationGraph<E, R> create() {
+		switch (this) {
+		case COMPACT:
+			return new CompactRelationGraph<>();
+		default:
+			return new RelationGraph<>();
+		}
+	}
+
+	/**
+	 * Create an empty graph with this backend whose edges return the given default
+	 * values for properties they have not set
+	 *
+	 * @param edgeProperties map of property -> supplier of default value
+	 * @return
+	 */
+	public <E, R extends IInvertibleRelationType> IModifiableRelationGraph<E, R> create(
+			Map<IProperty<?>, Supplier<Object>> edgeProperties) {
+		switch (this) {
+		case COMPACT:
+			return new CompactRelationGraph<>(edgeProperties);
+		default:
+			return new RelationGraph<>(edgeProperties);
+		}
+	}
+
+	/**
+	 * Create a graph with this backend holding a copy of the nodes and edges of
+	 * another graph
+	 *
+	 * @param other
+	 * @return
+	 */
+	public <E, R extends IInvertibleRelationType> IModifiableRelationGraph<E, R> copyOf(
+			IRelationGraph<E, R> other) {
+		switch (this) {
+		case COMPACT:
+			return new CompactRelationGraph<>(other);
+		default:
+			return new RelationGraph<>(other);
+		}
+	}
+}
@@ -2,6 +2,7 @@ package _utilities.graph;
 
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.BiFunction;
@@ -9,6 +10,7 @@ import java.util.function.BiPredicate;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
 
 import _utilities.couplets.Triplet;
 import _utilities.property.IProperty;
@@ -25,6 +27,23 @@ import thinker.concepts.relations.IConceptRelationType;
  */
 public interface IRelationGraph<E, R extends IInvertibleRelationType> extends Set<E> {
 
+	/**
+	 * Visits edges of a graph as their start, type and end, so that no triplet is
+	 * made for each edge
+	 */
+	@FunctionalInterface
+	public static interface EdgeVisitor<E, R> {
+		/**
+		 * Visit an edge; return false to visit no more edges
+		 * 
+		 * @param start
+		 * @param type
+		 * @param end
+		 * @return
+		 */
+		public boolean visit(E start, R type, E end);
+	}
+
 	/**
 	 * Return the subgraph with only the given nodes of this graph. This subgraph is
 	 * a *view* of the main graph, and reflects changes made to it. Similarly, a
@@ -314,6 +333,54 @@ public interface IRelationGraph<E, R extends IInvertibleRelationType> extends Se
 	 */
 	public Iterator<Triplet<E, R, E>> outgoingEdges(E forNode, R type);
 
+	/**
+	 * Give the visitor each edge coming out of the given node, until it returns
+	 * false; return whether every edge was visited. Unlike
+	 * {@link #outgoingEdges(Object)}, this need not make a triplet for each edge.
+	 * The graph must not be changed while visiting.
+	 * 
+	 * @param forNode
+	 * @param visitor
+	 * @return
+	 */
+	public default boolean forEachEdge(E forNode, EdgeVisitor<? super E, ? super R> visitor) {
+		return forEachEdge(outgoingEdges(forNode), visitor);
+	}
+
+	/**
+	 * Same as {@link #forEachEdge(Object, EdgeVisitor)}, but only for edges of the
+	 * given type
+	 * 
+	 * @param forNode
+	 * @param type
+	 * @param visitor
+	 * @return
+	 */
+	public default boolean forEachEdge(E forNode, R type, EdgeVisitor<? super E, ? super R> visitor) {
+		return forEachEdge(outgoingEdges(forNode, type), visitor);
+	}
+
+	/**
+	 * Same as {@link #forEachEdge(Object, EdgeVisitor)}, but for every edge of the
+	 * graph, in the order of {@link #edgeIterator()}
+	 * 
+	 * @param visitor
+	 * @return
+	 */
+	public default boolean forEachEdge(EdgeVisitor<? super E, ? super R> visitor) {
+		return forEachEdge(edgeIterator(), visitor);
+	}
+
+	private static <E, R> boolean forEachEdge(Iterator<? extends Triplet<E, R, E>> edges,
+			EdgeVisitor<? super E, ? super R> visitor) {
+		while (edges.hasNext()) {
+			Triplet<E, R, E> edge = edges.next();
+			if (!visitor.visit(edge.getFirst(), edge.getSecond(), edge.getThird()))
+				return false;
+		}
+		return true;
+	}
+
 	/**
 	 * Returns a string showing every connection in this graph
 	 * 
@@ -420,6 +487,80 @@ public interface IRelationGraph<E, R extends IInvertibleRelationType> extends Se
 	Iterator<Triplet<E, R, E>> edgeTraversalIteratorDFS(E startPoint, Collection<? extends R> allowedEdgeTypes,
 			BiPredicate<IProperty<?>, Object> applyAcrossObject);
 
+	/**
+	 * For each edge going out from this node whose type is one of the given types
+	 * (or any type, if null), give the consumer the edge's type, the node it leads
+	 * to, and the value of the given property on it; edges where the property is
+	 * null are skipped
+	 * 
+	 * @param node
+	 * @param allowedEdgeTypes
+	 * @param weight
+	 * @param action
+	 */
+	public default void forEachWeightedEdge(E node, Collection<? extends R> allowedEdgeTypes,
+			IProperty<? extends Number> weight, ShortestPaths.WeightedEdgeConsumer<E, R> action) {
+		for (R type : allowedEdgeTypes == null ? getOutgoingEdgeTypes(node) : allowedEdgeTypes) {
+			for (E to : getNeighbors(node, type)) {
+				Number w = getProperty(node, type, to, weight);
+				if (w != null) {
+					action.accept(type, to, w.doubleValue());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Find the shortest paths from the start point to every node reachable from it
+	 * along the allowed edge types (or any type, if null), where the length of each
+	 * edge is the value of the given property on it
+	 * 
+	 * @param startPoint
+	 * @param allowedEdgeTypes
+	 * @param weight
+	 * @return
+	 */
+	public default ShortestPaths<E, R> shortestPaths(E startPoint, Collection<? extends R> allowedEdgeTypes,
+			IProperty<? extends Number> weight) {
+		return ShortestPaths.search(this, startPoint, null, allowedEdgeTypes, weight, null, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Same as {@link #shortestPaths(Object, Collection, IProperty)}, but does not
+	 * explore past the given distance from the start point
+	 * 
+	 * @param startPoint
+	 * @param allowedEdgeTypes
+	 * @param weight
+	 * @param maxDistance
+	 * @return
+	 */
+	public default ShortestPaths<E, R> shortestPaths(E startPoint, Collection<? extends R> allowedEdgeTypes,
+			IProperty<? extends Number> weight, double maxDistance) {
+		return ShortestPaths.search(this, startPoint, null, allowedEdgeTypes, weight, null, maxDistance);
+	}
+
+	/**
+	 * Find the shortest path from the start point to the goal (A*), guided by a
+	 * heuristic estimate of each node's distance to the goal (which must be
+	 * consistent, see {@link ShortestPaths#search}; a null heuristic makes this
+	 * plain Dijkstra). Return the
+	 * nodes along the path including both ends, or an empty list if the goal is
+	 * unreachable.
+	 * 
+	 * @param startPoint
+	 * @param goal
+	 * @param allowedEdgeTypes
+	 * @param weight
+	 * @param heuristic
+	 * @return
+	 */
+	public default List<E> shortestPath(E startPoint, E goal, Collection<? extends R> allowedEdgeTypes,
+			IProperty<? extends Number> weight, ToDoubleFunction<? super E> heuristic) {
+		return ShortestPaths.search(this, startPoint, goal, allowedEdgeTypes, weight, heuristic,
+				Double.POSITIVE_INFINITY).pathTo(goal);
+	}
+
 	/**
 	 * Make copy of this graph
 	 * 
@@ -480,7 +621,8 @@ public interface IRelationGraph<E, R extends IInvertibleRelationType> extends Se
 
 	/**
 	 * Copy this graph and also try to make copies of the values of each node using
-	 * the given function.
+	 * the given function. Edges join the copies of the nodes they joined, so the
+	 * copies need not be equal to the originals.
 	 * 
 	 * @return
 	 */
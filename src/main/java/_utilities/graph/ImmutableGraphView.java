@@ -221,6 +221,21 @@ public class ImmutableGraphView<E, R extends IInvertibleRelationType> implements
 		return Iterators.unmodifiableIterator(inner.outgoingEdges(forNode, type));
 	}
 
+	@Override
+	public boolean forEachEdge(E forNode, EdgeVisitor<? super E, ? super R> visitor) {
+		return inner.forEachEdge(forNode, visitor);
+	}
+
+	@Override
+	public boolean forEachEdge(E forNode, R type, EdgeVisitor<? super E, ? super R> visitor) {
+		return inner.forEachEdge(forNode, type, visitor);
+	}
+
+	@Override
+	public boolean forEachEdge(EdgeVisitor<? super E, ? super R> visitor) {
+		return inner.forEachEdge(visitor);
+	}
+
 	@Override
 	public Iterator<Triplet<E, R, E>> edgeTraversalIteratorBFS(E startPoint, Collection<? extends R> allowedEdgeTypes,
 			BiPredicate<IProperty<?>, Object> applyAcrossObject) {
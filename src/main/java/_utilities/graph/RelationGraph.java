@@ -1,6 +1,9 @@
 package _utilities.graph;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -9,9 +12,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.PriorityQueue;
 import java.util.Set;
-import java.util.Stack;
 import java.util.WeakHashMap;
 import java.util.function.BiFunction;
 import java.util.function.BiPredicate;
@@ -509,10 +510,13 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 
 		private E value;
 		private Table<R, E, IInvertibleEdge<E, R>> edges;
+		/** dense id of this node in the graph, reused after the node is removed */
+		private final int id;
 
 		public Node(E value) {
 			this.value = value;
 			this.edges = HashBasedTable.create();
+			this.id = acquireNodeId();
 		}
 
 		public E getValue() {
@@ -637,6 +641,10 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 	private Map<E, INode<E, R>> V;
 	private Multimap<R, IInvertibleEdge<E, R>> E;
 	private WeakHashMap<SubGraphView, Boolean> weaks;
+	/** ids of removed nodes, available for reuse */
+	private int[] freeNodeIds = new int[0];
+	private int freeNodeIdCount;
+	private int nextNodeId;
 
 	public RelationGraph() {
 		this.edgeProperties = Collections.emptyMap();
@@ -750,11 +758,29 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 		if (node == null) {
 			node = new Node(e);
 			this.V.put(e, node);
+			onNodeAdded(e);
 			return true;
 		}
 		return false;
 	}
 
+	/**
+	 * Called after a node with this value is put into the graph, so subclasses can
+	 * keep their own indices of nodes
+	 * 
+	 * @param value
+	 */
+	protected void onNodeAdded(E value) {
+	}
+
+	/**
+	 * Called after the node with this value is taken out of the graph
+	 * 
+	 * @param value
+	 */
+	protected void onNodeRemoved(E value) {
+	}
+
 	/**
 	 * Return Null and do nothing if there is already an edge; else return the newly
 	 * made edge
@@ -816,6 +842,10 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 			Integer secondCount = (Integer) edgmsg.getSecond();
 			INode<E, R> firstNode = node(first, 1);
 			INode<E, R> secondNode = node(second, 2);
+			if (firstNode.getEdge(second, type) != null) {
+				// already there, so it cannot push the count over any cap
+				return false;
+			}
 			if (firstCount != null && secondNode.getEdgesOfType((R) type.invert()).size() >= firstCount) {
 				throw new IllegalArgumentException("Cannot add edge between " + first + " and " + second + " of type "
 						+ type + ", because (inverse) " + type.invert() + " caps count at " + firstCount
@@ -895,12 +925,36 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 			combineNodes(oldnode, newnode);
 		} else {
 			INode<E, R> nod = node(node);
+			E oldValue = nod.getValue();
 			nod.setValue(newNode);
 			this.V.remove(node);
+			onNodeRemoved(oldValue);
 			this.V.put(newNode, nod);
+			onNodeAdded(newNode);
 		}
 	}
 
+	/**
+	 * Return an unused node id, reusing the ids of removed nodes so that ids stay
+	 * below the largest number of nodes the graph has held
+	 */
+	private int acquireNodeId() {
+		if (freeNodeIdCount > 0) {
+			return freeNodeIds[--freeNodeIdCount];
+		}
+		return nextNodeId++;
+	}
+
+	/**
+	 * Mark the id of a node removed from this graph as reusable
+	 */
+	private void releaseNodeId(INode<E, R> node) {
+		if (freeNodeIdCount == freeNodeIds.length) {
+			freeNodeIds = Arrays.copyOf(freeNodeIds, Math.max(8, freeNodeIdCount * 2));
+		}
+		freeNodeIds[freeNodeIdCount++] = ((Node) node).id;
+	}
+
 	/**
 	 * Get a node or throw an exception
 	 */
@@ -1112,7 +1166,9 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 		if (node == null) {
 			return false;
 		} else {
+			onNodeRemoved(node.getValue());
 			removeConnections(node);
+			releaseNodeId(node);
 			return true;
 		}
 	}
@@ -1125,6 +1181,7 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 			if (node == null) {
 				node = new Node(e);
 				V.put(e, node);
+				onNodeAdded(e);
 				mod = true;
 			}
 		}
@@ -1148,10 +1205,12 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 			INode<E, R> node = nodeI.next();
 			if (!c.contains(node.getValue())) {
 				nodeI.remove();
+				onNodeRemoved(node.getValue());
 				for (SubGraphView view : this.weaks.keySet()) {
 					view.nodes.remove(node.getValue());
 				}
 				removeConnections(node);
+				releaseNodeId(node);
 				mod = true;
 			}
 		}
@@ -1160,8 +1219,14 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 
 	@Override
 	public void clear() {
+		for (E value : V.keySet()) {
+			onNodeRemoved(value);
+		}
 		V.clear();
 		E.clear();
+		freeNodeIds = new int[0];
+		freeNodeIdCount = 0;
+		nextNodeId = 0;
 		for (SubGraphView view : this.weaks.keySet()) {
 			view.nodes.clear();
 		}
@@ -1201,6 +1266,8 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 		for (INode<E, R> node = iterator.next(); iterator.hasNext(); node = iterator.next()) {
 			if (node.getAllEdges().isEmpty()) {
 				iterator.remove();
+				onNodeRemoved(node.getValue());
+				releaseNodeId(node);
 			}
 		}
 
@@ -1467,6 +1534,31 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 		return CollectionUtils.mappedIterator(node(forNode).getEdgesOfType(rel).iterator(), IInvertibleEdge::asTriplet);
 	}
 
+	@Override
+	public boolean forEachEdge(E forNode, EdgeVisitor<? super E, ? super R> visitor) {
+		return forEachEdge(node(forNode).getAllEdges(), visitor);
+	}
+
+	@Override
+	public boolean forEachEdge(E forNode, R type, EdgeVisitor<? super E, ? super R> visitor) {
+		return forEachEdge(node(forNode).getEdgesOfType(type), visitor);
+	}
+
+	@Override
+	public boolean forEachEdge(EdgeVisitor<? super E, ? super R> visitor) {
+		return forEachEdge(E.values(), visitor);
+	}
+
+	/** Visit the given edges directly, without their triplets */
+	private boolean forEachEdge(Collection<? extends IInvertibleEdge<E, R>> edges,
+			EdgeVisitor<? super E, ? super R> visitor) {
+		for (IInvertibleEdge<E, R> edge : edges) {
+			if (!visitor.visit(edge.getStart().getValue(), edge.getType(), edge.getEnd().getValue()))
+				return false;
+		}
+		return true;
+	}
+
 	public Collection<? extends Triplet<E, R, E>> edgeCollection() {
 		return new EdgeCollection();
 	}
@@ -1515,7 +1607,7 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 		NodeTraversalIterator iter = new NodeTraversalIterator(startPoint, allowedEdgeTypes,
 				constructPred(applyAcrossObject, this.edgeProperties), true);
 		iter.forEachRemaining(forEachNode);
-		return iter.visited;
+		return iter.getVisited();
 
 	}
 
@@ -1534,7 +1626,7 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 		NodeTraversalIterator iter = new NodeTraversalIterator(startPoint, allowedEdgeTypes,
 				constructPred(applyAcrossObject, this.edgeProperties), false);
 		iter.forEachRemaining(forEachNode);
-		return iter.visited;
+		return iter.getVisited();
 
 	}
 
@@ -1632,33 +1724,59 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 		return new EdgeTraversalIterator(startPoint, allowedEdgeTypes, applyAcrossObject, this.edgeProperties, false);
 	}
 
+	@Override
+	public void forEachWeightedEdge(E node, Collection<? extends R> allowedEdgeTypes,
+			IProperty<? extends Number> weight, ShortestPaths.WeightedEdgeConsumer<E, R> action) {
+		INode<E, R> from = node(node);
+		Supplier<Object> sup = edgeProperties.get(weight);
+		Object defaultVal = sup != null ? sup.get() : weight.defaultValue();
+		for (R type : allowedEdgeTypes == null ? from.getEdgeTypes() : allowedEdgeTypes) {
+			for (IInvertibleEdge<E, R> edge : from.getEdgesOfType(type)) {
+				Object w = edge.getPropertyValue(weight);
+				if (w == null) {
+					w = defaultVal;
+				}
+				if (w != null) {
+					action.accept(type, edge.getEnd().getValue(), ((Number) w).doubleValue());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Return the tree of shortest paths (by the given edge property) from the start
+	 * point to every node reachable from it along the allowed edge types, as a
+	 * graph whose edges carry their weights
+	 * 
+	 * @param <X>
+	 * @param startPoint
+	 * @param allowedEdgeTypes
+	 * @param property
+	 * @return
+	 */
 	public <X extends Number> RelationGraph<E, R> singleSourceShortestPathDijkstra(E startPoint,
 			Collection<? extends R> allowedEdgeTypes, IProperty<X> property) {
-		RelationGraph<E, R> visited = new RelationGraph<>();
-		Map<E, Double> distances = new HashMap<>();
-		distances.put(startPoint, 0d);
-		PriorityQueue<E> unvisited = new PriorityQueue<>((a, b) -> {
-			double a1 = distances.getOrDefault(a, Double.POSITIVE_INFINITY);
-			double b1 = distances.getOrDefault(b, Double.POSITIVE_INFINITY);
-			return Double.compare(a1, b1);
-		});
-		unvisited.offer(startPoint);
-		int i = 0;
-		while (!unvisited.isEmpty() && i < V.size()) {
-			E u = unvisited.poll();
-
-			for (R r : allowedEdgeTypes) {
-				for (E e : getNeighbors(u, r)) {
-					if (!visited.contains(e)) {
-						unvisited.offer(e);
-					}
+		ShortestPaths<E, R> paths = this.shortestPaths(startPoint, allowedEdgeTypes, property);
+		RelationGraph<E, R> tree = new RelationGraph<>() {
+			public _utilities.couplets.Pair<Object, Object> checkEdgeEndsPermissible(Object first,
+					IInvertibleRelationType type, Object second) {
+				return Pair.of(null, null);
+			};
+		};
+		List<E> reached = paths.reachedNodes();
+		tree.addAll(reached);
+		for (E node : reached) {
+			E pred = paths.predecessor(node);
+			if (pred != null) {
+				R type = paths.predecessorEdge(node);
+				tree.addEdge(pred, type, node);
+				X val = this.node(pred).getEdge(node, type).getPropertyValue(property);
+				if (val != null) {
+					tree.node(pred).getEdge(node, type).setPropertyValue(property, val);
 				}
 			}
-			// TODO write dijkstra's if needed
-
-			i++;
 		}
-		return visited;
+		return tree;
 	}
 
 	public class NodeIterator implements Iterator<E> {
@@ -1686,6 +1804,7 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 		public void remove() {
 			noderator.remove();
 			if (former != null) {
+				onNodeRemoved(former.getValue());
 				RelationGraph.this.remove(former);
 			}
 		}
@@ -1867,11 +1986,25 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 		}
 	}
 
+	/**
+	 * Iterates over the nodes reachable from a start node, each exactly once.
+	 * Visited nodes are marked in a bitset indexed by node id and the frontier is
+	 * a deque of the edges leading to unvisited nodes (a queue for BFS, a stack
+	 * for DFS). The spanning tree of visited nodes is only recorded as a list of
+	 * edges, and is built into a graph when {@link #getVisited()} is called.
+	 */
 	public class NodeTraversalIterator implements Iterator<E> {
 
+		private final boolean BFS;
+		private final BitSet seen = new BitSet();
+		private final ArrayDeque<IInvertibleEdge<E, R>> frontier = new ArrayDeque<>();
+		/** edge by which each visited node after the first was reached, in order */
+		private final List<IInvertibleEdge<E, R>> treeEdges = new ArrayList<>();
+		private final E firstNode;
+		private Node pendingFirst;
 		private RelationGraph<E, R> visited;
-		private ArrayList<Pair<IInvertibleEdge<E, R>, INode<E, R>>> toVisit;
-		private Stack<Pair<IInvertibleEdge<E, R>, INode<E, R>>> toVisit2;
+		private boolean builtFirst;
+		private int builtEdges;
 		private Collection<? extends R> allowedEdgeTypes;
 		private INode<E, R> priorNode;
 		private Predicate<IInvertibleEdge<E, R>> propertyPredicate;
@@ -1907,29 +2040,36 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 		 */
 		public NodeTraversalIterator(E firstNode, Collection<? extends R> allowedEdgeTypes,
 				Predicate<IInvertibleEdge<E, R>> propertyPredicate, boolean BFS) {
-			this.visited = new RelationGraph<>() {
-				public _utilities.couplets.Pair<Object, Object> checkEdgeEndsPermissible(Object first,
-						IInvertibleRelationType type, Object second) {
-					return Pair.of(null, null);
-				};
-			};
+			this.BFS = BFS;
 			this.allowedEdgeTypes = allowedEdgeTypes;
 			this.propertyPredicate = propertyPredicate;
-			if (BFS) {
-				this.toVisit = new ArrayList<>();
-				toVisit.add(Pair.of(null, node(firstNode)));
-			} else {
-				this.toVisit2 = new Stack<>();
-				toVisit2.push(Pair.of(null, node(firstNode)));
-			}
+			this.pendingFirst = (Node) node(firstNode);
+			this.firstNode = pendingFirst.getValue();
+			seen.set(pendingFirst.id);
 		}
 
 		/**
-		 * Return a view of all already-visited nodes
+		 * Return a graph of all already-visited nodes, connected by the edges they were
+		 * reached by
 		 * 
 		 * @return
 		 */
 		public RelationGraph<E, R> getVisited() {
+			if (visited == null) {
+				visited = newTraversalGraph();
+			}
+			if (!builtFirst && pendingFirst == null) {
+				visited.add(firstNode);
+				builtFirst = true;
+			}
+			for (; builtEdges < treeEdges.size(); builtEdges++) {
+				IInvertibleEdge<E, R> edge = treeEdges.get(builtEdges);
+				visited.add(edge.getEnd().getValue());
+				// the start may be missing if it was removed during iteration
+				if (visited.contains(edge.getStart().getValue())) {
+					visited.connectEdge(edge);
+				}
+			}
 			return visited;
 		}
 
@@ -1941,66 +2081,110 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 			if (priorNode == null) {
 				throw new IllegalStateException();
 			}
-			visited.remove(priorNode.getValue());
+			getVisited().remove(priorNode.getValue());
 			RelationGraph.this.remove(priorNode.getValue());
+			priorNode = null;
 		}
 
 		@Override
 		public boolean hasNext() {
-			return toVisit == null ? !toVisit2.isEmpty() : !toVisit.isEmpty();
+			if (pendingFirst != null) {
+				return true;
+			}
+			if (!BFS) {
+				// DFS marks nodes when popped, so the stack may hold stale edges
+				while (!frontier.isEmpty() && seen.get(((Node) frontier.peekLast().getEnd()).id)) {
+					frontier.pollLast();
+				}
+			}
+			return !frontier.isEmpty();
 		}
 
-		@SuppressWarnings("unchecked")
 		@Override
 		public E next() {
-			if (toVisit == null ? toVisit2.isEmpty() : toVisit.isEmpty()) {
+			if (!hasNext()) {
 				throw new NoSuchElementException();
 			}
-			Pair<IInvertibleEdge<E, R>, INode<E, R>> pair = toVisit == null ? toVisit2.pop() : toVisit.remove(0);
-			INode<E, R> firstNode = pair.getSecond();
-			priorNode = firstNode;
-			visited.add(firstNode.getValue());
-			if (pair.getFirst() != null) {
-				visited.addEdge(pair.getFirst().getStart().getValue(), pair.getFirst().getType(),
-						pair.getSecond().getValue());
-				IInvertibleEdge<E, R> edgenew = visited.node(pair.getFirst().getStart().getValue())
-						.getEdge(pair.getFirst().getEnd().getValue(), pair.getFirst().getType());
-				for (IProperty prop : pair.getFirst().getProperties()) {
-					edgenew.setPropertyValue(prop, pair.getFirst().getPropertyValue(prop));
+			Node node;
+			if (pendingFirst != null) {
+				node = pendingFirst;
+				pendingFirst = null;
+			} else {
+				IInvertibleEdge<E, R> edge = BFS ? frontier.pollFirst() : frontier.pollLast();
+				node = (Node) edge.getEnd();
+				seen.set(node.id);
+				treeEdges.add(edge);
+			}
+			priorNode = node;
+			if (allowedEdgeTypes == null) {
+				for (IInvertibleEdge<E, R> edge : node.getAllEdges()) {
+					offer(edge);
 				}
-			}
-			for (R type : allowedEdgeTypes == null ? Sets.newHashSet((R) null) : allowedEdgeTypes) {
-				for (IInvertibleEdge<E, R> edge : type == null ? firstNode.getAllEdges()
-						: firstNode.getEdgesOfType(type)) {
-					if (!visited.contains(edge.getEnd().getValue())
-							&& (allowedNodes == null || allowedNodes.contains(edge.getEnd().getValue()))) {
-
-						if (!propertyPredicate.test(edge))
-							continue;
-						if (toVisit == null) {
-							toVisit2.push(Pair.of(edge, edge.getEnd()));
-						} else {
-							toVisit.add(Pair.of(edge, edge.getEnd()));
-						}
+			} else {
+				for (R type : allowedEdgeTypes) {
+					for (IInvertibleEdge<E, R> edge : node.getEdgesOfType(type)) {
+						offer(edge);
 					}
 				}
 			}
-			return firstNode.getValue();
+			return node.getValue();
+		}
+
+		private void offer(IInvertibleEdge<E, R> edge) {
+			Node end = (Node) edge.getEnd();
+			if (seen.get(end.id) || (allowedNodes != null && !allowedNodes.contains(end.getValue()))
+					|| !propertyPredicate.test(edge)) {
+				return;
+			}
+			if (BFS) {
+				// BFS marks nodes when queued, so each is queued once
+				seen.set(end.id);
+			}
+			frontier.addLast(edge);
 		}
 
 	}
 
+	/**
+	 * Graph which the traversal iterators record visited nodes and edges into;
+	 * edges are not checked against their relation type
+	 */
+	private RelationGraph<E, R> newTraversalGraph() {
+		return new RelationGraph<>() {
+			public _utilities.couplets.Pair<Object, Object> checkEdgeEndsPermissible(Object first,
+					IInvertibleRelationType type, Object second) {
+				return Pair.of(null, null);
+			};
+		};
+	}
+
+	/**
+	 * Make a predicate testing the property predicate against every property of an
+	 * edge, including the properties with default values which the edge has not
+	 * set
+	 */
 	private static <E, R extends IInvertibleRelationType> Predicate<IInvertibleEdge<E, R>> constructPred(
 			BiPredicate<IProperty<?>, Object> propertyPredicate, Map<IProperty<?>, Supplier<Object>> ep) {
 		return (edge) -> {
-			for (IProperty<?> prop : new HashSet<>(Sets.union(edge.getProperties(), ep.keySet()))) {
+			Set<IProperty<?>> props = edge.getProperties();
+			for (IProperty<?> prop : props) {
 				Object va = edge.getPropertyValue(prop);
-				if (va == null)
-					va = ep.get(prop).get();
+				if (va == null) {
+					Supplier<Object> sup = ep.get(prop);
+					va = sup == null ? null : sup.get();
+				}
 				if (!propertyPredicate.test(prop, va)) {
 					return false;
 				}
 			}
+			for (Map.Entry<IProperty<?>, Supplier<Object>> entry : ep.entrySet()) {
+				if (props.contains(entry.getKey())) {
+					continue;
+				}
+				if (!propertyPredicate.test(entry.getKey(), entry.getValue().get())) {
+					return false;
+				}
+			}
 			return true;
 		};
 	}
@@ -2008,8 +2192,9 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 	public class EdgeTraversalIterator implements Iterator<Triplet<E, R, E>> {
 
 		private RelationGraph<E, R> visited;
-		private ArrayList<IInvertibleEdge<E, R>> toVisit;
-		private Stack<IInvertibleEdge<E, R>> toVisit2;
+		private final boolean BFS;
+		/** edges still to visit; a queue for BFS, a stack for DFS */
+		private final ArrayDeque<IInvertibleEdge<E, R>> toVisit = new ArrayDeque<>();
 		private Collection<? extends R> allowedEdgeTypes;
 		private IInvertibleEdge<E, R> priorEdge;
 		private Predicate<IInvertibleEdge<E, R>> propertyPredicate;
@@ -2030,21 +2215,11 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 
 		private EdgeTraversalIterator(E firstNode, Collection<? extends R> allowedEdgeTypes,
 				Predicate<IInvertibleEdge<E, R>> propertyPredicate, boolean BFS, Collection<? extends E> allowedNodes) {
-			this.visited = new RelationGraph<>() {
-				public _utilities.couplets.Pair<Object, Object> checkEdgeEndsPermissible(Object first,
-						IInvertibleRelationType type, Object second) {
-					return Pair.of(null, null);
-				};
-			};
+			this.visited = newTraversalGraph();
+			this.BFS = BFS;
 			this.allowedEdgeTypes = allowedEdgeTypes;
 			this.propertyPredicate = propertyPredicate;
 
-			if (BFS) {
-				this.toVisit = new ArrayList<>();
-			} else {
-				this.toVisit2 = new Stack<>();
-			}
-
 			if (allowedNodes != null) {
 				if (!allowedNodes.contains(firstNode)) {
 					throw new IllegalArgumentException(firstNode + " --/--> " + allowedNodes);
@@ -2061,11 +2236,7 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 					}
 					if (!propertyPredicate.test(edge))
 						continue;
-					if (toVisit == null) {
-						toVisit2.push(edge);
-					} else {
-						toVisit.add(edge);
-					}
+					toVisit.addLast(edge);
 
 				}
 			}
@@ -2094,15 +2265,15 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 
 		@Override
 		public boolean hasNext() {
-			return toVisit == null ? !toVisit2.isEmpty() : !toVisit.isEmpty();
+			return !toVisit.isEmpty();
 		}
 
 		@Override
 		public Triplet<E, R, E> next() {
-			if (toVisit == null ? toVisit2.isEmpty() : toVisit.isEmpty()) {
+			if (toVisit.isEmpty()) {
 				throw new NoSuchElementException();
 			}
-			IInvertibleEdge<E, R> firstEdge = toVisit == null ? toVisit2.pop() : toVisit.remove(0);
+			IInvertibleEdge<E, R> firstEdge = BFS ? toVisit.pollFirst() : toVisit.pollLast();
 			priorEdge = firstEdge;
 			Triplet<E, R, E> edgerep = Triplet.of(firstEdge.getStart().getValue(), firstEdge.getType(),
 					firstEdge.getEnd().getValue());
@@ -2129,11 +2300,7 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 					if (!this.propertyPredicate.test(edge))
 						continue;
 					if (!visited.containsEdge(dir1)) {
-						if (toVisit == null) {
-							toVisit2.push(edge);
-						} else {
-							toVisit.add(edge);
-						}
+						toVisit.addLast(edge);
 					}
 				}
 			}
@@ -2248,6 +2415,22 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 		return deepCopy(Function.identity());
 	}
 
+	/**
+	 * A shallow clone with its own (empty) node and edge structures, rather than
+	 * sharing this graph's
+	 */
+	@Override
+	protected Object clone() throws CloneNotSupportedException {
+		RelationGraph<E, R> copy = (RelationGraph<E, R>) super.clone();
+		copy.V = new HashMap<>();
+		copy.E = MultimapBuilder.hashKeys().hashSetValues().build();
+		copy.weaks = new WeakHashMap<>();
+		copy.freeNodeIds = new int[0];
+		copy.freeNodeIdCount = 0;
+		copy.nextNodeId = 0;
+		return copy;
+	}
+
 	@Override
 	public IModifiableRelationGraph<E, R> deepCopy(Function<E, E> cloner) {
 		RelationGraph<E, R> newGraph;
@@ -2258,13 +2441,17 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 		}
 		newGraph.clear();
 		newGraph.edgeProperties = this.edgeProperties;
+		Map<E, INode<E, R>> copies = new HashMap<>();
 		for (E node : V.keySet()) {
 			E n = cloner.apply(node);
-			newGraph.V.put(n, newGraph.new Node(n));
+			INode<E, R> copy = newGraph.new Node(n);
+			newGraph.V.put(n, copy);
+			copies.put(node, copy);
+			newGraph.onNodeAdded(n);
 		}
 		for (IInvertibleEdge<E, R> edge : E.values()) {
-			INode<E, R> start = newGraph.V.get(edge.getStart().getValue());
-			INode<E, R> end = newGraph.V.get(edge.getEnd().getValue());
+			INode<E, R> start = copies.get(edge.getStart().getValue());
+			INode<E, R> end = copies.get(edge.getEnd().getValue());
 			Edge newedge = newGraph.new Edge(edge.getType(), start, end);
 			for (IProperty<?> prop : edge.getProperties()) {
 				newedge.properties.put(prop, edge.getPropertyValue(prop));
@@ -2432,9 +2619,12 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 				INode<E, R> newnode = node(newNode);
 				combineNodes(nod, newnode);
 			} else {
+				E oldValue = nod.getValue();
 				nod.setValue(newNode);
 				V.remove(oldNode);
+				onNodeRemoved(oldValue);
 				V.put(newNode, nod);
+				onNodeAdded(newNode);
 				nodes.remove(oldNode);
 				nodes.put(newNode, nod);
 			}
@@ -2571,8 +2761,10 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 
 			Set<E> nset = self.V.keySet().parallelStream().filter((a) -> contains(a)).collect(Collectors.toSet());
 
+			Predicate<IInvertibleEdge<E, R>> pred = RelationGraph.<E, R>constructPred(applyAcrossObject,
+					edgeProperties);
 			return new EdgeTraversalIterator(startPoint, allowedEdgeTypes,
-					(edge) -> (RelationGraph.<E, R>constructPred(applyAcrossObject, edgeProperties).test(edge)
+					(edge) -> (pred.test(edge)
 							&& this.edgepred.test(edge.asTriplet())),
 					true, nset);
 		}
@@ -2581,8 +2773,10 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 		public Iterator<Triplet<E, R, E>> edgeTraversalIteratorDFS(E startPoint,
 				Collection<? extends R> allowedEdgeTypes, BiPredicate<IProperty<?>, Object> applyAcrossObject) {
 			Set<E> nset = self.V.keySet().parallelStream().filter((a) -> contains(a)).collect(Collectors.toSet());
+			Predicate<IInvertibleEdge<E, R>> pred = RelationGraph.<E, R>constructPred(applyAcrossObject,
+					edgeProperties);
 			return new EdgeTraversalIterator(startPoint, allowedEdgeTypes,
-					(edge) -> (RelationGraph.<E, R>constructPred(applyAcrossObject, edgeProperties).test(edge)
+					(edge) -> (pred.test(edge)
 							&& this.edgepred.test(edge.asTriplet())),
 					false, nset);
 		}
@@ -2706,8 +2900,10 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 		@Override
 		public Iterator<E> nodeTraversalIteratorBFS(E startPoint, Collection<? extends R> allowedEdgeTypes,
 				BiPredicate<IProperty<?>, Object> applyAcrossObject) {
+			Predicate<IInvertibleEdge<E, R>> pred = RelationGraph.<E, R>constructPred(applyAcrossObject,
+					edgeProperties);
 			return new NodeTraversalIterator(startPoint, allowedEdgeTypes,
-					(edge) -> (RelationGraph.<E, R>constructPred(applyAcrossObject, edgeProperties).test(edge)
+					(edge) -> (pred.test(edge)
 							&& this.edgepred.test(edge.asTriplet())),
 					true, new FilteredCollectionView<>(self.V.keySet(), this::contains));
 		}
@@ -2715,8 +2911,10 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 		@Override
 		public Iterator<E> nodeTraversalIteratorDFS(E startPoint, Collection<? extends R> allowedEdgeTypes,
 				BiPredicate<IProperty<?>, Object> applyAcrossObject) {
+			Predicate<IInvertibleEdge<E, R>> pred = RelationGraph.<E, R>constructPred(applyAcrossObject,
+					edgeProperties);
 			return new NodeTraversalIterator(startPoint, allowedEdgeTypes,
-					(edge) -> (RelationGraph.<E, R>constructPred(applyAcrossObject, edgeProperties).test(edge)
+					(edge) -> (pred.test(edge)
 							&& this.edgepred.test(edge.asTriplet())),
 					false, new FilteredCollectionView<>(self.V.keySet(), this::contains));
 		}
@@ -2846,23 +3044,27 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 		@Override
 		public IModifiableRelationGraph<E, R> traverseBFS(E startPoint, Collection<? extends R> allowedEdgeTypes,
 				Consumer<E> forEachNode, BiPredicate<IProperty<?>, Object> applyAcrossObject) {
+			Predicate<IInvertibleEdge<E, R>> pred = RelationGraph.<E, R>constructPred(applyAcrossObject,
+					edgeProperties);
 			NodeTraversalIterator iter = new NodeTraversalIterator(startPoint, allowedEdgeTypes,
-					(edge) -> (RelationGraph.<E, R>constructPred(applyAcrossObject, edgeProperties).test(edge)
+					(edge) -> (pred.test(edge)
 							&& this.edgepred.test(edge.asTriplet())),
 					true, new FilteredCollectionView<>(self.V.keySet(), this::contains));
 			iter.forEachRemaining(forEachNode);
-			return iter.visited;
+			return iter.getVisited();
 		}
 
 		@Override
 		public IModifiableRelationGraph<E, R> traverseDFS(E startPoint, Collection<? extends R> allowedEdgeTypes,
 				Consumer<E> forEachNode, BiPredicate<IProperty<?>, Object> applyAcrossObject) {
+			Predicate<IInvertibleEdge<E, R>> pred = RelationGraph.<E, R>constructPred(applyAcrossObject,
+					edgeProperties);
 			NodeTraversalIterator iter = new NodeTraversalIterator(startPoint, allowedEdgeTypes,
-					(edge) -> (RelationGraph.<E, R>constructPred(applyAcrossObject, edgeProperties).test(edge)
+					(edge) -> (pred.test(edge)
 							&& this.edgepred.test(edge.asTriplet())),
 					false, new FilteredCollectionView<>(self.V.keySet(), this::contains));
 			iter.forEachRemaining(forEachNode);
-			return iter.visited;
+			return iter.getVisited();
 		}
 
 		@Override
@@ -2985,17 +3187,20 @@ public class RelationGraph<E, R extends IInvertibleRelationType> implements IMod
 		public IModifiableRelationGraph<E, R> deepCopy(Function<E, E> cloner) {
 			RelationGraph<E, R> newGraph = new RelationGraph<>();
 			newGraph.edgeProperties = self.edgeProperties;
+			Map<E, INode<E, R>> copies = new HashMap<>();
 			for (E node : new FilteredCollectionView<>(self.V.keySet(), this::contains)) {
 				E n = cloner.apply(node);
-				newGraph.V.put(n, newGraph.new Node(n));
+				INode<E, R> copy = newGraph.new Node(n);
+				newGraph.V.put(n, copy);
+				copies.put(node, copy);
 			}
 			for (IInvertibleEdge<E, R> edge : E.values()) {
 				if (!edgepred.test(edge.asTriplet()) || !contains(edge.getStart().getValue())
 						|| !contains(edge.getEnd().getValue())) {
 					continue;
 				}
-				INode<E, R> start = newGraph.V.get(edge.getStart().getValue());
-				INode<E, R> end = newGraph.V.get(edge.getEnd().getValue());
+				INode<E, R> start = copies.get(edge.getStart().getValue());
+				INode<E, R> end = copies.get(edge.getEnd().getValue());
 				Edge newedge = newGraph.new Edge(edge.getType(), start, end);
 				for (IProperty<?> prop : edge.getProperties()) {
 					newedge.properties.put(prop, edge.getPropertyValue(prop));
@@ -0,0 +1,255 @@
+package _utilities.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import _utilities.collections.IndexedDoubleHeap;
+import _utilities.property.IProperty;
+
+/**
+ * The result of a weighted shortest-path search (Dijkstra, or A* if a heuristic
+ * is given) over a relation graph, where the weight of each edge is the value
+ * of some numeric {@link IProperty} on it. Nodes are given dense ids in the
+ * order they are discovered, found through an open-addressing table of ints
+ * rather than a boxed map; distances and predecessors are kept in primitive
+ * arrays indexed by those ids, and the frontier is an
+ * {@link IndexedDoubleHeap}.
+ *
+ * @author borah
+ *
+ * @param <E> the type of node in the graph
+ * @param <R> the type of edge-relation in the graph
+ */
+public class ShortestPaths<E, R extends IInvertibleRelationType> {
+
+	/**
+	 * Accepts an edge (from some known node) as its type, the node it leads to,
+	 * and its weight
+	 */
+	@FunctionalInterface
+	public static interface WeightedEdgeConsumer<E, R> {
+		public void accept(R type, E to, double weight);
+	}
+
+	private final E source;
+	/**
+	 * open-addressing hash table of node ids plus one (0 is an empty slot), probed
+	 * linearly from the hash of the node; its length is a power of two
+	 */
+	private int[] slots = new int[32];
+	private Object[] nodes = new Object[16];
+	private double[] distances = new double[16];
+	private int[] predecessors = new int[16];
+	private Object[] predecessorEdges = new Object[16];
+	private boolean[] settled = new boolean[16];
+	private int count;
+
+	private ShortestPaths(E source) {
+		this.source = source;
+	}
+
+	/**
+	 * Run a search from the source along edges of the given types (or all types,
+	 * if null). If a goal is given, the search stops as soon as the goal is
+	 * settled; if a heuristic is given it is used to order the search, A*-style.
+	 * The heuristic must be consistent: it is 0 at the goal, and for every edge
+	 * from u to v of weight w, h(u) <= w + h(v). Settled nodes are never
+	 * reopened, so a heuristic which is only admissible (never overestimates) but
+	 * not consistent may give paths which are not the shortest. Nodes further than the
+	 * max distance from the source are not explored. Edges whose weight is null are
+	 * not traversed; negative weights are an error.
+	 *
+	 * @param graph
+	 * @param source
+	 * @param goal             may be null
+	 * @param allowedEdgeTypes may be null
+	 * @param weight
+	 * @param heuristic        may be null
+	 * @param maxDistance
+	 * @return
+	 */
+	public static <E, R extends IInvertibleRelationType> ShortestPaths<E, R> search(IRelationGraph<E, R> graph,
+			E source, E goal, Collection<? extends R> allowedEdgeTypes, IProperty<? extends Number> weight,
+			ToDoubleFunction<? super E> heuristic, double maxDistance) {
+		if (!graph.contains(source)) {
+			throw new NodeNotFoundException(source);
+		}
+		ShortestPaths<E, R> paths = new ShortestPaths<>(source);
+		IndexedDoubleHeap frontier = new IndexedDoubleHeap(Math.min(graph.size(), 1024));
+		int start = paths.idOf(source);
+		paths.distances[start] = 0;
+		frontier.offer(start, heuristic == null ? 0 : heuristic.applyAsDouble(source));
+		while (!frontier.isEmpty()) {
+			int u = frontier.poll();
+			paths.settled[u] = true;
+			E unode = paths.node(u);
+			if (goal != null && goal.equals(unode)) {
+				break;
+			}
+			double du = paths.distances[u];
+			graph.forEachWeightedEdge(unode, allowedEdgeTypes, weight, (type, to, w) -> {
+				if (w < 0) {
+					throw new IllegalArgumentException("Negative weight " + w + " on edge " + unode + "-" + type + "-"
+							+ to + " for " + weight);
+				}
+				double dv = du + w;
+				if (dv > maxDistance) {
+					return;
+				}
+				int v = paths.idOf(to);
+				if (paths.settled[v] || dv >= paths.distances[v]) {
+					return;
+				}
+				paths.distances[v] = dv;
+				paths.predecessors[v] = u;
+				paths.predecessorEdges[v] = type;
+				frontier.offer(v, heuristic == null ? dv : dv + heuristic.applyAsDouble(to));
+			});
+		}
+		return paths;
+	}
+
+	private static int hash(Object node) {
+		int h = node.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	/** The slot holding this node's id, or the empty slot where it would go */
+	private int slotOf(Object node) {
+		int mask = slots.length - 1;
+		for (int i = hash(node) & mask;; i = (i + 1) & mask) {
+			int id = slots[i] - 1;
+			if (id < 0 || nodes[id].equals(node)) {
+				return i;
+			}
+		}
+	}
+
+	private int idOf(E node) {
+		int slot = slotOf(node);
+		if (slots[slot] != 0) {
+			return slots[slot] - 1;
+		}
+		if (count == nodes.length) {
+			int cap = count * 2;
+			nodes = Arrays.copyOf(nodes, cap);
+			distances = Arrays.copyOf(distances, cap);
+			predecessors = Arrays.copyOf(predecessors, cap);
+			predecessorEdges = Arrays.copyOf(predecessorEdges, cap);
+			settled = Arrays.copyOf(settled, cap);
+		}
+		nodes[count] = node;
+		distances[count] = Double.POSITIVE_INFINITY;
+		predecessors[count] = -1;
+		slots[slot] = count + 1;
+		if (++count * 2 > slots.length) {
+			rehash();
+		}
+		return count - 1;
+	}
+
+	/** Double the table and put every id back in it */
+	private void rehash() {
+		slots = new int[slots.length * 2];
+		int mask = slots.length - 1;
+		for (int id = 0; id < count; id++) {
+			int i = hash(nodes[id]) & mask;
+			while (slots[i] != 0) {
+				i = (i + 1) & mask;
+			}
+			slots[i] = id + 1;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private E node(int id) {
+		return (E) nodes[id];
+	}
+
+	private int settledId(Object node) {
+		if (node == null) {
+			return -1;
+		}
+		int id = slots[slotOf(node)] - 1;
+		return id < 0 || !settled[id] ? -1 : id;
+	}
+
+	/** The node the search started from */
+	public E getSource() {
+		return source;
+	}
+
+	/**
+	 * Whether the shortest distance to this node was found, i.e. the node was
+	 * reached before the search stopped
+	 */
+	public boolean reached(Object node) {
+		return settledId(node) >= 0;
+	}
+
+	/**
+	 * The shortest distance from the source to this node, or positive infinity if
+	 * it was not reached
+	 */
+	public double distance(Object node) {
+		int id = settledId(node);
+		return id < 0 ? Double.POSITIVE_INFINITY : distances[id];
+	}
+
+	/**
+	 * The node before this one on the shortest path from the source, or null if
+	 * this is the source or was not reached
+	 */
+	public E predecessor(Object node) {
+		int id = settledId(node);
+		return id < 0 || predecessors[id] < 0 ? null : node(predecessors[id]);
+	}
+
+	/**
+	 * The type of the edge leading into this node on the shortest path from the
+	 * source, or null if this is the source or was not reached
+	 */
+	@SuppressWarnings("unchecked")
+	public R predecessorEdge(Object node) {
+		int id = settledId(node);
+		return id < 0 ? null : (R) predecessorEdges[id];
+	}
+
+	/**
+	 * The nodes along the shortest path from the source to this node, both ends
+	 * included; empty if the node was not reached
+	 */
+	public List<E> pathTo(Object node) {
+		int id = settledId(node);
+		if (id < 0) {
+			return Collections.emptyList();
+		}
+		List<E> path = new ArrayList<>();
+		for (int at = id; at >= 0; at = predecessors[at]) {
+			path.add(node(at));
+		}
+		Collections.reverse(path);
+		return path;
+	}
+
+	/** All nodes whose shortest distance was found, in the order they were found */
+	public List<E> reachedNodes() {
+		List<E> reached = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			if (settled[i]) {
+				reached.add(node(i));
+			}
+		}
+		return reached;
+	}
+
+	@Override
+	public String toString() {
+		return "ShortestPaths{source=" + source + ",reached=" + reachedNodes().size() + "}";
+	}
+
+}
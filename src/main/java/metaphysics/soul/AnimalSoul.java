@@ -17,6 +17,8 @@ import things.form.soma.ISoma;
 import things.form.soma.component.IComponentPart;
 import things.status_effect.BasicStatusEffect;
 import things.status_effect.IPartStatusEffectInstance;
+import thinker.actions.searching.ActionCache;
+import thinker.actions.searching.ActionFinder;
 import thinker.actions.searching.RelationMutability;
 import thinker.mind.memory.IMindKnowledgeBase;
 import thinker.mind.personality.BasicTendency;
@@ -35,10 +37,26 @@ public class AnimalSoul extends AbstractSoul {
 
 	public AnimalSoul(UUID id, String idName, IPartDestroyedCondition whenDetach, IPartHealth healthTracker,
 			IMindKnowledgeBase mind) {
+		this(id, idName, whenDetach, healthTracker, mind, new ActionCache());
+	}
+
+	/**
+	 * Make a soul whose will remembers the actions it finds in the given cache,
+	 * which may be shared by the souls of a whole kind
+	 * 
+	 * @param id
+	 * @param idName
+	 * @param whenDetach
+	 * @param healthTracker
+	 * @param mind
+	 * @param actionCache
+	 */
+	public AnimalSoul(UUID id, String idName, IPartDestroyedCondition whenDetach, IPartHealth healthTracker,
+			IMindKnowledgeBase mind, ActionCache actionCache) {
 		super(id, idName, whenDetach, healthTracker, mind);
 		List<RelationMutability> relmut = Lists.newArrayList(RelationMutability.values());
 		Collections.reverse(relmut);
-		setWill(new ThinkerWill(0.005f, 5, relmut));
+		setWill(new ThinkerWill(0.005f, 5, relmut, new ActionFinder(actionCache)));
 		setPersonality(Personality.fromTraits(PersonalityTraits.WIMPINESS, PersonalityTraits.RETALIATION,
 				PersonalityTraits.PAIN_SENSITIVITY, PersonalityTraits.PAIN_DISTRACTION,
 				PersonalityTraits.DEMORALIZATION, PersonalityTraits.SHAME, BasicTendency.FORM_MUTABILITY,
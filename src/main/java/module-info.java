@@ -3,4 +3,5 @@ module KingdomsOfAtmapurTest {
 	requires failureaccess;
 	requires com.google.common;
 	requires java.desktop;
+	requires jdk.management;
 }
\ No newline at end of file
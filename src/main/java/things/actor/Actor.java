@@ -12,8 +12,10 @@ import _sim.RelativeSide;
 import _sim.dimension.IDimensionTag;
 import _sim.plane.Plane;
 import _sim.plane.PlaneHelper;
+import _sim.plane.PlaneSet;
 import _sim.vectors.IVector;
 import _sim.world.GameMap;
+import _sim.world.MapTile;
 import _utilities.graph.IRelationGraph;
 import things.blocks.IBlockState;
 import things.form.IForm;
@@ -38,11 +40,19 @@ public class Actor implements IActor {
 	private String name;
 	private UUID id;
 	private Profile profile;
-	private IVector location;
+	// position and velocity are kept as primitives so moving does not allocate;
+	// the vector views of them are only made when asked for
+	private double x;
+	private double y;
+	private MapLayer layer;
+	private MapTile tile;
+	private IVector positionView = IVector.ZERO;
+	private double vx;
+	private double vy;
+	private IVector velocityView = IVector.ZERO;
 	private GameMap world;
 	private ISoma body;
 	private IVisage<?> visage;
-	private IVector velocity;
 	private IKind kind;
 	/** whether this actor is ready to be deleted or not */
 	private boolean toDelete;
@@ -55,8 +65,6 @@ public class Actor implements IActor {
 		this.id = id;
 		this.profile = new Profile(id, UniqueType.FORM).setIdentifierName(name);
 		this.name = name == null ? "Actor" + id.getMostSignificantBits() : name;
-		this.location = IVector.of(0, 0);
-		this.velocity = IVector.of(0, 0);
 		this.kind = IKind.MISCELLANEOUS;
 	}
 
@@ -115,13 +123,21 @@ public class Actor implements IActor {
 	 */
 	@Override
 	public void setPosition(IVector position) {
-		this.location = position;
+		this.x = position.getUnadjustedX();
+		this.y = position.getUnadjustedY();
+		this.layer = position.getLayer();
+		this.tile = position.getTile();
+		this.positionView = position;
+		if (this.world != null) {
+			this.world.onActorMoved(this);
+		}
 	}
 
 	@Override
 	public void onSpawnIntoMap(GameMap map) {
-		if (this.location.getTile() != null && !this.location.getTile().equals(map.getMapTile())) {
-			this.location = this.location.withTile(map.getMapTile());
+		if (this.tile != null && !this.tile.equals(map.getMapTile())) {
+			this.tile = map.getMapTile();
+			this.positionView = null;
 		}
 		this.world = map;
 	}
@@ -149,19 +165,24 @@ public class Actor implements IActor {
 
 	}
 
+	/** the layer below this actor, as in {@link IVector#down()} */
+	private MapLayer layerBelow() {
+		return layer == null ? null : layer.below();
+	}
+
 	protected float getDynamicFrictionCoeff() {
-		IBlockState standingOn = world.getBlockMap().getBlock(this.location.down());
-		IBlockState immersedIn = world.getBlockMap().getBlock(this.location);
-		float avg = (this.body.getMainMaterial().getProperty(MaterialProperty.ROUGHNESS)
-				+ standingOn.getBlock().getMaterial().getProperty(MaterialProperty.ROUGHNESS)) / 2;
-		float drag = (1 - avg) * immersedIn.getBlock().getMaterial().getProperty(MaterialProperty.VISCOSITY);
+		IBlockState standingOn = world.getBlockMap().getBlock((int) x, (int) y, layerBelow());
+		IBlockState immersedIn = world.getBlockMap().getBlock((int) x, (int) y, layer);
+		float avg = (this.body.getMainMaterial().getFloat(MaterialProperty.ROUGHNESS)
+				+ standingOn.getBlock().getMaterial().getFloat(MaterialProperty.ROUGHNESS)) / 2;
+		float drag = (1 - avg) * immersedIn.getBlock().getMaterial().getFloat(MaterialProperty.VISCOSITY);
 		return avg + drag;
 	}
 
 	protected float getStaticFrictionCoeff() {
-		IBlockState standingOn = world.getBlockMap().getBlock(this.location.down());
-		return (this.body.getMainMaterial().getProperty(MaterialProperty.UNEVENNESS)
-				+ standingOn.getBlock().getMaterial().getProperty(MaterialProperty.UNEVENNESS)) / 2;
+		IBlockState standingOn = world.getBlockMap().getBlock((int) x, (int) y, layerBelow());
+		return (this.body.getMainMaterial().getFloat(MaterialProperty.UNEVENNESS)
+				+ standingOn.getBlock().getMaterial().getFloat(MaterialProperty.UNEVENNESS)) / 2;
 	}
 
 	@Override
@@ -175,40 +196,19 @@ public class Actor implements IActor {
 					List<Actor> toSpawn = new ArrayList<>();
 					float totalmass = this.mass();
 					for (ISoma soma : this.body.popBrokenOffParts()) {
-						Actor newActor = new Actor(UUID.randomUUID()).setBodyAndVisage(soma);
+						Actor newActor = new Actor(this.getMap().randomUUID()).setBodyAndVisage(soma);
 						newActor.setPosition(this.getPosition());
 						totalmass += newActor.mass();
 						toSpawn.add(newActor);
 					}
-					IVector totalMomentum = this.velocity.scaleMagnitudeBy(totalmass);
+					IVector totalMomentum = this.velocity().scaleMagnitudeBy(totalmass);
 					for (Actor a : toSpawn) {
 						a.setVelocity(totalMomentum.scaleMagnitudeBy(1f / a.mass()));
 					}
-					this.velocity = totalMomentum.scaleMagnitudeBy(1f / this.mass());
+					this.setVelocity(totalMomentum.scaleMagnitudeBy(1f / this.mass()));
 					this.getMap().queueAction(() -> toSpawn.forEach(this.getMap()::spawnIntoWorld));
 				}
-				if (Math.abs(this.velocity.mag()) > 0.000001f) {
-
-					/**
-					 * IBlockState standingOn = world.getBlockMap().getBlock(this.location.down());
-					 * float brough =
-					 * this.body.getMainMaterial().getProperty(MaterialProperty.ROUGHNESS); float
-					 * sorough =
-					 * standingOn.getBlock().getMaterial().getProperty(MaterialProperty.ROUGHNESS);
-					 */
-					float mu = this.getDynamicFrictionCoeff();
-					float fric = friction(mu, this.world.gravity() / ticksPerSecond);
-					this.velocity = this.velocity.clampSubtract(fric / mass());
-					IVector newloc = this.location.add(velocity);
-					/**
-					 * System.out.println("son:" + standingOn + " mu1:" + brough + " mu2:" + sorough
-					 * + "=mu:" + mu + " to:" + newloc + " v:" + this.velocity + " m:" +
-					 * this.mass());
-					 */
-					if (!this.getMap().outOfBounds(newloc)) {
-						this.location = newloc;
-					}
-				}
+				this.movementTick(ticksPerSecond);
 
 			} else {
 				this.toDelete = true;
@@ -220,6 +220,44 @@ public class Actor implements IActor {
 		}
 	}
 
+	/**
+	 * Slow this actor's velocity by friction and move it by its velocity, without
+	 * making any vectors. Part of {@link #tick}
+	 * 
+	 * @param ticksPerSecond
+	 */
+	public void movementTick(float ticksPerSecond) {
+		double speed = Math.sqrt(vx * vx + vy * vy);
+		if (speed > 0.000001f) {
+			/**
+			 * IBlockState standingOn = world.getBlockMap().getBlock(this.location.down());
+			 * float brough =
+			 * this.body.getMainMaterial().getProperty(MaterialProperty.ROUGHNESS); float
+			 * sorough =
+			 * standingOn.getBlock().getMaterial().getProperty(MaterialProperty.ROUGHNESS);
+			 */
+			float mu = this.getDynamicFrictionCoeff();
+			float fric = friction(mu, this.world.gravity() / ticksPerSecond);
+			// as IVector#clampSubtract
+			double slow = fric / mass();
+			double newSpeed = slow < 0 ? speed + slow : Math.max(0, speed - slow);
+			if (newSpeed != speed) {
+				vx = vx / speed * newSpeed;
+				vy = vy / speed * newSpeed;
+				velocityView = null;
+			}
+			if (vx != 0 || vy != 0) {
+				double newX = x + vx;
+				double newY = y + vy;
+				if (!this.getMap().outOfBounds((int) newX, (int) newY)) {
+					this.x = newX;
+					this.y = newY;
+					this.positionView = null;
+				}
+			}
+		}
+	}
+
 	/**
 	 * Gets a simple identifying name for this actor
 	 * 
@@ -243,7 +281,7 @@ public class Actor implements IActor {
 
 	@Override
 	public IDimensionTag getDimension() {
-		return location != null ? (location.getTile() != null ? location.getTile().getDimension() : null) : null;
+		return tile != null ? tile.getDimension() : null;
 	}
 
 	@Override
@@ -253,7 +291,7 @@ public class Actor implements IActor {
 
 	@Override
 	public MapLayer getLayer() {
-		return location.getLayer();
+		return layer;
 	}
 
 	@Override
@@ -273,12 +311,23 @@ public class Actor implements IActor {
 
 	@Override
 	public void move(IVector difference) {
-		this.location = this.location.add(difference);
+		if (difference.getUnadjustedX() != 0 || difference.getUnadjustedY() != 0) {
+			this.x += difference.getUnadjustedX();
+			this.y += difference.getUnadjustedY();
+			this.positionView = null;
+		}
+		if (this.world != null) {
+			this.world.onActorMoved(this);
+		}
 	}
 
 	@Override
 	public void accelerate(IVector acceleration) {
-		this.velocity = this.velocity.add(acceleration);
+		if (acceleration.getUnadjustedX() != 0 || acceleration.getUnadjustedY() != 0) {
+			this.vx += acceleration.getUnadjustedX();
+			this.vy += acceleration.getUnadjustedY();
+			this.velocityView = null;
+		}
 	}
 
 	@Override
@@ -291,7 +340,7 @@ public class Actor implements IActor {
 
 	@Override
 	public ForceResult applyForce(IComponentPart at, IComponentPart connection, IVector force, ForceType type,
-			RelativeSide side, int acrossPlanes) {
+			RelativeSide side, PlaneSet acrossPlanes) {
 		if (!body.getPartGraph().contains(at)) {
 			throw new IllegalStateException(body.getPartGraph() + " does not contain " + at);
 		}
@@ -310,12 +359,12 @@ public class Actor implements IActor {
 			float mag = (float) force.mag();
 			this.accelerate(force.scaleMagnitudeBy(0.5 / (0.000001f + mass())));
 
-			float resistance = at.getMaterial().getProperty(MaterialProperty.RESISTANCE)
+			float resistance = at.getMaterial().getFloat(MaterialProperty.RESISTANCE)
 					* at.getShape().getProperty(ShapeProperty.INTEGRITY);
 			if (mag >= resistance) {
 				Set<IComponentPart> neibs = PartConnection.attachments().stream()
 						.flatMap((ata) -> pgraph.getNeighbors(at, ata).stream()).collect(Collectors.toSet());
-				if (at.getMaterial().getProperty(MaterialProperty.CRUMBLES)) { // TODO crystalline??
+				if (at.getMaterial().getBoolean(MaterialProperty.CRUMBLES)) { // TODO crystalline??
 					at.changeMaterial(at.getMaterial().getProperty(MaterialProperty.CRUMBLE_MATERIAL), true);
 
 				} else {
@@ -326,7 +375,7 @@ public class Actor implements IActor {
 					neibs.forEach((neib) -> {
 						neib.changeShape(neib.getShape().copyBuilder().addProperty(ShapeProperty.INTEGRITY,
 								Math.max(1f / (neibs.size() + 1), (mag / (neibs.size() + 1))
-										/ (0.000000001f + neib.getMaterial().getProperty(MaterialProperty.RESISTANCE)))
+										/ (0.000000001f + neib.getMaterial().getFloat(MaterialProperty.RESISTANCE)))
 										* neib.getShape().getProperty(ShapeProperty.INTEGRITY))
 								.build(), true);
 					});
@@ -340,13 +389,13 @@ public class Actor implements IActor {
 				return ForceResult.DAMAGED_INTEGRITY;
 			}
 		case SLICE:
-			resistance = at.getMaterial().getProperty(MaterialProperty.RESISTANCE)
+			resistance = at.getMaterial().getFloat(MaterialProperty.RESISTANCE)
 					* at.getShape().getProperty(ShapeProperty.INTEGRITY);
 			if (connection != null) {
 				if (!this.body.getPartGraph().containsEdge(at, PartConnection.JOINED, connection)) {
 					return ForceResult.SLIPPED_THROUGH;
 				}
-				float secresistance = connection.getMaterial().getProperty(MaterialProperty.RESISTANCE)
+				float secresistance = connection.getMaterial().getFloat(MaterialProperty.RESISTANCE)
 						* connection.getShape().getProperty(ShapeProperty.INTEGRITY);
 				float usedRes = Math.min(resistance, secresistance);
 				if (force.mag() >= usedRes) {
@@ -370,7 +419,10 @@ public class Actor implements IActor {
 
 	@Override
 	public IVector velocity() {
-		return this.velocity;
+		if (velocityView == null) {
+			velocityView = IVector.of(vx, vy);
+		}
+		return velocityView;
 	}
 
 	/**
@@ -379,12 +431,27 @@ public class Actor implements IActor {
 	 * @param velocity
 	 */
 	public void setVelocity(IVector velocity) {
-		this.velocity = velocity;
+		this.vx = velocity.getUnadjustedX();
+		this.vy = velocity.getUnadjustedY();
+		this.velocityView = velocity;
 	}
 
 	@Override
 	public IVector getPosition() {
-		return location;
+		if (positionView == null) {
+			positionView = IVector.of(x, y, layer, tile);
+		}
+		return positionView;
+	}
+
+	@Override
+	public double getPositionX() {
+		return x;
+	}
+
+	@Override
+	public double getPositionY() {
+		return y;
 	}
 
 	@Override
@@ -441,7 +508,7 @@ public class Actor implements IActor {
 
 	@Override
 	public String toString() {
-		return "[|" + this.name + "|]" + this.kind + (this.location != IVector.ZERO ? this.location + "" : "");
+		return "[|" + this.name + "|]" + this.kind + (this.getPosition() != IVector.ZERO ? this.getPosition() + "" : "");
 	}
 
 	@Override
@@ -450,7 +517,7 @@ public class Actor implements IActor {
 				+ (this.body != null ? "body=" + this.body.somaReport() + ",\n" : "")
 				+ (this.visage != null && this.visage != this.body ? "visage=" + this.visage.visageReport() + ",\n"
 						: "")
-				+ (this.velocity != IVector.ZERO ? "velocty=" + this.velocity + ",\n" : "") + "id=" + this.id + "\n}";
+				+ (this.velocity() != IVector.ZERO ? "velocty=" + this.velocity() + ",\n" : "") + "id=" + this.id + "\n}";
 	}
 
 }
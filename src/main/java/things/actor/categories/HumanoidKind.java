@@ -10,6 +10,7 @@ import java.util.function.Function;
 import _sim.GameUniverse;
 import _sim.RelativeSide;
 import _sim.plane.Plane;
+import _sim.plane.PlaneSet;
 import _utilities.graph.IModifiableRelationGraph;
 import _utilities.graph.RelationGraph;
 import metaphysics.soul.AnimalSoul;
@@ -41,6 +42,7 @@ import things.form.soma.component.IComponentPart;
 import things.form.soma.component.StandardComponentPart;
 import things.form.soma.stats.FloatPartStats;
 import things.interfaces.UniqueType;
+import thinker.actions.searching.ActionCache;
 import thinker.concepts.profile.Profile;
 import thinker.mind.memory.MemoryBase;
 import thinker.mind.perception.Perception;
@@ -64,12 +66,20 @@ public class HumanoidKind extends FleshCreatureKind {
 			LIFE_ENERGY_SYSTEM.getChannelResources().iterator().next(), Function.identity(), FOOD_NEED_NAME);
 
 	public HumanoidKind(String name, float averageMass, float averageSize) {
+		this(name, averageMass, averageSize, new ActionCache());
+	}
+
+	/**
+	 * All souls of this kind remember the actions they find in one cache
+	 */
+	private HumanoidKind(String name, float averageMass, float averageSize, ActionCache actionCache) {
 		super(name, averageMass, averageSize, (s, p) -> {
 
 			AnimalSoul soul = new AnimalSoul(s.getUUID(), name,
 					IPartDestroyedCondition.DisjointPartStateCondition.DISINTEGRATE_NONSOLID_MASHED,
 					IPartHealth.Standard.INTEGRITY, new MemoryBase(new Profile(s.getUUID(), UniqueType.FIGURE)
-							.setIdentifierName(s.getOwner().getProfile().getIdentifierName())));
+							.setIdentifierName(s.getOwner().getProfile().getIdentifierName())),
+					actionCache);
 			LIFE_ENERGY_SYSTEM.getChannelSystemNeeds()
 					.forEach((need) -> ((Perception) soul.getPerception()).addBlockage(need));
 			soul.getPersonality().addTendency(PersonalityTraits.HANGRINESS_GEN
@@ -116,13 +126,13 @@ public class HumanoidKind extends FleshCreatureKind {
 	@Override
 	protected IModifiableRelationGraph<IComponentPart, IPartConnection> makePartGraph(IKindSettings settings) {
 		RelationGraph<IComponentPart, IPartConnection> graph = new RelationGraph<>();
-		int planes = settings.getSetting(BasicKindProperties.PLANES);
+		PlaneSet planes = settings.getSetting(BasicKindProperties.PLANES);
 		IGenomeEncoding genome = settings.getSetting(OrganicKindProperties.GENOME);
 		Material flesh = Material.GENERIC_FLESH.buildCopy("flesh").prop(MaterialProperty.GENETICS, genome).build();
 		UUID lifeCoreID = UUID.randomUUID();
 		graph.add(lifeCore = new StandardComponentPart(LIFE_CORE_NAME, lifeCoreID, flesh,
 				IShape.builder().addProperty(ShapeProperty.ROLL_SHAPE, RollableShape.ROLLABLE_CYLINDER).build(), 0.001f,
-				Plane.SPIRITUAL.getPrime(), Set.of(PartAbility.HEAL), Collections.emptyMap()));
+				PlaneSet.of(Plane.SPIRITUAL), Set.of(PartAbility.HEAL), Collections.emptyMap()));
 		lifeCore.changeStat(FloatPartStats.BLOOD_REGENERATION,
 				FloatPartStats.BLOOD_REGENERATION.getDefaultValue(lifeCore), false);
 
@@ -189,14 +199,14 @@ public class HumanoidKind extends FleshCreatureKind {
 		graph.add(left_eye = new StandardComponentPart(EYE_NAME, leyeID, flesh,
 				IShape.builder().addProperty(ShapeProperty.ROLL_SHAPE, RollableShape.ROLLABLE_OVOID).build(), 0.005f,
 				planes, Set.of(PartAbility.HEAL, ISensor.SIGHT_SENSOR),
-				Map.of(StandardSightSensor.SENSOR_PLANES, Plane.PHYSICAL.getPrime(), FloatPartStats.SIGHT_DISTANCE, 40f,
+				Map.of(StandardSightSensor.SENSOR_PLANES, PlaneSet.of(Plane.PHYSICAL), FloatPartStats.SIGHT_DISTANCE, 40f,
 						Sensation.PAIN.getSensitivityStat(), 10f)));
 
 		UUID reyeID = UUID.randomUUID();
 		graph.add(right_eye = new StandardComponentPart(EYE_NAME, reyeID, flesh,
 				IShape.builder().addProperty(ShapeProperty.ROLL_SHAPE, RollableShape.ROLLABLE_OVOID).build(), 0.005f,
 				planes, Set.of(PartAbility.HEAL, ISensor.SIGHT_SENSOR),
-				Map.of(StandardSightSensor.SENSOR_PLANES, Plane.PHYSICAL.getPrime(), FloatPartStats.SIGHT_DISTANCE, 40f,
+				Map.of(StandardSightSensor.SENSOR_PLANES, PlaneSet.of(Plane.PHYSICAL), FloatPartStats.SIGHT_DISTANCE, 40f,
 						Sensation.PAIN.getSensitivityStat(), 10f)));
 		graph.addEdge(head, PartConnection.JOINED, left_eye);
 		graph.addEdge(head, PartConnection.JOINED, right_eye);
@@ -86,6 +86,11 @@ public class StickToolKind extends MultipartKind {
 		return graph.stream().filter((a) -> a.getUUID().equals(handleID)).findAny().orElseThrow();
 	}
 
+	@Override
+	protected UUID cloneId(IComponentPart templatePart) {
+		return templatePart.getUUID(); // parts are found by their fixed ids
+	}
+
 	@Override
 	public IKindCollective generateCollective(GameUniverse forUniverse) {
 		return null;
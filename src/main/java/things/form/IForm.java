@@ -2,17 +2,15 @@ package things.form;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.EnumSet;
 import java.util.Set;
 import java.util.UUID;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import _sim.RelativeSide;
 import _utilities.graph.IRelationGraph;
 import things.actor.IActor;
 import things.form.graph.connections.CoverageType;
-import things.form.graph.connections.CoverageType.CoverageDirection;
 import things.form.graph.connections.IPartConnection;
 import things.form.kinds.IKind;
 import things.form.material.IMaterial;
@@ -130,6 +128,16 @@ public interface IForm<P extends IPart> extends Cloneable, IUnique {
 	 */
 	public void onPartStainChange(IPart part, Collection<IStain> stains);
 
+	/**
+	 * Return a counter which changes whenever parts of this form are added,
+	 * removed, reconnected, or changed (material, size, shape, stains, etc), so
+	 * that things derived from the parts (like what a perceiver senses of them)
+	 * can be kept until it changes
+	 * 
+	 * @return
+	 */
+	public long getChangeStamp();
+
 	/**
 	 * Return the actor that owns this s
 	 * 
@@ -217,16 +225,45 @@ public interface IForm<P extends IPart> extends Cloneable, IUnique {
 	 * @return
 	 */
 	public default Set<RelativeSide> getOverallCoverage(P part) {
-		Set<RelativeSide> sides = new HashSet<>();
+		int mask = this.getCoveredSideMask(part);
+		Set<RelativeSide> sides = EnumSet.noneOf(RelativeSide.class);
 		for (RelativeSide side : RelativeSide.values()) {
-			if (!this.getCoverageGraph().traverseBFS(part, CoverageType.getCoverageTypes(CoverageDirection.COVERED_ON),
-					Function.identity()::apply, (prop, obj) -> true).isEmpty()) {
+			if ((mask & side.bit()) != 0) {
 				sides.add(side);
 			}
 		}
 		return sides;
 	}
 
+	/**
+	 * Returns what sides of this part are covered by some other part, as the
+	 * {@link RelativeSide#bit() bits} of those sides
+	 * 
+	 * @param part
+	 * @return
+	 */
+	public default int getCoveredSideMask(P part) {
+		if (!this.getCoverageGraph().contains(part))
+			return 0;
+		int mask = 0;
+		for (CoverageType type : this.getCoverageGraph().getOutgoingEdgeTypes(part)) {
+			if (type.coveredOn()) {
+				mask |= type.getSide().bit();
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Whether every side of this part is covered by some other part
+	 * 
+	 * @param part
+	 * @return
+	 */
+	public default boolean isCoveredOnAllSides(P part) {
+		return this.getCoveredSideMask(part) == RelativeSide.ALL_BITS;
+	}
+
 	/**
 	 * Indicates this form consists only of hole parts
 	 * 
@@ -3,6 +3,7 @@ package things.form;
 import java.util.Collection;
 import java.util.UUID;
 
+import _sim.plane.PlaneSet;
 import things.form.material.IMaterial;
 import things.form.shape.IShape;
 import things.form.soma.component.IComponentPart;
@@ -158,7 +159,7 @@ public interface IPart extends Cloneable, IUnique {
 	 * 
 	 * @return
 	 */
-	public int detectionPlanes();
+	public PlaneSet detectionPlanes();
 
 	/**
 	 * Get the owner of this part, cast as a visage
@@ -333,7 +334,7 @@ public interface IPart extends Cloneable, IUnique {
 		}
 
 		@Override
-		public int detectionPlanes() {
+		public PlaneSet detectionPlanes() {
 			throw new UnsupportedOperationException();
 		}
 
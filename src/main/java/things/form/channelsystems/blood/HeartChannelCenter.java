@@ -9,6 +9,7 @@ import things.form.channelsystems.IChannelCenter;
 import things.form.channelsystems.IResource;
 import things.form.material.IMaterial;
 import things.form.material.property.MaterialProperty;
+import things.form.soma.ChannelResourceSolver;
 import things.form.soma.ISoma;
 import things.form.soma.component.IComponentPart;
 import things.form.soma.stats.FloatPartStats;
@@ -59,19 +60,24 @@ public class HeartChannelCenter implements IChannelCenter {
 	public void automaticTick(ISoma body, IComponentPart heartpart, long ticks) {
 		// TODO hearts beat, also do not generate blood
 		IMaterial bloodmat = heartpart.getEmbeddedMaterialFor(this.system.getBloodMaterial());
-		float[] heartblood = { heartpart.getResourceAmount(this.system.getBloodMaterial()) };
-		body.getConnectedParts(heartpart).forEach((a) -> {
-			float blood = a.getResourceAmount(this.system.getBloodMaterial());
-			float newblood = blood + 0.05f;
-			float newheartblood = heartblood[0] - 0.05f;
-			if (newblood < heartblood[0]) {
-				a.changeMaterialResourceAmount(this.system.getBloodMaterial(),
-						heartpart.getEmbeddedMaterialFor(this.system.getBloodMaterial()), newblood, true);
-				heartpart.changeResourceAmount(this.system.getBloodMaterial(), newheartblood, true);
-				heartblood[0] = heartpart.getResourceAmount(this.system.getBloodMaterial());
+		// pump blood to every connected part with less, until the heart runs low
+		ChannelResourceSolver solver = body.getResourceSolver();
+		int heart = solver.indexOf(heartpart);
+		float[] blood = solver.load(this.system.getBloodMaterial());
+		float[] heartblood = { blood[heart] };
+		for (int part : solver.connectedTo(heartpart)) {
+			if (part != heart && blood[part] + 0.05f < heartblood[0]) {
+				blood[part] += 0.05f;
+				heartblood[0] -= 0.05f;
+				solver.setMaterial(part, bloodmat);
 			}
-		});
-		if (Math.random() < body.getAggregateStat(FloatPartStats.BLOOD_REGENERATION)
+		}
+		blood[heart] = heartblood[0];
+		solver.commit();
+		double chance = body.getOwner() != null && body.getOwner().getMap() != null
+				? body.getOwner().getMap().random()
+				: Math.random();
+		if (chance < body.getAggregateStat(FloatPartStats.BLOOD_REGENERATION)
 				&& heartblood[0] < 0.1f * system.getBloodMaterial().getMaxValue()) {
 			body.getPartsByName(system.getBloodGenPart()).forEach((x) -> {
 				if (heartblood[0] < system.getBloodMaterial().getMaxValue()) {
@@ -6,6 +6,7 @@ import java.util.function.Function;
 
 import things.form.channelsystems.IChannelCenter;
 import things.form.channelsystems.IResource;
+import things.form.soma.ChannelResourceSolver;
 import things.form.soma.ISoma;
 import things.form.soma.component.IComponentPart;
 import things.form.soma.stats.IPartStat;
@@ -117,30 +118,34 @@ public class FuelBurnerChannelCenter<B extends Comparable<?>> implements IChanne
 		IChannelCenter.super.automaticTick(body, part, ticks);
 		// TODO stomachs make resources
 		// TODO pump resources from mouth to stomach
-		for (IComponentPart conPart : body.getPartGraph().getNeighbors(part,
-				system.getChannelConnectionTypes().iterator().next())) {
-			float ores = conPart.getResourceAmount(inResource);
+		ChannelResourceSolver solver = body.getResourceSolver();
+		int self = solver.indexOf(part);
+		float[] fuel = solver.load(inResource);
+		for (int conPart : solver.neighborsOf(part, system.getChannelConnectionTypes().iterator().next())) {
+			float ores = fuel[conPart];
 			if (ores == 0)
 				continue;
-			float tres = part.getResourceAmount(inResource);
+			float tres = fuel[self];
 			float overflow = ores + tres - inResource.getMaxValue();
 			if (overflow < 0) {
-				part.changeResourceAmount(inResource, ores + tres, true);
-				conPart.changeResourceAmount(inResource, 0, true);
+				fuel[self] = ores + tres;
+				fuel[conPart] = 0;
 			} else {
-				conPart.changeResourceAmount(inResource, overflow, true);
-				part.changeResourceAmount(inResource, inResource.getMaxValue(), true);
+				fuel[conPart] = overflow;
+				fuel[self] = inResource.getMaxValue();
 			}
 			break;
 		}
 
-		float food = part.getResourceAmount(this.inResource);
+		float food = fuel[self];
 		float rate = part.getStat(FUEL_CONVERSION_RATE);
 
+		if (food >= rate)
+			fuel[self] = food - rate;
+		solver.commit();
 		if (food < rate)
 			return;
 
-		part.changeResourceAmount(this.inResource, food - rate, true);
 		B com = part.getResourceAmount(this.resourceCout);
 		B add = this.converter.apply(rate);
 
@@ -1,10 +1,11 @@
 package things.form.channelsystems.signal;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
-import com.google.common.base.Predicates;
-
+import _sim.world.GameMap;
 import _utilities.graph.IRelationGraph;
 import metaphysics.spirit.ISpirit;
 import things.form.channelsystems.IChannelCenter;
@@ -60,22 +61,32 @@ public class SignalControlCenter implements IChannelCenter {
 
 	@Override
 	public void controlTick(ISoma body, IComponentPart brain, long tick) {
-		IRelationGraph<IComponentPart, IPartConnection> connections = body.getPartGraph()
-				.subgraph((node) -> node.getResourceAmount(system.getSignalResource()), Predicates.alwaysTrue())
-				.traverseBFS(brain, system.getChannelConnectionTypes(), (a) -> {
-				}, (a, b) -> true);
-
-		for (IComponentPart part : (Iterable<IComponentPart>) (Iterable) (() -> connections.stream()
-				.filter((p) -> p.hasAutomaticChannelCenter()).iterator())) {
+		IRelationGraph<IComponentPart, IPartConnection> connections = body.getReachableParts(brain,
+				system.getSignalResource(), system.getChannelConnectionTypes());
 
+		for (IComponentPart part : connections) {
+			if (!part.hasAutomaticChannelCenter())
+				continue;
 			for (IChannelCenter center : part.getAutomaticChannelCenters()) {
 				if (center.canTick(body, part, tick)) {
 					center.automaticTick(body, part, tick);
 				}
 			}
 		}
-		for (ISpirit spirit : brain.getTetheredSpirits()) {
-			spirit.runTick(brain, connections, tick);
+		if (brain.getTetheredSpirits().isEmpty())
+			return;
+		List<ISpirit> spirits = new ArrayList<>(brain.getTetheredSpirits());
+		Runnable spiritTick = () -> {
+			for (ISpirit spirit : spirits) {
+				spirit.runTick(brain, connections, tick);
+			}
+		};
+		// spirits touch shared knowledge, so the map runs them one at a time
+		GameMap map = body.getOwner() != null ? body.getOwner().getMap() : null;
+		if (map != null) {
+			map.runSpiritTick(spiritTick);
+		} else {
+			spiritTick.run();
 		}
 	}
 
@@ -6,6 +6,7 @@ import java.util.Map;
 import java.util.Set;
 
 import _sim.plane.Plane;
+import _sim.plane.PlaneSet;
 import _utilities.property.IProperty;
 import _utilities.property.PropertyImpl;
 import things.form.channelsystems.IChannelSystem;
@@ -17,7 +18,8 @@ import things.form.soma.stats.IPartStat;
 
 public class BasicKindProperties {
 
-	public static final PropertyImpl<Integer> PLANES = IProperty.make("planes", int.class, Plane.PHYSICAL.getPrime());
+	public static final PropertyImpl<PlaneSet> PLANES = IProperty.make("planes", PlaneSet.class,
+			PlaneSet.of(Plane.PHYSICAL));
 
 	public static final PropertyImpl<IMaterial> MATERIAL = IProperty.make("material", IMaterial.class, IMaterial.NONE);
 
@@ -2,7 +2,9 @@ package things.form.kinds.multipart;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 import com.google.common.base.Functions;
@@ -27,6 +29,19 @@ public abstract class MultipartKind implements IKind {
 	private float averageMass;
 	private float averageSize;
 	protected Map<String, IChannelSystem> systems;
+	/** how many template somas a kind keeps before forgetting the least used */
+	private static final int MAX_TEMPLATES = 32;
+
+	/**
+	 * the soma each body generated with some settings is cloned from, least
+	 * recently used first; these never belong to an actor
+	 */
+	private Map<IKindSettings, MultipartSoma> templates = new LinkedHashMap<>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<IKindSettings, MultipartSoma> eldest) {
+			return size() > MAX_TEMPLATES;
+		}
+	};
 
 	/**
 	 * The name, average mass, and average size of this entity. Also channel
@@ -129,15 +144,55 @@ public abstract class MultipartKind implements IKind {
 		}
 	}
 
+	/**
+	 * Return the id a clone of this part of a template soma should have in a new
+	 * body; by default a new random id, but override this if parts are found by
+	 * fixed ids
+	 * 
+	 * @param templatePart
+	 * @return
+	 */
+	protected UUID cloneId(IComponentPart templatePart) {
+		return UUID.randomUUID();
+	}
+
+	/**
+	 * Return the soma (without channel systems) which bodies generated with these
+	 * settings are cloned from, building it the first time
+	 * 
+	 * @param settings
+	 * @return
+	 */
+	protected MultipartSoma getTemplate(IKindSettings settings) {
+		synchronized (templates) {
+			MultipartSoma template = templates.get(settings);
+			if (template == null) {
+				IModifiableRelationGraph<IComponentPart, IPartConnection> parts = this.makePartGraph(settings);
+				template = new MultipartSoma(parts, this.makeCoverageGraph(parts, settings),
+						settings.getOrDefault(BasicKindProperties.SIZE, averageSize),
+						settings.getOrDefault(BasicKindProperties.MASS, averageMass),
+						this.identifyCenter(parts, settings))
+								.setDestructionCondition(settings.getSetting(BasicKindProperties.DESTRUCTION_CONDITION));
+				template.setKind(this);
+				template.setCreationSettings(settings);
+				templates.put(settings, template);
+			}
+			return template;
+		}
+	}
+
+	/**
+	 * Forget all template somas, e.g. if the way this kind makes bodies changed
+	 */
+	public void clearTemplates() {
+		synchronized (templates) {
+			templates.clear();
+		}
+	}
+
 	@Override
 	public ISoma generateSoma(IKindSettings settings, IActor actorFor) {
-		IModifiableRelationGraph<IComponentPart, IPartConnection> parts = this.makePartGraph(settings);
-		MultipartSoma soma = new MultipartSoma(parts, this.makeCoverageGraph(parts, settings),
-				settings.getOrDefault(BasicKindProperties.SIZE, averageSize),
-				settings.getOrDefault(BasicKindProperties.MASS, averageMass), this.identifyCenter(parts, settings))
-						.setDestructionCondition(settings.getSetting(BasicKindProperties.DESTRUCTION_CONDITION));
-		soma.setKind(this);
-		soma.setCreationSettings(settings);
+		MultipartSoma soma = getTemplate(settings).instantiate(this::cloneId);
 		addSystemsWithoutPopulating(soma, settings, actorFor);
 		return soma;
 	}
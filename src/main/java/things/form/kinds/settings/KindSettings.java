@@ -7,6 +7,7 @@ import java.util.Map;
 import com.google.common.collect.ImmutableMap;
 
 import _utilities.property.IProperty;
+import things.form.material.IMaterial;
 
 public class KindSettings implements IKindSettings {
 
@@ -42,6 +43,7 @@ public class KindSettings implements IKindSettings {
 		public KindSettings build() {
 			this.closed = true;
 			settings.properties = ImmutableMap.copyOf(settings.properties);
+			settings.hash = hash(settings.properties);
 			return this.settings;
 		}
 
@@ -56,6 +58,8 @@ public class KindSettings implements IKindSettings {
 	}
 
 	private Map<IProperty<?>, Object> properties;
+	/** the hash of the properties and their values, made when built */
+	private int hash;
 
 	private KindSettings() {
 	}
@@ -69,4 +73,32 @@ public class KindSettings implements IKindSettings {
 	public Collection<? extends IProperty<?>> getProperties() {
 		return properties.keySet();
 	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		return obj instanceof KindSettings other && this.properties.equals(other.properties);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	/**
+	 * Hash each property together with its value; materials are hashed by name,
+	 * since their own hash reads all their properties, which may be costly or lead
+	 * back to other materials
+	 */
+	private static int hash(Map<IProperty<?>, Object> properties) {
+		int hash = 0;
+		for (Map.Entry<IProperty<?>, Object> entry : properties.entrySet()) {
+			Object value = entry.getValue();
+			int valueHash = value == null ? 0
+					: value instanceof IMaterial material ? material.name().hashCode() : value.hashCode();
+			hash += entry.getKey().hashCode() ^ valueHash;
+		}
+		return hash;
+	}
 }
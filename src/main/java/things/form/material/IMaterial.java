@@ -79,6 +79,28 @@ public interface IMaterial extends IResource<Float>, IMaterialCondition, IMateri
 	 */
 	public <E> E getProperty(IMaterialProperty<E> property);
 
+	/**
+	 * Get a float property of this material without boxing it, if this material
+	 * supports that
+	 * 
+	 * @param property
+	 * @return
+	 */
+	public default float getFloat(MaterialProperty<Float> property) {
+		return this.getProperty(property);
+	}
+
+	/**
+	 * Get a boolean property of this material without boxing it, if this material
+	 * supports that
+	 * 
+	 * @param property
+	 * @return
+	 */
+	public default boolean getBoolean(MaterialProperty<Boolean> property) {
+		return this.getProperty(property);
+	}
+
 	/**
 	 * Get the name of this material
 	 * 
@@ -224,19 +246,25 @@ public interface IMaterial extends IResource<Float>, IMaterialCondition, IMateri
 			}
 		}
 
+		// the built material can still be changed through its builder (e.g. to link
+		// materials to each other), so every change drops its compiled table
+
 		public <E> MaterialBuilder prop(IMaterialProperty<E> prop, E val) {
 			innerInstance.properties.put(prop, val);
+			innerInstance.onPropertiesChanged();
 			return this;
 		}
 
 		/** Deletes the property indicated */
 		public MaterialBuilder delProp(IMaterialProperty<?> prop) {
 			innerInstance.properties.remove(prop);
+			innerInstance.onPropertiesChanged();
 			return this;
 		}
 
 		public MaterialBuilder prop(Map<? extends IMaterialProperty<?>, ?> props) {
 			innerInstance.properties.putAll(props);
+			innerInstance.onPropertiesChanged();
 			return this;
 		}
 
@@ -244,6 +272,7 @@ public interface IMaterial extends IResource<Float>, IMaterialCondition, IMateri
 			for (Map.Entry<? extends IMaterialProperty<?>, ?> entry : pairs) {
 				innerInstance.properties.put(entry.getKey(), entry.getValue());
 			}
+			innerInstance.onPropertiesChanged();
 			return this;
 		}
 
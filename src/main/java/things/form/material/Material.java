@@ -2,11 +2,16 @@ package things.form.material;
 
 import java.awt.Color;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.google.common.collect.ImmutableMap;
 
+import _sim.world.GameMap;
 import _utilities.collections.ImmutableSetView;
 import things.biology.genes.IGenomeEncoding;
 import things.form.kinds.settings.IKindSettings;
@@ -29,15 +34,84 @@ public class Material implements IMaterial {
 
 	String name;
 	Map<IMaterialProperty<?>, Object> properties;
+	/** compiled on first use, and dropped whenever properties change */
+	private final AtomicReference<MaterialPropertyTable> table = new AtomicReference<>();
+
+	/**
+	 * materials whose tables are being compiled on this thread, since defaults may
+	 * read the material they are compiled for
+	 */
+	private static final ThreadLocal<Set<Material>> COMPILING = ThreadLocal
+			.withInitial(() -> Collections.newSetFromMap(new IdentityHashMap<>()));
 
 	Material(String name) {
 		this.name = name;
 		this.properties = new HashMap<>();
 	}
 
+	/**
+	 * Return the table of this material's properties, compiling it if the
+	 * properties changed since it was last compiled; return null if it is being
+	 * compiled right now on this thread (i.e. a default value is reading other
+	 * properties). The table is compiled without holding any lock, so defaults may
+	 * read other materials freely; if two threads compile it at once, the first to
+	 * publish it wins.
+	 * 
+	 * @return
+	 */
+	private MaterialPropertyTable compiledTable() {
+		MaterialPropertyTable t = table.get();
+		if (t != null) {
+			return t;
+		}
+		Set<Material> compiling = COMPILING.get();
+		if (!compiling.add(this)) {
+			return null;
+		}
+		try {
+			t = MaterialPropertyTable.compile(this, properties);
+		} finally {
+			compiling.remove(this);
+		}
+		return table.compareAndSet(null, t) ? t : table.get();
+	}
+
+	/** Called when properties are changed, so the table is compiled again */
+	void onPropertiesChanged() {
+		this.table.set(null);
+	}
+
 	@Override
 	public <E> E getProperty(IMaterialProperty<E> property) {
-		return (E) properties.getOrDefault(property, property.getDefaultValue(this));
+		if (property instanceof MaterialProperty<E> mp) {
+			MaterialPropertyTable t = compiledTable();
+			if (t != null && t.has(mp)) {
+				return t.get(mp);
+			}
+		}
+		Object val = properties.get(property);
+		if (val != null || properties.containsKey(property)) {
+			return (E) val;
+		}
+		return property.getDefaultValue(this);
+	}
+
+	@Override
+	public float getFloat(MaterialProperty<Float> property) {
+		MaterialPropertyTable t = compiledTable();
+		if (t != null && property.isFloat() && t.has(property)) {
+			return t.getFloat(property);
+		}
+		return IMaterial.super.getFloat(property);
+	}
+
+	@Override
+	public boolean getBoolean(MaterialProperty<Boolean> property) {
+		MaterialPropertyTable t = compiledTable();
+		if (t != null && property.isBoolean() && t.has(property)) {
+			return t.getBoolean(property);
+		}
+		return IMaterial.super.getBoolean(property);
 	}
 
 	@Override
@@ -48,14 +122,20 @@ public class Material implements IMaterial {
 	@Override
 	public void stainTick(IComponentPart onPart, IStain stainInstance, ISoma parentForm, long ticks) {
 		// TODO material staining behavior
-		float washing = this.getProperty(MaterialProperty.WASHING);
-		float corrosion = this.getProperty(MaterialProperty.CORROSIVENESS);
+		float washing = this.getFloat(MaterialProperty.WASHING);
+		float corrosion = this.getFloat(MaterialProperty.CORROSIVENESS);
+		GameMap map = parentForm.getOwner() != null ? parentForm.getOwner().getMap() : null;
+		if (map == null) {
+			// stains change through the map's queue; a part which is in no map (e.g.
+			// severed and not yet spawned) keeps its stains until it is
+			return;
+		}
 		if (washing != 0) {
 			for (IStain stain : onPart.getStains()) {
 				if (stain.equals(stainInstance))
 					continue;
-				if (washing > stain.getSubstance().getProperty(MaterialProperty.STAINING)) {
-					parentForm.getOwner().getMap().queueAction(() -> onPart.removeStain(stain.getSubstance(), true));
+				if (washing > stain.getSubstance().getFloat(MaterialProperty.STAINING)) {
+					map.queueAction(() -> onPart.removeStain(stain.getSubstance(), true));
 				}
 			}
 		}
@@ -63,14 +143,14 @@ public class Material implements IMaterial {
 			// TODO corrosion?
 		}
 		float remAmount = 1;
-		double randa = Math.random() * 0.5 + Math.random() * 0.5;
-		if (this.getProperty(MaterialProperty.PHASE).isGaseous()
-				|| randa < 1 - this.getProperty(MaterialProperty.STAINING)) {
-			if (randa < 1 - this.getProperty(MaterialProperty.STAINING)) {
-				remAmount = 1 - this.getProperty(MaterialProperty.STAINING);
+		double randa = map.random() * 0.5 + map.random() * 0.5;
+		float staining = this.getFloat(MaterialProperty.STAINING);
+		if (this.getProperty(MaterialProperty.PHASE).isGaseous() || randa < 1 - staining) {
+			if (randa < 1 - staining) {
+				remAmount = 1 - staining;
 			}
 			int amt = (int) (stainInstance.getAmount() - remAmount);
-			parentForm.getOwner().getMap().queueAction(() -> {
+			map.queueAction(() -> {
 				// TODO generate a puddle
 				onPart.removeStain(this, true);
 				if (amt > 0) {
@@ -0,0 +1,100 @@
+package things.form.material;
+
+import java.util.List;
+import java.util.Map;
+
+import things.form.material.property.MaterialProperty;
+
+/**
+ * The values of every {@link MaterialProperty} for one material, with defaults
+ * already filled in, stored in slots by {@link MaterialProperty#ordinal()} so
+ * they can be read without hashing, evaluating defaults, or (for float and
+ * boolean properties) boxing. A table is a snapshot; the material makes a new
+ * one when its properties change.
+ *
+ * @author borah
+ *
+ */
+public final class MaterialPropertyTable {
+
+	private final float[] floats;
+	private final boolean[] booleans;
+	/** the value of every property, boxed once; null if it must be recomputed */
+	private final Object[] objects;
+
+	private MaterialPropertyTable(int size) {
+		this.floats = new float[size];
+		this.booleans = new boolean[size];
+		this.objects = new Object[size];
+	}
+
+	/**
+	 * Compile a table for the given material from the values it sets
+	 *
+	 * @param material   the material, to compute defaults with
+	 * @param properties the properties the material sets itself
+	 * @return
+	 */
+	static MaterialPropertyTable compile(IMaterial material, Map<?, Object> properties) {
+		List<MaterialProperty<?>> all = MaterialProperty.values();
+		MaterialPropertyTable table = new MaterialPropertyTable(all.size());
+		for (MaterialProperty<?> property : all) {
+			Object value = properties.containsKey(property) ? properties.get(property)
+					: property.getDefaultValue(material);
+			int i = property.ordinal();
+			table.objects[i] = value;
+			if (value instanceof Float f && property.isFloat()) {
+				table.floats[i] = f;
+			} else if (value instanceof Boolean b && property.isBoolean()) {
+				table.booleans[i] = b;
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * Whether this table holds a value for this property; if not (e.g. the
+	 * property was made after the table, or its value was null) it must be looked
+	 * up the slow way
+	 *
+	 * @param property
+	 * @return
+	 */
+	public boolean has(MaterialProperty<?> property) {
+		return property.ordinal() < objects.length && objects[property.ordinal()] != null;
+	}
+
+	/**
+	 * Return the value of this property; only valid if {@link #has} is true
+	 *
+	 * @param <E>
+	 * @param property
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public <E> E get(MaterialProperty<E> property) {
+		return (E) objects[property.ordinal()];
+	}
+
+	/**
+	 * Return the value of this float property; only valid if {@link #has} is true
+	 *
+	 * @param property
+	 * @return
+	 */
+	public float getFloat(MaterialProperty<Float> property) {
+		return floats[property.ordinal()];
+	}
+
+	/**
+	 * Return the value of this boolean property; only valid if {@link #has} is
+	 * true
+	 *
+	 * @param property
+	 * @return
+	 */
+	public boolean getBoolean(MaterialProperty<Boolean> property) {
+		return booleans[property.ordinal()];
+	}
+
+}
@@ -1,6 +1,9 @@
 package things.form.material.property;
 
 import java.awt.Color;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -11,6 +14,12 @@ import things.form.material.Material;
 
 public class MaterialProperty<E> implements IMaterialProperty<E> {
 
+	/**
+	 * Every material property made, in order of creation, so each has an ordinal
+	 * (declared before the properties themselves so it exists when they are made)
+	 */
+	private static final List<MaterialProperty<?>> VALUES = new CopyOnWriteArrayList<>();
+
 	public static <E> MaterialProperty<E> make(String name, Class<? super E> clazz, E defVal) {
 		return new MaterialProperty<E>(name, clazz, (a) -> defVal);
 	}
@@ -242,11 +251,46 @@ public class MaterialProperty<E> implements IMaterialProperty<E> {
 	private String name;
 	private Class<? super E> type;
 	private Function<IMaterial, E> defaultSupplier;
+	private int ordinal;
 
 	private MaterialProperty(String name, Class<? super E> clazz, Function<IMaterial, E> defaultVal) {
 		this.name = name;
 		this.type = clazz;
 		this.defaultSupplier = defaultVal;
+		synchronized (VALUES) {
+			this.ordinal = VALUES.size();
+			VALUES.add(this);
+		}
+	}
+
+	/**
+	 * Return all material properties made so far; a property's
+	 * {@link #ordinal()} is its index in this list
+	 * 
+	 * @return
+	 */
+	public static List<MaterialProperty<?>> values() {
+		return Collections.unmodifiableList(VALUES);
+	}
+
+	/**
+	 * The index of this property among all material properties, in order of
+	 * creation
+	 * 
+	 * @return
+	 */
+	public int ordinal() {
+		return ordinal;
+	}
+
+	/** Whether the values of this property are floats */
+	public boolean isFloat() {
+		return type == float.class || type == Float.class;
+	}
+
+	/** Whether the values of this property are booleans */
+	public boolean isBoolean() {
+		return type == boolean.class || type == Boolean.class;
 	}
 
 	public String name() {
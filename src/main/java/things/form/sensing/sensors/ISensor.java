@@ -3,7 +3,7 @@ package things.form.sensing.sensors;
 import java.util.Collection;
 import java.util.Map;
 
-import _utilities.MathUtils;
+import _sim.plane.PlaneSet;
 import _utilities.property.IProperty;
 import things.actor.IActor;
 import things.form.IPart;
@@ -20,7 +20,7 @@ public interface ISensor extends IPartAbility, IPerceptor {
 	/**
 	 * The stat representing what planes can be sensed
 	 */
-	public static final IPartStat<Integer> SENSOR_PLANES = new IPartStat<Integer>() {
+	public static final IPartStat<PlaneSet> SENSOR_PLANES = new IPartStat<PlaneSet>() {
 
 		@Override
 		public String name() {
@@ -28,23 +28,27 @@ public interface ISensor extends IPartAbility, IPerceptor {
 		}
 
 		@Override
-		public Class<Integer> getType() {
-			return int.class;
+		public Class<PlaneSet> getType() {
+			return PlaneSet.class;
 		}
 
 		@Override
-		public Integer getDefaultValue(IComponentPart part) {
-			return 1;
+		public PlaneSet getDefaultValue(IComponentPart part) {
+			return PlaneSet.NONE;
 		}
 
 		@Override
-		public Integer aggregate(Iterable<Integer> values) {
-			return MathUtils.primeUnion(values);
+		public PlaneSet aggregate(Iterable<PlaneSet> values) {
+			PlaneSet union = PlaneSet.NONE;
+			for (PlaneSet value : values) {
+				union = union.union(value);
+			}
+			return union;
 		}
 
 		@Override
-		public Integer extract(Integer val1, Integer subVal, int count) {
-			return MathUtils.primeSetDifference(val1, subVal);
+		public PlaneSet extract(PlaneSet val1, PlaneSet subVal, int count) {
+			return val1.difference(subVal);
 		}
 	};
 
@@ -87,7 +87,7 @@ public class StandardSightSensor extends AbstractSensor {
 	public <T extends IPart> IVisage<T> sensableParts(IVisage<T> sensing, IActor sensingActor, IComponentPart sensor) {
 		Set<T> visibles = new HashSet<>();
 		for (T par : sensing.getCoverageGraph()) {
-			if (sensing.getOverallCoverage(par).size() < 6) {
+			if (!sensing.isCoveredOnAllSides(par)) {
 				visibles.add(par);
 			}
 		}
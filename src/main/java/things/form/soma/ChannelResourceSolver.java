@@ -0,0 +1,230 @@
+package things.form.soma;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import things.form.channelsystems.IResource;
+import things.form.graph.connections.IPartConnection;
+import things.form.material.IMaterial;
+import things.form.soma.component.IComponentPart;
+
+/**
+ * Moves channel resources (blood, fuel, energy...) between the parts of a
+ * {@link MultipartSoma} in batches. Each part of the soma has an index, and the
+ * amounts of a resource are kept in a float array by index, so that a channel
+ * center can compute a whole tick of flow in one loop over arrays rather than
+ * one part at a time. {@link #load(IResource)} gives the amounts of a
+ * resource; after changing them, {@link #commit()} writes the changed amounts
+ * back to the parts and tells the soma about all of them at once. Only one
+ * resource can be loaded at a time.
+ * <br>
+ * The arrays are kept between ticks; they are forgotten when the parts of the
+ * soma change, or when a part's amount of the resource is changed in any way
+ * other than through this solver.
+ *
+ * @author borah
+ *
+ */
+public final class ChannelResourceSolver {
+
+	private static final int[] NO_INDICES = new int[0];
+
+	private final MultipartSoma body;
+	/** the parts of the soma by index, or null if they must be indexed again */
+	private IComponentPart[] parts;
+	private Map<IComponentPart, Integer> indices = new HashMap<>();
+	/** the indices of the parts {@link ISoma#getConnectedParts connected} to parts */
+	private Map<IComponentPart, int[]> connected = new HashMap<>();
+	/** the indices of the neighbors of parts along each connection type */
+	private Map<IComponentPart, Map<IPartConnection, int[]>> neighbors = new HashMap<>();
+	/** the amounts of each resource by part index, as of the last commit */
+	private Map<IResource<Float>, float[]> amounts = new HashMap<>();
+
+	/** the resource currently loaded, if any */
+	private IResource<Float> loaded;
+	private float[] current;
+	private float[] former;
+	/** materials to write with the amounts of the loaded resource; null if none */
+	private IMaterial[] materials;
+	private int[] changed;
+
+	ChannelResourceSolver(MultipartSoma body) {
+		this.body = body;
+	}
+
+	/**
+	 * Forget the indices of parts and the amounts of all resources, e.g. because
+	 * parts were added or removed
+	 */
+	void invalidate() {
+		this.parts = null;
+		this.amounts.clear();
+	}
+
+	/**
+	 * Forget the amounts of this resource, e.g. because some part's amount was
+	 * changed outside this solver
+	 *
+	 * @param resource
+	 */
+	void forget(IResource<?> resource) {
+		this.amounts.remove(resource);
+	}
+
+	private void index() {
+		if (parts != null)
+			return;
+		parts = body.getPartGraph().stream().toArray(IComponentPart[]::new);
+		indices.clear();
+		connected.clear();
+		neighbors.clear();
+		for (int i = 0; i < parts.length; i++) {
+			indices.put(parts[i], i);
+		}
+		former = new float[parts.length];
+		materials = new IMaterial[parts.length];
+		changed = new int[parts.length];
+	}
+
+	/**
+	 * How many parts are indexed
+	 *
+	 * @return
+	 */
+	public int size() {
+		index();
+		return parts.length;
+	}
+
+	/**
+	 * Return the part with this index
+	 *
+	 * @param index
+	 * @return
+	 */
+	public IComponentPart getPart(int index) {
+		index();
+		return parts[index];
+	}
+
+	/**
+	 * Return the index of this part, or -1 if it is not part of the soma
+	 *
+	 * @param part
+	 * @return
+	 */
+	public int indexOf(IComponentPart part) {
+		index();
+		Integer index = indices.get(part);
+		return index == null ? -1 : index;
+	}
+
+	private int[] indicesOf(Iterable<? extends IComponentPart> of) {
+		int[] found = NO_INDICES;
+		int count = 0;
+		for (IComponentPart part : of) {
+			Integer index = indices.get(part);
+			if (index == null)
+				continue;
+			if (count == found.length)
+				found = Arrays.copyOf(found, Math.max(4, count * 2));
+			found[count++] = index;
+		}
+		return count == found.length ? found : Arrays.copyOf(found, count);
+	}
+
+	/**
+	 * Return the indices of the parts {@link ISoma#getConnectedParts(IComponentPart)
+	 * connected} to this part, in the same order; the array must not be modified
+	 *
+	 * @param part
+	 * @return
+	 */
+	public int[] connectedTo(IComponentPart part) {
+		index();
+		return connected.computeIfAbsent(part, (p) -> indicesOf(body.getConnectedParts(p)));
+	}
+
+	/**
+	 * Return the indices of the neighbors of this part along this connection type,
+	 * in the same order as the part graph gives them; the array must not be
+	 * modified
+	 *
+	 * @param part
+	 * @param type
+	 * @return
+	 */
+	public int[] neighborsOf(IComponentPart part, IPartConnection type) {
+		index();
+		return neighbors.computeIfAbsent(part, (p) -> new HashMap<>()).computeIfAbsent(type,
+				(t) -> indicesOf(body.getPartGraph().getNeighbors(part, t)));
+	}
+
+	/**
+	 * Return the amounts of this resource by part index, to be changed and then
+	 * written back with {@link #commit()}
+	 *
+	 * @param resource
+	 * @return
+	 */
+	public float[] load(IResource<Float> resource) {
+		if (loaded != null)
+			throw new IllegalStateException("Cannot load " + resource + " before committing " + loaded);
+		index();
+		float[] amts = amounts.get(resource);
+		if (amts == null) {
+			amts = new float[parts.length];
+			for (int i = 0; i < parts.length; i++) {
+				amts[i] = parts[i].getResourceAmount(resource);
+			}
+			amounts.put(resource, amts);
+		}
+		System.arraycopy(amts, 0, former, 0, amts.length);
+		this.loaded = resource;
+		this.current = amts;
+		return amts;
+	}
+
+	/**
+	 * Set the material the loaded resource is embedded as in the part with this
+	 * index (see
+	 * {@link IComponentPart#changeMaterialResourceAmount(IResource, IMaterial, Comparable, boolean)});
+	 * if this is not set, the material base of the resource is used. A part with a
+	 * material set is written back even if its amount did not change.
+	 *
+	 * @param index
+	 * @param material
+	 */
+	public void setMaterial(int index, IMaterial material) {
+		if (loaded == null)
+			throw new IllegalStateException("No resource loaded");
+		materials[index] = material;
+	}
+
+	/**
+	 * Write the changed amounts of the loaded resource back to their parts, and
+	 * tell the soma about all of them with one call
+	 */
+	public void commit() {
+		if (loaded == null)
+			throw new IllegalStateException("No resource loaded");
+		IResource<Float> resource = loaded;
+		float[] now = current;
+		int count = 0;
+		for (int i = 0; i < now.length; i++) {
+			if (now[i] != former[i] || materials[i] != null) {
+				IMaterial material = materials[i] == null ? resource.getMaterialBase() : materials[i];
+				parts[i].changeMaterialResourceAmount(resource, material, now[i], false);
+				materials[i] = null;
+				if (now[i] != former[i])
+					changed[count++] = i;
+			}
+		}
+		this.loaded = null;
+		this.current = null;
+		if (count > 0)
+			body.onChannelResourcesChanged(resource, parts, former, now, changed, count);
+	}
+
+}
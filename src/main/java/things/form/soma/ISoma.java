@@ -176,6 +176,29 @@ public interface ISoma extends IForm<IComponentPart> {
 	 */
 	public <E extends Comparable<?>> E getResourceAggregate(IResource<E> resource);
 
+	/**
+	 * Return the solver which channel centers use to move channel resources
+	 * between the parts of this soma in batches
+	 *
+	 * @return
+	 */
+	public ChannelResourceSolver getResourceSolver();
+
+	/**
+	 * Return the graph of parts which can be reached from this part along the
+	 * given connection types, passing only through parts which have this resource
+	 * (e.g. the parts a brain can send signals to). The result is remembered until
+	 * a part is added or removed, connections change, or this resource changes in
+	 * some part, so it must not be modified.
+	 *
+	 * @param from
+	 * @param resource
+	 * @param connectionTypes
+	 * @return
+	 */
+	public IRelationGraph<IComponentPart, IPartConnection> getReachableParts(IComponentPart from,
+			IResource<Boolean> resource, Collection<? extends IPartConnection> connectionTypes);
+
 	/**
 	 * Get all channelcenters of the given type
 	 * 
@@ -8,18 +8,22 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Random;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.MultimapBuilder;
 import com.google.common.collect.Sets;
+import com.google.common.collect.Table;
 
 import _sim.RelativeSide;
+import _sim.plane.PlaneSet;
 import _sim.world.GameMap;
-import _utilities.MathUtils;
 import _utilities.collections.ImmutableCollection;
 import _utilities.collections.ImmutableSetView;
 import _utilities.couplets.Pair;
@@ -41,8 +45,11 @@ import things.form.graph.connections.IPartConnection;
 import things.form.graph.connections.PartConnection;
 import things.form.kinds.settings.IKindSettings;
 import things.form.material.IMaterial;
+import things.form.material.property.MaterialProperty;
 import things.form.shape.IShape;
 import things.form.shape.Shape;
+import things.form.shape.property.ShapeProperty;
+import things.form.shape.property.ShapeProperty.Shapedness;
 import things.form.soma.abilities.IPartAbility;
 import things.form.soma.component.IComponentPart;
 import things.form.soma.component.StandardComponentPart;
@@ -58,7 +65,7 @@ import things.status_effect.IPartStatusEffectInstance;
  */
 public class MultipartSoma extends MultipartVisage<IComponentPart> implements ISoma {
 
-	private int intplanes;
+	private PlaneSet intplanes;
 
 	private Map<String, IChannelSystem> systems = new HashMap<>();
 
@@ -84,6 +91,40 @@ public class MultipartSoma extends MultipartVisage<IComponentPart> implements IS
 
 	private IKindSettings settings = IKindSettings.NONE;
 
+	/**
+	 * the parts which may have something to do on a tick; parts leave this set
+	 * when a tick finds them idle and are put back by the callbacks for whatever
+	 * could give them something to do
+	 */
+	private Set<IComponentPart> activeParts = new HashSet<>();
+
+	/**
+	 * the parts reachable from each part through parts with each resource, see
+	 * {@link #getReachableParts}; forgotten when connections or the resource
+	 * change
+	 */
+	private Table<IComponentPart, IResource<?>, Reach> reaches = HashBasedTable.create();
+
+	/** moves channel resources between parts in batches; made when first needed */
+	private ChannelResourceSolver solver;
+
+	/**
+	 * A remembered result of {@link MultipartSoma#getReachableParts}
+	 *
+	 * @author borah
+	 *
+	 */
+	private static final class Reach {
+		private final Collection<? extends IPartConnection> connectionTypes;
+		private final IRelationGraph<IComponentPart, IPartConnection> parts;
+
+		private Reach(Collection<? extends IPartConnection> connectionTypes,
+				IRelationGraph<IComponentPart, IPartConnection> parts) {
+			this.connectionTypes = connectionTypes;
+			this.parts = parts;
+		}
+	}
+
 	public MultipartSoma(IModifiableRelationGraph<IComponentPart, IPartConnection> parts,
 			IModifiableRelationGraph<IComponentPart, CoverageType> coverage, float size, float mass,
 			IComponentPart centerPart) {
@@ -92,9 +133,10 @@ public class MultipartSoma extends MultipartVisage<IComponentPart> implements IS
 		this.aggregateStats = new HashMap<>();
 		this.aggregateResources = new HashMap<>();
 		this.brokenParts = new ArrayList<>();
-		intplanes = 1;
+		intplanes = PlaneSet.NONE;
 		for (IComponentPart part : parts) {
-			intplanes = MathUtils.primeUnion(intplanes, part.interactionPlanes());
+			activeParts.add(part);
+			intplanes = intplanes.union(part.interactionPlanes());
 			for (IPartStat stat : part.getStats()) {
 				this.unionStat(stat, part.getStat(stat));
 			}
@@ -139,6 +181,7 @@ public class MultipartSoma extends MultipartVisage<IComponentPart> implements IS
 				}
 			}
 		}
+		this.partGraph.forEach(this::wake);
 	}
 
 	@Override
@@ -161,6 +204,8 @@ public class MultipartSoma extends MultipartVisage<IComponentPart> implements IS
 
 	protected void onAddPart(IComponentPart newPart) {
 		super.onAddPart(newPart);
+		this.wake(newPart);
+		this.onConnectivityChange();
 
 		for (IPartStat<?> stat : newPart.getStats()) {
 			this.unionStat(stat, newPart.getStat(stat));
@@ -181,6 +226,7 @@ public class MultipartSoma extends MultipartVisage<IComponentPart> implements IS
 	public boolean attach(IComponentPart newPart, IComponentPart toPart, IPartConnection connectionType,
 			Collection<RelativeSide> coveringsides, boolean changeOwner) {
 		boolean x = super.attach(newPart, toPart, connectionType, coveringsides, changeOwner);
+		this.onConnectivityChange();
 		boolean newed = !partGraph.contains(newPart);
 		for (IChannelSystem sys : this.systems.values()) {
 			sys.onBodyNew(this, newPart, connectionType, toPart, newed);
@@ -191,8 +237,10 @@ public class MultipartSoma extends MultipartVisage<IComponentPart> implements IS
 	@Override
 	public void runTick(long ticks) {
 		super.runTick(ticks);
+		if (activeParts.isEmpty())
+			return;
 		for (IComponentPart p : this.partGraph) {
-			if (p.getTrueOwner() != this)
+			if (p.getTrueOwner() != this || !activeParts.contains(p))
 				continue;
 
 			Collection<IStain> stains = p.generateStains();
@@ -224,10 +272,50 @@ public class MultipartSoma extends MultipartVisage<IComponentPart> implements IS
 					}
 				}
 			}
+			if (isIdle(p)) {
+				activeParts.remove(p);
+			}
 		}
 
 	}
 
+	/**
+	 * Forget everything derived from how the parts of this soma are connected
+	 */
+	private void onConnectivityChange() {
+		this.reaches.clear();
+		if (solver != null)
+			solver.invalidate();
+	}
+
+	/**
+	 * Mark this part as possibly having something to do on the next tick
+	 * 
+	 * @param part
+	 */
+	protected void wake(IComponentPart part) {
+		this.activeParts.add(part);
+	}
+
+	/**
+	 * Whether this part has nothing to do on a tick until something about it
+	 * changes: no channel centers to tick, no stains or status effects, and no
+	 * embedded materials which could leak out as stains
+	 * 
+	 * @param p
+	 * @return
+	 */
+	private static boolean isIdle(IComponentPart p) {
+		if (p.hasControlCenter() || p.hasAutomaticChannelCenter() || !p.getStains().isEmpty()
+				|| !p.getEffectInstances().isEmpty())
+			return false;
+		if (p.embeddedMaterials().isEmpty())
+			return true;
+		return !p.getMaterial().getProperty(MaterialProperty.PHASE).isFluid()
+				&& p.getShape().getProperty(ShapeProperty.SHAPEDNESS) != Shapedness.AMORPHIC
+				&& p.getShape().getProperty(ShapeProperty.INTEGRITY) >= 1.0f;
+	}
+
 	@Override
 	public String toString() {
 		return "MultipartSoma{parts=" + this.partGraph + ",coverage=" + coverage + "}";
@@ -243,6 +331,8 @@ public class MultipartSoma extends MultipartVisage<IComponentPart> implements IS
 		IComponentPart p1 = one;
 		IComponentPart p2 = two;
 		partGraph.addEdge(p1, channel, p2);
+		this.markChanged();
+		this.onConnectivityChange();
 		if (callSys) {
 			channel.getSystem().onBodyNew(this, p2, channel, p1, false);
 
@@ -257,7 +347,14 @@ public class MultipartSoma extends MultipartVisage<IComponentPart> implements IS
 	protected void onRemovePartWithoutRemovingMass(IComponentPart removed) {
 
 		this.partGraph.remove(removed);
+		this.markChanged();
+		Set<IComponentPart> covering = coverage.contains(removed) ? new HashSet<>(coverage.getNeighbors(removed))
+				: new HashSet<>();
 		this.coverage.remove(removed);
+		covering.add(removed);
+		this.updateCoveredSides(covering);
+		this.activeParts.remove(removed);
+		this.onConnectivityChange();
 
 		if (centerPart == null) {
 			System.out.print(""); // breakpoint
@@ -265,8 +362,8 @@ public class MultipartSoma extends MultipartVisage<IComponentPart> implements IS
 
 		if (!removed.equals(centerPart) && partGraph.contains(centerPart)) {
 			this.contiguousParts.clear();
-			this.contiguousParts.addAll(partGraph.traverseBFS(centerPart, PartConnection.attachments(), (a) -> {
-			}, (a, b) -> true));
+			partGraph.nodeTraversalIteratorBFS(centerPart, PartConnection.attachments(), (a, b) -> true)
+					.forEachRemaining(this.contiguousParts::add);
 		}
 
 		this.allParts.remove(removed);
@@ -290,18 +387,19 @@ public class MultipartSoma extends MultipartVisage<IComponentPart> implements IS
 	public void severConnection(IComponentPart partOne, IComponentPart partTwo) {
 		if (partGraph.removeAllConnections(partOne, partTwo)) {
 			coverage.removeAllConnections(partOne, partTwo);
+			this.updateCoveredSides(List.of(partOne, partTwo));
+			this.markChanged();
+			this.onConnectivityChange();
 			IComponentPart one = partOne;
 			IComponentPart two = partTwo;
-			IModifiableRelationGraph<IComponentPart, IPartConnection> severedPart = partGraph.traverseBFS(one,
-					PartConnection.valuesCollection(), (a) -> {
-					}, (a, b) -> true);
-			if (severedPart.size() == partGraph.size()) {
+			Set<IComponentPart> reached = Sets.newHashSet(
+					partGraph.nodeTraversalIteratorBFS(one, PartConnection.valuesCollection(), (a, b) -> true));
+			if (reached.size() == partGraph.size()) {
 				return;
 			}
-			if (severedPart.contains(this.centerPart)) {
-				severedPart = partGraph.traverseBFS(two, PartConnection.valuesCollection(), (a) -> {
-				}, (a, b) -> true);
-			}
+			IModifiableRelationGraph<IComponentPart, IPartConnection> severedPart = partGraph.traverseBFS(
+					reached.contains(this.centerPart) ? two : one, PartConnection.valuesCollection(), (a) -> {
+					}, (a, b) -> true);
 
 			float fraction = (float) severedPart.stream().mapToDouble((a) -> (double) a.getRelativeSize()).sum();
 			float sizePortion = fraction * size;
@@ -350,8 +448,8 @@ public class MultipartSoma extends MultipartVisage<IComponentPart> implements IS
 			return ImmutableCollection.from(this.contiguousParts);
 		}
 		if (this.partGraph.contains(fromPart)) {
-			return partGraph.traverseBFS(fromPart, PartConnection.attachments(), (a) -> {
-			}, (a, b) -> true);
+			return Sets.newHashSet(
+					partGraph.nodeTraversalIteratorBFS(fromPart, PartConnection.attachments(), (a, b) -> true));
 		}
 		throw new IllegalArgumentException("Uncontained part " + fromPart);
 	}
@@ -502,6 +600,7 @@ public class MultipartSoma extends MultipartVisage<IComponentPart> implements IS
 	}
 
 	private void onAnyPartStateChange(IComponentPart part, Collection<ISpirit> alreadyUpdated) {
+		this.markChanged();
 		for (ISpirit spir : new HashSet<>(this.getAllTetheredSpirits())) {
 			if (alreadyUpdated.contains(spir)) {
 				continue;
@@ -516,6 +615,7 @@ public class MultipartSoma extends MultipartVisage<IComponentPart> implements IS
 		if (!this.partGraph.contains(part)) {
 			throw new IllegalArgumentException(part + "");
 		}
+		this.wake(part);
 		effect.getEffect().onEffectApplied(part, effect.remainingDuration());
 		for (ISpirit spir : new HashSet<>(part.getTetheredSpirits())) {
 			maybeRetetherSpirit(spir, spir.onHostEffectApplied(part, this, effect), getPartForSpirit(spir));
@@ -536,6 +636,7 @@ public class MultipartSoma extends MultipartVisage<IComponentPart> implements IS
 
 	@Override
 	public void onPartAbilitiesChange(IComponentPart part, Collection<IPartAbility> changedAbs) {
+		this.wake(part);
 		boolean added = part.getAbilities().containsAll(changedAbs);
 		for (IPartAbility aba : changedAbs) {
 			if (aba instanceof IChannelCenter cc) {
@@ -577,23 +678,21 @@ public class MultipartSoma extends MultipartVisage<IComponentPart> implements IS
 
 			singlesoma.setUUID(UUID.randomUUID());
 			brokenParts.add(singlesoma);
-			IRelationGraph<IComponentPart, IPartConnection> centerGraph = EmptyGraph.instance(); // nodes
-																									// which are
-			// meant to
-			// remain in this soma
+			// nodes which are meant to remain in this soma; the graph of them is only
+			// built once the broken-off pieces are gone
+			Set<IComponentPart> centerParts = partGraph.contains(centerPart)
+					? Sets.newHashSet(partGraph.nodeTraversalIteratorBFS(centerPart,
+							PartConnection.valuesCollection(), (a, b) -> true))
+					: Collections.emptySet();
 			Iterator<IComponentPart> partIter = partGraph.iterator(); // repeatedly update this to be the iterator for
 																		// the modified partgraph
 			while (partIter.hasNext()) {
 				IComponentPart next = partIter.next();
-				if (centerGraph.contains(next))
+				if (centerParts.contains(next))
 					continue;
 				IModifiableRelationGraph<IComponentPart, IPartConnection> cetera = this.partGraph.traverseBFS(next,
 						PartConnection.valuesCollection(), (a) -> {
 						}, (a, b) -> true);
-				if (cetera.contains(centerPart)) {
-					centerGraph = cetera;
-					continue;
-				}
 
 				float fraction = (float) cetera.stream().mapToDouble((a) -> (double) a.getRelativeSize()).sum();
 				float sizePortion = fraction * size;
@@ -619,18 +718,24 @@ public class MultipartSoma extends MultipartVisage<IComponentPart> implements IS
 				}
 
 			}
+			IRelationGraph<IComponentPart, IPartConnection> centerGraph = centerParts.isEmpty()
+					? EmptyGraph.instance()
+					: partGraph.traverseBFS(centerPart, PartConnection.valuesCollection(), (a) -> {
+					}, (a, b) -> true);
 			this.partGraph = centerGraph.editableOrCopy();
+			this.onConnectivityChange();
 			if (this.partGraph.isEmpty()) {
 				centerPart = new StandardHolePart("empty", UUID.randomUUID(), Shape.AMORPHOUS, 0, intplanes,
 						Collections.emptySet(), Collections.emptyMap());
 				partGraph.add(centerPart);
 				this.contiguousParts.clear();
 			} else {
-				this.contiguousParts = partGraph.traverseBFS(centerPart, PartConnection.attachments(), (x) -> {
-				}, (a, b) -> true);
+				this.contiguousParts = Sets.newHashSet(partGraph.nodeTraversalIteratorBFS(centerPart,
+						PartConnection.attachments(), (a, b) -> true));
 			}
 			this.coverage.addAll(partGraph);
 			this.coverage.retainAll(partGraph);
+			this.updateCoveredSides();
 			this.isAllHoles = (this.partGraph.stream().allMatch(IPart::isHole));
 			if (this.isAllHoles) {
 				this.isDestroyed = true;
@@ -652,13 +757,14 @@ public class MultipartSoma extends MultipartVisage<IComponentPart> implements IS
 	@Override
 	public void onPartMaterialChange(IPart part, IMaterial formerMaterial) {
 		super.onPartMaterialChange(part, formerMaterial);
+		this.wake((IComponentPart) part);
 		this.onDestroyablePartChange((IComponentPart) part);
 	}
 
 	@Override
 	public void onPartStainChange(IPart part, Collection<IStain> stains) {
 		super.onPartStainChange(part, stains);
-
+		this.wake((IComponentPart) part);
 	}
 
 	@Override
@@ -713,6 +819,7 @@ public class MultipartSoma extends MultipartVisage<IComponentPart> implements IS
 	@Override
 	public void onPartShapeChange(IPart part, IShape formerShape) {
 		super.onPartShapeChange(part, formerShape);
+		this.wake((IComponentPart) part);
 		this.onDestroyablePartChange((IComponentPart) part);
 	}
 
@@ -729,6 +836,11 @@ public class MultipartSoma extends MultipartVisage<IComponentPart> implements IS
 
 	@Override
 	public void onChannelResourceChanged(IComponentPart part, IResource<?> resource, Comparable<?> formerValue) {
+		this.wake(part);
+		if (!Objects.equals(formerValue, part.getResourceAmount(resource)))
+			this.reaches.column(resource).clear();
+		if (solver != null)
+			solver.forget(resource);
 		Comparable<?> val = this.aggregateResources.getOrDefault(resource, resource.getEmptyValue());
 		val = ((IResource) resource).subtract(val, formerValue);
 		val = ((IResource) resource).add(val, part.getResourceAmount(resource));
@@ -740,6 +852,81 @@ public class MultipartSoma extends MultipartVisage<IComponentPart> implements IS
 		return (E) this.aggregateResources.getOrDefault(resource, resource.getEmptyValue());
 	}
 
+	/**
+	 * Called by the {@link ChannelResourceSolver} after it changed the amounts of a
+	 * resource in several parts at once, in place of
+	 * {@link #onChannelResourceChanged} for each part
+	 *
+	 * @param resource
+	 * @param parts     the parts by index
+	 * @param former    the former amounts by index
+	 * @param now       the new amounts by index
+	 * @param changed   the indices of the parts whose amounts changed
+	 * @param count     how many indices there are in changed
+	 */
+	void onChannelResourcesChanged(IResource<Float> resource, IComponentPart[] parts, float[] former, float[] now,
+			int[] changed, int count) {
+		float aggregate = (Float) this.aggregateResources.getOrDefault(resource, resource.getEmptyValue());
+		for (int c = 0; c < count; c++) {
+			int i = changed[c];
+			this.wake(parts[i]);
+			aggregate = aggregate - former[i] + now[i];
+		}
+		this.aggregateResources.put(resource, aggregate);
+		this.reaches.column(resource).clear();
+	}
+
+	@Override
+	public ChannelResourceSolver getResourceSolver() {
+		if (solver == null)
+			solver = new ChannelResourceSolver(this);
+		return solver;
+	}
+
+	@Override
+	public IRelationGraph<IComponentPart, IPartConnection> getReachableParts(IComponentPart from,
+			IResource<Boolean> resource, Collection<? extends IPartConnection> connectionTypes) {
+		Reach reach = reaches.get(from, resource);
+		if (reach == null || !reach.connectionTypes.equals(connectionTypes)) {
+			IRelationGraph<IComponentPart, IPartConnection> parts = partGraph
+					.subgraph((node) -> Boolean.TRUE.equals(node.getResourceAmount(resource)), (a) -> true)
+					.traverseBFS(from, connectionTypes, (a) -> {
+					}, (a, b) -> true);
+			reach = new Reach(connectionTypes, parts);
+			reaches.put(from, resource, reach);
+		}
+		return reach.parts;
+	}
+
+	/**
+	 * Make a new soma shaped like this one, out of clones of its parts which are
+	 * given ids by the given function, with the same kind, creation settings and
+	 * destruction condition. The new soma has no channel systems; this is meant for
+	 * making bodies from a template soma whose channel systems were never
+	 * populated, which is cheaper than generating them again.
+	 * 
+	 * @param newId
+	 * @return
+	 */
+	public MultipartSoma instantiate(Function<IComponentPart, UUID> newId) {
+		Map<IComponentPart, IComponentPart> clones = new HashMap<>();
+		Function<IComponentPart, IComponentPart> cloner = (part) -> clones.computeIfAbsent(part, (p) -> {
+			IComponentPart clone = p.clone();
+			clone.setUUID(newId.apply(p));
+			return clone;
+		});
+		IModifiableRelationGraph<IComponentPart, IPartConnection> parts = this.partGraph.deepCopy(cloner);
+		IModifiableRelationGraph<IComponentPart, CoverageType> coverage = this.coverage.deepCopy(cloner);
+		MultipartSoma soma = new MultipartSoma(parts, coverage, this.size, this.mass, cloner.apply(this.centerPart))
+				.setDestructionCondition(this.destructCondition);
+		// the sizes of the parts were already normalized in this soma, so undo any
+		// rounding error from normalizing them again
+		clones.forEach((part, clone) -> clone.changeSize(part.getRelativeSize(), false));
+		soma.setKind(this.kind);
+		soma.setCreationSettings(this.settings);
+		return soma;
+	}
+
 	@Override
 	public MultipartSoma clone() {
 		MultipartSoma copy = (MultipartSoma) super.clone();
@@ -759,6 +946,10 @@ public class MultipartSoma extends MultipartVisage<IComponentPart> implements IS
 		copy.systems = new HashMap<>(systems);
 		copy.aggregateStats = new HashMap<>(this.aggregateStats);
 		copy.aggregateResources = new HashMap<>(this.aggregateResources);
+		copy.activeParts = new HashSet<>();
+		copy.reaches = HashBasedTable.create();
+		copy.solver = null;
+		copy.partGraph.forEach(copy.activeParts::add);
 		copy.brokenParts = new ArrayList<>();
 		for (ISoma x : this.brokenParts) {
 			copy.brokenParts.add(x.clone());
@@ -3,6 +3,7 @@ package things.form.soma.component;
 import java.util.Collection;
 import java.util.UUID;
 
+import _sim.plane.PlaneSet;
 import metaphysics.magic.ITether;
 import metaphysics.magic.ITether.TetherType;
 import metaphysics.spirit.ISpirit;
@@ -63,11 +64,11 @@ public interface IComponentPart extends IPart {
 	public <E extends Comparable<?>> E getResourceAmount(IResource<E> resource);
 
 	/**
-	 * The number indicating what planes this part can interact on
+	 * What planes this part can interact on
 	 * 
 	 * @return
 	 */
-	public int interactionPlanes();
+	public PlaneSet interactionPlanes();
 
 	/**
 	 * Get abilities (including ChannelCenters)
@@ -409,7 +410,7 @@ public interface IComponentPart extends IPart {
 		}
 
 		@Override
-		public int interactionPlanes() {
+		public PlaneSet interactionPlanes() {
 			throw new UnsupportedOperationException();
 		}
 
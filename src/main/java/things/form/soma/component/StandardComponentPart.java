@@ -16,7 +16,7 @@ import com.google.common.collect.MultimapBuilder;
 import com.google.common.collect.Sets;
 import com.google.common.collect.Table;
 
-import _sim.plane.Plane;
+import _sim.plane.PlaneSet;
 import _utilities.collections.ImmutableCollection;
 import metaphysics.magic.ITether;
 import metaphysics.magic.ITether.TetherType;
@@ -54,7 +54,7 @@ public class StandardComponentPart implements IComponentPart {
 	private String name;
 	private UUID id;
 	private IMaterial material;
-	private int planes;
+	private PlaneSet planes;
 	private float size;
 	private IShape shape;
 	private Collection<IPartAbility> abilities;
@@ -72,7 +72,7 @@ public class StandardComponentPart implements IComponentPart {
 	private Set<ISensor> sensors;
 	private Table<TetherType, IProfile, ITether> immaterialTethers;
 
-	public StandardComponentPart(String name, UUID id, IMaterial mat, IShape shape, float size, int planes,
+	public StandardComponentPart(String name, UUID id, IMaterial mat, IShape shape, float size, PlaneSet planes,
 			Collection<? extends IPartAbility> abilities, Map<? extends IPartStat<?>, ? extends Object> stats) {
 		this.name = name;
 		this.id = id;
@@ -200,7 +200,7 @@ public class StandardComponentPart implements IComponentPart {
 	}
 
 	@Override
-	public int detectionPlanes() {
+	public PlaneSet detectionPlanes() {
 		return planes;
 	}
 
@@ -248,7 +248,7 @@ public class StandardComponentPart implements IComponentPart {
 	}
 
 	@Override
-	public int interactionPlanes() {
+	public PlaneSet interactionPlanes() {
 		return planes;
 	}
 
@@ -575,6 +575,9 @@ public class StandardComponentPart implements IComponentPart {
 		newPart.spirits = new HashSet<>(this.spirits);
 		newPart.channelResources = new HashMap<>(this.channelResources);
 		newPart.effects = new HashMap<>(Maps.asMap(this.effects.keySet(), (eff) -> this.effects.get(eff).clone()));
+		newPart.stains = new HashMap<>(this.stains);
+		newPart.writings = new HashMap<>(this.writings);
+		newPart.immaterialTethers = HashBasedTable.create(this.immaterialTethers);
 		return newPart;
 	}
 
@@ -607,7 +610,7 @@ public class StandardComponentPart implements IComponentPart {
 	@Override
 	public String componentReport() {
 		return "{name=" + name + ",mat=" + this.material + ",shape=" + this.shape
-				+ (planes != 1 ? ",planes=" + Plane.separate(planes) : "")
+				+ (!planes.isEmpty() ? ",planes=" + planes : "")
 				+ (abilities.isEmpty() ? "" : ",abs=" + abilities) + (spirits.isEmpty() ? "" : ",spirits=" + spirits)
 				+ (immaterialTethers.isEmpty() ? "" : ",tethers=" + immaterialTethers.values())
 				+ (stats.isEmpty() ? "" : ",stats=" + stats) + (embedded.isEmpty() ? "" : ",embedded=" + embedded)
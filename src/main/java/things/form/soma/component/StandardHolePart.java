@@ -4,6 +4,7 @@ import java.util.Collection;
 import java.util.Map;
 import java.util.UUID;
 
+import _sim.plane.PlaneSet;
 import things.form.material.IMaterial;
 import things.form.shape.IShape;
 import things.form.soma.abilities.IPartAbility;
@@ -11,7 +12,7 @@ import things.form.soma.stats.IPartStat;
 
 public class StandardHolePart extends StandardComponentPart {
 
-	public StandardHolePart(String name, UUID id, IShape shape, float size, int planes,
+	public StandardHolePart(String name, UUID id, IShape shape, float size, PlaneSet planes,
 			Collection<? extends IPartAbility> abilities, Map<? extends IPartStat<?>, ? extends Object> stats) {
 		super(name, id, IMaterial.NONE, shape, size, planes, abilities, stats);
 	}
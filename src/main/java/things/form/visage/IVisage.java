@@ -4,6 +4,7 @@ import java.util.Collection;
 
 import _graphics.IRenderable;
 import _graphics.WorldGraphics;
+import _sim.plane.PlaneSet;
 import things.form.IForm;
 import things.form.IPart;
 import things.form.graph.connections.IPartConnection;
@@ -27,6 +28,18 @@ public interface IVisage<P extends IPart> extends IForm<P>, IRenderable {
 		return this;
 	}
 
+	/**
+	 * What planes this visage can be seen on
+	 * 
+	 * @return
+	 */
+	public PlaneSet visibilityPlaneSet();
+
+	@Override
+	public default int visibilityPlanes() {
+		return visibilityPlaneSet().toPrimes();
+	}
+
 	/**
 	 * Draw this actor at 0, 0. It will be translated and scaled to the correct
 	 * position by the WorldGraphics
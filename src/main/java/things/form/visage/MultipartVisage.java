@@ -1,11 +1,13 @@
 package things.form.visage;
 
 import java.awt.Color;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -17,8 +19,8 @@ import com.google.common.collect.Table.Cell;
 
 import _graphics.WorldGraphics;
 import _sim.RelativeSide;
+import _sim.plane.PlaneSet;
 import _sim.vectors.IVector;
-import _utilities.MathUtils;
 import _utilities.couplets.Triplet;
 import _utilities.graph.IModifiableRelationGraph;
 import _utilities.graph.IRelationGraph;
@@ -35,6 +37,7 @@ import things.form.material.IMaterial;
 import things.form.material.property.MaterialProperty;
 import things.form.shape.IShape;
 import things.form.shape.property.ShapeProperty;
+import things.form.shape.property.ShapeProperty.RollableShape;
 import things.form.soma.ISoma;
 import things.form.soma.component.IComponentPart;
 import things.stains.IStain;
@@ -58,11 +61,74 @@ public class MultipartVisage<P extends IPart> implements IVisage<P> {
 	protected Set<P> allParts;
 	protected IActor owner;
 	protected float size;
-	protected int visplanes;
+	protected PlaneSet visplanes;
 	protected boolean canrender;
 	protected boolean isAllHoles;
 	protected IKind kind = IKind.MISCELLANEOUS;
 	protected UUID uuid = new UUID(0, 0);
+	protected volatile long changeStamp;
+	/**
+	 * the sides each part is covered on, as in {@link #getCoveredSideMask}; kept
+	 * up to date whenever coverage changes. This map is never changed once
+	 * published (a changed copy replaces it), so the sensors of other actors may
+	 * read it while this visage's actor changes its form
+	 */
+	protected volatile Map<P, Integer> coveredSides = Collections.emptyMap();
+	/**
+	 * how each part is drawn, in the order they are drawn; null if it must be
+	 * worked out again, see {@link #layOut()}
+	 */
+	private volatile DrawnPart[] drawList;
+
+	/**
+	 * How to draw one part of a visage: its position in steps from the center
+	 * part, its size relative to the visage, and its colours
+	 * 
+	 * @author borah
+	 *
+	 */
+	protected static final class DrawnPart {
+		private final int x;
+		private final int y;
+		private final float w;
+		private final float h;
+		private final int fill;
+		private final int stroke;
+		private final RollableShape shape;
+
+		private DrawnPart(int x, int y, float w, float h, int fill, int stroke, RollableShape shape) {
+			this.x = x;
+			this.y = y;
+			this.w = w;
+			this.h = h;
+			this.fill = fill;
+			this.stroke = stroke;
+			this.shape = shape;
+		}
+
+		/**
+		 * Draw this part, with steps and sizes scaled by the given amounts
+		 * 
+		 * @param g
+		 * @param step
+		 * @param scale
+		 */
+		private void draw(WorldGraphics g, float step, float scale) {
+			g.stroke(stroke);
+			g.fill(fill);
+			switch (shape) {
+			case NON_ROLLABLE:
+			case ROLLABLE_OVOID:
+				g.ellipseMode(PConstants.CENTER);
+				g.ellipse(x * step, y * step, w * scale, h * scale);
+				return;
+			case ROLLABLE_CYLINDER:
+				g.rectMode(PConstants.CENTER);
+				g.rect(x * step, y * step, w * scale, h * scale);
+				return;
+			}
+		}
+	}
 	/*
 	 * private int intplanes;
 	 * 
@@ -98,7 +164,7 @@ public class MultipartVisage<P extends IPart> implements IVisage<P> {
 		this.size = size;
 		this.coverage = coverage;
 		this.isAllHoles = true;
-		visplanes = 1;
+		visplanes = PlaneSet.NONE;
 		this.centerPart = centerPart;
 		float checkSize = 0;
 		for (P part : parts) {
@@ -106,7 +172,7 @@ public class MultipartVisage<P extends IPart> implements IVisage<P> {
 			part.setOwner(this);
 			part.setTrueOwner(this);
 			checkSize += part.getRelativeSize();
-			visplanes = MathUtils.primeUnion(visplanes, part.detectionPlanes());
+			visplanes = visplanes.union(part.detectionPlanes());
 			this.allParts.add(part);
 
 			this.isAllHoles = this.isAllHoles && part.isHole();
@@ -123,6 +189,53 @@ public class MultipartVisage<P extends IPart> implements IVisage<P> {
 			canrender = false;
 		} else
 			canrender = true;
+		this.updateCoveredSides();
+	}
+
+	/**
+	 * Work out again which sides every part is covered on
+	 */
+	protected void updateCoveredSides() {
+		this.redraw();
+		Map<P, Integer> sides = new HashMap<>();
+		for (P part : coverage) {
+			sides.put(part, IVisage.super.getCoveredSideMask(part));
+		}
+		this.coveredSides = Collections.unmodifiableMap(sides);
+	}
+
+	/**
+	 * Work out again which sides this part is covered on, e.g. because a coverage
+	 * relation of it was added or removed
+	 * 
+	 * @param part
+	 */
+	protected void updateCoveredSides(P part) {
+		this.updateCoveredSides(Collections.singleton(part));
+	}
+
+	/**
+	 * Work out again which sides these parts are covered on, publishing the result
+	 * once for all of them
+	 * 
+	 * @param parts
+	 */
+	protected void updateCoveredSides(Collection<? extends P> parts) {
+		this.redraw();
+		Map<P, Integer> sides = new HashMap<>(coveredSides);
+		for (P part : parts) {
+			if (coverage.contains(part)) {
+				sides.put(part, IVisage.super.getCoveredSideMask(part));
+			} else {
+				sides.remove(part);
+			}
+		}
+		this.coveredSides = Collections.unmodifiableMap(sides);
+	}
+
+	@Override
+	public int getCoveredSideMask(P part) {
+		return coveredSides.getOrDefault(part, 0);
 	}
 
 	public UUID getUUID() {
@@ -133,6 +246,18 @@ public class MultipartVisage<P extends IPart> implements IVisage<P> {
 		this.uuid = id;
 	}
 
+	@Override
+	public long getChangeStamp() {
+		return changeStamp;
+	}
+
+	/**
+	 * Mark that the parts of this form changed, see {@link #getChangeStamp()}
+	 */
+	protected void markChanged() {
+		this.changeStamp++;
+	}
+
 	@Override
 	public IKind getKind() {
 		return kind;
@@ -170,7 +295,9 @@ public class MultipartVisage<P extends IPart> implements IVisage<P> {
 	protected void onAddPart(P newPart) {
 		this.partGraph.add(newPart);
 		this.coverage.add(newPart);
+		this.updateCoveredSides(newPart);
 		this.allParts.add(newPart);
+		this.markChanged();
 
 		float totalSize = (float) partGraph.stream().mapToDouble((a) -> (double) a.getRelativeSize()).sum();
 
@@ -217,6 +344,9 @@ public class MultipartVisage<P extends IPart> implements IVisage<P> {
 		for (RelativeSide covering : coveringsides) {
 			two = two && this.coverage.addEdge(newPart, CoverageType.covers(covering), toPart);
 		}
+		this.updateCoveredSides(newPart);
+		this.updateCoveredSides(toPart);
+		this.markChanged();
 		/**
 		 * for (IChannelSystem sys : this.systems.values()) { sys.onBodyNew(this,
 		 * newPart, connectionType, toPart, newed); }
@@ -266,62 +396,71 @@ public class MultipartVisage<P extends IPart> implements IVisage<P> {
 	}
 
 	@Override
-	public int visibilityPlanes() {
+	public PlaneSet visibilityPlaneSet() {
 		return visplanes;
 	}
 
-	protected void drawPart(P part, WorldGraphics g, IVector loc) {
+	/**
+	 * Work out how to draw each part: lay the parts out from the center part along
+	 * coverage relations, and resolve their colours from their materials or their
+	 * main stains
+	 * 
+	 * @return
+	 */
+	protected DrawnPart[] layOut() {
+		List<DrawnPart> list = new ArrayList<>();
+		Map<P, int[]> positions = new HashMap<>();
+		list.add(layOut(centerPart, 0, 0));
+		positions.put(centerPart, new int[2]);
+		Iterator<Triplet<P, CoverageType, P>> iterator = this.coverage.edgeTraversalIteratorBFS(centerPart,
+				CoverageType.getCoverageTypes(CoverageDirection.COVERED_ON), (a, b) -> true);
+		while (iterator.hasNext()) {
+			Triplet<P, CoverageType, P> edge = iterator.next();
+			if (positions.containsKey(edge.getThird()))
+				continue;
+			int[] firstpos = positions.getOrDefault(edge.getFirst(), new int[2]);
+			IVector dir = edge.getSecond().getSide().getChangeVector();
+			int[] newPos = { firstpos[0] + (int) dir.getUnadjustedX(), firstpos[1] + (int) dir.getUnadjustedY() };
+			positions.put(edge.getThird(), newPos);
+			list.add(layOut(edge.getThird(), newPos[0], newPos[1]));
+		}
+		return list.toArray(new DrawnPart[list.size()]);
+	}
+
+	private DrawnPart layOut(P part, int x, int y) {
 		Color color = part.getMaterial().getProperty(MaterialProperty.COLOR);
 		if (!part.getStains().isEmpty()) {
 			IStain mainStain = Collections.max(part.getStains(),
-					(a, b) -> Float.compare(a.getAmount() * a.getSubstance().getProperty(MaterialProperty.STAINING),
-							b.getAmount() * b.getSubstance().getProperty(MaterialProperty.STAINING)));
+					(a, b) -> Float.compare(a.getAmount() * a.getSubstance().getFloat(MaterialProperty.STAINING),
+							b.getAmount() * b.getSubstance().getFloat(MaterialProperty.STAINING)));
 			color = mainStain.getSubstance().getProperty(MaterialProperty.COLOR);
 		}
-		g.stroke(color.darker().darker().getRGB());
-		g.fill(color.getRGB());
-
 		IShape shape = part.getShape();
-		float h = shape.getProperty(ShapeProperty.LENGTH).factor / 2 * part.getRelativeSize() * this.size
-				* g.getWorld().getMainMap().getBlockRenderSize();
-		float w = shape.getProperty(ShapeProperty.THICKNESS).factor / 2 * part.getRelativeSize() * this.size
-				* g.getWorld().getMainMap().getBlockRenderSize();
-		switch (shape.getProperty(ShapeProperty.ROLL_SHAPE)) {
-		case NON_ROLLABLE:
-		case ROLLABLE_OVOID:
-			g.ellipseMode(PConstants.CENTER);
-			g.ellipse((float) loc.getUnadjustedX(), (float) loc.getUnadjustedY(), w, h);
-			return;
-		case ROLLABLE_CYLINDER:
-			g.rectMode(PConstants.CENTER);
-			g.rect((float) loc.getUnadjustedX(), (float) loc.getUnadjustedY(), w, h);
-			return;
-		}
+		float h = shape.getProperty(ShapeProperty.LENGTH).factor / 2 * part.getRelativeSize();
+		float w = shape.getProperty(ShapeProperty.THICKNESS).factor / 2 * part.getRelativeSize();
+		return new DrawnPart(x, y, w, h, color.getRGB(), color.darker().darker().getRGB(),
+				shape.getProperty(ShapeProperty.ROLL_SHAPE));
+	}
+
+	/**
+	 * Forget how parts are drawn, so that it is worked out again when next drawn
+	 */
+	protected void redraw() {
+		this.drawList = null;
 	}
 
 	@Override
 	public void draw(WorldGraphics g) {
-		// TODO render multipart visage?
-		Iterator<Triplet<P, CoverageType, P>> iterator = this.coverage.edgeTraversalIteratorBFS(centerPart,
-				CoverageType.getCoverageTypes(CoverageDirection.COVERED_ON), (a, b) -> true);
-		float step = this.size / this.partGraph.size() * g.getWorld().getMainMap().getBlockRenderSize();
-		Map<P, IVector> positions = new HashMap<>();
-		Set<P> drawn = new HashSet<>();
-		drawPart(centerPart, g, IVector.ZERO);
-		drawn.add(centerPart);
-		for (Triplet<P, CoverageType, P> edge : (Iterable<Triplet<P, CoverageType, P>>) () -> iterator) {
-			if (drawn.contains(edge.getThird()))
-				continue;
-			IVector firstpos = positions.getOrDefault(edge.getFirst(), IVector.ZERO);
-			IVector dir = edge.getSecond().getSide().getChangeVector().scaleMagnitudeBy(step);
-			IVector newPos = firstpos.add(dir);
-			if (newPos != IVector.ZERO) {
-				positions.put(edge.getThird(), newPos);
-			}
-			drawPart(edge.getThird(), g, newPos);
-			drawn.add(edge.getThird());
+		DrawnPart[] list = this.drawList;
+		if (list == null) {
+			this.drawList = list = this.layOut();
+		}
+		int blockSize = g.getWorld().getMainMap().getBlockRenderSize();
+		float step = this.size / this.partGraph.size() * blockSize;
+		float scale = this.size * blockSize;
+		for (DrawnPart part : list) {
+			part.draw(g, step, scale);
 		}
-
 	}
 
 	@Override
@@ -337,26 +476,32 @@ public class MultipartVisage<P extends IPart> implements IVisage<P> {
 	@Override
 	public void setCoveragePercentage(P coverer, P covered, RelativeSide side, float amount) {
 		this.coverage.setProperty(coverer, CoverageType.covers(side), covered, CoverageType.COVERAGE_PERCENT, amount);
+		this.updateCoveredSides(List.of(coverer, covered));
+		this.markChanged();
 	}
 
 	@Override
 	public void onPartMaterialChange(IPart part, IMaterial formerMaterial) {
-
+		this.redraw();
+		this.markChanged();
 	}
 
 	@Override
 	public void onPartStainChange(IPart part, Collection<IStain> stains) {
-
+		this.redraw();
+		this.markChanged();
 	}
 
 	@Override
 	public void onPartShapeChange(IPart part, IShape formerShape) {
-
+		this.redraw();
+		this.markChanged();
 	}
 
 	@Override
 	public void onPartSizeChange(IPart part, float formerMaterial) {
-
+		this.redraw();
+		this.markChanged();
 	}
 
 	@Override
@@ -383,6 +528,7 @@ public class MultipartVisage<P extends IPart> implements IVisage<P> {
 		}
 		copy.partGraph = partGraph.deepCopy((part) -> copy.partsByNameAndId.get(part.getName(), part.getUUID()));
 		copy.coverage = coverage.deepCopy((part) -> copy.partsByNameAndId.get(part.getName(), part.getUUID()));
+		copy.updateCoveredSides();
 
 		copy.centerPart = copy.partsByNameAndId.get(centerPart.getName(), centerPart.getUUID());
 		copy.contiguousParts = new HashSet<>();
@@ -8,6 +8,7 @@ import com.google.common.collect.Streams;
 
 import _graphics.WorldGraphics;
 import _sim.RelativeSide;
+import _sim.plane.PlaneSet;
 import _utilities.collections.FilteredCollectionView;
 import _utilities.graph.IRelationGraph;
 import things.actor.IActor;
@@ -54,6 +55,11 @@ public class PartialVisage<P extends IPart> implements IVisage<P> {
 		return whole.getKind();
 	}
 
+	@Override
+	public long getChangeStamp() {
+		return whole.getChangeStamp();
+	}
+
 	@Override
 	public void setUUID(UUID id) {
 		throw new UnsupportedOperationException();
@@ -170,8 +176,8 @@ public class PartialVisage<P extends IPart> implements IVisage<P> {
 	}
 
 	@Override
-	public int visibilityPlanes() {
-		return whole.visibilityPlanes();
+	public PlaneSet visibilityPlaneSet() {
+		return whole.visibilityPlaneSet();
 	}
 
 	@Override
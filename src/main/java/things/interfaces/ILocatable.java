@@ -11,6 +11,26 @@ public interface ILocatable {
 	 */
 	public IVector getPosition();
 
+	/**
+	 * Return the (unadjusted) x coordinate of this thing's location; things which
+	 * store their location as numbers should return it without making a vector
+	 * 
+	 * @return
+	 */
+	public default double getPositionX() {
+		return getPosition().getUnadjustedX();
+	}
+
+	/**
+	 * Return the (unadjusted) y coordinate of this thing's location, see
+	 * {@link #getPositionX()}
+	 * 
+	 * @return
+	 */
+	public default double getPositionY() {
+		return getPosition().getUnadjustedY();
+	}
+
 	/** Distance to another entity */
 	default double distance(ILocatable a) {
 		return IVector.distance(getPosition(), a.getPosition());
@@ -1,6 +1,7 @@
 package things.physics_and_chemistry;
 
 import _sim.RelativeSide;
+import _sim.plane.PlaneSet;
 import _sim.vectors.IVector;
 import things.form.soma.component.IComponentPart;
 import things.interfaces.IMovableObject;
@@ -55,7 +56,7 @@ public interface IPhysicsObject extends IMovableObject {
 	 * @return the result of the force's application
 	 */
 	public ForceResult applyForce(IComponentPart at, IComponentPart connection, IVector force, ForceType type,
-			RelativeSide onSide, int acrossPlanes);
+			RelativeSide onSide, PlaneSet acrossPlanes);
 
 	/**
 	 * Apply a force using the given component part, of the given type
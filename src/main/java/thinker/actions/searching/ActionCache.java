@@ -0,0 +1,331 @@
+package thinker.actions.searching;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.Multimap;
+
+import _utilities.couplets.Pair;
+import thinker.actions.IActionConcept;
+import thinker.concepts.IConcept;
+import thinker.concepts.relations.IConceptRelationType;
+import thinker.goals.IGoalConcept;
+import thinker.knowledge.IKnowledgeRepresentation;
+import thinker.knowledge.base.IKnowledgeBase;
+import thinker.knowledge.base.individual.IIndividualKnowledgeBase;
+
+/**
+ * Remembers the actions an {@link ActionFinder} found for each goal, so that
+ * planning for the same goal again is a lookup. A search made in an
+ * {@link IIndividualKnowledgeBase} is kept with the
+ * {@link IKnowledgeRepresentation#getVersion() versions} of its parents and a
+ * {@link IIndividualKnowledgeBase#localRelationsHash(IConcept, IConceptRelationType)
+ * hash} of the relations it read from local memory, so it answers for any
+ * knowledge base with the same parents and the same local relations of those
+ * concepts, e.g. for every soul of a kind, however much else their memories
+ * change. A search made in any other knowledge base is kept with its version
+ * and answers only for it. Goals are compared by equality; two equal goals whose
+ * conditions have the same version are taken to have the same conditions. It
+ * counts hits and misses so its usefulness can be measured.
+ *
+ * @author borah
+ *
+ */
+public class ActionCache {
+
+	/**
+	 * how many searches are kept for each goal, e.g. for souls with different
+	 * parents
+	 */
+	private static final int SEARCHES_PER_GOAL = 8;
+
+	/** the searches for each goal, most recent first */
+	private Map<IGoalConcept, List<Search>> searches = new HashMap<>();
+	private long hits;
+	private long misses;
+
+	/**
+	 * A memory access a search made, or would have made, to make again in whatever
+	 * knowledge base reuses the search
+	 *
+	 * @author borah
+	 *
+	 */
+	static final class Access {
+		/** whether this is made in the conditions of the goal, not the knowledge */
+		private final boolean inConditions;
+		private final IConcept from;
+		private final IConceptRelationType type;
+		private final IConcept to;
+
+		Access(boolean inConditions, IConcept from, IConceptRelationType type, IConcept to) {
+			this.inConditions = inConditions;
+			this.from = from;
+			this.type = type;
+			this.to = to;
+		}
+
+		void make(IKnowledgeRepresentation knowledge, IKnowledgeRepresentation conditions) {
+			(inConditions ? conditions : knowledge).access(from, type, to);
+		}
+	}
+
+	/**
+	 * The result of one search, what it depended on, and the accesses to make
+	 * again if it is reused
+	 *
+	 * @author borah
+	 *
+	 */
+	static final class Search {
+		private final long conditionsVersion;
+		/** whether the knowledge searched was an {@link IIndividualKnowledgeBase} */
+		private final boolean individual;
+		/** the parents of the knowledge searched, or the knowledge itself */
+		private final IKnowledgeBase[] sources;
+		private final long[] sourceVersions;
+		/** each concept and relation type (null for all) read from local memory */
+		private final IConcept[] readConcepts;
+		private final IConceptRelationType[] readTypes;
+		private final long[] readHashes;
+		/** each action found, and the relations of the goal it addresses */
+		final ImmutableMultimap<IActionConcept, IConceptRelationType> actions;
+		/** how many relations the goal has */
+		final int relationCount;
+		/**
+		 * the memory accesses the search made, or would have made; only these are
+		 * repeated when the search is reused, not the comparisons that found them
+		 */
+		private final List<Access> accesses;
+
+		/**
+		 * Make a search, hashing the local relations it read in the knowledge it was
+		 * made in
+		 *
+		 * @param knowledge         the knowledge searched
+		 * @param conditionsVersion the version of the conditions of the goal before
+		 *                          the search
+		 * @param sourceVersions    the versions of {@link ActionCache#sourcesOf}
+		 *                          the knowledge before the search
+		 * @param reads             the concepts and relation types read from the
+		 *                          knowledge
+		 * @param actions
+		 * @param relationCount
+		 * @param accesses
+		 */
+		Search(IKnowledgeBase knowledge, long conditionsVersion, long[] sourceVersions,
+				Collection<Pair<IConcept, IConceptRelationType>> reads,
+				Multimap<IActionConcept, IConceptRelationType> actions, int relationCount, List<Access> accesses) {
+			this.conditionsVersion = conditionsVersion;
+			this.individual = knowledge instanceof IIndividualKnowledgeBase;
+			this.sources = sourcesOf(knowledge);
+			this.sourceVersions = sourceVersions.clone();
+			if (knowledge instanceof IIndividualKnowledgeBase ikb) {
+				this.readConcepts = new IConcept[reads.size()];
+				this.readTypes = new IConceptRelationType[reads.size()];
+				this.readHashes = new long[reads.size()];
+				int i = 0;
+				for (Pair<IConcept, IConceptRelationType> read : reads) {
+					readConcepts[i] = read.getFirst();
+					readTypes[i] = read.getSecond();
+					readHashes[i] = ikb.localRelationsHash(read.getFirst(), read.getSecond());
+					i++;
+				}
+			} else {
+				this.readConcepts = new IConcept[0];
+				this.readTypes = new IConceptRelationType[0];
+				this.readHashes = new long[0];
+			}
+			this.actions = ImmutableMultimap.copyOf(actions);
+			this.relationCount = relationCount;
+			this.accesses = List.copyOf(accesses);
+		}
+
+		/**
+		 * Make each memory access of this search again
+		 *
+		 * @param knowledge
+		 * @param conditions
+		 */
+		void replayAccesses(IKnowledgeRepresentation knowledge, IKnowledgeRepresentation conditions) {
+			for (Access access : accesses) {
+				access.make(knowledge, conditions);
+			}
+		}
+
+		/**
+		 * Whether this search was made from the same sources as the other, whatever
+		 * their versions
+		 */
+		private boolean sameSources(IKnowledgeBase[] others) {
+			if (others.length != sources.length)
+				return false;
+			for (IKnowledgeBase source : sources) {
+				if (indexOf(others, source) < 0)
+					return false;
+			}
+			return true;
+		}
+
+		/**
+		 * Whether this search answers for this knowledge and goal as it is now
+		 */
+		private boolean answers(IKnowledgeBase knowledge, IGoalConcept goal) {
+			if (individual != knowledge instanceof IIndividualKnowledgeBase
+					|| conditionsVersion != goal.getConditionsGraph().getVersion())
+				return false;
+			IKnowledgeBase[] now = sourcesOf(knowledge);
+			if (!sameSources(now))
+				return false;
+			for (int i = 0; i < sources.length; i++) {
+				if (sources[i].getVersion() != sourceVersions[i])
+					return false;
+			}
+			if (knowledge instanceof IIndividualKnowledgeBase ikb) {
+				for (int i = 0; i < readConcepts.length; i++) {
+					if (ikb.localRelationsHash(readConcepts[i], readTypes[i]) != readHashes[i])
+						return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Whether this search was made from the same sources and the same local
+		 * relations as the other, so that the newer replaces it
+		 */
+		private boolean sameKey(Search other) {
+			if (individual != other.individual || !sameSources(other.sources)
+					|| readConcepts.length != other.readConcepts.length)
+				return false;
+			for (int i = 0; i < readConcepts.length; i++) {
+				if (!readConcepts[i].equals(other.readConcepts[i]) || readTypes[i] != other.readTypes[i]
+						|| readHashes[i] != other.readHashes[i])
+					return false;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Return what a search in this knowledge depends on besides local memory: its
+	 * parents if it is an {@link IIndividualKnowledgeBase}, or else itself
+	 *
+	 * @param knowledge
+	 * @return
+	 */
+	static IKnowledgeBase[] sourcesOf(IKnowledgeBase knowledge) {
+		if (knowledge instanceof IIndividualKnowledgeBase ikb) {
+			return ikb.getParents().toArray(new IKnowledgeBase[0]);
+		}
+		return new IKnowledgeBase[] { knowledge };
+	}
+
+	/**
+	 * Return the versions of the given sources
+	 *
+	 * @param sources
+	 * @return
+	 */
+	static long[] versionsOf(IKnowledgeBase[] sources) {
+		long[] versions = new long[sources.length];
+		for (int i = 0; i < sources.length; i++) {
+			versions[i] = sources[i].getVersion();
+		}
+		return versions;
+	}
+
+	private static int indexOf(IKnowledgeBase[] array, IKnowledgeBase of) {
+		for (int i = 0; i < array.length; i++) {
+			if (array[i] == of)
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Return a remembered search for this goal which answers for this knowledge as
+	 * it is now, or null if there is none
+	 *
+	 * @param knowledge
+	 * @param goal
+	 * @return
+	 */
+	synchronized Search get(IKnowledgeBase knowledge, IGoalConcept goal) {
+		List<Search> forGoal = searches.get(goal);
+		if (forGoal != null) {
+			for (Search search : forGoal) {
+				if (search.answers(knowledge, goal)) {
+					hits++;
+					return search;
+				}
+			}
+		}
+		misses++;
+		return null;
+	}
+
+	/**
+	 * Remember a search for this goal, in place of any made from the same sources
+	 * and local relations
+	 *
+	 * @param goal
+	 * @param search
+	 */
+	synchronized void put(IGoalConcept goal, Search search) {
+		List<Search> forGoal = searches.computeIfAbsent(goal, (g) -> new ArrayList<>());
+		for (Iterator<Search> it = forGoal.iterator(); it.hasNext();) {
+			if (it.next().sameKey(search))
+				it.remove();
+		}
+		forGoal.add(0, search);
+		if (forGoal.size() > SEARCHES_PER_GOAL) {
+			forGoal.remove(forGoal.size() - 1);
+		}
+	}
+
+	/**
+	 * Forget all searches (but not the hit and miss counts)
+	 */
+	public synchronized void clear() {
+		searches.clear();
+	}
+
+	/**
+	 * How many searches were answered from this cache
+	 *
+	 * @return
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * How many searches had to be made because this cache could not answer them
+	 *
+	 * @return
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * The fraction of searches answered from this cache, or 0 if there were none
+	 *
+	 * @return
+	 */
+	public synchronized float getHitRate() {
+		return hits + misses == 0 ? 0f : hits * 1f / (hits + misses);
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "ActionCache{hits=" + hits + ",misses=" + misses + "}";
+	}
+
+}
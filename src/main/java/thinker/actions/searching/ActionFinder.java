@@ -1,7 +1,9 @@
 package thinker.actions.searching;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -11,7 +13,6 @@ import java.util.stream.Stream;
 import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.MultimapBuilder;
-import com.google.common.collect.Multimaps;
 import com.google.common.collect.Streams;
 import com.google.common.collect.Table;
 
@@ -20,24 +21,58 @@ import _utilities.couplets.Pair;
 import party.util.IAgentAccess;
 import thinker.actions.IActionConcept;
 import thinker.concepts.IConcept;
+import thinker.concepts.general_types.IConnectorConcept;
 import thinker.concepts.general_types.IPropertyConcept;
 import thinker.concepts.profile.IProfile;
 import thinker.concepts.relations.IConceptRelationType;
 import thinker.concepts.relations.actional.IEventRelationType;
 import thinker.concepts.relations.descriptive.ProfileInterrelationType;
+import thinker.concepts.relations.descriptive.PropertyRelationType;
 import thinker.goals.IGoalConcept;
 import thinker.helpers.ProfilePropertyMap;
 import thinker.helpers.RelationValence;
 import thinker.helpers.RelationsHelper;
+import thinker.knowledge.IKnowledgeRepresentation;
+import thinker.knowledge.base.IKnowledgeBase;
 
 /**
- * Basic implementation of {@link IActionFinder}
+ * Basic implementation of {@link IActionFinder}. The actions found for a goal
+ * are remembered in an {@link ActionCache} until the goal or what the search
+ * read from the knowledge changes.
  * 
  * @author borah
  *
  */
 public class ActionFinder implements IActionFinder {
 
+	private ActionCache cache;
+
+	/**
+	 * Make an action finder with its own cache
+	 */
+	public ActionFinder() {
+		this(new ActionCache());
+	}
+
+	/**
+	 * Make an action finder using the given cache, which may be shared with other
+	 * action finders
+	 * 
+	 * @param cache
+	 */
+	public ActionFinder(ActionCache cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * Return the cache of actions found by this finder
+	 * 
+	 * @return
+	 */
+	public ActionCache getCache() {
+		return cache;
+	}
+
 	/**
 	 * For subclasses to override
 	 */
@@ -50,13 +85,120 @@ public class ActionFinder implements IActionFinder {
 	@Override
 	public Table<IActionConcept, IActionCriterion, Float> findAction(IAgentAccess info, IGoalConcept focusGoal,
 			UUID processID, boolean doAccesses) {
+		IKnowledgeBase knowledge = info.knowledge();
+		ActionCache.Search search = cache.get(knowledge, focusGoal);
+		if (search == null) {
+			search = search(info, focusGoal, doAccesses);
+			cache.put(focusGoal, search);
+		} else if (doAccesses) {
+			search.replayAccesses(knowledge, focusGoal.getConditionsGraph());
+		}
+		Multimap<IActionConcept, IConceptRelationType> foundActions = MultimapBuilder.hashKeys().hashSetValues()
+				.build(search.actions);
+
+		// now with our found actions, determine which are best
+		Table<IActionConcept, IActionCriterion, Float> actionTable = HashBasedTable.create();
+
+		for (IActionConcept action : foundActions.keySet()) {
+			// BasicActionCriterion.INCOMPLETION
+			actionTable.put(action, BasicActionCriterion.INCOMPLETION,
+					foundActions.get(action).size() * 1.0f / search.relationCount);
+			// TODO BasicActionCriterion.EFFORT
+
+			// TODO BasicActionCriterion.DRAINAGE
+
+			// TODO BasicActionCriterion.UNCERTAINTY
+		}
+
+		this.assessOtherCriteria(foundActions, actionTable, focusGoal, processID, info);
+
+		return actionTable;
+	}
+
+	/**
+	 * Make an access now if "doAccesses" is true, and remember it to make again
+	 * whenever the search is reused
+	 * 
+	 * @param accesses
+	 * @param doAccesses
+	 * @param conditions the conditions of the goal, which some accesses are made in
+	 * @param base       where the access is made
+	 * @param from
+	 * @param type
+	 * @param to
+	 */
+	private static void access(List<ActionCache.Access> accesses, boolean doAccesses,
+			IKnowledgeRepresentation conditions, IKnowledgeRepresentation base, IConcept from,
+			IConceptRelationType type, IConcept to) {
+		accesses.add(new ActionCache.Access(base == conditions, from, type, to));
+		if (doAccesses)
+			base.access(from, type, to);
+	}
+
+	/**
+	 * Note that the search read the traits of this profile from the knowledge, as
+	 * {@link ProfilePropertyMap} does: its trait relations, and the trait and value
+	 * relations of connectors it has as traits
+	 * 
+	 * @param reads
+	 * @param profile
+	 * @param knowledge
+	 */
+	private static void readTraits(Set<Pair<IConcept, IConceptRelationType>> reads, IProfile profile,
+			IKnowledgeRepresentation knowledge) {
+		if (reads.add(Pair.of(profile, PropertyRelationType.HAS_TRAIT))) {
+			for (IConcept trait : knowledge.getConnectedConcepts(profile, PropertyRelationType.HAS_TRAIT)) {
+				if (trait instanceof IConnectorConcept) {
+					reads.add(Pair.of(trait, null));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Note that the search read the profiles with this property from the
+	 * knowledge, as {@link RelationsHelper#profilesWithTrait} does: the relations
+	 * of the property, and of connectors it is a trait of
+	 * 
+	 * @param reads
+	 * @param property
+	 * @param knowledge
+	 */
+	private static void readTraitOf(Set<Pair<IConcept, IConceptRelationType>> reads, IPropertyConcept property,
+			IKnowledgeRepresentation knowledge) {
+		if (reads.add(Pair.of(property, PropertyRelationType.IS_TRAIT_OF))) {
+			for (IConcept holder : knowledge.getConnectedConcepts(property, PropertyRelationType.IS_TRAIT_OF)) {
+				if (holder instanceof IConnectorConcept) {
+					reads.add(Pair.of(holder, null));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Find all actions which address some relation of this goal
+	 * 
+	 * @param info
+	 * @param focusGoal
+	 * @param doAccesses
+	 * @return
+	 */
+	private ActionCache.Search search(IAgentAccess info, IGoalConcept focusGoal, boolean doAccesses) {
+		IKnowledgeBase knowledge = info.knowledge();
+		IKnowledgeRepresentation conditions = focusGoal.getConditionsGraph();
+		long[] sourceVersions = ActionCache.versionsOf(ActionCache.sourcesOf(knowledge));
+		long conditionsVersion = conditions.getVersion();
+		List<ActionCache.Access> accesses = new ArrayList<>();
+		// what the search reads from the knowledge, so a reuse can check it is unchanged
+		Set<Pair<IConcept, IConceptRelationType>> reads = new LinkedHashSet<>();
 		// pairs of relations and profiles involvedi n this goal
-		Multimap<IConceptRelationType, IConcept> involvedConcepts = Streams
-				.stream(focusGoal.getConditionsGraph().getOutgoingEdges(IGoalConcept.SATISFIER))
-				.filter((trip) -> trip.getEdgeType() instanceof IEventRelationType)
-				.map((trip) -> Pair.of(trip.getEdgeType(), trip.getEdgeEnd()))
-				.collect(Multimaps.toMultimap((a) -> a.getFirst(), (b) -> b.getSecond(),
-						() -> MultimapBuilder.hashKeys().hashSetValues().build()));
+		Multimap<IConceptRelationType, IConcept> involvedConcepts = MultimapBuilder.hashKeys().hashSetValues()
+				.build();
+		conditions.forEachOutgoingEdge(IGoalConcept.SATISFIER, (start, type, end) -> {
+			if (type instanceof IEventRelationType)
+				involvedConcepts.put(type, end);
+			return true;
+		});
 		List<IConceptRelationType> relashuffle = involvedConcepts.keySet().stream().collect(Collectors.toList());
 		Collections.shuffle(relashuffle);
 
@@ -77,11 +219,13 @@ public class ActionFinder implements IActionFinder {
 					throw new UnimplementedException(
 							"UniqueProfileInCondition not implemented (" + expectedTargetConcept + ")");
 				} else if (targetProfile.isTypeProfile()) { // if this expectation targets a type of thing
-					ProfilePropertyMap targetProperties = RelationsHelper.getProfileProperties(targetProfile,
-							info.knowledge(), RelationValence.IS);
+					ProfilePropertyMap targetProperties = RelationsHelper
+							.getProfileProperties(targetProfile, info.knowledge(), RelationValence.IS).materialize();
+					readTraits(reads, targetProfile, knowledge);
 
 					// cycle through properties of expected target
 					for (IPropertyConcept targetProperty : targetProperties.keyIterable()) {
+						readTraitOf(reads, targetProperty, knowledge);
 						Stream<IProfile> profilesMatchingTargetProperty = RelationsHelper.profilesWithTrait(
 								targetProperty, targetProperties.get(targetProperty), info.knowledge(), -1f);
 						// for each property, find all profiles with this property
@@ -89,10 +233,14 @@ public class ActionFinder implements IActionFinder {
 								.filter((a) -> !alreadyCheckedProfiles.contains(a)).iterator()) {
 
 							if (profileMatchingProperty.isTypeProfile()) { // if we found a type profile
+								// keep only the accesses the comparison makes, so a reused search
+								// repeats them without comparing again
+								readTraits(reads, profileMatchingProperty, knowledge);
+								reads.add(Pair.of(profileMatchingProperty, eventRelation.invert()));
 								if (RelationsHelper.areProfileTraitsSuperset(targetProfile, profileMatchingProperty,
-										focusGoal.getConditionsGraph(), info.knowledge(), doAccesses)) { // if the
-																											// profile
-																											// fits
+										conditions, knowledge, (base, from, type, to) -> access(accesses, doAccesses,
+												conditions, base, from, type, to))) {
+									// if the profile fits
 									Streams.stream(info.knowledge().getConnectedConcepts(profileMatchingProperty,
 											eventRelation.invert())).map((a) -> (IActionConcept) a)
 											.forEach((a) -> foundActions.put(a, eventRelation));
@@ -113,29 +261,31 @@ public class ActionFinder implements IActionFinder {
 					}
 					// check for actions which target anymatchers
 					IProfile anyMatcher = IProfile.anyOf(targetProfile.getDescriptiveType());
+					reads.add(Pair.of(anyMatcher, eventRelation.invert()));
 					Streams.stream(info.knowledge().getConnectedConcepts(anyMatcher, eventRelation.invert()))
 							.map((a) -> (IActionConcept) a).forEach((a) -> {
 								foundActions.put(a, eventRelation);
-								if (doAccesses)
-									info.knowledge().access(anyMatcher, eventRelation.invert(), a);
+								access(accesses, doAccesses, conditions, knowledge, anyMatcher, eventRelation.invert(),
+										a);
 							});
 				} else if (targetProfile.isAnyMatcher()) {
 					// if the expectation has an any-matcher, just look for all profiles with that
 					// unique type
+					reads.add(Pair.of(targetProfile, ProfileInterrelationType.IS_SUPERTYPE_OF));
 					for (IProfile profileOfUniqueType : (Iterable<IProfile>) () -> Streams
 							.stream(info.knowledge().getConnectedConcepts(targetProfile,
 									ProfileInterrelationType.IS_SUPERTYPE_OF))
 							.map((a) -> (IProfile) a).filter((a) -> !alreadyCheckedProfiles.contains(a)).iterator()) {
 						if (profileOfUniqueType.isTypeProfile()) { // if we found a type profile
-							if (doAccesses)
-								info.knowledge().access(targetProfile, ProfileInterrelationType.IS_SUPERTYPE_OF,
-										profileOfUniqueType);
+							access(accesses, doAccesses, conditions, knowledge, targetProfile,
+									ProfileInterrelationType.IS_SUPERTYPE_OF, profileOfUniqueType);
+							reads.add(Pair.of(profileOfUniqueType, eventRelation.invert()));
 							Streams.stream(
 									info.knowledge().getConnectedConcepts(profileOfUniqueType, eventRelation.invert()))
 									.map((a) -> (IActionConcept) a).forEach((a) -> {
 										foundActions.put(a, eventRelation);
-										if (doAccesses)
-											info.knowledge().access(profileOfUniqueType, eventRelation.invert(), a);
+										access(accesses, doAccesses, conditions, knowledge, profileOfUniqueType,
+												eventRelation.invert(), a);
 									});
 							alreadyCheckedProfiles.add(profileOfUniqueType);
 						} else if (profileOfUniqueType.isUniqueProfile()) { // if we find a unique profile???
@@ -150,33 +300,19 @@ public class ActionFinder implements IActionFinder {
 							+ focusGoal);
 				}
 			} else { // if it's any other kind of concept, just find actions directly affecting it
+				reads.add(Pair.of(expectedTargetConcept, eventRelation.invert()));
 				Streams.stream(info.knowledge().getConnectedConcepts(expectedTargetConcept, eventRelation.invert()))
 						.forEach((act) -> {
 							foundActions.put((IActionConcept) act, eventRelation);
-							if (doAccesses)
-								info.knowledge().access(expectedTargetConcept, eventRelation.invert(), act);
+							access(accesses, doAccesses, conditions, knowledge, expectedTargetConcept,
+									eventRelation.invert(), act);
 						});
 
 			}
 		}
 
-		// now with our found actions, determine which are best
-		Table<IActionConcept, IActionCriterion, Float> actionTable = HashBasedTable.create();
-
-		for (IActionConcept action : foundActions.keySet()) {
-			// BasicActionCriterion.INCOMPLETION
-			actionTable.put(action, BasicActionCriterion.INCOMPLETION,
-					foundActions.get(action).size() * 1.0f / involvedConcepts.keySet().size());
-			// TODO BasicActionCriterion.EFFORT
-
-			// TODO BasicActionCriterion.DRAINAGE
-
-			// TODO BasicActionCriterion.UNCERTAINTY
-		}
-
-		this.assessOtherCriteria(foundActions, actionTable, focusGoal, processID, info);
-
-		return actionTable;
+		return new ActionCache.Search(knowledge, conditionsVersion, sourceVersions, reads, foundActions,
+				involvedConcepts.keySet().size(), accesses);
 	}
 
 }
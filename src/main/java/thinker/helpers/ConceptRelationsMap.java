@@ -1,15 +1,20 @@
 package thinker.helpers;
 
 import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import com.google.common.collect.HashMultiset;
@@ -32,6 +37,13 @@ import thinker.mind.memory.TruthType;
  * A multimap that presents relation types radiating out from a focus object as
  * keys and their associated concepts as values. All map operations should be
  * expected to work like normal maps!
+ * <br>
+ * Normally every query streams the relations of the focus out of the knowledge
+ * representation again. A map which will be queried many times can be
+ * {@link #materialize() materialized}, so that it copies the relations of the
+ * focus into arrays once and answers from those until the
+ * {@link IKnowledgeRepresentation#getVersion() version} of the knowledge
+ * representation changes.
  * 
  * @author borah
  *
@@ -47,6 +59,10 @@ public class ConceptRelationsMap implements Multimap<IConceptRelationType, IConc
 	private KeySet keyset = new KeySet();
 	private KeyMultiSet keymultiset = new KeyMultiSet();
 	private ValueCollection valuecol = new ValueCollection();
+	private boolean materialized;
+	private Snapshot snapshot;
+
+	private static final IConcept[] NO_CONCEPTS = new IConcept[0];
 
 	/**
 	 * Makes a relmap with {@link RelationValence#IS}
@@ -95,12 +111,69 @@ public class ConceptRelationsMap implements Multimap<IConceptRelationType, IConc
 		this.valence = valence;
 	}
 
+	/**
+	 * Answer queries from a snapshot of the relations of the focus (which pass the
+	 * valence) rather than streaming them every time; the snapshot is retaken
+	 * whenever the {@link IKnowledgeRepresentation#getVersion() version} of the
+	 * knowledge representation changes. The predicate of this map, if any, is still
+	 * checked on every query. Does nothing if the valence of this map includes
+	 * {@link RelationValence#NOT}, since relations which do not exist at all have
+	 * that valence.
+	 * 
+	 * @return this map
+	 */
+	public ConceptRelationsMap materialize() {
+		this.materialized = !valence.getValences().contains(RelationValence.NOT);
+		return this;
+	}
+
+	/**
+	 * Whether this map answers queries from a snapshot; see {@link #materialize()}
+	 * 
+	 * @return
+	 */
+	public boolean isMaterialized() {
+		return materialized;
+	}
+
+	/**
+	 * Return the snapshot of the relations of the focus, retaking it if the
+	 * knowledge representation has changed; or null if this map is not
+	 * materialized
+	 * 
+	 * @return
+	 */
+	private Snapshot snapshot() {
+		if (!materialized)
+			return null;
+		long version = base.getVersion();
+		if (snapshot == null || snapshot.version != version) {
+			snapshot = new Snapshot(version);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Whether this relation passes the predicate of this map, if there is one
+	 * 
+	 * @param type
+	 * @param end
+	 * @return
+	 */
+	private boolean passes(IConceptRelationType type, IConcept end) {
+		return checkrel == null || checkrel.test(Triplet.of(focus, type, end));
+	}
+
 	/**
 	 * Stream of all edges
 	 * 
 	 * @return
 	 */
 	private Stream<Triplet<IConcept, IConceptRelationType, IConcept>> edgeStream() {
+		Snapshot snap = snapshot();
+		if (snap != null) {
+			return snap.edges(snap.types, snap.ends);
+		}
 		Stream<Triplet<IConcept, IConceptRelationType, IConcept>> stream = Streams.stream(base.getOutgoingEdges(focus))
 				.filter((a) -> valence.checkRelation(a, base));
 		if (checkrel != null) {
@@ -116,6 +189,13 @@ public class ConceptRelationsMap implements Multimap<IConceptRelationType, IConc
 	 * @return
 	 */
 	private Stream<Triplet<IConcept, IConceptRelationType, IConcept>> edgeStreamByType(IConceptRelationType key) {
+		Snapshot snap = snapshot();
+		if (snap != null) {
+			IConcept[] ends = snap.endsOf(key);
+			IConceptRelationType[] types = new IConceptRelationType[ends.length];
+			Arrays.fill(types, key);
+			return snap.edges(types, ends);
+		}
 		Stream<Triplet<IConcept, IConceptRelationType, IConcept>> stream = Streams
 				.stream(base.getOutgoingEdges(focus, key)).filter((a) -> valence.checkRelation(a, base));
 		if (checkrel != null) {
@@ -131,7 +211,10 @@ public class ConceptRelationsMap implements Multimap<IConceptRelationType, IConc
 	 * @return
 	 */
 	private Stream<Triplet<IConcept, IConceptRelationType, IConcept>> edgeStreamByNeighbor(IConcept value) {
-
+		Snapshot snap = snapshot();
+		if (snap != null) {
+			return snap.edges(snap.types, snap.ends).filter((a) -> a.getThird().equals(value));
+		}
 		Stream<Triplet<IConcept, IConceptRelationType, IConcept>> stream = Streams
 				.stream(base.getRelationTypesBetween(focus, value))
 				.map((a) -> Triplet.of(focus, (IConceptRelationType) a, value))
@@ -259,17 +342,29 @@ public class ConceptRelationsMap implements Multimap<IConceptRelationType, IConc
 
 	@Override
 	public int size() {
+		Snapshot snap = snapshot();
+		if (snap != null && checkrel == null) {
+			return snap.ends.length;
+		}
 		return (int) edgeStream().count();
 	}
 
 	@Override
 	public boolean isEmpty() {
+		Snapshot snap = snapshot();
+		if (snap != null && checkrel == null) {
+			return snap.ends.length == 0;
+		}
 		return edgeStream().findAny().isEmpty();
 	}
 
 	@Override
 	public boolean containsKey(Object key) {
 		if (key instanceof IConceptRelationType evt) {
+			Snapshot snap = snapshot();
+			if (snap != null && checkrel == null) {
+				return snap.byType.containsKey(evt);
+			}
 			return edgeStreamByType(evt).findAny().isPresent();
 		}
 		return false;
@@ -278,6 +373,10 @@ public class ConceptRelationsMap implements Multimap<IConceptRelationType, IConc
 	@Override
 	public boolean containsValue(Object value) {
 		if (value instanceof IConcept c) {
+			Snapshot snap = snapshot();
+			if (snap != null && checkrel == null) {
+				return snap.neighbors.contains(c);
+			}
 			return edgeStreamByNeighbor(c).findAny().isPresent();
 		}
 		return false;
@@ -299,6 +398,10 @@ public class ConceptRelationsMap implements Multimap<IConceptRelationType, IConc
 	@Override
 	public boolean containsEntry(Object arg0, Object arg1) {
 		if (arg0 instanceof IConceptRelationType evt && arg1 instanceof IConcept ct) {
+			Snapshot snap = snapshot();
+			if (snap != null) {
+				return snap.contains(evt, ct) && passes(evt, ct);
+			}
 			if (checkrel != null) {
 				if (!checkrel.test(Triplet.of(focus, evt, ct))) {
 					return false;
@@ -412,6 +515,81 @@ public class ConceptRelationsMap implements Multimap<IConceptRelationType, IConc
 		return StringUtils.formatAsSetFromStream(entryStream());
 	}
 
+	/**
+	 * The relations of the focus which pass the valence of this map, as they were
+	 * at one version of the knowledge representation
+	 * 
+	 * @author borah
+	 *
+	 */
+	private class Snapshot {
+
+		private final long version;
+		/** the type and other end of each relation, in the order they were found */
+		private final IConceptRelationType[] types;
+		private final IConcept[] ends;
+		/** the other ends of the relations of each type, in the order they were found */
+		private final Map<IConceptRelationType, IConcept[]> byType = new HashMap<>();
+		/** the other ends of the relations of each type, for lookups */
+		private final Map<IConceptRelationType, Set<IConcept>> byTypeSet = new HashMap<>();
+		/** every concept at the other end of a relation */
+		private final Set<IConcept> neighbors = new HashSet<>();
+
+		private Snapshot(long version) {
+			this.version = version;
+			List<IConceptRelationType> typeList = new ArrayList<>();
+			List<IConcept> endList = new ArrayList<>();
+			Map<IConceptRelationType, List<IConcept>> lists = new HashMap<>();
+			// one triplet is reused to check every edge against the valence
+			Triplet<IConcept, IConceptRelationType, IConcept> cursor = Triplet.cursor();
+			base.forEachOutgoingEdge(focus, (start, type, end) -> {
+				cursor.setFirst(start);
+				cursor.setSecond(type);
+				cursor.setThird(end);
+				if (!valence.checkRelation(cursor, base))
+					return true;
+				typeList.add(type);
+				endList.add(end);
+				lists.computeIfAbsent(type, (k) -> new ArrayList<>()).add(end);
+				byTypeSet.computeIfAbsent(type, (k) -> new HashSet<>()).add(end);
+				neighbors.add(end);
+				return true;
+			});
+			this.types = typeList.toArray(new IConceptRelationType[typeList.size()]);
+			this.ends = endList.toArray(new IConcept[endList.size()]);
+			lists.forEach((type, list) -> byType.put(type, list.toArray(new IConcept[list.size()])));
+		}
+
+		private IConcept[] endsOf(IConceptRelationType type) {
+			IConcept[] found = byType.get(type);
+			return found == null ? NO_CONCEPTS : found;
+		}
+
+		private boolean contains(IConceptRelationType type, IConcept end) {
+			Set<IConcept> found = byTypeSet.get(type);
+			return found != null && found.contains(end);
+		}
+
+		/**
+		 * Stream these relations (which must be parallel arrays), checked against the
+		 * predicate of this map
+		 * 
+		 * @param types
+		 * @param ends
+		 * @return
+		 */
+		private Stream<Triplet<IConcept, IConceptRelationType, IConcept>> edges(IConceptRelationType[] types,
+				IConcept[] ends) {
+			Stream<Triplet<IConcept, IConceptRelationType, IConcept>> stream = IntStream.range(0, ends.length)
+					.mapToObj((i) -> Triplet.of(focus, types[i], ends[i]));
+			if (checkrel != null) {
+				stream = stream.filter(checkrel);
+			}
+			return stream;
+		}
+
+	}
+
 	private class ValueCollection implements Collection<IConcept> {
 
 		@Override
@@ -531,21 +709,37 @@ public class ConceptRelationsMap implements Multimap<IConceptRelationType, IConc
 		 * @return
 		 */
 		private Stream<IConcept> keyStream() {
+			Snapshot snap = snapshot();
+			if (snap != null) {
+				return Arrays.stream(snap.endsOf(key)).filter((a) -> passes(key, a));
+			}
 			return ConceptRelationsMap.this.edgeStreamByType(key).map((a) -> a.getThird());
 		}
 
 		@Override
 		public int size() {
+			Snapshot snap = snapshot();
+			if (snap != null && checkrel == null) {
+				return snap.endsOf(key).length;
+			}
 			return (int) keyStream().count();
 		}
 
 		@Override
 		public boolean isEmpty() {
+			Snapshot snap = snapshot();
+			if (snap != null && checkrel == null) {
+				return !snap.byType.containsKey(key);
+			}
 			return keyStream().findAny().isEmpty();
 		}
 
 		@Override
 		public boolean contains(Object o) {
+			Snapshot snap = snapshot();
+			if (snap != null) {
+				return o instanceof IConcept c && snap.contains(key, c) && passes(key, c);
+			}
 			return keyStream().anyMatch((e) -> e.equals(o));
 		}
 
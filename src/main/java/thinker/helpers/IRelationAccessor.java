@@ -0,0 +1,31 @@
+package thinker.helpers;
+
+import thinker.concepts.IConcept;
+import thinker.concepts.relations.IConceptRelationType;
+import thinker.knowledge.IKnowledgeRepresentation;
+
+/**
+ * Something which is given each relation access a helper would make, and may
+ * make it now or remember it (e.g. to make again later, possibly in another
+ * knowledge representation)
+ *
+ * @author borah
+ *
+ */
+@FunctionalInterface
+public interface IRelationAccessor {
+
+	/** Make each access right away */
+	public static final IRelationAccessor NOW = IKnowledgeRepresentation::access;
+
+	/**
+	 * Access (or remember to access) this relation in this knowledge
+	 * representation
+	 *
+	 * @param base
+	 * @param from
+	 * @param type
+	 * @param to
+	 */
+	public void access(IKnowledgeRepresentation base, IConcept from, IConceptRelationType type, IConcept to);
+}
@@ -1,10 +1,16 @@
 package thinker.helpers;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import com.google.common.collect.Streams;
@@ -24,7 +30,10 @@ import thinker.knowledge.IKnowledgeRepresentation;
 
 /**
  * A map implementation representing the traits known about a given profile. Can
- * be configured to return positive and/or opposite relations when querying
+ * be configured to return positive and/or opposite relations when querying.
+ * Like {@link ConceptRelationsMap}, it can be {@link #materialize()
+ * materialized} to answer queries from a snapshot of the traits of the profile
+ * rather than streaming them every time.
  * 
  * @author borah
  *
@@ -37,6 +46,8 @@ public class ProfilePropertyMap implements Map<IPropertyConcept, IValueConcept>
 	private ValueCol valuecol = new ValueCol();
 	private EntrySet entryset = new EntrySet();
 	private KeySet keyset = new KeySet();
+	private boolean materialized;
+	private Snapshot snapshot;
 
 	ProfilePropertyMap(IProfile focus, IKnowledgeRepresentation base, RelationValence valence) {
 		this.focus = focus;
@@ -57,6 +68,47 @@ public class ProfilePropertyMap implements Map<IPropertyConcept, IValueConcept>
 		return valence.checkRelation(Triplet.of(first, re, sec), base);
 	}
 
+	/**
+	 * Answer queries from a snapshot of the traits of the profile rather than
+	 * streaming them every time; the snapshot is retaken whenever the
+	 * {@link IKnowledgeRepresentation#getVersion() version} of the knowledge
+	 * representation changes. Does nothing if the valence of this map includes
+	 * {@link RelationValence#NOT}, since relations which do not exist at all have
+	 * that valence.
+	 * 
+	 * @return this map
+	 */
+	public ProfilePropertyMap materialize() {
+		this.materialized = !valence.getValences().contains(RelationValence.NOT);
+		return this;
+	}
+
+	/**
+	 * Whether this map answers queries from a snapshot; see {@link #materialize()}
+	 * 
+	 * @return
+	 */
+	public boolean isMaterialized() {
+		return materialized;
+	}
+
+	/**
+	 * Return the snapshot of the traits of the profile, retaking it if the
+	 * knowledge representation has changed; or null if this map is not
+	 * materialized
+	 * 
+	 * @return
+	 */
+	private Snapshot snapshot() {
+		if (!materialized)
+			return null;
+		long version = base.getVersion();
+		if (snapshot == null || snapshot.version != version) {
+			snapshot = new Snapshot(version);
+		}
+		return snapshot;
+	}
+
 	/**
 	 * Get the profile this map centers around
 	 * 
@@ -91,25 +143,41 @@ public class ProfilePropertyMap implements Map<IPropertyConcept, IValueConcept>
 	 * @param value
 	 */
 	public void access(IPropertyConcept key) {
+		this.access(key, IRelationAccessor.NOW);
+	}
+
+	/**
+	 * Like {@link #access(IPropertyConcept)}, but rather than making each access,
+	 * give it to the accessor, which may make it now or keep it to make later
+	 * (without finding the relations to access again)
+	 * 
+	 * @param key
+	 * @param accesses
+	 */
+	public void access(IPropertyConcept key, IRelationAccessor accesses) {
 		if (this.containsKey(key)) {
+			IKnowledgeRepresentation base = this.base;
+			IProfile focus = this.focus;
 			if (this.get(key) != IValueConcept.PRESENT) {
-				Streams.stream(base.getConnectedConcepts(focus, PropertyRelationType.HAS_TRAIT)).map((cc) -> {
-					base.access(focus, PropertyRelationType.HAS_TRAIT, cc);
-					return cc;
-				}).forEach((cc) -> {
+				for (IConcept cc : base.getConnectedConcepts(focus, PropertyRelationType.HAS_TRAIT)) {
+					accesses.access(base, focus, PropertyRelationType.HAS_TRAIT, cc);
 					base.getConnectedConcepts(cc, PropertyRelationType.HAS_TRAIT)
-							.forEach((a) -> base.access(cc, PropertyRelationType.HAS_TRAIT, a));
+							.forEach((a) -> accesses.access(base, cc, PropertyRelationType.HAS_TRAIT, a));
 					base.getConnectedConcepts(cc, PropertyRelationType.HAS_VALUE)
-							.forEach((a) -> base.access(cc, PropertyRelationType.HAS_VALUE, a));
-				});
+							.forEach((a) -> accesses.access(base, cc, PropertyRelationType.HAS_VALUE, a));
+				}
 			} else {
-				base.access(focus, PropertyRelationType.HAS_TRAIT, key);
+				accesses.access(base, focus, PropertyRelationType.HAS_TRAIT, key);
 			}
 		}
 	}
 
 	@Override
 	public int size() {
+		Snapshot snap = snapshot();
+		if (snap != null) {
+			return snap.traits.length;
+		}
 		return (int) Streams.stream(base.getConnectedConcepts(focus, PropertyRelationType.HAS_TRAIT))
 				.filter((a) -> is(focus, PropertyRelationType.HAS_TRAIT, a)).count();
 	}
@@ -123,6 +191,10 @@ public class ProfilePropertyMap implements Map<IPropertyConcept, IValueConcept>
 	public boolean containsKey(Object key) {
 		if (!(key instanceof IConcept))
 			return false;
+		Snapshot snap = snapshot();
+		if (snap != null) {
+			return snap.direct.contains(key) || snap.connectorValues.containsKey(key);
+		}
 		return is(focus, PropertyRelationType.HAS_TRAIT, (IConcept) key)
 				|| (Streams.stream(base.getConnectedConcepts(focus, PropertyRelationType.HAS_TRAIT))
 						.filter((a) -> is(focus, PropertyRelationType.HAS_TRAIT, a))
@@ -134,6 +206,10 @@ public class ProfilePropertyMap implements Map<IPropertyConcept, IValueConcept>
 	public boolean containsValue(Object value) {
 		if (!(value instanceof IConcept))
 			return false;
+		Snapshot snap = snapshot();
+		if (snap != null) {
+			return snap.values.contains(value);
+		}
 		return (Streams.stream(base.getConnectedConcepts(focus, PropertyRelationType.HAS_TRAIT))
 				.filter((a) -> is(focus, PropertyRelationType.HAS_TRAIT, a))
 				.anyMatch((a) -> a instanceof IConnectorConcept cc && cc.isPropertyAndValue()
@@ -153,6 +229,16 @@ public class ProfilePropertyMap implements Map<IPropertyConcept, IValueConcept>
 	 * @return
 	 */
 	public boolean contains(IPropertyConcept key, IValueConcept value) {
+		Snapshot snap = snapshot();
+		if (snap != null) {
+			if (value == IValueConcept.PRESENT) {
+				return snap.direct.contains(key);
+			} else if (value == IValueConcept.ABSENT) {
+				return !snap.direct.contains(key);
+			}
+			Set<IConcept> values = snap.connectorValues.get(key);
+			return values != null && values.contains(value);
+		}
 		if (value == IValueConcept.PRESENT) {
 			return is(focus, PropertyRelationType.HAS_TRAIT, key);
 		} else if (value == IValueConcept.ABSENT) {
@@ -169,6 +255,10 @@ public class ProfilePropertyMap implements Map<IPropertyConcept, IValueConcept>
 	@Override
 	public IValueConcept get(Object keyo) {
 		if (keyo instanceof IConcept key) {
+			Snapshot snap = snapshot();
+			if (snap != null) {
+				return snap.direct.contains(key) ? IValueConcept.PRESENT : snap.firstValues.get(key);
+			}
 			if (is(focus, PropertyRelationType.HAS_TRAIT, key))
 				return IValueConcept.PRESENT;
 			return Streams.stream(base.getConnectedConcepts(focus, PropertyRelationType.HAS_TRAIT))
@@ -265,6 +355,13 @@ public class ProfilePropertyMap implements Map<IPropertyConcept, IValueConcept>
 	 * @return
 	 */
 	public Stream<IPropertyConcept> keyStream() {
+		Snapshot snap = snapshot();
+		if (snap != null) {
+			return IntStream.range(0, snap.traits.length)
+					.mapToObj((i) -> snap.traits[i] instanceof IConnectorConcept ? Arrays.stream(snap.traitProperties[i])
+							: Optional.of(snap.traits[i]).stream())
+					.flatMap((a) -> a).filter(IPropertyConcept.class::isInstance).map(IPropertyConcept.class::cast);
+		}
 		return Streams.stream(base.getConnectedConcepts(focus, PropertyRelationType.HAS_TRAIT))
 				.filter((a) -> is(focus, PropertyRelationType.HAS_TRAIT, a))
 				.flatMap((a) -> a instanceof IConnectorConcept icc
@@ -288,6 +385,10 @@ public class ProfilePropertyMap implements Map<IPropertyConcept, IValueConcept>
 	 * @return
 	 */
 	public Stream<IValueConcept> valueStream() {
+		Snapshot snap = snapshot();
+		if (snap != null) {
+			return Arrays.stream(snap.traitValues).filter((a) -> a != null).flatMap(Arrays::stream);
+		}
 		return Streams.stream(base.getConnectedConcepts(focus, PropertyRelationType.HAS_TRAIT))
 				.filter((a) -> is(focus, PropertyRelationType.HAS_TRAIT, a))
 				.flatMap((a) -> a instanceof IConnectorConcept icc
@@ -302,6 +403,15 @@ public class ProfilePropertyMap implements Map<IPropertyConcept, IValueConcept>
 	 * @return
 	 */
 	public Stream<Entry<IPropertyConcept, IValueConcept>> entryStream() {
+		Snapshot snap = snapshot();
+		if (snap != null) {
+			return IntStream.range(0, snap.traits.length).mapToObj((i) -> snap.traits[i] instanceof IConnectorConcept
+					? Arrays.stream(snap.traitProperties[i]).filter(IPropertyConcept.class::isInstance)
+							.map(IPropertyConcept.class::cast)
+							.flatMap((pr) -> Arrays.stream(snap.traitValues[i]).map((b) -> Map.entry(pr, b)))
+					: Optional.of(Map.entry((IPropertyConcept) snap.traits[i], IValueConcept.PRESENT)).stream())
+					.flatMap((a) -> a);
+		}
 		return Streams.stream(base.getConnectedConcepts(focus, PropertyRelationType.HAS_TRAIT))
 				.filter((a) -> is(focus, PropertyRelationType.HAS_TRAIT,
 						a))
@@ -345,6 +455,75 @@ public class ProfilePropertyMap implements Map<IPropertyConcept, IValueConcept>
 		return StringUtils.formatAsSetFromStream(this.entryStream());
 	}
 
+	/**
+	 * The traits of the profile, as they were at one version of the knowledge
+	 * representation
+	 * 
+	 * @author borah
+	 *
+	 */
+	private class Snapshot {
+
+		private final long version;
+		/** the concepts the profile has a trait relation of the right valence to */
+		private final IConcept[] traits;
+		/**
+		 * for each of those which is a connector, the concepts it has trait and value
+		 * relations to (of any valence); null for the others
+		 */
+		private final IConcept[][] traitProperties;
+		private final IValueConcept[][] traitValues;
+		/** the same, for lookups */
+		private final Set<IConcept> direct = new HashSet<>();
+		/**
+		 * properties the profile has through property-and-value connectors, and the
+		 * values those have
+		 */
+		private final Map<IConcept, Set<IConcept>> connectorValues = new HashMap<>();
+		/** the value of each property the profile has through a connector */
+		private final Map<IConcept, IValueConcept> firstValues = new HashMap<>();
+		/** all values of the properties of the profile */
+		private final Set<IConcept> values = new HashSet<>();
+
+		private Snapshot(long version) {
+			this.version = version;
+			List<IConcept> found = new ArrayList<>();
+			for (IConcept trait : base.getConnectedConcepts(focus, PropertyRelationType.HAS_TRAIT)) {
+				if (is(focus, PropertyRelationType.HAS_TRAIT, trait))
+					found.add(trait);
+			}
+			traits = found.toArray(new IConcept[found.size()]);
+			traitProperties = new IConcept[traits.length][];
+			traitValues = new IValueConcept[traits.length][];
+			for (int i = 0; i < traits.length; i++) {
+				direct.add(traits[i]);
+				if (!(traits[i] instanceof IConnectorConcept cc))
+					continue;
+				traitProperties[i] = Streams.stream(base.getConnectedConcepts(cc, PropertyRelationType.HAS_TRAIT))
+						.toArray(IConcept[]::new);
+				traitValues[i] = Streams.stream(base.getConnectedConcepts(cc, PropertyRelationType.HAS_VALUE))
+						.filter(IValueConcept.class::isInstance).map(IValueConcept.class::cast)
+						.toArray(IValueConcept[]::new);
+				if (!cc.isPropertyAndValue())
+					continue;
+				Set<IConcept> ccValues = new HashSet<>();
+				for (IConcept value : base.getConnectedConcepts(cc, PropertyRelationType.HAS_VALUE)) {
+					if (is(cc, PropertyRelationType.HAS_VALUE, value))
+						ccValues.add(value);
+				}
+				values.addAll(ccValues);
+				for (IConcept property : traitProperties[i]) {
+					if (!is(cc, PropertyRelationType.HAS_TRAIT, property))
+						continue;
+					connectorValues.computeIfAbsent(property, (p) -> new HashSet<>()).addAll(ccValues);
+					if (traitValues[i].length > 0)
+						firstValues.putIfAbsent(property, traitValues[i][0]);
+				}
+			}
+		}
+
+	}
+
 	private class EntrySet implements Set<Entry<IPropertyConcept, IValueConcept>> {
 
 		@Override
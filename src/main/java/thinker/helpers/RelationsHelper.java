@@ -2,6 +2,7 @@ package thinker.helpers;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import com.google.common.collect.Streams;
@@ -86,13 +87,8 @@ public class RelationsHelper {
 	public static Stream<IProfile> profilesWithTrait(IPropertyConcept property, IKnowledgeRepresentation base,
 			double distance) {
 		if (distance >= 0) {
-			Stream<IProfile> stream = new ConceptRelationsMap(IConcept.ENVIRONMENT, base)
-					.get(KnowledgeRelationType.THERE_EXISTS).stream().filter((a) -> a instanceof IProfile)
-					.map((con) -> (IProfile) con);
-			if (distance > 0) {
-				stream = stream.filter((c) -> base.getDistance(c) <= distance);
-			}
-			return stream.filter((c) -> getProfileProperties(c, base, RelationValence.IS).containsKey(property));
+			return TraitIndex.of(base).candidates(property, IValueConcept.PRESENT, distance, base).stream()
+					.filter((c) -> getProfileProperties(c, base, RelationValence.IS).containsKey(property));
 		}
 
 		return new ConceptRelationsMap(property, base).get(PropertyRelationType.IS_TRAIT_OF).stream()
@@ -114,13 +110,16 @@ public class RelationsHelper {
 	 */
 	public static Stream<IProfile> findProfilesWithSubsetOf(IProfile otherProfile, IKnowledgeRepresentation base,
 			double distance, boolean access) {
-		return profilesWithTraits(base, getProfileProperties(otherProfile, base, RelationValence.IS),
-				getProfileProperties(otherProfile, base, RelationValence.OPPOSITE), distance, access);
+		return profilesWithTraits(base, getProfileProperties(otherProfile, base, RelationValence.IS).materialize(),
+				getProfileProperties(otherProfile, base, RelationValence.OPPOSITE).materialize(), distance, access);
 	}
 
 	/**
 	 * Return all profiles and patterns which include this exact combination of
-	 * traits. If posProperties is empty, (or both are empty), throw error.
+	 * traits, starting from the trait with the fewest profiles and skipping
+	 * profiles missing from the others' posting lists before checking them fully
+	 * (see {@link TraitIndex}). If posProperties is empty, (or both are empty),
+	 * throw error.
 	 * "distance" indicates the maximum distance the profiles can be at from the
 	 * {@link IConcept#ENVIRONMENT} concept; if it is negative, then ignore; if 0,
 	 * search the whole map but no further.
@@ -137,13 +136,23 @@ public class RelationsHelper {
 			double distance, boolean access) {
 		if (posProperties.isEmpty())
 			throw new IllegalArgumentException("PosProperties is empty");
-		IPropertyConcept firstCheck = posProperties.keySet().iterator().next();
+		TraitIndex index = TraitIndex.of(base);
+		IPropertyConcept firstCheck = null;
+		int fewest = Integer.MAX_VALUE;
+		for (IPropertyConcept prop : posProperties.keySet()) {
+			Set<IProfile> posting = index.posting(prop, posProperties.get(prop), base);
+			if (firstCheck == null || posting != null && posting.size() < fewest) {
+				firstCheck = prop;
+				fewest = posting == null ? Integer.MAX_VALUE : posting.size();
+			}
+		}
 		Stream<IProfile> profiles = profilesWithTrait(firstCheck, posProperties.get(firstCheck), base, distance);
 		for (IPropertyConcept prop : posProperties.keySet()) {
 			if (prop == firstCheck)
 				continue;
-			profiles = profiles.filter((prof) -> getProfileProperties(prof, base, RelationValence.IS).contains(prop,
-					posProperties.get(prop)));
+			Set<IProfile> posting = index.posting(prop, posProperties.get(prop), base);
+			profiles = profiles.filter((prof) -> (posting == null || posting.contains(prof))
+					&& getProfileProperties(prof, base, RelationValence.IS).contains(prop, posProperties.get(prop)));
 			if (access) {
 				profiles = profiles.map((a) -> {
 					getProfileProperties(a, base, RelationValence.IS).access(prop);
@@ -152,8 +161,9 @@ public class RelationsHelper {
 			}
 		}
 		for (IPropertyConcept prop : negProperties.keySet()) {
-			profiles = profiles.filter((prof) -> !getProfileProperties(prof, base, RelationValence.IS).contains(prop,
-					negProperties.get(prop)));
+			Set<IProfile> posting = index.posting(prop, negProperties.get(prop), base);
+			profiles = profiles.filter((prof) -> (posting != null && !posting.contains(prof))
+					|| !getProfileProperties(prof, base, RelationValence.IS).contains(prop, negProperties.get(prop)));
 			if (access) {
 				profiles = profiles.map((a) -> {
 					getProfileProperties(a, base, RelationValence.IS).access(prop);
@@ -181,9 +191,7 @@ public class RelationsHelper {
 			return profilesWithTrait(property, base, distance);
 		}
 		if (distance >= 0) {
-			return new ConceptRelationsMap(IConcept.ENVIRONMENT, base).get(KnowledgeRelationType.THERE_EXISTS).stream()
-					.filter((a) -> a instanceof IProfile).map((con) -> (IProfile) con)
-					.filter((c) -> base.getDistance(c) <= distance)
+			return TraitIndex.of(base).candidates(property, value, distance, base).stream()
 					.filter((c) -> getProfileProperties(c, base, RelationValence.IS).contains(property, value));
 		}
 		return new ConceptRelationsMap(property, base).get(PropertyRelationType.IS_TRAIT_OF).stream()
@@ -280,23 +288,46 @@ public class RelationsHelper {
 	 */
 	public static boolean areProfileTraitsSuperset(IProfile check, IProfile superset,
 			IKnowledgeRepresentation checkBase, IKnowledgeRepresentation superbase, boolean access) {
-		ProfilePropertyMap checkerMap = getProfileProperties(check, checkBase, RelationValence.IS);
+		return areProfileTraitsSuperset(check, superset, checkBase, superbase, access ? IRelationAccessor.NOW : null);
+	}
+
+	/**
+	 * Same as
+	 * {@link #areProfileTraitsSuperset(IProfile, IProfile, IKnowledgeRepresentation, IKnowledgeRepresentation, boolean)},
+	 * but each relation which would be marked as "accessed" is given to the
+	 * accessor as an access to make (now or later), or ignored if the accessor is
+	 * null
+	 * 
+	 * @param check
+	 * @param superset
+	 * @param checkBase
+	 * @param superbase
+	 * @param accesses
+	 * @return
+	 */
+	public static boolean areProfileTraitsSuperset(IProfile check, IProfile superset,
+			IKnowledgeRepresentation checkBase, IKnowledgeRepresentation superbase, IRelationAccessor accesses) {
+		ProfilePropertyMap checkerMap = getProfileProperties(check, checkBase, RelationValence.IS)
+				.materialize();
 		// TODO getProfileGreaterThanProperties
 		// getProfileLessThanProperties
-		ProfilePropertyMap superMap = getProfileProperties(superset, superbase, RelationValence.IS);
-		ProfilePropertyMap checkerOppMap = getProfileProperties(check, checkBase, RelationValence.OPPOSITE);
+		ProfilePropertyMap superMap = getProfileProperties(superset, superbase, RelationValence.IS)
+				.materialize();
+		ProfilePropertyMap checkerOppMap = getProfileProperties(check, checkBase, RelationValence.OPPOSITE)
+				.materialize();
 		// TODO getProfileGreaterThanProperties
 		// getProfileLessThanProperties
-		ProfilePropertyMap superOppMap = getProfileProperties(superset, superbase, RelationValence.OPPOSITE);
+		ProfilePropertyMap superOppMap = getProfileProperties(superset, superbase, RelationValence.OPPOSITE)
+				.materialize();
 		for (IPropertyConcept proco : superMap.keyIterable()) { // check normal traits
 
 			if (!checkerMap.containsKey(proco)) {
 				return false;
 			}
-			if (access) {
-				checkerMap.access(proco);
+			if (accesses != null) {
+				checkerMap.access(proco, accesses);
 				if (superMap != checkerMap) {
-					superMap.access(proco);
+					superMap.access(proco, accesses);
 				}
 			}
 			if (!superMap.get(proco).equals(checkerMap.get(proco))) {
@@ -309,10 +340,10 @@ public class RelationsHelper {
 														// wrory about it
 				continue;
 			}
-			if (access) {
-				checkerOppMap.access(proco);
+			if (accesses != null) {
+				checkerOppMap.access(proco, accesses);
 				if (superOppMap != checkerOppMap) {
-					superOppMap.access(proco);
+					superOppMap.access(proco, accesses);
 				}
 			}
 			if (superOppMap.get(proco).equals(checkerOppMap.get(proco))) {
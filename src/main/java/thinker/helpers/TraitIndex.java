@@ -0,0 +1,222 @@
+package thinker.helpers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.stream.Collectors;
+
+import thinker.concepts.IConcept;
+import thinker.concepts.general_types.IConnectorConcept;
+import thinker.concepts.general_types.IPropertyConcept;
+import thinker.concepts.general_types.IValueConcept;
+import thinker.concepts.profile.IProfile;
+import thinker.concepts.relations.descriptive.PropertyRelationType;
+import thinker.concepts.relations.technical.KnowledgeRelationType;
+import thinker.knowledge.IKnowledgeRepresentation;
+
+/**
+ * An inverted index from traits to the profiles which have them in a knowledge
+ * representation, so that trait searches cost about as much as their results
+ * rather than as much as the whole knowledge representation. The profiles with
+ * a trait (its "posting list") are found from the inverse relations of the
+ * property the first time they are asked for; the profiles which exist in the
+ * environment are kept sorted by distance. Both are kept until the
+ * {@link IKnowledgeRepresentation#getVersion() version} of the knowledge
+ * representation changes.
+ * <br>
+ * Posting lists include every profile with a trait, but may also include some
+ * whose relation is of the wrong valence, so anything found with them must
+ * still be checked.
+ *
+ * @author borah
+ *
+ */
+final class TraitIndex {
+
+	/**
+	 * the index of each knowledge representation; indices do not refer to their
+	 * knowledge representation, so that they can be collected with it
+	 */
+	private static final Map<IKnowledgeRepresentation, TraitIndex> INDICES = Collections
+			.synchronizedMap(new WeakHashMap<>());
+
+	private long version = -1;
+	/** the profiles with each trait, by property and then value */
+	private Map<IPropertyConcept, Map<IValueConcept, Set<IProfile>>> postings = new HashMap<>();
+	/** every profile which exists in the environment, by ascending distance */
+	private IProfile[] byDistance;
+	private float[] distances;
+	/** the distance of every profile which exists in the environment */
+	private Map<IProfile, Float> existing;
+
+	private TraitIndex() {
+	}
+
+	/**
+	 * Return the trait index of this knowledge representation
+	 *
+	 * @param base
+	 * @return
+	 */
+	static TraitIndex of(IKnowledgeRepresentation base) {
+		return INDICES.computeIfAbsent(base, (b) -> new TraitIndex());
+	}
+
+	/**
+	 * Forget everything if the knowledge representation changed since it was
+	 * indexed
+	 */
+	private void validate(IKnowledgeRepresentation base) {
+		long now = base.getVersion();
+		if (now != version) {
+			postings = new HashMap<>();
+			byDistance = null;
+			distances = null;
+			existing = null;
+			version = now;
+		}
+	}
+
+	/**
+	 * Return the profiles which may have this property with this value (or with
+	 * any value, if the value is {@link IValueConcept#PRESENT}). Return null if the
+	 * value is {@link IValueConcept#ABSENT}, since profiles lacking a trait cannot
+	 * be indexed.
+	 *
+	 * @param property
+	 * @param value
+	 * @param base
+	 * @return
+	 */
+	synchronized Set<IProfile> posting(IPropertyConcept property, IValueConcept value, IKnowledgeRepresentation base) {
+		if (value == IValueConcept.ABSENT)
+			return null;
+		validate(base);
+		Map<IValueConcept, Set<IProfile>> byValue = postings.computeIfAbsent(property, (p) -> new HashMap<>());
+		Set<IProfile> posting = byValue.get(value);
+		if (posting == null) {
+			posting = findPosting(property, value, base);
+			byValue.put(value, posting);
+		}
+		return posting;
+	}
+
+	private static Set<IProfile> findPosting(IPropertyConcept property, IValueConcept value,
+			IKnowledgeRepresentation base) {
+		Set<IProfile> profiles = new HashSet<>();
+		for (IConcept holder : base.getConnectedConcepts(property, PropertyRelationType.IS_TRAIT_OF)) {
+			if (holder instanceof IProfile profile) {
+				if (value == IValueConcept.PRESENT)
+					profiles.add(profile);
+			} else if (holder instanceof IConnectorConcept cc && cc.isPropertyAndValue()
+					&& (value == IValueConcept.PRESENT
+							|| base.hasAnyValenceRelation(cc, PropertyRelationType.HAS_VALUE, value))) {
+				for (IConcept connected : base.getConnectedConcepts(cc, PropertyRelationType.IS_TRAIT_OF)) {
+					if (connected instanceof IProfile profile)
+						profiles.add(profile);
+				}
+			}
+		}
+		return Collections.unmodifiableSet(profiles);
+	}
+
+	private void indexDistances(IKnowledgeRepresentation base) {
+		validate(base);
+		if (existing != null)
+			return;
+		List<IProfile> profiles = new ConceptRelationsMap(IConcept.ENVIRONMENT, base)
+				.get(KnowledgeRelationType.THERE_EXISTS).stream().filter((a) -> a instanceof IProfile)
+				.map((con) -> (IProfile) con).distinct().collect(Collectors.toList());
+		Map<IProfile, Float> dists = new HashMap<>();
+		for (IProfile profile : profiles) {
+			dists.put(profile, base.getDistance(profile));
+		}
+		profiles.sort((a, b) -> Float.compare(dists.get(a), dists.get(b)));
+		byDistance = profiles.toArray(new IProfile[profiles.size()]);
+		distances = new float[byDistance.length];
+		for (int i = 0; i < byDistance.length; i++) {
+			distances[i] = dists.get(byDistance[i]);
+		}
+		existing = dists;
+	}
+
+	/**
+	 * Return the profiles which exist in the environment no further than this
+	 * distance, nearest first; a distance of 0 means any distance
+	 *
+	 * @param distance
+	 * @param base
+	 * @return
+	 */
+	synchronized List<IProfile> existingWithin(double distance, IKnowledgeRepresentation base) {
+		indexDistances(base);
+		List<IProfile> all = Collections.unmodifiableList(Arrays.asList(byDistance));
+		if (distance == 0)
+			return all;
+		int low = 0;
+		int high = distances.length;
+		while (low < high) { // find the first profile which is too far
+			int mid = (low + high) >>> 1;
+			if (distances[mid] <= distance)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return all.subList(0, low);
+	}
+
+	/**
+	 * Whether this profile exists in the environment no further than this
+	 * distance; a distance of 0 means any distance
+	 *
+	 * @param profile
+	 * @param distance
+	 * @param base
+	 * @return
+	 */
+	synchronized boolean existsWithin(IProfile profile, double distance, IKnowledgeRepresentation base) {
+		indexDistances(base);
+		Float dist = existing.get(profile);
+		return dist != null && (distance == 0 || dist <= distance);
+	}
+
+	/**
+	 * Return the profiles which exist in the environment no further than this
+	 * distance (see {@link #existingWithin}) and may have this trait (see
+	 * {@link #posting}), going through whichever of the two is smaller
+	 *
+	 * @param property
+	 * @param value
+	 * @param distance
+	 * @param base
+	 * @return
+	 */
+	synchronized Collection<IProfile> candidates(IPropertyConcept property, IValueConcept value, double distance,
+			IKnowledgeRepresentation base) {
+		List<IProfile> near = existingWithin(distance, base);
+		Set<IProfile> posting = posting(property, value, base);
+		if (posting == null)
+			return near;
+		List<IProfile> found = new ArrayList<>();
+		if (posting.size() < near.size()) {
+			for (IProfile profile : posting) {
+				if (existsWithin(profile, distance, base))
+					found.add(profile);
+			}
+		} else {
+			for (IProfile profile : near) {
+				if (posting.contains(profile))
+					found.add(profile);
+			}
+		}
+		return found;
+	}
+
+}
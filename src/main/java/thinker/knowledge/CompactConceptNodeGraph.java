@@ -0,0 +1,192 @@
+package thinker.knowledge;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import _utilities.couplets.Pair;
+import _utilities.graph.CompactRelationGraph;
+import _utilities.graph.IInvertibleRelationType;
+import thinker.concepts.IConcept;
+import thinker.concepts.IConcept.ConceptType;
+import thinker.concepts.relations.IConceptRelationType;
+import thinker.knowledge.node.IConceptNode;
+
+/**
+ * A {@link ConceptNodeGraph} on a {@link CompactRelationGraph}: it indexes its
+ * nodes by concept and prunes logic nodes out of itself when their connections
+ * are removed in the same way, but keeps its nodes and edges in int arrays, so
+ * it takes far less memory for a large body of knowledge
+ *
+ * @author borah
+ *
+ */
+public class CompactConceptNodeGraph<E extends IConceptNode> extends CompactRelationGraph<E, IConceptRelationType>
+		implements IConceptNodeGraph<E> {
+
+	/**
+	 * Every node in the graph by its concept (made lazily, since nodes are added
+	 * while the superclass is constructed)
+	 */
+	private Map<IConcept, E> byConcept;
+
+	public CompactConceptNodeGraph() {
+		super(ConceptNodeGraph.EDGE_PROPERTIES);
+	}
+
+	@Override
+	protected CompactConceptNodeGraph<E> newGraph() {
+		return new CompactConceptNodeGraph<>();
+	}
+
+	@Override
+	protected void onNodeAdded(E value) {
+		if (byConcept == null)
+			byConcept = new HashMap<>();
+		byConcept.put(value.getConcept(), value);
+	}
+
+	@Override
+	protected void onNodeRemoved(E value) {
+		if (byConcept != null)
+			byConcept.remove(value.getConcept());
+	}
+
+	@Override
+	public E getNode(IConcept concept) {
+		return byConcept == null ? null : byConcept.get(concept);
+	}
+
+	@Override
+	public boolean containsConcept(IConcept concept) {
+		return byConcept != null && byConcept.containsKey(concept);
+	}
+
+	@Override
+	public Pair<Object, Object> checkEdgeEndsPermissible(Object first1, IInvertibleRelationType type, Object second1) {
+		if (first1 instanceof IConceptNode first && second1 instanceof IConceptNode second) {
+			return super.checkEdgeEndsPermissible(first.getConcept(), type, second.getConcept());
+		}
+		throw new IllegalStateException(
+				"Where are we using this method bruh we got " + first1 + " and " + second1 + " impossibly....");
+	}
+
+	/**
+	 * See {@link ConceptNodeGraph#addEdge}; logical connectors are added to the
+	 * graph automatically
+	 */
+	@Override
+	public boolean addEdge(E first, IConceptRelationType type, E second) {
+		if (first.getConceptType() == ConceptType.C_CONNECTOR) {
+			this.add(first);
+		}
+		if (second.getConceptType() == ConceptType.C_CONNECTOR) {
+			this.add(second);
+		}
+		return super.addEdge(first, type, second);
+	}
+
+	private static boolean isLogicNode(Object node) {
+		return node instanceof IConceptNode cn && cn.getConceptType() == ConceptType.C_CONNECTOR;
+	}
+
+	/**
+	 * Remove this node if it is a logic node, as when one of its connections has
+	 * been removed
+	 */
+	private void pruneLogicNode(Object node) {
+		if (isLogicNode(node)) {
+			this.remove(node);
+		}
+	}
+
+	/**
+	 * Return the logic nodes among the neighbors of this node (by the given type,
+	 * if not null), to prune once the connections to them are removed
+	 */
+	private List<E> logicNeighbors(Object node, IConceptRelationType type) {
+		List<E> logic = new ArrayList<>();
+		E value = this.get(node);
+		if (value != null) {
+			for (E neighbor : type == null ? getNeighbors(value) : getNeighbors(value, type)) {
+				if (isLogicNode(neighbor))
+					logic.add(neighbor);
+			}
+		}
+		return logic;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		List<E> logic = logicNeighbors(o, null);
+		if (!super.remove(o))
+			return false;
+		for (E node : logic) {
+			this.remove(node);
+		}
+		return true;
+	}
+
+	@Override
+	public boolean removeEdge(Object value, IConceptRelationType type, Object other) {
+		if (!super.removeEdge(value, type, other))
+			return false;
+		pruneLogicNode(value);
+		pruneLogicNode(other);
+		return true;
+	}
+
+	@Override
+	public boolean removeAllConnections(Object value) {
+		List<E> logic = logicNeighbors(value, null);
+		if (!super.removeAllConnections(value))
+			return false;
+		pruneLogicNode(value);
+		for (E node : logic) {
+			this.remove(node);
+		}
+		return true;
+	}
+
+	@Override
+	public boolean removeAllConnections(Object value, IConceptRelationType type) {
+		List<E> logic = logicNeighbors(value, type);
+		if (!super.removeAllConnections(value, type))
+			return false;
+		pruneLogicNode(value);
+		for (E node : logic) {
+			this.remove(node);
+		}
+		return true;
+	}
+
+	@Override
+	public boolean removeAllConnections(Object value, Object other) {
+		if (!super.removeAllConnections(value, other))
+			return false;
+		pruneLogicNode(value);
+		pruneLogicNode(other);
+		return true;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	protected Object clone() throws CloneNotSupportedException {
+		CompactConceptNodeGraph<E> copy = (CompactConceptNodeGraph<E>) super.clone();
+		copy.byConcept = null;
+		return copy;
+	}
+
+	@Override
+	public CompactConceptNodeGraph<E> copy() {
+		return (CompactConceptNodeGraph<E>) super.copy();
+	}
+
+	@Override
+	public CompactConceptNodeGraph<E> deepCopy(Function<E, E> cloner) {
+		return (CompactConceptNodeGraph<E>) super.deepCopy(cloner);
+	}
+
+}
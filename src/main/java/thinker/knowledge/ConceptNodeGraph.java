@@ -5,6 +5,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
@@ -16,6 +17,7 @@ import _utilities.graph.IModifiableRelationGraph;
 import _utilities.graph.IRelationGraph;
 import _utilities.graph.RelationGraph;
 import _utilities.property.IProperty;
+import thinker.concepts.IConcept;
 import thinker.concepts.IConcept.ConceptType;
 import thinker.concepts.relations.IConceptRelationType;
 import thinker.concepts.relations.util.RelationProperties;
@@ -28,7 +30,26 @@ import thinker.knowledge.node.IConceptNode;
  * @author borah
  *
  */
-public class ConceptNodeGraph<E extends IConceptNode> extends RelationGraph<E, IConceptRelationType> {
+public class ConceptNodeGraph<E extends IConceptNode> extends RelationGraph<E, IConceptRelationType>
+		implements IConceptNodeGraph<E> {
+
+	/** the default values of the properties of relations between concepts */
+	static final Map<IProperty<?>, Supplier<Object>> EDGE_PROPERTIES = Map.of(RelationProperties.CONFIDENCE,
+			RelationProperties.CONFIDENCE::defaultValue, RelationProperties.INFO_SOURCE,
+			RelationProperties.INFO_SOURCE::defaultValue, RelationProperties.KNOWN_BY_GROUPS,
+			RelationProperties.KNOWN_BY_GROUPS::defaultValue, RelationProperties.STORAGE_TYPE,
+			RelationProperties.STORAGE_TYPE::defaultValue, RelationProperties.TRUTH_TYPE,
+			RelationProperties.TRUTH_TYPE::defaultValue, RelationProperties.NOT, RelationProperties.NOT::defaultValue,
+			RelationProperties.OPPOSITE, RelationProperties.OPPOSITE::defaultValue, RelationProperties.DISTANCE,
+			RelationProperties.DISTANCE::defaultValue, RelationProperties.ACCESS_COUNT,
+			RelationProperties.ACCESS_COUNT::defaultValue);
+
+	/**
+	 * Every node in the graph by its concept, so nodes can be found from a concept
+	 * without wrapping it in a new node (made lazily, since nodes are added while
+	 * the superclass is constructed)
+	 */
+	private Map<IConcept, E> byConcept;
 
 	public ConceptNodeGraph() {
 		this((IRelationGraph<E, IConceptRelationType>) EmptyGraph.<E, IConceptRelationType>instance());
@@ -36,15 +57,7 @@ public class ConceptNodeGraph<E extends IConceptNode> extends RelationGraph<E, I
 
 	public ConceptNodeGraph(IRelationGraph<? extends E, ? extends IConceptRelationType> other) {
 		super(other);
-		this.edgeProperties = Map.of(RelationProperties.CONFIDENCE, RelationProperties.CONFIDENCE::defaultValue,
-				RelationProperties.INFO_SOURCE, RelationProperties.INFO_SOURCE::defaultValue,
-				RelationProperties.KNOWN_BY_GROUPS, RelationProperties.KNOWN_BY_GROUPS::defaultValue,
-				RelationProperties.STORAGE_TYPE, RelationProperties.STORAGE_TYPE::defaultValue,
-				RelationProperties.TRUTH_TYPE, RelationProperties.TRUTH_TYPE::defaultValue, RelationProperties.NOT,
-				RelationProperties.NOT::defaultValue, RelationProperties.OPPOSITE,
-				RelationProperties.OPPOSITE::defaultValue, RelationProperties.DISTANCE,
-				RelationProperties.DISTANCE::defaultValue, RelationProperties.ACCESS_COUNT,
-				RelationProperties.ACCESS_COUNT::defaultValue);
+		this.edgeProperties = EDGE_PROPERTIES;
 	}
 
 	public ConceptNodeGraph(Set<? extends IProperty<?>> props) {
@@ -54,6 +67,29 @@ public class ConceptNodeGraph<E extends IConceptNode> extends RelationGraph<E, I
 		edgeProperties = ImmutableMap.copyOf(edgeProperties);
 	}
 
+	@Override
+	protected void onNodeAdded(E value) {
+		if (byConcept == null)
+			byConcept = new HashMap<>();
+		byConcept.put(value.getConcept(), value);
+	}
+
+	@Override
+	protected void onNodeRemoved(E value) {
+		if (byConcept != null)
+			byConcept.remove(value.getConcept());
+	}
+
+	@Override
+	public E getNode(IConcept concept) {
+		return byConcept == null ? null : byConcept.get(concept);
+	}
+
+	@Override
+	public boolean containsConcept(IConcept concept) {
+		return byConcept != null && byConcept.containsKey(concept);
+	}
+
 	@Override
 	public Pair<Object, Object> checkEdgeEndsPermissible(Object first1, IInvertibleRelationType type, Object second1) {
 		if (first1 instanceof IConceptNode first && second1 instanceof IConceptNode second) {
@@ -127,6 +163,14 @@ public class ConceptNodeGraph<E extends IConceptNode> extends RelationGraph<E, I
 		return this.pruneLogicNodes(super.removeConnections(node, other));
 	}
 
+	@SuppressWarnings("unchecked")
+	@Override
+	protected Object clone() throws CloneNotSupportedException {
+		ConceptNodeGraph<E> copy = (ConceptNodeGraph<E>) super.clone();
+		copy.byConcept = null;
+		return copy;
+	}
+
 	@Override
 	public ConceptNodeGraph<E> copy() {
 		return (ConceptNodeGraph<E>) super.copy();
@@ -0,0 +1,56 @@
+package thinker.knowledge;
+
+import _utilities.graph.GraphBackend;
+import _utilities.graph.IModifiableRelationGraph;
+import thinker.concepts.IConcept;
+import thinker.concepts.relations.IConceptRelationType;
+import thinker.knowledge.node.IConceptNode;
+
+/**
+ * A graph of concept nodes which can find its nodes by their concept, and which
+ * prunes logic nodes out of itself when their connections are removed. It may
+ * be backed by either {@link GraphBackend}; see {@link #create(GraphBackend)}.
+ * 
+ * @author borah
+ *
+ * @param <E>
+ */
+public interface IConceptNodeGraph<E extends IConceptNode> extends IModifiableRelationGraph<E, IConceptRelationType> {
+
+	/**
+	 * Create an empty concept-node graph with the given backend
+	 * 
+	 * @param <E>
+	 * @param backend
+	 * @return
+	 */
+	public static <E extends IConceptNode> IConceptNodeGraph<E> create(GraphBackend backend) {
+		switch (backend) {
+		case COMPACT:
+			return new CompactConceptNodeGraph<>();
+		default:
+			return new ConceptNodeGraph<>();
+		}
+	}
+
+	/**
+	 * Return the node for this concept in the graph, or null if there is none;
+	 * unlike looking it up with a new node, this allocates nothing
+	 * 
+	 * @param concept
+	 * @return
+	 */
+	public E getNode(IConcept concept);
+
+	/**
+	 * Whether the graph has a node for this concept
+	 * 
+	 * @param concept
+	 * @return
+	 */
+	public boolean containsConcept(IConcept concept);
+
+	@Override
+	public IConceptNodeGraph<E> copy();
+
+}
@@ -5,6 +5,7 @@ import java.util.UUID;
 
 import _utilities.couplets.Triplet;
 import _utilities.graph.IRelationGraph;
+import _utilities.graph.IRelationGraph.EdgeVisitor;
 import party.relations.social_bonds.ISocialBondTrait;
 import thinker.concepts.IConcept;
 import thinker.concepts.general_types.IPropertyConcept;
@@ -232,6 +233,45 @@ public interface IKnowledgeRepresentation extends Cloneable {
 	public Iterator<Triplet<IConcept, IConceptRelationType, IConcept>> getOutgoingEdges(IConcept fromC,
 			IConceptRelationType forRelation);
 
+	/**
+	 * Give the visitor each outgoing edge from this concept (the same edges as
+	 * {@link #getOutgoingEdges(IConcept)}) until it returns false, and return
+	 * whether every edge was visited; representations backed by a graph do this
+	 * without making a triplet for each edge
+	 * 
+	 * @param fromC
+	 * @param visitor
+	 * @return
+	 */
+	public default boolean forEachOutgoingEdge(IConcept fromC,
+			EdgeVisitor<? super IConcept, ? super IConceptRelationType> visitor) {
+		return visitEdges(getOutgoingEdges(fromC), visitor);
+	}
+
+	/**
+	 * Same as {@link #forEachOutgoingEdge(IConcept, EdgeVisitor)}, but only for
+	 * edges of the given type
+	 * 
+	 * @param fromC
+	 * @param forRelation
+	 * @param visitor
+	 * @return
+	 */
+	public default boolean forEachOutgoingEdge(IConcept fromC, IConceptRelationType forRelation,
+			EdgeVisitor<? super IConcept, ? super IConceptRelationType> visitor) {
+		return visitEdges(getOutgoingEdges(fromC, forRelation), visitor);
+	}
+
+	private static boolean visitEdges(Iterator<Triplet<IConcept, IConceptRelationType, IConcept>> edges,
+			EdgeVisitor<? super IConcept, ? super IConceptRelationType> visitor) {
+		while (edges.hasNext()) {
+			Triplet<IConcept, IConceptRelationType, IConcept> edge = edges.next();
+			if (!visitor.visit(edge.getFirst(), edge.getSecond(), edge.getThird()))
+				return false;
+		}
+		return true;
+	}
+
 	/**
 	 * Return the storage type of the given relation between concepts
 	 * 
@@ -458,6 +498,16 @@ public interface IKnowledgeRepresentation extends Cloneable {
 	 */
 	public void setDistance(IConcept prf, float distance);
 
+	/**
+	 * Return a counter which goes up whenever a concept or relation is learned or
+	 * forgotten by this representation (or by any it draws on), or a property of a
+	 * relation other than its access count is changed, so that answers found in it
+	 * can be cached until it changes. It never goes down.
+	 * 
+	 * @return
+	 */
+	public long getVersion();
+
 	/**
 	 * Return the amount of times a specific relation has been accessed in this
 	 * knowledge representation. Return 0 if the relation does not exist
@@ -9,6 +9,7 @@ import com.google.common.collect.Streams;
 import _utilities.couplets.Triplet;
 import _utilities.graph.EmptyGraph;
 import _utilities.graph.IRelationGraph;
+import _utilities.graph.IRelationGraph.EdgeVisitor;
 import party.relations.social_bonds.ISocialBondTrait;
 import thinker.concepts.IConcept;
 import thinker.concepts.relations.IConceptRelationType;
@@ -29,9 +30,12 @@ import thinker.mind.memory.TruthType;
 public class KnowledgeRepresentation implements IKnowledgeRepresentation {
 
 	private ConceptNodeGraph<ConceptNode> graph;
+	/** see {@link #getVersion()} */
+	private long version;
 
 	private ConceptNode n(IConcept c) {
-		return new ConceptNode(c);
+		ConceptNode node = graph.getNode(c);
+		return node == null ? new ConceptNode(c) : node;
 	}
 
 	public KnowledgeRepresentation(IRelationGraph<IConcept, IConceptRelationType> graph) {
@@ -39,6 +43,11 @@ public class KnowledgeRepresentation implements IKnowledgeRepresentation {
 				Functions.identity(), Functions.identity()));
 	}
 
+	@Override
+	public long getVersion() {
+		return version;
+	}
+
 	@Override
 	public boolean knowsConcept(IConcept concept) {
 		return graph.contains(n(concept));
@@ -54,16 +63,19 @@ public class KnowledgeRepresentation implements IKnowledgeRepresentation {
 
 	@Override
 	public boolean learnConcept(IConcept concept) {
+		version++;
 		return graph.add(n(concept));
 	}
 
 	@Override
 	public boolean learnConcept(IConcept concept, StorageType type) {
+		version++;
 		return graph.add(new ConceptNode(concept, type));
 	}
 
 	@Override
 	public boolean forgetConcept(IConcept concept) {
+		version++;
 		return graph.remove(n(concept));
 	}
 
@@ -100,6 +112,7 @@ public class KnowledgeRepresentation implements IKnowledgeRepresentation {
 
 	@Override
 	public boolean addConfidentRelation(IConcept from, IConceptRelationType relation, IConcept to) {
+		version++;
 		boolean rela = graph.addEdge(n(from), relation, n(to));
 		graph.setProperty(n(from), relation, n(to), RelationProperties.STORAGE_TYPE, StorageType.CONFIDENT);
 		graph.setProperty(n(from), relation, n(to), RelationProperties.OPPOSITE, false);
@@ -109,6 +122,7 @@ public class KnowledgeRepresentation implements IKnowledgeRepresentation {
 
 	@Override
 	public boolean addDubiousRelation(IConcept from, IConceptRelationType relation, IConcept to, float confidence) {
+		version++;
 		boolean rela = graph.addEdge(n(from), relation, n(to));
 		graph.setProperty(n(from), relation, n(to), RelationProperties.STORAGE_TYPE, StorageType.DUBIOUS);
 		graph.setProperty(n(from), relation, n(to), RelationProperties.CONFIDENCE, confidence);
@@ -119,6 +133,7 @@ public class KnowledgeRepresentation implements IKnowledgeRepresentation {
 
 	@Override
 	public boolean addTemporaryRelation(IConcept from, IConceptRelationType relation, IConcept to) {
+		version++;
 		boolean rela = graph.addEdge(n(from), relation, n(to));
 		graph.setProperty(n(from), relation, n(to), RelationProperties.STORAGE_TYPE, StorageType.TEMPORARY);
 		graph.setProperty(n(from), relation, n(to), RelationProperties.OPPOSITE, false);
@@ -128,16 +143,19 @@ public class KnowledgeRepresentation implements IKnowledgeRepresentation {
 
 	@Override
 	public boolean removeRelation(IConcept from, IConceptRelationType type, IConcept to) {
+		version++;
 		return graph.removeEdge(n(from), type, n(to));
 	}
 
 	@Override
 	public boolean removeAllRelations(IConcept from, IConcept to) {
+		version++;
 		return graph.removeAllConnections(n(from), n(to));
 	}
 
 	@Override
 	public boolean removeAllRelations(IConcept from, IConceptRelationType type) {
+		version++;
 		return graph.removeAllConnections(n(from), type);
 	}
 
@@ -185,6 +203,19 @@ public class KnowledgeRepresentation implements IKnowledgeRepresentation {
 
 	}
 
+	@Override
+	public boolean forEachOutgoingEdge(IConcept fromC,
+			EdgeVisitor<? super IConcept, ? super IConceptRelationType> visitor) {
+		return graph.forEachEdge(n(fromC), (a, r, b) -> visitor.visit(a.getConcept(), r, b.getConcept()));
+	}
+
+	@Override
+	public boolean forEachOutgoingEdge(IConcept fromC, IConceptRelationType forRelation,
+			EdgeVisitor<? super IConcept, ? super IConceptRelationType> visitor) {
+		return graph.forEachEdge(n(fromC), forRelation,
+				(a, r, b) -> visitor.visit(a.getConcept(), r, b.getConcept()));
+	}
+
 	@Override
 	public StorageType getStorageTypeOfRelation(IConcept from, IConceptRelationType type, IConcept to) {
 		return graph.getProperty(n(from), type, n(to), RelationProperties.STORAGE_TYPE);
@@ -208,6 +239,7 @@ public class KnowledgeRepresentation implements IKnowledgeRepresentation {
 
 	@Override
 	public void setStorageTypeOfRelation(IConcept from, IConceptRelationType type, IConcept to, StorageType stype) {
+		version++;
 		graph.setProperty(n(from), type, n(to), RelationProperties.STORAGE_TYPE, stype);
 	}
 
@@ -218,6 +250,7 @@ public class KnowledgeRepresentation implements IKnowledgeRepresentation {
 
 	@Override
 	public void setTruthTypeOfRelation(IConcept from, IConceptRelationType type, IConcept to, TruthType ttype) {
+		version++;
 		graph.setProperty(n(from), type, n(to), RelationProperties.TRUTH_TYPE, ttype);
 	}
 
@@ -255,6 +288,7 @@ public class KnowledgeRepresentation implements IKnowledgeRepresentation {
 		if (val > 1f) {
 			throw new IllegalArgumentException("Cannot have confidence value > 1");
 		}
+		version++;
 		graph.setProperty(n(from), type, n(to), RelationProperties.CONFIDENCE, val);
 	}
 
@@ -265,12 +299,14 @@ public class KnowledgeRepresentation implements IKnowledgeRepresentation {
 
 	@Override
 	public void setSocialBondValue(IConcept from, ISocialBondTrait trait, IConcept to, float value) {
+		version++;
 		graph.addEdge(n(from), ProfileInterrelationType.HAS_SOCIAL_BOND_TO, n(to));
 		graph.setProperty(n(from), ProfileInterrelationType.HAS_SOCIAL_BOND_TO, n(to), trait, value);
 	}
 
 	@Override
 	public void setOpposite(IConcept focus, IConceptRelationType hasTrait, IConcept key) {
+		version++;
 		graph.addEdge(n(focus), hasTrait, n(key));
 		graph.setProperty(n(focus), hasTrait, n(key), RelationProperties.OPPOSITE, true);
 	}
@@ -286,6 +322,7 @@ public class KnowledgeRepresentation implements IKnowledgeRepresentation {
 
 	@Override
 	public void setDistance(IConcept prf, float distance) {
+		version++;
 		graph.add(n(IConcept.ENVIRONMENT));
 		graph.addEdge(n(prf), KnowledgeRelationType.EXISTS_IN, n(IConcept.ENVIRONMENT));
 		graph.setProperty(n(prf), KnowledgeRelationType.EXISTS_IN, n(IConcept.ENVIRONMENT), RelationProperties.DISTANCE,
@@ -305,12 +342,14 @@ public class KnowledgeRepresentation implements IKnowledgeRepresentation {
 
 	@Override
 	public void learnConceptSubgraph(IRelationGraph<IConcept, IConceptRelationType> graph) {
+		version++;
 		this.graph.addAll(graph.mappedView(IConceptNode::getConcept, this::n, IConceptNode.class, IConcept.class,
 				Functions.identity(), Functions.identity(), IConceptRelationType.class, IConceptRelationType.class));
 	}
 
 	@Override
 	public void addConceptNodeSubgraph(IRelationGraph<? extends IConceptNode, IConceptRelationType> graph) {
+		version++;
 		this.graph.addAll((IRelationGraph) graph);
 	}
 
@@ -323,6 +362,7 @@ public class KnowledgeRepresentation implements IKnowledgeRepresentation {
 	public IKnowledgeRepresentation clone() {
 		KnowledgeRepresentation rep = new KnowledgeRepresentation(EmptyGraph.instance());
 		rep.graph = graph.deepCopy((a) -> new ConceptNode(a.getConcept(), a.getStorageType()));
+		rep.version = version;
 		return rep;
 	}
 
@@ -158,6 +158,21 @@ public interface IIndividualKnowledgeBase extends IKnowledgeBase {
 	 */
 	public Collection<? extends IKnowledgeBase> getParents();
 
+	/**
+	 * Return a hash of the relations of the given type (or of any type, if null)
+	 * which this storage keeps itself for this concept, in either direction,
+	 * including those it marks as forgotten and their properties other than
+	 * access counts; relations only its parents have are not included. It is 0 if
+	 * this storage keeps no such relations. Two storages with the same parents and
+	 * the same hash for a concept give the same answers about those relations of
+	 * the concept.
+	 * 
+	 * @param concept
+	 * @param type
+	 * @return
+	 */
+	public long localRelationsHash(IConcept concept, IConceptRelationType type);
+
 	/**
 	 * Add parent groups to this storage
 	 * 
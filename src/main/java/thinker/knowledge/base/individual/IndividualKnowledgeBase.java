@@ -1,11 +1,16 @@
 package thinker.knowledge.base.individual;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
@@ -16,18 +21,23 @@ import com.google.common.collect.Sets;
 import com.google.common.collect.Streams;
 
 import _utilities.collections.CollectionFromIterator;
+import _utilities.couplets.Pair;
 import _utilities.couplets.Triplet;
 import _utilities.graph.EdgeNotFoundException;
+import _utilities.graph.GraphBackend;
+import _utilities.graph.IModifiableRelationGraph;
 import _utilities.graph.IRelationGraph;
+import _utilities.graph.IRelationGraph.EdgeVisitor;
 import _utilities.graph.ImmutableGraphView;
 import _utilities.graph.NodeNotFoundException;
+import _utilities.property.IProperty;
 import party.relations.social_bonds.ISocialBondTrait;
 import thinker.concepts.IConcept;
 import thinker.concepts.relations.IConceptRelationType;
 import thinker.concepts.relations.descriptive.ProfileInterrelationType;
 import thinker.concepts.relations.technical.KnowledgeRelationType;
 import thinker.concepts.relations.util.RelationProperties;
-import thinker.knowledge.ConceptNodeGraph;
+import thinker.knowledge.IConceptNodeGraph;
 import thinker.knowledge.base.IKnowledgeBase;
 import thinker.knowledge.node.ConceptNode;
 import thinker.knowledge.node.IConceptNode;
@@ -36,18 +46,64 @@ import thinker.mind.memory.TruthType;
 
 public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 
-	protected ConceptNodeGraph<IConceptNode> conceptGraph;
+	protected IConceptNodeGraph<IConceptNode> conceptGraph;
 	private ImmutableGraphView<IConceptNode, IConceptRelationType> immutableView;
 	protected Set<IKnowledgeBase> parents = new HashSet<>();
+	/** the same parents, to sum their versions without iterating a set */
+	private IKnowledgeBase[] parentArray = new IKnowledgeBase[0];
 	private IConcept self;
+	/**
+	 * Counts changes to what this knowledge base knows by itself, and to its set
+	 * of parents; see {@link #getVersion()}
+	 */
+	private long version;
+	/**
+	 * Which parent (if any) each concept or relation was last found in, so that
+	 * repeated queries do not walk the parents again; all are cleared when
+	 * {@link #parentStamp()} no longer matches {@link #cachedParentStamp}
+	 */
+	private Map<IConcept, Optional<IKnowledgeBase>> conceptParents = new HashMap<>();
+	private Map<Triplet<IConcept, IConceptRelationType, IConcept>, Optional<IKnowledgeBase>> relationParents = new HashMap<>();
+	private Map<Pair<IConcept, IConcept>, Optional<IKnowledgeBase>> anyRelationParents = new HashMap<>();
+	private long cachedParentStamp;
+	/**
+	 * the properties of relations {@link #localRelationsHash} covers: all but the
+	 * access count, as with {@link #getVersion()}
+	 */
+	private static final List<IProperty<?>> HASHED_PROPERTIES = List.of(RelationProperties.NOT,
+			RelationProperties.OPPOSITE, RelationProperties.INFO_SOURCE, RelationProperties.TRUTH_TYPE,
+			RelationProperties.STORAGE_TYPE, RelationProperties.CONFIDENCE, RelationProperties.DISTANCE);
 
 	public IndividualKnowledgeBase(IConcept self) {
-		conceptGraph = new ConceptNodeGraph<>();
+		this(self, GraphBackend.COMPACT);
+	}
+
+	/**
+	 * Create a knowledge base whose own memory is kept in a graph of the given
+	 * backend
+	 * 
+	 * @param self
+	 * @param backend
+	 */
+	public IndividualKnowledgeBase(IConcept self, GraphBackend backend) {
+		conceptGraph = IConceptNodeGraph.create(backend);
 		immutableView = ImmutableGraphView.of(conceptGraph);
 		this.self = self;
 		this.learnConcept(self);
 	}
 
+	/**
+	 * Return the node for this concept in the graph, or a new node (not in the
+	 * graph) if it has none; only the second case allocates anything
+	 * 
+	 * @param concept
+	 * @return
+	 */
+	private IConceptNode n(IConcept concept) {
+		IConceptNode node = conceptGraph.getNode(concept);
+		return node == null ? new ConceptNode(concept) : node;
+	}
+
 	@Override
 	public IConcept getSelfConcept() {
 		return self;
@@ -55,17 +111,68 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 
 	@Override
 	public void addParents(Iterable<? extends IKnowledgeBase> parents) {
-		this.parents.addAll(Sets.newHashSet(parents));
+		if (this.parents.addAll(Sets.newHashSet(parents))) {
+			version++;
+			this.parentsChanged();
+		}
 	}
 
 	@Override
 	public void removeParents(Iterable<? extends IKnowledgeBase> parents) {
-		this.parents.removeAll(Sets.newHashSet(parents));
+		for (IKnowledgeBase parent : Sets.newHashSet(parents)) {
+			if (this.parents.remove(parent)) {
+				// the parent's version no longer counts toward ours; make up for it so
+				// that our version never goes down
+				version += parent.getVersion() + 1;
+			}
+		}
+		this.parentsChanged();
+	}
+
+	private void parentsChanged() {
+		this.parentArray = this.parents.toArray(new IKnowledgeBase[this.parents.size()]);
+		this.clearParentCaches();
+	}
+
+	private void clearParentCaches() {
+		conceptParents.clear();
+		relationParents.clear();
+		anyRelationParents.clear();
+		cachedParentStamp = parentStamp();
+	}
+
+	/**
+	 * The sum of the versions of the parents; since versions only go up, this
+	 * changes whenever anything any parent knows changes (as long as the parents
+	 * stay the same)
+	 * 
+	 * @return
+	 */
+	private long parentStamp() {
+		long stamp = 0;
+		for (IKnowledgeBase parent : parentArray) {
+			stamp += parent.getVersion();
+		}
+		return stamp;
+	}
+
+	/**
+	 * Clear the cached parent lookups if any parent changed since they were made
+	 */
+	private void validateParentCaches() {
+		if (parentStamp() != cachedParentStamp) {
+			this.clearParentCaches();
+		}
+	}
+
+	@Override
+	public long getVersion() {
+		return version + parentStamp();
 	}
 
 	@Override
 	public boolean knowsConcept(IConcept concept) {
-		IConceptNode cnode = this.conceptGraph.get(new ConceptNode(concept));
+		IConceptNode cnode = this.conceptGraph.getNode(concept);
 		if (cnode != null && cnode.getStorageType() == StorageType.FORGOTTEN) {
 			return false;
 		}
@@ -74,12 +181,23 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 
 	@Override
 	public IKnowledgeBase knowsConceptCheckParent(IConcept concept) {
-		if (this.conceptGraph.contains(new ConceptNode(concept))) {
-			if (this.conceptGraph.get(new ConceptNode(concept)).getStorageType() != StorageType.FORGOTTEN) {
-				return this;
-			}
+		IConceptNode cnode = this.conceptGraph.getNode(concept);
+		if (cnode != null && cnode.getStorageType() != StorageType.FORGOTTEN) {
+			return this;
 		}
-		for (IKnowledgeBase parent : this.parents) {
+		if (parentArray.length == 0)
+			return null;
+		this.validateParentCaches();
+		Optional<IKnowledgeBase> found = conceptParents.get(concept);
+		if (found == null) {
+			found = Optional.ofNullable(this.knowsConceptInParent(concept));
+			conceptParents.put(concept, found);
+		}
+		return found.orElse(null);
+	}
+
+	private IKnowledgeBase knowsConceptInParent(IConcept concept) {
+		for (IKnowledgeBase parent : this.parentArray) {
 			if (parent instanceof IIndividualKnowledgeBase ikb) {
 				IKnowledgeBase par = ikb.knowsConceptCheckParent(concept);
 				if (par != null)
@@ -95,7 +213,7 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 
 	@Override
 	public StorageType getStorageType(IConcept concept) {
-		IConceptNode nod = conceptGraph.get(new ConceptNode(concept));
+		IConceptNode nod = conceptGraph.getNode(concept);
 		if (nod != null)
 			return nod.getStorageType();
 		return null;
@@ -108,16 +226,48 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 
 	@Override
 	public boolean learnConcept(IConcept concept, StorageType type) {
-		IConceptNode connode = conceptGraph.get(new ConceptNode(concept));
+		IConceptNode connode = conceptGraph.getNode(concept);
 		if (connode != null) {
 			if (connode.getStorageType() != type) {
 				conceptGraph.set(connode, new ConceptNode(concept));
+				version++;
 				return true;
 			} else {
 				return false;
 			}
 		}
-		return conceptGraph.add(new ConceptNode(concept));
+		return changed(conceptGraph.add(new ConceptNode(concept)));
+	}
+
+	/**
+	 * Count a change to this knowledge base if anything changed; return whether it
+	 * did
+	 * 
+	 * @param changed
+	 * @return
+	 */
+	private boolean changed(boolean changed) {
+		if (changed) {
+			version++;
+		}
+		return changed;
+	}
+
+	/**
+	 * Set a property of an edge in the concept graph, returning whether its value
+	 * changed (a property with no value counts as having its default)
+	 */
+	private <X> boolean changeProperty(IConceptNode from, IConceptRelationType type, IConceptNode to,
+			IProperty<X> prop, X val) {
+		return differs(conceptGraph.setProperty(from, type, to, prop, val), prop, val);
+	}
+
+	/**
+	 * Whether setting a property to val changed it from the value
+	 * {@link IModifiableRelationGraph#setProperty} returned as the old one
+	 */
+	private static <X> boolean differs(X old, IProperty<X> prop, X val) {
+		return !Objects.equals(old == null ? prop.defaultValue() : old, val);
 	}
 
 	@Override
@@ -132,38 +282,40 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 
 	@Override
 	public int countRelations(IConcept forConcept) {
-		return this.conceptGraph.degree(new ConceptNode(forConcept));
+		return this.conceptGraph.degree(n(forConcept));
 	}
 
 	@Override
 	public int countRelationsOfType(IConcept forConcept, IConceptRelationType relation) {
-		return this.conceptGraph.degree(new ConceptNode(forConcept), relation);
+		return this.conceptGraph.degree(n(forConcept), relation);
 	}
 
 	@Override
 	public int countRelationsBetween(IConcept fromConcept, IConcept toConcept) {
-		return this.conceptGraph.getEdgeTypesBetween(new ConceptNode(fromConcept), new ConceptNode(toConcept)).size();
+		return this.conceptGraph.getEdgeTypesBetween(n(fromConcept), n(toConcept)).size();
 	}
 
 	@Override
 	public int countConnectedConcepts(IConcept fromConcept) {
-		return this.conceptGraph.getNeighbors(new ConceptNode(fromConcept)).size();
+		return this.conceptGraph.getNeighbors(n(fromConcept)).size();
 	}
 
 	@Override
 	public int countRelationTypesFrom(IConcept fromConcept) {
-		return this.conceptGraph.getOutgoingEdgeTypes(new ConceptNode(fromConcept)).size();
+		return this.conceptGraph.getOutgoingEdgeTypes(n(fromConcept)).size();
 	}
 
 	@Override
 	public boolean addConfidentRelation(IConcept from, IConceptRelationType relation, IConcept to) {
-		ConceptNode fromN = new ConceptNode(from);
-		ConceptNode toN = new ConceptNode(to);
-		this.conceptGraph.addEdge(fromN, relation, toN);
-		conceptGraph.setProperty(fromN, relation, toN, RelationProperties.OPPOSITE, false);
-		conceptGraph.setProperty(fromN, relation, toN, RelationProperties.NOT, false);
-		return conceptGraph.setProperty(fromN, relation, toN, RelationProperties.STORAGE_TYPE,
-				StorageType.CONFIDENT) == StorageType.CONFIDENT;
+		IConceptNode fromN = n(from);
+		IConceptNode toN = n(to);
+		boolean changed = this.conceptGraph.addEdge(fromN, relation, toN);
+		changed |= changeProperty(fromN, relation, toN, RelationProperties.OPPOSITE, false);
+		changed |= changeProperty(fromN, relation, toN, RelationProperties.NOT, false);
+		StorageType stype = conceptGraph.setProperty(fromN, relation, toN, RelationProperties.STORAGE_TYPE,
+				StorageType.CONFIDENT);
+		changed(changed | differs(stype, RelationProperties.STORAGE_TYPE, StorageType.CONFIDENT));
+		return stype == StorageType.CONFIDENT;
 	}
 
 	@Override
@@ -175,26 +327,30 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 		if (confidence == 1f) {
 			return this.addConfidentRelation(from, relation, to);
 		}
-		ConceptNode fromN = new ConceptNode(from);
-		ConceptNode toN = new ConceptNode(to);
-		this.conceptGraph.addEdge(fromN, relation, toN);
+		IConceptNode fromN = n(from);
+		IConceptNode toN = n(to);
+		boolean changed = this.conceptGraph.addEdge(fromN, relation, toN);
 		StorageType stype = conceptGraph.setProperty(fromN, relation, toN, RelationProperties.STORAGE_TYPE,
 				StorageType.DUBIOUS);
-		conceptGraph.setProperty(fromN, relation, toN, RelationProperties.CONFIDENCE, confidence);
-		conceptGraph.setProperty(fromN, relation, toN, RelationProperties.OPPOSITE, false);
-		conceptGraph.setProperty(fromN, relation, toN, RelationProperties.NOT, false);
+		changed |= differs(stype, RelationProperties.STORAGE_TYPE, StorageType.DUBIOUS);
+		changed |= changeProperty(fromN, relation, toN, RelationProperties.CONFIDENCE, confidence);
+		changed |= changeProperty(fromN, relation, toN, RelationProperties.OPPOSITE, false);
+		changed |= changeProperty(fromN, relation, toN, RelationProperties.NOT, false);
+		changed(changed);
 		return stype == StorageType.DUBIOUS;
 	}
 
 	@Override
 	public boolean addTemporaryRelation(IConcept from, IConceptRelationType relation, IConcept to) {
-		ConceptNode fromN = new ConceptNode(from);
-		ConceptNode toN = new ConceptNode(to);
-		this.conceptGraph.addEdge(fromN, relation, toN);
+		IConceptNode fromN = n(from);
+		IConceptNode toN = n(to);
+		boolean changed = this.conceptGraph.addEdge(fromN, relation, toN);
 		StorageType stype = conceptGraph.setProperty(fromN, relation, toN, RelationProperties.STORAGE_TYPE,
 				StorageType.TEMPORARY);
-		conceptGraph.setProperty(fromN, relation, toN, RelationProperties.OPPOSITE, false);
-		conceptGraph.setProperty(fromN, relation, toN, RelationProperties.NOT, false);
+		changed |= differs(stype, RelationProperties.STORAGE_TYPE, StorageType.TEMPORARY);
+		changed |= changeProperty(fromN, relation, toN, RelationProperties.OPPOSITE, false);
+		changed |= changeProperty(fromN, relation, toN, RelationProperties.NOT, false);
+		changed(changed);
 		return stype == StorageType.TEMPORARY;
 	}
 
@@ -204,8 +360,8 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 			throw new IllegalArgumentException("Cannot forget self");
 			// TODO maybe you can forget yourself? what does that entail?
 		}
-		if (!this.conceptGraph.remove(new ConceptNode(concept))) { // if it's not in local memory
-			return this.conceptGraph.add(new ConceptNode(concept, StorageType.FORGOTTEN));
+		if (!changed(this.conceptGraph.remove(n(concept)))) { // if it's not in local memory
+			return changed(this.conceptGraph.add(new ConceptNode(concept, StorageType.FORGOTTEN)));
 		}
 		return true;
 	}
@@ -213,7 +369,7 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 	@Override
 	public boolean removeRelation(IConcept from, IConceptRelationType type, IConcept to) {
 		if (this.hasAnyValenceRelationCheckParent(from, type, to) != this) {
-			this.conceptGraph.addEdge(new ConceptNode(from), type, new ConceptNode(to));
+			changed(this.conceptGraph.addEdge(n(from), type, n(to)));
 			if (this.getStorageTypeOfRelation(from, type, to) == StorageType.FORGOTTEN) {
 				return false;
 			}
@@ -224,14 +380,14 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 					&& this.getStorageTypeOfRelation(from, type, to) == StorageType.FORGOTTEN) {
 				return false;
 			}
-			return conceptGraph.removeEdge(new ConceptNode(from), type, new ConceptNode(to));
+			return changed(conceptGraph.removeEdge(n(from), type, n(to)));
 		}
 	}
 
 	@Override
 	public boolean removeAllRelations(IConcept from, IConcept to) {
 		boolean answer = false;
-		for (IConceptRelationType edge : conceptGraph.getEdgeTypesBetween(new ConceptNode(from), new ConceptNode(to))) {
+		for (IConceptRelationType edge : conceptGraph.getEdgeTypesBetween(n(from), n(to))) {
 			answer = answer || this.removeRelation(from, edge, to);
 		}
 		return answer;
@@ -240,7 +396,7 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 	@Override
 	public boolean removeAllRelations(IConcept from, IConceptRelationType type) {
 		boolean answer = false;
-		for (IConceptNode to : conceptGraph.getNeighbors(new ConceptNode(from), type)) {
+		for (IConceptNode to : conceptGraph.getNeighbors(n(from), type)) {
 			answer = answer || this.removeRelation(from, type, to.getConcept());
 		}
 		return answer;
@@ -248,8 +404,8 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 
 	@Override
 	public boolean hasAnyValenceRelation(IConcept from, IConceptRelationType type, IConcept to) {
-		if (conceptGraph.containsEdge(new ConceptNode(from), type, new ConceptNode(to))
-				&& conceptGraph.getProperty(new ConceptNode(from), type, new ConceptNode(to),
+		if (conceptGraph.containsEdge(n(from), type, n(to))
+				&& conceptGraph.getProperty(n(from), type, n(to),
 						RelationProperties.STORAGE_TYPE) == StorageType.FORGOTTEN) {
 			return false;
 		}
@@ -260,7 +416,20 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 	public IKnowledgeBase hasAnyValenceRelationCheckParent(IConcept from, IConceptRelationType type, IConcept to) {
 		if (this.conceptGraph.containsEdge(from, type, to))
 			return this;
-		for (IKnowledgeBase parent : this.parents) {
+		if (parentArray.length == 0)
+			return null;
+		this.validateParentCaches();
+		Triplet<IConcept, IConceptRelationType, IConcept> key = Triplet.of(from, type, to);
+		Optional<IKnowledgeBase> found = relationParents.get(key);
+		if (found == null) {
+			found = Optional.ofNullable(this.hasAnyValenceRelationInParent(from, type, to));
+			relationParents.put(key, found);
+		}
+		return found.orElse(null);
+	}
+
+	private IKnowledgeBase hasAnyValenceRelationInParent(IConcept from, IConceptRelationType type, IConcept to) {
+		for (IKnowledgeBase parent : this.parentArray) {
 			if (parent instanceof IIndividualKnowledgeBase ikb) {
 				IKnowledgeBase par = ikb.hasAnyValenceRelationCheckParent(from, type, to);
 				if (par != null)
@@ -276,11 +445,11 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 
 	@Override
 	public boolean hasAnyValenceRelation(IConcept from, IConcept to) {
-		if (conceptGraph.containsEdge(new ConceptNode(from), new ConceptNode(to))) {
+		if (conceptGraph.containsEdge(n(from), n(to))) {
 			boolean foundx = false;
-			for (IConceptRelationType type : conceptGraph.getEdgeTypesBetween(new ConceptNode(from),
-					new ConceptNode(to))) {
-				if (conceptGraph.getProperty(new ConceptNode(from), type, new ConceptNode(to),
+			for (IConceptRelationType type : conceptGraph.getEdgeTypesBetween(n(from),
+					n(to))) {
+				if (conceptGraph.getProperty(n(from), type, n(to),
 						RelationProperties.STORAGE_TYPE) != StorageType.FORGOTTEN) {
 					foundx = true;
 					break;
@@ -297,7 +466,20 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 	public IKnowledgeBase hasRelationCheckParent(IConcept from, IConcept to) {
 		if (this.conceptGraph.containsEdge(from, to))
 			return this;
-		for (IKnowledgeBase parent : this.parents) {
+		if (parentArray.length == 0)
+			return null;
+		this.validateParentCaches();
+		Pair<IConcept, IConcept> key = Pair.of(from, to);
+		Optional<IKnowledgeBase> found = anyRelationParents.get(key);
+		if (found == null) {
+			found = Optional.ofNullable(this.hasRelationInParent(from, to));
+			anyRelationParents.put(key, found);
+		}
+		return found.orElse(null);
+	}
+
+	private IKnowledgeBase hasRelationInParent(IConcept from, IConcept to) {
+		for (IKnowledgeBase parent : this.parentArray) {
 			if (parent instanceof IIndividualKnowledgeBase ikb) {
 				IKnowledgeBase par = ikb.hasRelationCheckParent(from, to);
 				if (par != null)
@@ -325,10 +507,12 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 	public IMultiKnowledgeBaseIterator<IConceptRelationType> getRelationTypesBetweenCheckParent(IConcept from,
 			IConcept to) {
 		return new ConceptStorageParentIterator<IConceptRelationType>(
-				() -> conceptGraph.getEdgeTypesBetween(new ConceptNode(from), new ConceptNode(to)).iterator(),
+				() -> conceptGraph.getEdgeTypesBetween(n(from), n(to)).iterator(),
 				(parent) -> {
 					if (parent instanceof IIndividualKnowledgeBase ikb)
 						return ikb.getRelationTypesBetweenCheckParent(from, to);
+					else if (!parent.knowsConcept(from) || !parent.knowsConcept(to))
+						return new SingleParentConceptStorageParentIterator<>(parent, Collections.emptyIterator());
 					else
 						return new SingleParentConceptStorageParentIterator<>(parent,
 								Streams.stream(parent.getRelationTypesBetween(from, to)).filter((
@@ -340,9 +524,11 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 	@Override
 	public IMultiKnowledgeBaseIterator<IConceptRelationType> getRelationTypesFromCheckParent(IConcept from) {
 		return new ConceptStorageParentIterator<IConceptRelationType>(
-				() -> conceptGraph.getOutgoingEdgeTypes(new ConceptNode(from)).iterator(), (parent) -> {
+				() -> conceptGraph.getOutgoingEdgeTypes(n(from)).iterator(), (parent) -> {
 					if (parent instanceof IIndividualKnowledgeBase ikb)
 						return ikb.getRelationTypesFromCheckParent(from);
+					else if (!parent.knowsConcept(from))
+						return new SingleParentConceptStorageParentIterator<>(parent, Collections.emptyIterator());
 					else
 						return new SingleParentConceptStorageParentIterator<>(parent,
 								Streams.stream(parent.getOutgoingEdges(from))
@@ -359,10 +545,12 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 
 	@Override
 	public IMultiKnowledgeBaseIterator<IConcept> getConnectedConceptsCheckParent(IConcept from) {
-		return new ConceptStorageParentIterator<>(() -> conceptGraph.getNeighbors(new ConceptNode(from)).stream()
+		return new ConceptStorageParentIterator<>(() -> conceptGraph.getNeighbors(n(from)).stream()
 				.map(IConceptNode::getConcept).iterator(), (parent) -> {
 					if (parent instanceof IIndividualKnowledgeBase ikb)
 						return ikb.getConnectedConceptsCheckParent(from);
+					else if (!parent.knowsConcept(from))
+						return new SingleParentConceptStorageParentIterator<>(parent, Collections.emptyIterator());
 					else
 						return new SingleParentConceptStorageParentIterator<>(parent,
 								Streams.stream(parent.getConnectedConcepts(from))
@@ -381,15 +569,79 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 		return getOutgoingEdgesCheckParent(fromC, forRelation);
 	}
 
+	@Override
+	public boolean forEachOutgoingEdge(IConcept fromC,
+			EdgeVisitor<? super IConcept, ? super IConceptRelationType> visitor) {
+		return visitOutgoingEdges(fromC, null, visitor);
+	}
+
+	@Override
+	public boolean forEachOutgoingEdge(IConcept fromC, IConceptRelationType forRelation,
+			EdgeVisitor<? super IConcept, ? super IConceptRelationType> visitor) {
+		return visitOutgoingEdges(fromC, forRelation, visitor);
+	}
+
+	/**
+	 * Visit the edges of this concept in local memory (skipping forgotten ones)
+	 * and then in each parent (skipping those forgotten in local memory), without
+	 * making a triplet for any edge; visit edges of every type if forRelation is
+	 * null
+	 */
+	private boolean visitOutgoingEdges(IConcept fromC, IConceptRelationType forRelation,
+			EdgeVisitor<? super IConcept, ? super IConceptRelationType> visitor) {
+		IConceptNode fromN = conceptGraph.getNode(fromC);
+		if (fromN != null) {
+			EdgeVisitor<IConceptNode, IConceptRelationType> local = (a, r, b) -> conceptGraph.getProperty(a, r, b,
+					RelationProperties.STORAGE_TYPE, false) == StorageType.FORGOTTEN
+					|| visitor.visit(a.getConcept(), r, b.getConcept());
+			if (!(forRelation == null ? conceptGraph.forEachEdge(fromN, local)
+					: conceptGraph.forEachEdge(fromN, forRelation, local))) {
+				return false;
+			}
+		}
+		if (parentArray.length == 0) {
+			return true;
+		}
+		EdgeVisitor<IConcept, IConceptRelationType> inherited = (a, r, b) -> this.forgotHere(a, r, b)
+				|| visitor.visit(a, r, b);
+		for (IKnowledgeBase parent : parentArray) {
+			if (!(parent instanceof IIndividualKnowledgeBase) && !parent.knowsConcept(fromC)) {
+				continue;
+			}
+			if (!(forRelation == null ? parent.forEachOutgoingEdge(fromC, inherited)
+					: parent.forEachOutgoingEdge(fromC, forRelation, inherited))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Whether this relation is marked as forgotten in local memory; unlike
+	 * {@link #getStorageTypeOfRelation}, this makes no nodes for concepts local
+	 * memory lacks
+	 */
+	private boolean forgotHere(IConcept from, IConceptRelationType type, IConcept to) {
+		IConceptNode fromN = conceptGraph.getNode(from);
+		if (fromN == null) {
+			return false;
+		}
+		IConceptNode toN = conceptGraph.getNode(to);
+		return toN != null && conceptGraph.containsEdge(fromN, type, toN) && conceptGraph.getProperty(fromN, type,
+				toN, RelationProperties.STORAGE_TYPE, false) == StorageType.FORGOTTEN;
+	}
+
 	@Override
 	public IMultiKnowledgeBaseIterator<Triplet<IConcept, IConceptRelationType, IConcept>> getOutgoingEdgesCheckParent(
 			IConcept from, IConceptRelationType type) {
 		return new ConceptStorageParentIterator<>(
-				() -> Streams.stream(conceptGraph.outgoingEdges(new ConceptNode(from), type))
+				() -> Streams.stream(conceptGraph.outgoingEdges(n(from), type))
 						.map((e) -> Triplet.of(e.left().getConcept(), e.center(), e.right().getConcept())).iterator(),
 				(parent) -> {
 					if (parent instanceof IIndividualKnowledgeBase ikb)
 						return ikb.getOutgoingEdgesCheckParent(from);
+					else if (!parent.knowsConcept(from))
+						return new SingleParentConceptStorageParentIterator<>(parent, Collections.emptyIterator());
 					else
 						return new SingleParentConceptStorageParentIterator<>(parent,
 								parent.getMappedConceptGraphView().outgoingEdges(from));
@@ -400,11 +652,13 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 	public IMultiKnowledgeBaseIterator<Triplet<IConcept, IConceptRelationType, IConcept>> getOutgoingEdgesCheckParent(
 			IConcept from) {
 		return new ConceptStorageParentIterator<>(
-				() -> Streams.stream(conceptGraph.outgoingEdges(new ConceptNode(from)))
+				() -> Streams.stream(conceptGraph.outgoingEdges(n(from)))
 						.map((e) -> Triplet.of(e.left().getConcept(), e.center(), e.right().getConcept())).iterator(),
 				(parent) -> {
 					if (parent instanceof IIndividualKnowledgeBase ikb)
 						return ikb.getOutgoingEdgesCheckParent(from);
+					else if (!parent.knowsConcept(from))
+						return new SingleParentConceptStorageParentIterator<>(parent, Collections.emptyIterator());
 					else
 						return new SingleParentConceptStorageParentIterator<>(parent,
 								Streams.stream(parent.getMappedConceptGraphView().outgoingEdges(from))
@@ -422,10 +676,12 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 	@Override
 	public IMultiKnowledgeBaseIterator<IConcept> getConnectedConceptsCheckParent(IConcept from,
 			IConceptRelationType type) {
-		return new ConceptStorageParentIterator<>(() -> conceptGraph.getNeighbors(new ConceptNode(from), type).stream()
+		return new ConceptStorageParentIterator<>(() -> conceptGraph.getNeighbors(n(from), type).stream()
 				.map(IConceptNode::getConcept).iterator(), (parent) -> {
 					if (parent instanceof IIndividualKnowledgeBase ikb)
 						return ikb.getConnectedConceptsCheckParent(from, type);
+					else if (!parent.knowsConcept(from))
+						return new SingleParentConceptStorageParentIterator<>(parent, Collections.emptyIterator());
 					else
 						return new SingleParentConceptStorageParentIterator<>(parent,
 								Streams.stream(parent.getConnectedConcepts(from, type))
@@ -435,7 +691,7 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 
 	@Override
 	public StorageType getStorageTypeOfRelation(IConcept from, IConceptRelationType type, IConcept to) {
-		return conceptGraph.getProperty(new ConceptNode(from), type, new ConceptNode(to),
+		return conceptGraph.getProperty(n(from), type, n(to),
 				RelationProperties.STORAGE_TYPE, false);
 	}
 
@@ -448,8 +704,8 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 	public Set<IKnowledgeBase> isOppositeCheckParents(IConcept from, IConceptRelationType type, IConcept to) {
 		Set<IKnowledgeBase> types = new HashSet<>();
 
-		if (conceptGraph.containsEdge(new ConceptNode(from), type, new ConceptNode(to))) {
-			if (conceptGraph.getProperty(new ConceptNode(from), type, new ConceptNode(to),
+		if (conceptGraph.containsEdge(n(from), type, n(to))) {
+			if (conceptGraph.getProperty(n(from), type, n(to),
 					RelationProperties.OPPOSITE)) {
 				types.add(this);
 			}
@@ -474,8 +730,8 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 	@Override
 	public Set<IKnowledgeBase> isNotCheckParents(IConcept from, IConceptRelationType type, IConcept to) {
 		Set<IKnowledgeBase> types = new HashSet<>();
-		if (conceptGraph.containsEdge(new ConceptNode(from), type, new ConceptNode(to))) {
-			if (conceptGraph.getProperty(new ConceptNode(from), type, new ConceptNode(to), RelationProperties.NOT)) {
+		if (conceptGraph.containsEdge(n(from), type, n(to))) {
+			if (conceptGraph.getProperty(n(from), type, n(to), RelationProperties.NOT)) {
 				types.add(this);
 			}
 		} else {
@@ -501,9 +757,9 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 	@Override
 	public Set<IKnowledgeBase> isCheckParents(IConcept from, IConceptRelationType type, IConcept to) {
 		Set<IKnowledgeBase> types = new HashSet<>();
-		if (conceptGraph.containsEdge(new ConceptNode(from), type, new ConceptNode(to))) {
-			if (!conceptGraph.getProperty(new ConceptNode(from), type, new ConceptNode(to), RelationProperties.NOT)
-					&& !conceptGraph.getProperty(new ConceptNode(from), type, new ConceptNode(to),
+		if (conceptGraph.containsEdge(n(from), type, n(to))) {
+			if (!conceptGraph.getProperty(n(from), type, n(to), RelationProperties.NOT)
+					&& !conceptGraph.getProperty(n(from), type, n(to),
 							RelationProperties.OPPOSITE)) {
 				types.add(this);
 			}
@@ -522,8 +778,7 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 
 	@Override
 	public void setStorageTypeOfRelation(IConcept from, IConceptRelationType type, IConcept to, StorageType stype) {
-		conceptGraph.setProperty(new ConceptNode(from), type, new ConceptNode(to), RelationProperties.STORAGE_TYPE,
-				stype);
+		changed(changeProperty(n(from), type, n(to), RelationProperties.STORAGE_TYPE, stype));
 	}
 
 	@Override
@@ -536,7 +791,7 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 	public Map<IKnowledgeBase, TruthType> getTruthTypeOfRelationCheckParents(IConcept from, IConceptRelationType type,
 			IConcept to) {
 		Map<IKnowledgeBase, TruthType> types = new LinkedHashMap<>();
-		types.put(this, conceptGraph.getProperty(new ConceptNode(from), type, new ConceptNode(to),
+		types.put(this, conceptGraph.getProperty(n(from), type, n(to),
 				RelationProperties.TRUTH_TYPE, false));
 		for (IKnowledgeBase para : parents) {
 			if (para instanceof IIndividualKnowledgeBase ikb)
@@ -549,25 +804,23 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 
 	@Override
 	public void setTruthTypeOfRelation(IConcept from, IConceptRelationType type, IConcept to, TruthType ttype) {
-		conceptGraph.setProperty(new ConceptNode(from), type, new ConceptNode(to), RelationProperties.TRUTH_TYPE,
-				ttype);
+		changed(changeProperty(n(from), type, n(to), RelationProperties.TRUTH_TYPE, ttype));
 	}
 
 	@Override
 	public UUID getInfoSource(IConcept from, IConceptRelationType type, IConcept to) {
-		return conceptGraph.getProperty(new ConceptNode(from), type, new ConceptNode(to),
+		return conceptGraph.getProperty(n(from), type, n(to),
 				RelationProperties.INFO_SOURCE, false);
 	}
 
 	@Override
 	public void setInfoSource(IConcept from, IConceptRelationType type, IConcept to, UUID source) {
-		conceptGraph.setProperty(new ConceptNode(from), type, new ConceptNode(to), RelationProperties.INFO_SOURCE,
-				source);
+		changed(changeProperty(n(from), type, n(to), RelationProperties.INFO_SOURCE, source));
 	}
 
 	@Override
 	public float getConfidence(IConcept from, IConceptRelationType type, IConcept to) {
-		return conceptGraph.getProperty(new ConceptNode(from), type, new ConceptNode(to), RelationProperties.CONFIDENCE,
+		return conceptGraph.getProperty(n(from), type, n(to), RelationProperties.CONFIDENCE,
 				false);
 	}
 
@@ -579,18 +832,18 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 		if (val > 1f) {
 			throw new IllegalArgumentException("Cannot have confidence value > 1");
 		}
-		conceptGraph.setProperty(new ConceptNode(from), type, new ConceptNode(to), RelationProperties.CONFIDENCE, val);
+		changed(changeProperty(n(from), type, n(to), RelationProperties.CONFIDENCE, val));
 	}
 
 	@Override
 	public long getMemoryAccessCount(IConcept from, IConceptRelationType type, IConcept to) {
-		return conceptGraph.getProperty(new ConceptNode(from), type, new ConceptNode(to),
+		return conceptGraph.getProperty(n(from), type, n(to),
 				RelationProperties.ACCESS_COUNT, false);
 	}
 
 	@Override
 	public void setMemoryAccessCount(IConcept from, IConceptRelationType type, IConcept to, long val) {
-		conceptGraph.setProperty(new ConceptNode(from), type, new ConceptNode(to), RelationProperties.ACCESS_COUNT,
+		conceptGraph.setProperty(n(from), type, n(to), RelationProperties.ACCESS_COUNT,
 				val);
 	}
 
@@ -612,8 +865,8 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 	public Map<IKnowledgeBase, Float> getSocialBondValueCheckParents(IConcept from, ISocialBondTrait trait,
 			IConcept to) {
 		Map<IKnowledgeBase, Float> types = new LinkedHashMap<>();
-		types.put(this, conceptGraph.getProperty(new ConceptNode(from), ProfileInterrelationType.HAS_SOCIAL_BOND_TO,
-				new ConceptNode(to), trait, false));
+		types.put(this, conceptGraph.getProperty(n(from), ProfileInterrelationType.HAS_SOCIAL_BOND_TO,
+				n(to), trait, false));
 		for (IKnowledgeBase para : parents) {
 			if (para instanceof IIndividualKnowledgeBase ikb) {
 				types.putAll(ikb.getSocialBondValueCheckParents(from, trait, to));
@@ -626,16 +879,14 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 
 	@Override
 	public void setSocialBondValue(IConcept from, ISocialBondTrait trait, IConcept to, float value) {
-		conceptGraph.addEdge(new ConceptNode(from), ProfileInterrelationType.HAS_SOCIAL_BOND_TO, new ConceptNode(to));
-		conceptGraph.setProperty(new ConceptNode(from), ProfileInterrelationType.HAS_SOCIAL_BOND_TO,
-				new ConceptNode(to), trait, value);
+		boolean changed = conceptGraph.addEdge(n(from), ProfileInterrelationType.HAS_SOCIAL_BOND_TO, n(to));
+		changed(changed | changeProperty(n(from), ProfileInterrelationType.HAS_SOCIAL_BOND_TO, n(to), trait, value));
 	}
 
 	@Override
 	public void setOpposite(IConcept focus, IConceptRelationType hasTrait, IConcept key) {
-		conceptGraph.addEdge(new ConceptNode(focus), hasTrait, new ConceptNode(key));
-		conceptGraph.setProperty(new ConceptNode(focus), hasTrait, new ConceptNode(key), RelationProperties.OPPOSITE,
-				true);
+		boolean changed = conceptGraph.addEdge(n(focus), hasTrait, n(key));
+		changed(changed | changeProperty(n(focus), hasTrait, n(key), RelationProperties.OPPOSITE, true));
 	}
 
 	@Override
@@ -646,10 +897,10 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 	@Override
 	public Map<IKnowledgeBase, Float> getDistanceCheckParents(IConcept prf) {
 		Map<IKnowledgeBase, Float> types = new LinkedHashMap<>();
-		if (conceptGraph.containsEdge(new ConceptNode(prf), KnowledgeRelationType.EXISTS_IN,
-				new ConceptNode(IConcept.ENVIRONMENT))) {
-			types.put(this, conceptGraph.getProperty(new ConceptNode(prf), KnowledgeRelationType.EXISTS_IN,
-					new ConceptNode(IConcept.ENVIRONMENT), RelationProperties.DISTANCE));
+		if (conceptGraph.containsEdge(n(prf), KnowledgeRelationType.EXISTS_IN,
+				n(IConcept.ENVIRONMENT))) {
+			types.put(this, conceptGraph.getProperty(n(prf), KnowledgeRelationType.EXISTS_IN,
+					n(IConcept.ENVIRONMENT), RelationProperties.DISTANCE));
 		}
 		for (IKnowledgeBase para : parents) {
 			if (para instanceof IIndividualKnowledgeBase ikb) {
@@ -663,11 +914,10 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 
 	@Override
 	public void setDistance(IConcept prf, float distance) {
-		conceptGraph.add(new ConceptNode(IConcept.ENVIRONMENT));
-		conceptGraph.addEdge(new ConceptNode(prf), KnowledgeRelationType.EXISTS_IN,
-				new ConceptNode(IConcept.ENVIRONMENT));
-		conceptGraph.setProperty(new ConceptNode(prf), KnowledgeRelationType.EXISTS_IN,
-				new ConceptNode(IConcept.ENVIRONMENT), RelationProperties.DISTANCE, distance);
+		boolean changed = conceptGraph.add(new ConceptNode(IConcept.ENVIRONMENT));
+		changed |= conceptGraph.addEdge(n(prf), KnowledgeRelationType.EXISTS_IN, n(IConcept.ENVIRONMENT));
+		changed(changed | changeProperty(n(prf), KnowledgeRelationType.EXISTS_IN, n(IConcept.ENVIRONMENT),
+				RelationProperties.DISTANCE, distance));
 	}
 
 	@Override
@@ -685,21 +935,21 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 
 	@Override
 	public void addConceptNodeSubgraph(IRelationGraph<? extends IConceptNode, IConceptRelationType> graph) {
-		conceptGraph.addAll((IRelationGraph) graph);
+		changed(conceptGraph.addAll((IRelationGraph) graph));
 		graph.edgeIterator().forEachRemaining((trip) -> {
 			if (conceptGraph.getProperty(trip.getFirst(), trip.getSecond(), trip.getThird(),
 					RelationProperties.STORAGE_TYPE) == StorageType.FORGOTTEN) {
-				conceptGraph.setProperty(trip.getFirst(), trip.getSecond(), trip.getThird(),
+				changed(changeProperty(trip.getFirst(), trip.getSecond(), trip.getThird(),
 						RelationProperties.STORAGE_TYPE,
 						(StorageType) ((IRelationGraph) graph).getProperty(trip.getFirst(), trip.getSecond(),
-								trip.getThird(), RelationProperties.STORAGE_TYPE));
+								trip.getThird(), RelationProperties.STORAGE_TYPE)));
 			}
 		});
 	}
 
 	@Override
 	public void learnConceptSubgraph(IRelationGraph<IConcept, IConceptRelationType> graph) {
-		conceptGraph.addAll(graph.mapCopy(ConceptNode::new, Functions.identity()));
+		changed(conceptGraph.addAll(graph.mapCopy(ConceptNode::new, Functions.identity())));
 		graph.edgeIterator().forEachRemaining((trip) -> {
 			if (getStorageTypeOfRelation(trip.getFirst(), trip.getSecond(), trip.getThird()) == StorageType.FORGOTTEN) {
 				setStorageTypeOfRelation(trip.getFirst(), trip.getSecond(), trip.getThird(),
@@ -711,7 +961,31 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 
 	@Override
 	public Collection<? extends IKnowledgeBase> getParents() {
-		return this.parents;
+		return Collections.unmodifiableSet(this.parents);
+	}
+
+	@Override
+	public long localRelationsHash(IConcept concept, IConceptRelationType type) {
+		IConceptNode node = conceptGraph.getNode(concept);
+		if (node == null) {
+			return 0;
+		}
+		long[] hash = new long[1];
+		EdgeVisitor<IConceptNode, IConceptRelationType> summer = (a, r, b) -> {
+			long h = Objects.hash(a.getConcept(), r, b.getConcept());
+			for (IProperty<?> prop : HASHED_PROPERTIES) {
+				h = h * 31 + Objects.hashCode(conceptGraph.getProperty(a, r, b, prop, false));
+			}
+			// summed, so the order of the relations does not matter
+			hash[0] += Long.rotateLeft(h * 0x9E3779B97F4A7C15L, 29);
+			return true;
+		};
+		if (type == null) {
+			conceptGraph.forEachEdge(node, summer);
+		} else {
+			conceptGraph.forEachEdge(node, type, summer);
+		}
+		return hash[0];
 	}
 
 	@Override
@@ -731,6 +1005,10 @@ public class IndividualKnowledgeBase implements IIndividualKnowledgeBase {
 		base.conceptGraph = this.conceptGraph.copy();
 		base.immutableView = ImmutableGraphView.of(base.conceptGraph);
 		base.parents = new HashSet<>(this.parents);
+		base.conceptParents = new HashMap<>();
+		base.relationParents = new HashMap<>();
+		base.anyRelationParents = new HashMap<>();
+		base.parentsChanged();
 		return base;
 	}
 
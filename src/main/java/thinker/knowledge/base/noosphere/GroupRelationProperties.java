@@ -0,0 +1,165 @@
+package thinker.knowledge.base.noosphere;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+import java.util.function.IntConsumer;
+
+import _utilities.property.IProperty;
+import thinker.concepts.relations.util.RelationProperties;
+import thinker.knowledge.node.GroupIndex;
+
+/**
+ * The properties a relation in a noosphere has for each group that knows it,
+ * stored in small arrays by {@link GroupIndex} and then by property, rather
+ * than in a table keyed by group and property
+ *
+ * @author borah
+ *
+ */
+public final class GroupRelationProperties {
+
+	/** The properties which can be stored for each group */
+	private static final IProperty<?>[] SLOTS = { RelationProperties.STORAGE_TYPE, RelationProperties.TRUTH_TYPE,
+			RelationProperties.CONFIDENCE, RelationProperties.NOT, RelationProperties.OPPOSITE,
+			RelationProperties.INFO_SOURCE, RelationProperties.ACCESS_COUNT, RelationProperties.DISTANCE };
+
+	private static final Object[][] EMPTY = new Object[0][];
+
+	/** the values for each group, by group index then slot; null if none */
+	private Object[][] rows = EMPTY;
+
+	private static int slot(IProperty<?> property) {
+		for (int i = 0; i < SLOTS.length; i++) {
+			if (SLOTS[i] == property || SLOTS[i].equals(property))
+				return i;
+		}
+		throw new IllegalArgumentException("Not a group-based relation property: " + property);
+	}
+
+	/**
+	 * Return the value of this property for the group with the given index, or
+	 * null if it has none
+	 *
+	 * @param <E>
+	 * @param group
+	 * @param property
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public <E> E get(int group, IProperty<E> property) {
+		int slot = slot(property);
+		if (group < 0 || group >= rows.length || rows[group] == null)
+			return null;
+		return (E) rows[group][slot];
+	}
+
+	/**
+	 * Set the value of this property for the group with the given index
+	 *
+	 * @param <E>
+	 * @param group
+	 * @param property
+	 * @param value
+	 */
+	public <E> void put(int group, IProperty<E> property, E value) {
+		int slot = slot(property);
+		if (group >= rows.length) {
+			rows = Arrays.copyOf(rows, group + 1);
+		}
+		if (rows[group] == null) {
+			rows[group] = new Object[SLOTS.length];
+		}
+		rows[group][slot] = value;
+	}
+
+	/**
+	 * Remove the value of this property for the group with the given index
+	 *
+	 * @param group
+	 * @param property
+	 */
+	public void remove(int group, IProperty<?> property) {
+		int slot = slot(property);
+		if (group >= 0 && group < rows.length && rows[group] != null)
+			rows[group][slot] = null;
+	}
+
+	/**
+	 * Whether the group with the given index has any properties here (or had, and
+	 * they were only removed one by one)
+	 *
+	 * @param group
+	 * @return
+	 */
+	public boolean hasRow(int group) {
+		return group >= 0 && group < rows.length && rows[group] != null;
+	}
+
+	/**
+	 * Give the index of each group which has properties here
+	 *
+	 * @param action
+	 */
+	public void forEachRow(IntConsumer action) {
+		for (int g = 0; g < rows.length; g++) {
+			if (rows[g] != null)
+				action.accept(g);
+		}
+	}
+
+	/**
+	 * Remove all properties for the group with the given index
+	 *
+	 * @param group
+	 */
+	public void clear(int group) {
+		if (group >= 0 && group < rows.length)
+			rows[group] = null;
+	}
+
+	public GroupRelationProperties copy() {
+		GroupRelationProperties copy = new GroupRelationProperties();
+		copy.rows = new Object[rows.length][];
+		for (int i = 0; i < rows.length; i++) {
+			copy.rows[i] = rows[i] == null ? null : rows[i].clone();
+		}
+		return copy;
+	}
+
+	/**
+	 * Return a copy of these properties with each group's row moved to the index
+	 * the map gives it (as from {@link GroupIndex#mappingFrom(GroupIndex)}); rows
+	 * mapped to -1 are dropped
+	 *
+	 * @param map
+	 * @return
+	 */
+	public GroupRelationProperties remap(int[] map) {
+		GroupRelationProperties copy = new GroupRelationProperties();
+		for (int i = 0; i < rows.length && i < map.length; i++) {
+			if (rows[i] == null || map[i] < 0)
+				continue;
+			if (map[i] >= copy.rows.length)
+				copy.rows = Arrays.copyOf(copy.rows, map[i] + 1);
+			copy.rows[map[i]] = rows[i].clone();
+		}
+		return copy;
+	}
+
+	@Override
+	public String toString() {
+		StringJoiner joiner = new StringJoiner(",", "{", "}");
+		for (int g = 0; g < rows.length; g++) {
+			if (rows[g] == null)
+				continue;
+			StringJoiner row = new StringJoiner(",", "#" + g + "={", "}");
+			for (int s = 0; s < SLOTS.length; s++) {
+				if (rows[g][s] != null)
+					row.add(SLOTS[s] + "=" + rows[g][s]);
+			}
+			joiner.add(row.toString());
+		}
+		return joiner.toString();
+	}
+
+}
@@ -1,14 +1,13 @@
 package thinker.knowledge.base.noosphere;
 
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import com.google.common.base.Functions;
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
 
 import _utilities.couplets.Triplet;
 import _utilities.graph.IRelationGraph;
@@ -42,12 +41,16 @@ public interface INoosphereKnowledgeBase extends IKnowledgeBase {
 	/**
 	 * All properties for an individual relation in a Noosphere, organized by group
 	 */
-	public static final IProperty<Table<IProfile, IProperty<?>, Object>> GROUP_BASED_PROPERTIES = IProperty
-			.make("group_based_properties", Table.class, HashBasedTable.create());
+	public static final IProperty<GroupRelationProperties> GROUP_BASED_PROPERTIES = IProperty
+			.make("group_based_properties", GroupRelationProperties.class,
+					(Supplier<GroupRelationProperties>) GroupRelationProperties::new);
 
-	/** The groups that recognize certain relations */
-	public static final IProperty<Set<IProfile>> REL_GROUPS = IProperty.make("relation_groups", Set.class,
-			new HashSet<>());
+	/**
+	 * The groups that recognize certain relations, as bits at each group's
+	 * {@link thinker.knowledge.node.GroupIndex}
+	 */
+	public static final IProperty<BitSet> REL_GROUPS = IProperty.make("relation_groups", BitSet.class,
+			(Supplier<BitSet>) BitSet::new);
 
 	@Override
 	default IConcept getSelfConcept() {
@@ -1,27 +1,28 @@
 package thinker.knowledge.base.noosphere;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.WeakHashMap;
 import java.util.function.Function;
 
 import com.google.common.base.Functions;
-import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.collect.Streams;
-import com.google.common.collect.Table;
 
-import _utilities.couplets.Pair;
 import _utilities.couplets.Triplet;
 import _utilities.graph.IModifiableRelationGraph;
 import _utilities.graph.IRelationGraph;
+import _utilities.graph.IRelationGraph.EdgeVisitor;
 import _utilities.graph.ImmutableGraphView;
 import _utilities.graph.NodeNotFoundException;
-import _utilities.property.IProperty;
 import party.relations.social_bonds.ISocialBondTrait;
 import thinker.concepts.IConcept;
 import thinker.concepts.profile.IProfile;
@@ -30,8 +31,8 @@ import thinker.concepts.relations.descriptive.ProfileInterrelationType;
 import thinker.concepts.relations.technical.KnowledgeRelationType;
 import thinker.concepts.relations.util.RelationProperties;
 import thinker.knowledge.ConceptNodeGraph;
-import thinker.knowledge.node.ConceptNode;
 import thinker.knowledge.node.GroupConceptNode;
+import thinker.knowledge.node.GroupIndex;
 import thinker.knowledge.node.IConceptNode;
 import thinker.knowledge.node.IGroupConceptNode;
 import thinker.mind.memory.StorageType;
@@ -45,30 +46,174 @@ import thinker.mind.memory.TruthType;
  */
 public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 
-	private ConceptNodeGraph<IGroupConceptNode> conceptGraph;
+	private GroupConceptGraph conceptGraph;
 	private ImmutableGraphView<IGroupConceptNode, IConceptRelationType> immutableView;
+	/** the indices of the groups known to this noosphere */
+	private GroupIndex groupIndex;
 	/**
-	 * all contained groups and the number of (1) nodes and (2) relations each has
+	 * all contained groups, by {@link GroupIndex}
 	 */
-	private Map<IProfile, Pair<Integer, Integer>> containedGroups;
+	private BitSet containedGroups;
+	/** the number of nodes each group knows, by {@link GroupIndex} */
+	private int[] groupNodeCounts;
+	/** the number of relations each group knows, by {@link GroupIndex} */
+	private int[] groupEdgeCounts;
+	/**
+	 * the per-group properties of relations which have a row for each group, by
+	 * {@link GroupIndex}, so that a group's rows can be cleared when its index is
+	 * released without looking at every relation; held weakly, so the properties
+	 * of removed relations are not kept
+	 */
+	private List<Set<GroupRelationProperties>> groupPropertyHolders = new ArrayList<>();
+	/**
+	 * Counts changes to which concepts and relations are in the noosphere or known
+	 * by its groups, and to the properties of those relations (other than access
+	 * counts); see {@link #getVersion()}
+	 */
+	private long version;
 
 	public NoosphereKnowledgeBase() {
-		conceptGraph = new ConceptNodeGraph<IGroupConceptNode>(Set.of(GROUP_BASED_PROPERTIES, REL_GROUPS));
+		groupIndex = new GroupIndex();
+		conceptGraph = new GroupConceptGraph(this);
 		immutableView = ImmutableGraphView.of(conceptGraph);
-		containedGroups = new HashMap<>();
+		containedGroups = new BitSet();
+		groupNodeCounts = new int[0];
+		groupEdgeCounts = new int[0];
 		this.learnConcept(IConcept.EXISTENCE);
 	}
 
+	/**
+	 * The concept graph of a noosphere, which tells the noosphere when relations
+	 * and concepts are added or removed so that the groups' counts and the
+	 * noosphere's version stay accurate
+	 * 
+	 * @author borah
+	 *
+	 */
+	private static class GroupConceptGraph extends ConceptNodeGraph<IGroupConceptNode> {
+
+		private NoosphereKnowledgeBase owner;
+
+		private GroupConceptGraph(NoosphereKnowledgeBase owner) {
+			super(Set.of(GROUP_BASED_PROPERTIES, REL_GROUPS));
+			this.owner = owner;
+		}
+
+		@Override
+		protected void onNodeAdded(IGroupConceptNode value) {
+			super.onNodeAdded(value);
+			if (owner != null)
+				owner.version++;
+		}
+
+		@Override
+		protected void onNodeRemoved(IGroupConceptNode value) {
+			super.onNodeRemoved(value);
+			if (owner != null)
+				owner.version++;
+		}
+
+		private void released(IInvertibleEdge<IGroupConceptNode, IConceptRelationType> edge) {
+			if (edge == null)
+				return;
+			owner.version++;
+			BitSet groups = edge.getPropertyValue(REL_GROUPS);
+			if (groups == null)
+				return;
+			for (int i = groups.nextSetBit(0); i >= 0; i = groups.nextSetBit(i + 1)) {
+				owner.changeGroupRelationCount(edge.getStart().getValue(), edge.getEnd().getValue(), i, -1);
+			}
+		}
+
+		private Collection<? extends IInvertibleEdge<IGroupConceptNode, IConceptRelationType>> released(
+				Collection<? extends IInvertibleEdge<IGroupConceptNode, IConceptRelationType>> edges) {
+			edges.forEach(this::released);
+			return edges;
+		}
+
+		@Override
+		protected IInvertibleEdge<IGroupConceptNode, IConceptRelationType> removeConnection(
+				INode<IGroupConceptNode, IConceptRelationType> node, IConceptRelationType type,
+				INode<IGroupConceptNode, IConceptRelationType> other) {
+			IInvertibleEdge<IGroupConceptNode, IConceptRelationType> edge = super.removeConnection(node, type, other);
+			released(edge);
+			return edge;
+		}
+
+		@Override
+		protected Collection<? extends IInvertibleEdge<IGroupConceptNode, IConceptRelationType>> removeConnections(
+				INode<IGroupConceptNode, IConceptRelationType> node) {
+			return released(super.removeConnections(node));
+		}
+
+		@Override
+		protected Collection<? extends IInvertibleEdge<IGroupConceptNode, IConceptRelationType>> removeConnections(
+				INode<IGroupConceptNode, IConceptRelationType> node, IConceptRelationType type) {
+			return released(super.removeConnections(node, type));
+		}
+
+		@Override
+		protected Collection<? extends IInvertibleEdge<IGroupConceptNode, IConceptRelationType>> removeConnections(
+				INode<IGroupConceptNode, IConceptRelationType> node, INode<IGroupConceptNode, IConceptRelationType> other) {
+			return released(super.removeConnections(node, other));
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			IGroupConceptNode node = this.get(o);
+			if (!super.remove(o))
+				return false;
+			for (IProfile group : node.knownByGroups()) {
+				owner.changeGroupNodeCount(group, -1);
+			}
+			return true;
+		}
+
+		@Override
+		public GroupConceptGraph deepCopy(Function<IGroupConceptNode, IGroupConceptNode> cloner) {
+			GroupConceptGraph copy = (GroupConceptGraph) super.deepCopy(cloner);
+			// edge properties are copied by reference, so give the copy its own
+			copy.edgeIterator().forEachRemaining((triplet) -> {
+				IInvertibleEdge<IGroupConceptNode, IConceptRelationType> edge = copy.node(triplet.getFirst())
+						.getEdge(triplet.getThird(), triplet.getSecond());
+				BitSet groups = edge.getPropertyValue(REL_GROUPS);
+				if (groups != null)
+					edge.setPropertyValue(REL_GROUPS, (BitSet) groups.clone());
+				GroupRelationProperties props = edge.getPropertyValue(GROUP_BASED_PROPERTIES);
+				if (props != null)
+					edge.setPropertyValue(GROUP_BASED_PROPERTIES, props.copy());
+			});
+			return copy;
+		}
+	}
+
+	/**
+	 * Return the node for this concept in the graph, or a new node (not in the
+	 * graph) if it has none; only the second case allocates anything
+	 * 
+	 * @param concept
+	 * @return
+	 */
+	private IGroupConceptNode n(IConcept concept) {
+		IGroupConceptNode node = conceptGraph.getNode(concept);
+		return node == null ? new GroupConceptNode(concept, groupIndex) : node;
+	}
+
 	protected IGroupConceptNode getOrDefault(IConcept forConcept) {
-		IGroupConceptNode noda = conceptGraph.get(new GroupConceptNode(forConcept));
+		IGroupConceptNode noda = conceptGraph.getNode(forConcept);
 		if (noda == null)
 			return IGroupConceptNode.NULL;
 		return noda;
 	}
 
+	@Override
+	public long getVersion() {
+		return version;
+	}
+
 	@Override
 	public Set<IProfile> allGroups() {
-		return this.containedGroups.keySet();
+		return groupIndex.asSet(this.containedGroups);
 	}
 
 	@Override
@@ -92,15 +237,12 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 
 	@Override
 	public boolean groupKnowsConcept(IConcept con, IProfile group) {
-		if (knowsConcept(con)) {
-			return conceptGraph.get(new GroupConceptNode(con)).knownByGroup(group);
-		}
-		return false;
+		return getOrDefault(con).knownByGroup(group);
 	}
 
 	@Override
 	public boolean knowsConcept(IConcept concept) {
-		return conceptGraph.contains(new GroupConceptNode(concept));
+		return conceptGraph.containsConcept(concept);
 	}
 
 	@Override
@@ -110,7 +252,7 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 
 	@Override
 	public StorageType getStorageType(IConcept concept) {
-		IGroupConceptNode nod = conceptGraph.get(new GroupConceptNode(concept));
+		IGroupConceptNode nod = conceptGraph.getNode(concept);
 		if (nod != null)
 			return nod.getStorageType();
 		return null;
@@ -118,7 +260,7 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 
 	@Override
 	public StorageType groupGetStorageType(IConcept concept, IProfile forGroup) {
-		IGroupConceptNode nod = conceptGraph.get(new GroupConceptNode(concept));
+		IGroupConceptNode nod = conceptGraph.getNode(concept);
 		if (nod != null)
 			return nod.getStorageTypeForGroup(forGroup);
 		return null;
@@ -126,51 +268,160 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 
 	@Override
 	public boolean learnConcept(IConcept concept) {
-		return conceptGraph.add(new GroupConceptNode(concept));
+		return conceptGraph.add(new GroupConceptNode(concept, groupIndex));
 
 	}
 
 	protected void setGroupNodeCount(IProfile grou, int to) {
-		Pair<Integer, Integer> pair = this.containedGroups.computeIfAbsent(grou, (prof) -> Pair.of(0, 0));
-		pair.setFirst(to);
+		int index = groupIndex.of(grou);
+		if (index >= groupNodeCounts.length)
+			groupNodeCounts = Arrays.copyOf(groupNodeCounts, index + 1);
+		groupNodeCounts[index] = to;
+		containedGroups.set(index, to != 0);
+		if (to == 0)
+			this.releaseIfUnknowing(index);
 	}
 
 	protected void setGroupEdgeCount(IProfile grou, int to) {
-		Pair<Integer, Integer> pair = this.containedGroups.computeIfAbsent(grou, (prof) -> Pair.of(0, 0));
-		pair.setSecond(to);
+		int index = groupIndex.of(grou);
+		if (index >= groupEdgeCounts.length)
+			groupEdgeCounts = Arrays.copyOf(groupEdgeCounts, index + 1);
+		groupEdgeCounts[index] = to;
+		if (to == 0)
+			this.releaseIfUnknowing(index);
 	}
 
 	protected void changeGroupNodeCount(IProfile grou, int by) {
-		Pair<Integer, Integer> pair = this.containedGroups.computeIfAbsent(grou, (prof) -> Pair.of(0, 0));
-		pair.setFirst(pair.getFirst() + by);
-		if (pair.getFirst() == 0) {
-			this.containedGroups.remove(grou);
+		version++;
+		this.setGroupNodeCount(grou, this.getGroupNodeCount(grou) + by);
+	}
+
+	protected void changeGroupEdgeCount(IProfile grou, int by) {
+		this.changeGroupEdgeCount(groupIndex.of(grou), by);
+	}
+
+	private void changeGroupEdgeCount(int index, int by) {
+		if (index >= groupEdgeCounts.length)
+			groupEdgeCounts = Arrays.copyOf(groupEdgeCounts, index + 1);
+		groupEdgeCounts[index] += by;
+		if (groupEdgeCounts[index] == 0)
+			this.releaseIfUnknowing(index);
+	}
+
+	/**
+	 * Release the index of the group with this index, so that a new group can take
+	 * it, if the group no longer knows any concept or relation; properties it still
+	 * had on relations it did not know are cleared first
+	 */
+	private void releaseIfUnknowing(int index) {
+		if (index < groupNodeCounts.length && groupNodeCounts[index] != 0)
+			return;
+		if (index < groupEdgeCounts.length && groupEdgeCounts[index] != 0)
+			return;
+		if (groupIndex.get(index) == null)
+			return;
+		if (index < groupPropertyHolders.size()) {
+			Set<GroupRelationProperties> holders = groupPropertyHolders.get(index);
+			holders.forEach((gbp) -> gbp.clear(index));
+			holders.clear();
 		}
+		groupIndex.release(index);
+	}
 
+	/**
+	 * Return the per-group properties of this relation (which must exist), making
+	 * them if it has none, and remember that the group with this index is about to
+	 * have a row in them
+	 */
+	private GroupRelationProperties groupProperties(IGroupConceptNode from, IConceptRelationType type,
+			IGroupConceptNode to, int index) {
+		GroupRelationProperties gbp = conceptGraph.getProperty(from, type, to, GROUP_BASED_PROPERTIES, true);
+		if (!gbp.hasRow(index))
+			this.holdersOf(index).add(gbp);
+		return gbp;
 	}
 
-	protected void changeGroupEdgeCount(IProfile grou, int by) {
-		Pair<Integer, Integer> pair = this.containedGroups.computeIfAbsent(grou, (prof) -> Pair.of(0, 0));
-		pair.setSecond(pair.getSecond() + by);
+	private Set<GroupRelationProperties> holdersOf(int index) {
+		while (groupPropertyHolders.size() <= index)
+			groupPropertyHolders.add(Collections.newSetFromMap(new WeakHashMap<>()));
+		return groupPropertyHolders.get(index);
 	}
 
-	protected static final Pair<Integer, Integer> ZERO = Pair.of(0, 0);
+	/** Remember every group which has a row in these properties */
+	private void noteHolder(GroupRelationProperties gbp) {
+		gbp.forEachRow((index) -> this.holdersOf(index).add(gbp));
+	}
 
 	protected int getGroupNodeCount(IProfile grou) {
-		return this.containedGroups.getOrDefault(grou, ZERO).getFirst();
+		int index = groupIndex.find(grou);
+		return index < 0 || index >= groupNodeCounts.length ? 0 : groupNodeCounts[index];
 	}
 
 	protected int getGroupEdgeCount(IProfile grou) {
-		return this.containedGroups.getOrDefault(grou, ZERO).getSecond();
+		int index = groupIndex.find(grou);
+		return index < 0 || index >= groupEdgeCounts.length ? 0 : groupEdgeCounts[index];
+	}
+
+	/**
+	 * Count (or uncount) a relation between these two nodes (as stored in the
+	 * graph) for the group with the given index
+	 */
+	private void changeGroupRelationCount(IGroupConceptNode from, IGroupConceptNode to, int index, int by) {
+		version++;
+		from.changeGroupRelationCount(index, by);
+		to.changeGroupRelationCount(index, by);
+		this.changeGroupEdgeCount(index, by);
+	}
+
+	/**
+	 * Make the group know this relation, which must exist, and count it if it did
+	 * not already
+	 */
+	private void addRelationToGroup(IGroupConceptNode from, IConceptRelationType type, IGroupConceptNode to,
+			IProfile group) {
+		int index = groupIndex.of(group);
+		BitSet groups = conceptGraph.getProperty(from, type, to, REL_GROUPS, true);
+		if (!groups.get(index)) {
+			groups.set(index);
+			this.changeGroupRelationCount(conceptGraph.get(from), conceptGraph.get(to), index, 1);
+		}
+	}
+
+	/**
+	 * Make the group forget this relation and its properties for the group; return
+	 * true if it knew it
+	 */
+	private boolean removeRelationFromGroup(IGroupConceptNode from, IConceptRelationType type, IGroupConceptNode to,
+			IProfile group) {
+		BitSet groups = conceptGraph.getProperty(from, type, to, REL_GROUPS);
+		GroupRelationProperties gbp = conceptGraph.getProperty(from, type, to, GROUP_BASED_PROPERTIES);
+		int index = groupIndex.find(group);
+		if (groups == null || index < 0)
+			return false;
+		if (gbp != null)
+			gbp.clear(index);
+		if (!groups.get(index))
+			return false;
+		groups.clear(index);
+		this.changeGroupRelationCount(conceptGraph.get(from), conceptGraph.get(to), index, -1);
+		return true;
+	}
+
+	/** Whether the group with this index knows this relation */
+	private boolean groupKnowsRelation(IGroupConceptNode from, IConceptRelationType type, IGroupConceptNode to,
+			int index) {
+		if (index < 0)
+			return false;
+		BitSet groups = conceptGraph.getProperty(from, type, to, REL_GROUPS);
+		return groups != null && groups.get(index);
 	}
 
 	@Override
 	public boolean groupLearnConcept(IConcept concept, IProfile forGroup) {
 
-		IGroupConceptNode con = new GroupConceptNode(concept);
-		if (conceptGraph.contains(con)) {
-			con = conceptGraph.get(con);
-		} else {
+		IGroupConceptNode con = conceptGraph.getNode(concept);
+		if (con == null) {
+			con = new GroupConceptNode(concept, groupIndex);
 			conceptGraph.add(con);
 		}
 		if (con.addToGroup(forGroup)) {
@@ -182,25 +433,23 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 
 	@Override
 	public boolean learnConcept(IConcept concept, StorageType type) {
-		return this.conceptGraph.add(new GroupConceptNode(concept, type));
+		return this.conceptGraph.add(new GroupConceptNode(concept, type, groupIndex));
 	}
 
 	@Override
 	public boolean groupLearnConcept(IConcept concept, StorageType type, IProfile forGroup) {
 
-		IGroupConceptNode con = new GroupConceptNode(concept);
-		if (conceptGraph.contains(con)) {
-			con = conceptGraph.get(con);
-		} else {
+		IGroupConceptNode con = conceptGraph.getNode(concept);
+		if (con == null) {
+			con = new GroupConceptNode(concept, groupIndex);
 			conceptGraph.add(con);
 		}
+		boolean added = con.addToGroup(forGroup);
 		con.setStorageTypeForGroup(forGroup, type);
-		if (con.addToGroup(forGroup)) {
-
+		if (added) {
 			this.changeGroupNodeCount(forGroup, 1);
-			return true;
 		}
-		return false;
+		return added;
 	}
 
 	@Override
@@ -208,13 +457,13 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 		if (concept.equals(this.getSelfConcept())) {
 			throw new IllegalArgumentException("Cannot forget self");
 		}
-		for (IProfile group : this.containedGroups.keySet()) {
+		for (IProfile group : this.allGroups()) {
 			if (group.equals(concept)) {
 
 				throw new IllegalArgumentException("Cannot forget an internal group: " + group);
 			}
 		}
-		return this.conceptGraph.remove(new GroupConceptNode(concept));
+		return this.conceptGraph.remove(n(concept));
 	}
 
 	@Override
@@ -270,29 +519,31 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 
 	@Override
 	public int countRelations(IConcept forConcept) {
-		return this.conceptGraph.degree(new GroupConceptNode(forConcept));
+		return this.conceptGraph.degree(n(forConcept));
 	}
 
 	@Override
 	public int groupCountRelations(IConcept forConcept, IProfile forGroup) {
-		int[] num = { 0 };
-		this.conceptGraph.forEachEdgeProperty(new GroupConceptNode(forConcept), REL_GROUPS, (set) -> {
-			if (set != null && set.contains(forGroup))
-				num[0]++;
-		});
-		return num[0];
+		IGroupConceptNode noda = conceptGraph.getNode(forConcept);
+		if (noda == null)
+			throw new NodeNotFoundException(forConcept);
+		int index = groupIndex.find(forGroup);
+		return index < 0 ? 0 : noda.getGroupRelationCount(index);
 	}
 
 	@Override
 	public int countRelationsOfType(IConcept forConcept, IConceptRelationType relation) {
-		return this.conceptGraph.degree(new GroupConceptNode(forConcept), relation);
+		return this.conceptGraph.degree(n(forConcept), relation);
 	}
 
 	@Override
 	public int groupCountRelationsOfType(IConcept forConcept, IConceptRelationType relation, IProfile forGroup) {
+		int index = groupIndex.find(forGroup);
+		if (index < 0)
+			return 0;
 		int[] num = { 0 };
-		this.conceptGraph.forEachEdgeProperty(new GroupConceptNode(forConcept), relation, REL_GROUPS, (set) -> {
-			if (set != null && set.contains(forGroup))
+		this.conceptGraph.forEachEdgeProperty(n(forConcept), relation, REL_GROUPS, (set) -> {
+			if (set != null && set.get(index))
 				num[0]++;
 		});
 		return num[0];
@@ -300,16 +551,19 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 
 	@Override
 	public int countRelationsBetween(IConcept fromConcept, IConcept toConcept) {
-		return this.conceptGraph.getEdgeTypesBetween(new GroupConceptNode(fromConcept), new GroupConceptNode(toConcept))
+		return this.conceptGraph.getEdgeTypesBetween(n(fromConcept), n(toConcept))
 				.size();
 	}
 
 	@Override
 	public int groupCountRelationsBetween(IConcept forConcept, IConcept relation, IProfile forGroup) {
+		int index = groupIndex.find(forGroup);
+		if (index < 0)
+			return 0;
 		int[] num = { 0 };
-		this.conceptGraph.forEachEdgeProperty(new GroupConceptNode(forConcept), new GroupConceptNode(relation),
+		this.conceptGraph.forEachEdgeProperty(n(forConcept), n(relation),
 				REL_GROUPS, (set) -> {
-					if (set != null && set.contains(forGroup))
+					if (set != null && set.get(index))
 						num[0]++;
 				});
 		return num[0];
@@ -317,41 +571,41 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 
 	@Override
 	public int countRelationTypesFrom(IConcept fromConcept) {
-		return this.conceptGraph.getOutgoingEdgeTypes(new GroupConceptNode(fromConcept)).size();
+		return this.conceptGraph.getOutgoingEdgeTypes(n(fromConcept)).size();
 	}
 
 	@Override
 	public int groupCountRelationTypesFrom(IConcept fromConcept, IProfile forGroup) {
 
-		GroupConceptNode noda = new GroupConceptNode(fromConcept);
+		IGroupConceptNode noda = n(fromConcept);
+		int index = groupIndex.find(forGroup);
 		return (int) this.conceptGraph.getOutgoingEdgeTypes(noda).stream().filter((type) -> {
-			return conceptGraph.getNeighbors(noda, type).stream().anyMatch((nodeto) -> {
-				Set<IProfile> gros = conceptGraph.getProperty(noda, type, nodeto, REL_GROUPS);
-				return gros != null && gros.contains(forGroup);
-			});
+			return conceptGraph.getNeighbors(noda, type).stream()
+					.anyMatch((nodeto) -> groupKnowsRelation(noda, type, nodeto, index));
 		}).count();
 	}
 
 	@Override
 	public int countConnectedConcepts(IConcept fromConcept) {
-		return this.conceptGraph.getNeighbors(new GroupConceptNode(fromConcept)).size();
+		return this.conceptGraph.getNeighbors(n(fromConcept)).size();
 	}
 
 	@Override
 	public int groupCountConnectedConcepts(IConcept fromConcept, IProfile group) {
-		GroupConceptNode noda = new GroupConceptNode(fromConcept);
+		IGroupConceptNode noda = n(fromConcept);
+		int index = groupIndex.find(group);
 
 		return (int) this.conceptGraph.getNeighbors(noda).stream().filter((no) -> no.knownByGroup(group))
-				.filter((no) -> conceptGraph.getEdgeTypesBetween(noda, no).stream().anyMatch((type) -> {
-					Set<IProfile> gros = conceptGraph.getProperty(noda, type, no, REL_GROUPS, false);
-					return (gros != null && gros.contains(group));
-				})).count();
+				.filter((no) -> conceptGraph.getEdgeTypesBetween(noda, no).stream()
+						.anyMatch((type) -> groupKnowsRelation(noda, type, no, index)))
+				.count();
 	}
 
 	@Override
 	public boolean addConfidentRelation(IConcept from, IConceptRelationType relation, IConcept to) {
-		GroupConceptNode fromN = new GroupConceptNode(from);
-		GroupConceptNode toN = new GroupConceptNode(to);
+		version++;
+		IGroupConceptNode fromN = n(from);
+		IGroupConceptNode toN = n(to);
 
 		boolean added = this.conceptGraph.addEdge(fromN, relation, toN);
 		conceptGraph.setProperty(fromN, relation, toN, RelationProperties.OPPOSITE, false);
@@ -362,26 +616,28 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 	@Override
 	public boolean groupAddConfidentRelation(IConcept from, IConceptRelationType relation, IConcept to,
 			IProfile group) {
-		GroupConceptNode fromN = new GroupConceptNode(from);
-		GroupConceptNode toN = new GroupConceptNode(to);
+		IGroupConceptNode fromN = n(from);
+		IGroupConceptNode toN = n(to);
 
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
 		if (!groupKnowsConcept(to, group))
 			throw new NodeNotFoundException(to);
 		boolean added = this.conceptGraph.addEdge(fromN, relation, toN);
-		conceptGraph.getProperty(fromN, relation, toN, REL_GROUPS, true).add(group);
-		Table<IProfile, IProperty<?>, Object> gbp = conceptGraph.getProperty(fromN, relation, toN,
-				GROUP_BASED_PROPERTIES, false);
+		this.addRelationToGroup(fromN, relation, toN, group);
+		version++;
+		GroupRelationProperties gbp = conceptGraph.getProperty(fromN, relation, toN, GROUP_BASED_PROPERTIES, false);
 		if (gbp != null) {
-			gbp.remove(group, RelationProperties.OPPOSITE);
-			gbp.remove(group, RelationProperties.NOT);
+			int index = groupIndex.of(group);
+			gbp.remove(index, RelationProperties.OPPOSITE);
+			gbp.remove(index, RelationProperties.NOT);
 		}
 		return added;
 	}
 
 	@Override
 	public boolean addDubiousRelation(IConcept from, IConceptRelationType relation, IConcept to, float confidence) {
+		version++;
 		if (confidence > 1f || confidence < 0f) {
 			throw new IllegalArgumentException("Cannot make edge with " + confidence + " confidence between" + from
 					+ " and " + to + " of type " + relation);
@@ -389,8 +645,8 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 		if (confidence == 1f) {
 			return this.addConfidentRelation(from, relation, to);
 		}
-		GroupConceptNode fromN = new GroupConceptNode(from);
-		GroupConceptNode toN = new GroupConceptNode(to);
+		IGroupConceptNode fromN = n(from);
+		IGroupConceptNode toN = n(to);
 		boolean added = this.conceptGraph.addEdge(fromN, relation, toN);
 		conceptGraph.setProperty(fromN, relation, toN, RelationProperties.STORAGE_TYPE, StorageType.DUBIOUS);
 		conceptGraph.setProperty(fromN, relation, toN, RelationProperties.CONFIDENCE, confidence);
@@ -410,29 +666,31 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 		if (confidence == 1f) {
 			return this.groupAddConfidentRelation(from, relation, to, group);
 		}
-		GroupConceptNode fromN = new GroupConceptNode(from);
-		GroupConceptNode toN = new GroupConceptNode(to);
+		IGroupConceptNode fromN = n(from);
+		IGroupConceptNode toN = n(to);
 
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
 		if (!groupKnowsConcept(to, group))
 			throw new NodeNotFoundException(to);
 		boolean added = this.conceptGraph.addEdge(fromN, relation, toN);
-		conceptGraph.getProperty(fromN, relation, toN, REL_GROUPS, true).add(group);
-		Table<IProfile, IProperty<?>, Object> gbp = conceptGraph.getProperty(fromN, relation, toN,
-				GROUP_BASED_PROPERTIES, true);
-		gbp.put(group, RelationProperties.STORAGE_TYPE, StorageType.DUBIOUS);
-		gbp.put(group, RelationProperties.CONFIDENCE, confidence);
-		gbp.remove(group, RelationProperties.OPPOSITE);
-		gbp.remove(group, RelationProperties.NOT);
+		this.addRelationToGroup(fromN, relation, toN, group);
+		version++;
+		int index = groupIndex.of(group);
+		GroupRelationProperties gbp = this.groupProperties(fromN, relation, toN, index);
+		gbp.put(index, RelationProperties.STORAGE_TYPE, StorageType.DUBIOUS);
+		gbp.put(index, RelationProperties.CONFIDENCE, confidence);
+		gbp.remove(index, RelationProperties.OPPOSITE);
+		gbp.remove(index, RelationProperties.NOT);
 
 		return added;
 	}
 
 	@Override
 	public boolean addTemporaryRelation(IConcept from, IConceptRelationType relation, IConcept to) {
-		GroupConceptNode fromN = new GroupConceptNode(from);
-		GroupConceptNode toN = new GroupConceptNode(to);
+		version++;
+		IGroupConceptNode fromN = n(from);
+		IGroupConceptNode toN = n(to);
 		boolean added = this.conceptGraph.addEdge(fromN, relation, toN);
 		conceptGraph.setProperty(fromN, relation, toN, RelationProperties.STORAGE_TYPE, StorageType.TEMPORARY);
 		conceptGraph.setProperty(fromN, relation, toN, RelationProperties.OPPOSITE, false);
@@ -443,73 +701,56 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 	@Override
 	public boolean groupAddTemporaryRelation(IConcept from, IConceptRelationType relation, IConcept to,
 			IProfile group) {
-		GroupConceptNode fromN = new GroupConceptNode(from);
-		GroupConceptNode toN = new GroupConceptNode(to);
+		IGroupConceptNode fromN = n(from);
+		IGroupConceptNode toN = n(to);
 
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
 		if (!groupKnowsConcept(to, group))
 			throw new NodeNotFoundException(to);
 		boolean added = this.conceptGraph.addEdge(fromN, relation, toN);
-		conceptGraph.getProperty(fromN, relation, toN, REL_GROUPS, true).add(group);
-		Table<IProfile, IProperty<?>, Object> gbp = conceptGraph.getProperty(fromN, relation, toN,
-				GROUP_BASED_PROPERTIES, true);
-		gbp.put(group, RelationProperties.STORAGE_TYPE, StorageType.TEMPORARY);
-		gbp.remove(group, RelationProperties.OPPOSITE);
-		gbp.remove(group, RelationProperties.NOT);
+		this.addRelationToGroup(fromN, relation, toN, group);
+		version++;
+		int index = groupIndex.of(group);
+		GroupRelationProperties gbp = this.groupProperties(fromN, relation, toN, index);
+		gbp.put(index, RelationProperties.STORAGE_TYPE, StorageType.TEMPORARY);
+		gbp.remove(index, RelationProperties.OPPOSITE);
+		gbp.remove(index, RelationProperties.NOT);
 		return added;
 	}
 
 	@Override
 	public boolean removeRelation(IConcept from, IConceptRelationType type, IConcept to) {
-		return conceptGraph.removeEdge(new ConceptNode(from), type, new ConceptNode(to));
+		return conceptGraph.removeEdge(n(from), type, n(to));
 	}
 
 	@Override
 	public boolean groupRemoveRelation(IConcept from, IConceptRelationType type, IConcept to, IProfile group) {
-		GroupConceptNode froma = new GroupConceptNode(from);
-		GroupConceptNode toa = new GroupConceptNode(to);
+		IGroupConceptNode froma = n(from);
+		IGroupConceptNode toa = n(to);
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
 		if (!groupKnowsConcept(to, group))
 			throw new NodeNotFoundException(to);
 		if (conceptGraph.containsEdge(froma, type, toa)) {
-			Set<IProfile> groupa = conceptGraph.getProperty(froma, type, toa, REL_GROUPS);
-			if (groupa == null) {
-				return false;
-			}
-			Table<IProfile, IProperty<?>, Object> gbp = conceptGraph.getProperty(froma, type, toa,
-					GROUP_BASED_PROPERTIES);
-			if (gbp != null) {
-				gbp.row(group).clear();
-			}
-			return groupa.remove(group);
+			return this.removeRelationFromGroup(froma, type, toa, group);
 		}
 		return false;
 	}
 
 	@Override
 	public boolean groupRemoveRelationAndDelete(IConcept from, IConceptRelationType type, IConcept to, IProfile group) {
-		GroupConceptNode froma = new GroupConceptNode(from);
-		GroupConceptNode toa = new GroupConceptNode(to);
+		IGroupConceptNode froma = n(from);
+		IGroupConceptNode toa = n(to);
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
 		if (!groupKnowsConcept(to, group))
 			throw new NodeNotFoundException(to);
 		if (conceptGraph.containsEdge(froma, type, toa)) {
-			Set<IProfile> groupa = conceptGraph.getProperty(froma, type, toa, REL_GROUPS);
-			if (groupa == null) {
-				return false;
-			}
-			boolean dela = groupa.remove(group);
-			if (groupa.isEmpty()) {
+			boolean dela = this.removeRelationFromGroup(froma, type, toa, group);
+			BitSet groupa = conceptGraph.getProperty(froma, type, toa, REL_GROUPS);
+			if (groupa == null || groupa.isEmpty()) {
 				conceptGraph.removeEdge(froma, type, toa);
-			} else {
-				Table<IProfile, IProperty<?>, Object> gbp = conceptGraph.getProperty(froma, type, toa,
-						GROUP_BASED_PROPERTIES);
-				if (gbp != null) {
-					gbp.row(group).clear();
-				}
 			}
 			return dela;
 		}
@@ -518,14 +759,14 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 
 	@Override
 	public boolean removeAllRelations(IConcept from, IConcept to) {
-		return conceptGraph.removeAllConnections(new GroupConceptNode(from), new GroupConceptNode(to));
+		return conceptGraph.removeAllConnections(n(from), n(to));
 	}
 
 	@Override
 	public boolean groupRemoveAllRelations(IConcept from, IConcept to, IProfile group) {
 		boolean mod = false;
-		GroupConceptNode froma = new GroupConceptNode(from);
-		GroupConceptNode toa = new GroupConceptNode(to);
+		IGroupConceptNode froma = n(from);
+		IGroupConceptNode toa = n(to);
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
 		if (!groupKnowsConcept(to, group))
@@ -539,8 +780,8 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 	@Override
 	public boolean groupRemoveAllRelationsAndDelete(IConcept from, IConcept to, IProfile group) {
 		boolean mod = false;
-		GroupConceptNode froma = new GroupConceptNode(from);
-		GroupConceptNode toa = new GroupConceptNode(to);
+		IGroupConceptNode froma = n(from);
+		IGroupConceptNode toa = n(to);
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
 		if (!groupKnowsConcept(to, group))
@@ -553,13 +794,13 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 
 	@Override
 	public boolean removeAllRelations(IConcept from, IConceptRelationType type) {
-		return conceptGraph.removeAllConnections(new GroupConceptNode(from), type);
+		return conceptGraph.removeAllConnections(n(from), type);
 	}
 
 	@Override
 	public boolean groupRemoveAllRelations(IConcept from, IConceptRelationType type, IProfile group) {
 		boolean mod = false;
-		GroupConceptNode froma = new GroupConceptNode(from);
+		IGroupConceptNode froma = n(from);
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
 		for (IGroupConceptNode toa : conceptGraph.getNeighbors(froma, type)) {
@@ -571,7 +812,7 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 	@Override
 	public boolean groupRemoveAllRelationsAndDelete(IConcept from, IConceptRelationType type, IProfile group) {
 		boolean mod = false;
-		GroupConceptNode froma = new GroupConceptNode(from);
+		IGroupConceptNode froma = n(from);
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
 		for (IGroupConceptNode toa : new HashSet<>(conceptGraph.getNeighbors(froma, type))) {
@@ -582,45 +823,41 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 
 	@Override
 	public boolean hasAnyValenceRelation(IConcept from, IConceptRelationType type, IConcept to) {
-		return conceptGraph.containsEdge(new GroupConceptNode(from), type, new GroupConceptNode(to));
+		return conceptGraph.containsEdge(n(from), type, n(to));
 	}
 
 	@Override
 	public boolean groupHasAnyValenceRelation(IConcept from, IConceptRelationType type, IConcept to, IProfile group) {
-		GroupConceptNode froma = new GroupConceptNode(from);
-		GroupConceptNode toa = new GroupConceptNode(to);
+		IGroupConceptNode froma = n(from);
+		IGroupConceptNode toa = n(to);
 		if (!groupKnowsConcept(from, group))
 			return false;
 		if (!groupKnowsConcept(to, group))
 			return false;
 		if (hasAnyValenceRelation(from, type, to)) {
-			Set<IProfile> gros = conceptGraph.getProperty(froma, type, toa, REL_GROUPS);
-			if (gros == null)
-				return false;
-			return gros.contains(group);
+			return groupKnowsRelation(froma, type, toa, groupIndex.find(group));
 		}
 		return false;
 	}
 
 	@Override
 	public boolean hasAnyValenceRelation(IConcept from, IConcept to) {
-		return conceptGraph.containsEdge(new ConceptNode(from), new ConceptNode(to));
+		return conceptGraph.containsEdge(n(from), n(to));
 	}
 
 	@Override
 	public boolean groupHasAnyValenceRelation(IConcept from, IConcept to, IProfile group) {
 
-		GroupConceptNode froma = new GroupConceptNode(from);
-		GroupConceptNode toa = new GroupConceptNode(to);
+		IGroupConceptNode froma = n(from);
+		IGroupConceptNode toa = n(to);
 		if (!groupKnowsConcept(from, group))
 			return false;
 		if (!groupKnowsConcept(to, group))
 			return false;
 		if (hasAnyValenceRelation(from, to)) {
-			return conceptGraph.getEdgeTypesBetween(froma, toa).stream().anyMatch((type) -> {
-				Set<IProfile> gros = conceptGraph.getProperty(froma, type, toa, REL_GROUPS);
-				return gros != null && gros.contains(group);
-			});
+			int index = groupIndex.find(group);
+			return conceptGraph.getEdgeTypesBetween(froma, toa).stream()
+					.anyMatch((type) -> groupKnowsRelation(froma, type, toa, index));
 
 		}
 		return false;
@@ -628,175 +865,184 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 
 	@Override
 	public Collection<IConceptRelationType> getRelationTypesFrom(IConcept from) {
-		return conceptGraph.getOutgoingEdgeTypes(new GroupConceptNode(from));
+		return conceptGraph.getOutgoingEdgeTypes(n(from));
 	}
 
 	@Override
 	public Iterable<? extends IConceptRelationType> groupGetRelationTypesFrom(IConcept from, IProfile group) {
 
-		GroupConceptNode froma = new GroupConceptNode(from);
+		IGroupConceptNode froma = n(from);
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
+		int index = groupIndex.find(group);
 		return () -> conceptGraph.getOutgoingEdgeTypes(froma).stream().filter((type) -> {
-			return conceptGraph.getNeighbors(froma, type).stream().anyMatch((toa) -> {
-				Set<IProfile> gros = conceptGraph.getProperty(froma, type, toa, REL_GROUPS);
-				return gros != null && gros.contains(group);
-			});
+			return conceptGraph.getNeighbors(froma, type).stream()
+					.anyMatch((toa) -> groupKnowsRelation(froma, type, toa, index));
 		}).iterator();
 	}
 
 	@Override
 	public Iterable<? extends IConceptRelationType> getRelationTypesBetween(IConcept from, IConcept to) {
-		return conceptGraph.getEdgeTypesBetween(new GroupConceptNode(from), new GroupConceptNode(to));
+		return conceptGraph.getEdgeTypesBetween(n(from), n(to));
 	}
 
 	@Override
 	public Iterable<? extends IConceptRelationType> groupGetRelationTypesBetween(IConcept from, IConcept to,
 			IProfile group) {
 
-		GroupConceptNode froma = new GroupConceptNode(from);
-		GroupConceptNode toa = new GroupConceptNode(to);
+		IGroupConceptNode froma = n(from);
+		IGroupConceptNode toa = n(to);
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
 		if (!groupKnowsConcept(to, group))
 			throw new NodeNotFoundException(to);
-		return () -> conceptGraph.getEdgeTypesBetween(froma, toa).stream().filter((type) -> {
-			Set<IProfile> gros = conceptGraph.getProperty(froma, type, toa, REL_GROUPS);
-			return gros != null && gros.contains(group);
-
-		}).iterator();
+		int index = groupIndex.find(group);
+		return () -> conceptGraph.getEdgeTypesBetween(froma, toa).stream()
+				.filter((type) -> groupKnowsRelation(froma, type, toa, index)).iterator();
 	}
 
 	@Override
 	public Iterable<IConcept> getConnectedConcepts(IConcept from) {
 
-		return () -> conceptGraph.getNeighbors(new GroupConceptNode(from)).stream().map(IConceptNode::getConcept)
+		return () -> conceptGraph.getNeighbors(n(from)).stream().map(IConceptNode::getConcept)
 				.iterator();
 	}
 
 	@Override
 	public Iterable<? extends IConcept> groupGetConnectedConcepts(IConcept from, IProfile group) {
-		GroupConceptNode froma = new GroupConceptNode(from);
+		IGroupConceptNode froma = n(from);
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
+		int index = groupIndex.find(group);
 		return () -> conceptGraph.getNeighbors(froma).stream()
-				.filter((toa) -> conceptGraph.getEdgeTypesBetween(froma, toa).stream().anyMatch((type) -> {
-					Set<IProfile> gros = conceptGraph.getProperty(froma, type, toa, REL_GROUPS);
-					return gros != null && gros.contains(group);
-				})).map(IConceptNode::getConcept).iterator();
+				.filter((toa) -> conceptGraph.getEdgeTypesBetween(froma, toa).stream()
+						.anyMatch((type) -> groupKnowsRelation(froma, type, toa, index)))
+				.map(IConceptNode::getConcept).iterator();
 	}
 
 	@Override
 	public Iterable<IConcept> getConnectedConcepts(IConcept from, IConceptRelationType type) {
-		return () -> conceptGraph.getNeighbors(new GroupConceptNode(from), type).stream().map(IConceptNode::getConcept)
+		return () -> conceptGraph.getNeighbors(n(from), type).stream().map(IConceptNode::getConcept)
 				.iterator();
 	}
 
 	@Override
 	public Iterable<? extends IConcept> groupGetConnectedConcepts(IConcept from, IConceptRelationType type,
 			IProfile group) {
-		GroupConceptNode froma = new GroupConceptNode(from);
+		IGroupConceptNode froma = n(from);
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
-		return () -> conceptGraph.getNeighbors(froma).stream().filter((toa) -> {
-			Set<IProfile> gros = conceptGraph.getProperty(froma, type, toa, REL_GROUPS);
-			return gros != null && gros.contains(group);
-		}).map(IConceptNode::getConcept).iterator();
+		int index = groupIndex.find(group);
+		return () -> conceptGraph.getNeighbors(froma).stream()
+				.filter((toa) -> groupKnowsRelation(froma, type, toa, index)).map(IConceptNode::getConcept)
+				.iterator();
 	}
 
 	@Override
 	public Iterator<Triplet<IConcept, IConceptRelationType, IConcept>> getOutgoingEdges(IConcept fromC) {
-		return Streams.stream(conceptGraph.outgoingEdges(new GroupConceptNode(fromC)))
+		return Streams.stream(conceptGraph.outgoingEdges(n(fromC)))
 				.map((a) -> Triplet.of(a.getFirst().getConcept(), a.getSecond(), a.getThird().getConcept())).iterator();
 	}
 
 	@Override
 	public Iterator<Triplet<IConcept, IConceptRelationType, IConcept>> getOutgoingEdges(IConcept fromC,
 			IConceptRelationType forRelation) {
-		return Streams.stream(conceptGraph.outgoingEdges(new GroupConceptNode(fromC), forRelation))
+		return Streams.stream(conceptGraph.outgoingEdges(n(fromC), forRelation))
 				.map((a) -> Triplet.of(a.getFirst().getConcept(), a.getSecond(), a.getThird().getConcept())).iterator();
 	}
 
+	@Override
+	public boolean forEachOutgoingEdge(IConcept fromC,
+			EdgeVisitor<? super IConcept, ? super IConceptRelationType> visitor) {
+		return conceptGraph.forEachEdge(n(fromC), (a, r, b) -> visitor.visit(a.getConcept(), r, b.getConcept()));
+	}
+
+	@Override
+	public boolean forEachOutgoingEdge(IConcept fromC, IConceptRelationType forRelation,
+			EdgeVisitor<? super IConcept, ? super IConceptRelationType> visitor) {
+		return conceptGraph.forEachEdge(n(fromC), forRelation,
+				(a, r, b) -> visitor.visit(a.getConcept(), r, b.getConcept()));
+	}
+
 	@Override
 	public Iterator<Triplet<IConcept, IConceptRelationType, IConcept>> groupGetOutgoingEdges(IConcept from,
 			IConceptRelationType type, IProfile group) {
-		GroupConceptNode froma = new GroupConceptNode(from);
+		IGroupConceptNode froma = n(from);
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
-		return Streams.stream(conceptGraph.outgoingEdges(froma, type)).filter((toa) -> {
-			Set<IProfile> gros = conceptGraph.getProperty(toa.getFirst(), toa.getSecond(), toa.getThird(), REL_GROUPS);
-			return gros != null && gros.contains(group);
-		}).map((a) -> Triplet.of(a.getFirst().getConcept(), a.getSecond(), a.getThird().getConcept())).iterator();
+		int index = groupIndex.find(group);
+		return Streams.stream(conceptGraph.outgoingEdges(froma, type))
+				.filter((toa) -> groupKnowsRelation(toa.getFirst(), toa.getSecond(), toa.getThird(), index)).map((a) -> Triplet.of(a.getFirst().getConcept(), a.getSecond(), a.getThird().getConcept())).iterator();
 	}
 
 	@Override
 	public Iterator<Triplet<IConcept, IConceptRelationType, IConcept>> groupGetOutgoingEdges(IConcept from,
 			IProfile group) {
-		GroupConceptNode froma = new GroupConceptNode(from);
+		IGroupConceptNode froma = n(from);
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
-		return Streams.stream(conceptGraph.outgoingEdges(froma)).filter((toa) -> {
-			Set<IProfile> gros = conceptGraph.getProperty(toa.getFirst(), toa.getSecond(), toa.getThird(), REL_GROUPS);
-			return gros != null && gros.contains(group);
-		}).map((a) -> Triplet.of(a.getFirst().getConcept(), a.getSecond(), a.getThird().getConcept())).iterator();
+		int index = groupIndex.find(group);
+		return Streams.stream(conceptGraph.outgoingEdges(froma))
+				.filter((toa) -> groupKnowsRelation(toa.getFirst(), toa.getSecond(), toa.getThird(), index)).map((a) -> Triplet.of(a.getFirst().getConcept(), a.getSecond(), a.getThird().getConcept())).iterator();
 	}
 
 	@Override
 	public StorageType getStorageTypeOfRelation(IConcept from, IConceptRelationType type, IConcept to) {
-		return conceptGraph.getProperty(new GroupConceptNode(from), type, new GroupConceptNode(to),
+		return conceptGraph.getProperty(n(from), type, n(to),
 				RelationProperties.STORAGE_TYPE, false);
 	}
 
 	@Override
 	public StorageType groupGetStorageTypeOfRelation(IConcept from, IConceptRelationType type, IConcept to,
 			IProfile group) {
-		GroupConceptNode froma = new GroupConceptNode(from);
-		GroupConceptNode toa = new GroupConceptNode(to);
+		IGroupConceptNode froma = n(from);
+		IGroupConceptNode toa = n(to);
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
 		if (!groupKnowsConcept(to, group))
 			throw new NodeNotFoundException(to);
-		Table<IProfile, IProperty<?>, Object> props = conceptGraph.getProperty(froma, type, toa, GROUP_BASED_PROPERTIES,
-				false);
+		GroupRelationProperties props = conceptGraph.getProperty(froma, type, toa, GROUP_BASED_PROPERTIES, false);
 		if (props == null)
 			return null;
-		return (StorageType) props.get(group, RelationProperties.STORAGE_TYPE);
+		return props.get(groupIndex.find(group), RelationProperties.STORAGE_TYPE);
 	}
 
 	@Override
 	public void setStorageTypeOfRelation(IConcept from, IConceptRelationType type, IConcept to, StorageType stype) {
-		conceptGraph.setProperty(new GroupConceptNode(from), type, new GroupConceptNode(to),
+		version++;
+		conceptGraph.setProperty(n(from), type, n(to),
 				RelationProperties.STORAGE_TYPE, stype);
 	}
 
 	@Override
 	public void groupSetStorageTypeOfRelation(IConcept from, IConceptRelationType type, IConcept to, StorageType stype,
 			IProfile group) {
-		GroupConceptNode froma = new GroupConceptNode(from);
-		GroupConceptNode toa = new GroupConceptNode(to);
+		IGroupConceptNode froma = n(from);
+		IGroupConceptNode toa = n(to);
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
 		if (!groupKnowsConcept(to, group))
 			throw new NodeNotFoundException(to);
-		conceptGraph.getProperty(froma, type, toa, GROUP_BASED_PROPERTIES, true).put(group,
-				RelationProperties.STORAGE_TYPE, stype);
+		version++;
+		int index = groupIndex.of(group);
+		this.groupProperties(froma, type, toa, index).put(index, RelationProperties.STORAGE_TYPE, stype);
 	}
 
 	@Override
 	public boolean isNot(IConcept from, IConceptRelationType type, IConcept to) {
-		if (!conceptGraph.containsEdge(new GroupConceptNode(from), type, new GroupConceptNode(to))) {
+		if (!conceptGraph.containsEdge(n(from), type, n(to))) {
 			return true;
 		}
-		return conceptGraph.getProperty(new GroupConceptNode(from), type, new GroupConceptNode(to),
+		return conceptGraph.getProperty(n(from), type, n(to),
 				RelationProperties.NOT);
 	}
 
 	@Override
 	public boolean isOpposite(IConcept from, IConceptRelationType type, IConcept to) {
-		if (!conceptGraph.containsEdge(new GroupConceptNode(from), type, new GroupConceptNode(to))) {
+		if (!conceptGraph.containsEdge(n(from), type, n(to))) {
 			return false;
 		}
-		return conceptGraph.getProperty(new GroupConceptNode(from), type, new GroupConceptNode(to),
+		return conceptGraph.getProperty(n(from), type, n(to),
 				RelationProperties.OPPOSITE);
 	}
 
@@ -808,8 +1054,8 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 
 	@Override
 	public boolean groupIsOpposite(IConcept from, IConceptRelationType type, IConcept to, IProfile group) {
-		GroupConceptNode froma = new GroupConceptNode(from);
-		GroupConceptNode toa = new GroupConceptNode(to);
+		IGroupConceptNode froma = n(from);
+		IGroupConceptNode toa = n(to);
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
 		if (!groupKnowsConcept(to, group))
@@ -817,18 +1063,17 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 		if (!conceptGraph.containsEdge(froma, type, toa)) {
 			return true;
 		}
-		Table<IProfile, IProperty<?>, Object> props = conceptGraph.getProperty(froma, type, toa, GROUP_BASED_PROPERTIES,
-				false);
+		GroupRelationProperties props = conceptGraph.getProperty(froma, type, toa, GROUP_BASED_PROPERTIES, false);
 		if (props == null)
 			return false;
-		Boolean b = (Boolean) props.get(group, RelationProperties.OPPOSITE);
+		Boolean b = props.get(groupIndex.find(group), RelationProperties.OPPOSITE);
 		return b == null ? false : b;
 	}
 
 	@Override
 	public boolean groupIsNot(IConcept from, IConceptRelationType type, IConcept to, IProfile group) {
-		GroupConceptNode froma = new GroupConceptNode(from);
-		GroupConceptNode toa = new GroupConceptNode(to);
+		IGroupConceptNode froma = n(from);
+		IGroupConceptNode toa = n(to);
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
 		if (!groupKnowsConcept(to, group))
@@ -836,97 +1081,98 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 		if (!conceptGraph.containsEdge(froma, type, toa)) {
 			return true;
 		}
-		Table<IProfile, IProperty<?>, Object> props = conceptGraph.getProperty(froma, type, toa, GROUP_BASED_PROPERTIES,
-				false);
+		GroupRelationProperties props = conceptGraph.getProperty(froma, type, toa, GROUP_BASED_PROPERTIES, false);
 		if (props == null)
 			return true;
-		Boolean b = (Boolean) props.get(group, RelationProperties.NOT);
+		Boolean b = props.get(groupIndex.find(group), RelationProperties.NOT);
 		return b == null ? true : b;
 	}
 
 	@Override
 	public TruthType getTruthTypeOfRelation(IConcept from, IConceptRelationType type, IConcept to) {
-		return conceptGraph.getProperty(new GroupConceptNode(from), type, new GroupConceptNode(to),
+		return conceptGraph.getProperty(n(from), type, n(to),
 				RelationProperties.TRUTH_TYPE, false);
 	}
 
 	@Override
 	public TruthType groupGetTruthTypeOfRelation(IConcept from, IConceptRelationType type, IConcept to,
 			IProfile group) {
-		GroupConceptNode froma = new GroupConceptNode(from);
-		GroupConceptNode toa = new GroupConceptNode(to);
+		IGroupConceptNode froma = n(from);
+		IGroupConceptNode toa = n(to);
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
 		if (!groupKnowsConcept(to, group))
 			throw new NodeNotFoundException(to);
-		Table<IProfile, IProperty<?>, Object> props = conceptGraph.getProperty(froma, type, toa, GROUP_BASED_PROPERTIES,
-				false);
+		GroupRelationProperties props = conceptGraph.getProperty(froma, type, toa, GROUP_BASED_PROPERTIES, false);
 		if (props == null)
 			return null;
-		return (TruthType) props.get(group, RelationProperties.TRUTH_TYPE);
+		return props.get(groupIndex.find(group), RelationProperties.TRUTH_TYPE);
 	}
 
 	@Override
 	public void setTruthTypeOfRelation(IConcept from, IConceptRelationType type, IConcept to, TruthType ttype) {
-		conceptGraph.setProperty(new GroupConceptNode(from), type, new GroupConceptNode(to),
+		version++;
+		conceptGraph.setProperty(n(from), type, n(to),
 				RelationProperties.TRUTH_TYPE, ttype);
 	}
 
 	@Override
 	public void groupSetTruthTypeOfRelation(IConcept from, IConceptRelationType type, IConcept to, TruthType ttype,
 			IProfile group) {
-		GroupConceptNode froma = new GroupConceptNode(from);
-		GroupConceptNode toa = new GroupConceptNode(to);
+		IGroupConceptNode froma = n(from);
+		IGroupConceptNode toa = n(to);
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
 		if (!groupKnowsConcept(to, group))
 			throw new NodeNotFoundException(to);
-		conceptGraph.getProperty(froma, type, toa, GROUP_BASED_PROPERTIES, true).put(group,
-				RelationProperties.TRUTH_TYPE, ttype);
+		version++;
+		int index = groupIndex.of(group);
+		this.groupProperties(froma, type, toa, index).put(index, RelationProperties.TRUTH_TYPE, ttype);
 	}
 
 	@Override
 	public UUID getInfoSource(IConcept from, IConceptRelationType type, IConcept to) {
-		return conceptGraph.getProperty(new GroupConceptNode(from), type, new GroupConceptNode(to),
+		return conceptGraph.getProperty(n(from), type, n(to),
 				RelationProperties.INFO_SOURCE, false);
 	}
 
 	@Override
 	public UUID groupGetInfoSource(IConcept from, IConceptRelationType type, IConcept to, IProfile group) {
-		GroupConceptNode froma = new GroupConceptNode(from);
-		GroupConceptNode toa = new GroupConceptNode(to);
+		IGroupConceptNode froma = n(from);
+		IGroupConceptNode toa = n(to);
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
 		if (!groupKnowsConcept(to, group))
 			throw new NodeNotFoundException(to);
-		Table<IProfile, IProperty<?>, Object> props = conceptGraph.getProperty(froma, type, toa, GROUP_BASED_PROPERTIES,
-				false);
+		GroupRelationProperties props = conceptGraph.getProperty(froma, type, toa, GROUP_BASED_PROPERTIES, false);
 		if (props == null)
 			return null;
-		return (UUID) props.get(group, RelationProperties.INFO_SOURCE);
+		return props.get(groupIndex.find(group), RelationProperties.INFO_SOURCE);
 	}
 
 	@Override
 	public void setInfoSource(IConcept from, IConceptRelationType type, IConcept to, UUID source) {
-		conceptGraph.setProperty(new GroupConceptNode(from), type, new GroupConceptNode(to),
+		version++;
+		conceptGraph.setProperty(n(from), type, n(to),
 				RelationProperties.INFO_SOURCE, source);
 	}
 
 	@Override
 	public void groupSetInfoSource(IConcept from, IConceptRelationType type, IConcept to, UUID source, IProfile group) {
-		GroupConceptNode froma = new GroupConceptNode(from);
-		GroupConceptNode toa = new GroupConceptNode(to);
+		IGroupConceptNode froma = n(from);
+		IGroupConceptNode toa = n(to);
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
 		if (!groupKnowsConcept(to, group))
 			throw new NodeNotFoundException(to);
-		conceptGraph.getProperty(froma, type, toa, GROUP_BASED_PROPERTIES, true).put(group,
-				RelationProperties.INFO_SOURCE, source);
+		version++;
+		int index = groupIndex.of(group);
+		this.groupProperties(froma, type, toa, index).put(index, RelationProperties.INFO_SOURCE, source);
 	}
 
 	@Override
 	public float getConfidence(IConcept from, IConceptRelationType type, IConcept to) {
-		Float f = conceptGraph.getProperty(new GroupConceptNode(from), type, new GroupConceptNode(to),
+		Float f = conceptGraph.getProperty(n(from), type, n(to),
 				RelationProperties.CONFIDENCE, false);
 		if (f == null)
 			return 1f;
@@ -935,17 +1181,16 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 
 	@Override
 	public float groupGetConfidence(IConcept from, IConceptRelationType type, IConcept to, IProfile group) {
-		GroupConceptNode froma = new GroupConceptNode(from);
-		GroupConceptNode toa = new GroupConceptNode(to);
+		IGroupConceptNode froma = n(from);
+		IGroupConceptNode toa = n(to);
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
 		if (!groupKnowsConcept(to, group))
 			throw new NodeNotFoundException(to);
-		Table<IProfile, IProperty<?>, Object> props = conceptGraph.getProperty(froma, type, toa, GROUP_BASED_PROPERTIES,
-				false);
+		GroupRelationProperties props = conceptGraph.getProperty(froma, type, toa, GROUP_BASED_PROPERTIES, false);
 		if (props == null)
 			return 1f;
-		Float f = (Float) props.get(group, RelationProperties.CONFIDENCE);
+		Float f = props.get(groupIndex.find(group), RelationProperties.CONFIDENCE);
 		if (f == null)
 			return 1f;
 		return f;
@@ -953,7 +1198,7 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 
 	@Override
 	public long getMemoryAccessCount(IConcept from, IConceptRelationType type, IConcept to) {
-		Long f = conceptGraph.getProperty(new GroupConceptNode(from), type, new GroupConceptNode(to),
+		Long f = conceptGraph.getProperty(n(from), type, n(to),
 				RelationProperties.ACCESS_COUNT, false);
 		if (f == null)
 			return 0;
@@ -962,17 +1207,16 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 
 	@Override
 	public long groupGetMemoryAccessCount(IConcept from, IConceptRelationType type, IConcept to, IProfile group) {
-		GroupConceptNode froma = new GroupConceptNode(from);
-		GroupConceptNode toa = new GroupConceptNode(to);
+		IGroupConceptNode froma = n(from);
+		IGroupConceptNode toa = n(to);
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
 		if (!groupKnowsConcept(to, group))
 			throw new NodeNotFoundException(to);
-		Table<IProfile, IProperty<?>, Object> props = conceptGraph.getProperty(froma, type, toa, GROUP_BASED_PROPERTIES,
-				false);
+		GroupRelationProperties props = conceptGraph.getProperty(froma, type, toa, GROUP_BASED_PROPERTIES, false);
 		if (props == null)
 			return 0;
-		Integer f = (Integer) props.get(group, RelationProperties.ACCESS_COUNT);
+		Long f = props.get(groupIndex.find(group), RelationProperties.ACCESS_COUNT);
 		if (f == null)
 			return 0;
 		return f;
@@ -980,7 +1224,7 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 
 	@Override
 	public void setMemoryAccessCount(IConcept from, IConceptRelationType type, IConcept to, long amount) {
-		conceptGraph.setProperty(new GroupConceptNode(from), type, new GroupConceptNode(to),
+		conceptGraph.setProperty(n(from), type, n(to),
 				RelationProperties.ACCESS_COUNT, amount);
 	}
 
@@ -988,14 +1232,14 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 	public void groupSetMemoryAccessCount(IConcept from, IConceptRelationType type, IConcept to, long val,
 			IProfile group) {
 
-		GroupConceptNode froma = new GroupConceptNode(from);
-		GroupConceptNode toa = new GroupConceptNode(to);
+		IGroupConceptNode froma = n(from);
+		IGroupConceptNode toa = n(to);
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
 		if (!groupKnowsConcept(to, group))
 			throw new NodeNotFoundException(to);
-		conceptGraph.getProperty(froma, type, toa, GROUP_BASED_PROPERTIES, true).put(group,
-				RelationProperties.ACCESS_COUNT, val);
+		int index = groupIndex.of(group);
+		this.groupProperties(froma, type, toa, index).put(index, RelationProperties.ACCESS_COUNT, val);
 	}
 
 	@Override
@@ -1005,18 +1249,18 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 
 	@Override
 	public void groupAccessNTimes(IConcept from, IConceptRelationType type, IConcept to, int times, IProfile group) {
-		GroupConceptNode froma = new GroupConceptNode(from);
-		GroupConceptNode toa = new GroupConceptNode(to);
+		IGroupConceptNode froma = n(from);
+		IGroupConceptNode toa = n(to);
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
 		if (!groupKnowsConcept(to, group))
 			throw new NodeNotFoundException(to);
-		Table<IProfile, IProperty<?>, Object> props = conceptGraph.getProperty(froma, type, toa, GROUP_BASED_PROPERTIES,
-				true);
-		Integer oldCount = (Integer) props.get(group, RelationProperties.ACCESS_COUNT);
+		int index = groupIndex.of(group);
+		GroupRelationProperties props = this.groupProperties(froma, type, toa, index);
+		Long oldCount = props.get(index, RelationProperties.ACCESS_COUNT);
 		if (oldCount == null)
-			oldCount = 0;
-		props.put(group, RelationProperties.ACCESS_COUNT, oldCount + times);
+			oldCount = 0L;
+		props.put(index, RelationProperties.ACCESS_COUNT, oldCount + times);
 	}
 
 	@Override
@@ -1027,7 +1271,8 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 		if (val > 1f) {
 			throw new IllegalArgumentException("Cannot have confidence value > 1");
 		}
-		conceptGraph.setProperty(new GroupConceptNode(from), type, new GroupConceptNode(to),
+		version++;
+		conceptGraph.setProperty(n(from), type, n(to),
 				RelationProperties.CONFIDENCE, val);
 	}
 
@@ -1039,20 +1284,21 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 		if (val > 1f) {
 			throw new IllegalArgumentException("Cannot have confidence value > 1");
 		}
-		GroupConceptNode froma = new GroupConceptNode(from);
-		GroupConceptNode toa = new GroupConceptNode(to);
+		IGroupConceptNode froma = n(from);
+		IGroupConceptNode toa = n(to);
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
 		if (!groupKnowsConcept(to, group))
 			throw new NodeNotFoundException(to);
-		conceptGraph.getProperty(froma, type, toa, GROUP_BASED_PROPERTIES, true).put(group,
-				RelationProperties.CONFIDENCE, val);
+		version++;
+		int index = groupIndex.of(group);
+		this.groupProperties(froma, type, toa, index).put(index, RelationProperties.CONFIDENCE, val);
 	}
 
 	@Override
 	public float getSocialBondValue(IConcept from, ISocialBondTrait trait, IConcept to) {
-		Float f = conceptGraph.getProperty(new GroupConceptNode(from), ProfileInterrelationType.HAS_SOCIAL_BOND_TO,
-				new GroupConceptNode(to), RelationProperties.CONFIDENCE, false);
+		Float f = conceptGraph.getProperty(n(from), ProfileInterrelationType.HAS_SOCIAL_BOND_TO,
+				n(to), RelationProperties.CONFIDENCE, false);
 		if (f == null)
 			return 1f;
 		return f;
@@ -1060,38 +1306,41 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 
 	@Override
 	public void setSocialBondValue(IConcept from, ISocialBondTrait trait, IConcept to, float value) {
-		conceptGraph.setProperty(new GroupConceptNode(from), ProfileInterrelationType.HAS_SOCIAL_BOND_TO,
-				new GroupConceptNode(to), trait, value);
+		version++;
+		conceptGraph.setProperty(n(from), ProfileInterrelationType.HAS_SOCIAL_BOND_TO,
+				n(to), trait, value);
 	}
 
 	@Override
 	public void setOpposite(IConcept focus, IConceptRelationType hasTrait, IConcept key) {
-		conceptGraph.addEdge(new GroupConceptNode(focus), hasTrait, new GroupConceptNode(key));
-		conceptGraph.setProperty(new GroupConceptNode(focus), hasTrait, new GroupConceptNode(key),
+		version++;
+		conceptGraph.addEdge(n(focus), hasTrait, n(key));
+		conceptGraph.setProperty(n(focus), hasTrait, n(key),
 				RelationProperties.OPPOSITE, true);
 	}
 
 	@Override
 	public void groupSetOpposite(IConcept from, IConceptRelationType type, IConcept to, IProfile group) {
-		GroupConceptNode froma = new GroupConceptNode(from);
-		GroupConceptNode toa = new GroupConceptNode(to);
+		IGroupConceptNode froma = n(from);
+		IGroupConceptNode toa = n(to);
 		if (!groupKnowsConcept(from, group))
 			throw new NodeNotFoundException(from);
 		if (!groupKnowsConcept(to, group))
 			throw new NodeNotFoundException(to);
+		version++;
 		if (!this.groupHasAnyValenceRelation(from, type, to, group))
 			this.groupAddConfidentRelation(from, type, to, group);
-		conceptGraph.getProperty(froma, type, toa, GROUP_BASED_PROPERTIES, true).put(group, RelationProperties.OPPOSITE,
-				true);
+		int index = groupIndex.of(group);
+		this.groupProperties(froma, type, toa, index).put(index, RelationProperties.OPPOSITE, true);
 	}
 
 	@Override
 	public float groupGetDistance(IConcept prf, IProfile group) {
 		if (groupIs(prf, KnowledgeRelationType.EXISTS_IN, IConcept.ENVIRONMENT, group)) {
 			Object val = conceptGraph
-					.getProperty(new GroupConceptNode(prf), KnowledgeRelationType.EXISTS_IN,
-							new GroupConceptNode(IConcept.ENVIRONMENT), GROUP_BASED_PROPERTIES)
-					.get(group, RelationProperties.DISTANCE);
+					.getProperty(n(prf), KnowledgeRelationType.EXISTS_IN,
+							n(IConcept.ENVIRONMENT), GROUP_BASED_PROPERTIES)
+					.get(groupIndex.find(group), RelationProperties.DISTANCE);
 			if (val instanceof Float) {
 				return (Float) val;
 			}
@@ -1103,10 +1352,10 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 
 	@Override
 	public float getDistance(IConcept prf) {
-		if (conceptGraph.containsEdge(new GroupConceptNode(prf), KnowledgeRelationType.EXISTS_IN,
-				new GroupConceptNode(IConcept.ENVIRONMENT))) {
-			return conceptGraph.getProperty(new GroupConceptNode(prf), KnowledgeRelationType.EXISTS_IN,
-					new GroupConceptNode(IConcept.ENVIRONMENT), RelationProperties.DISTANCE);
+		if (conceptGraph.containsEdge(n(prf), KnowledgeRelationType.EXISTS_IN,
+				n(IConcept.ENVIRONMENT))) {
+			return conceptGraph.getProperty(n(prf), KnowledgeRelationType.EXISTS_IN,
+					n(IConcept.ENVIRONMENT), RelationProperties.DISTANCE);
 		}
 		return -1;
 	}
@@ -1114,29 +1363,31 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 	@Override
 	public void groupSetDistance(IConcept prf, float distance, IProfile group) {
 
-		GroupConceptNode fromN = new GroupConceptNode(IConcept.ENVIRONMENT);
-		GroupConceptNode toN = new GroupConceptNode(prf);
+		IGroupConceptNode fromN = n(IConcept.ENVIRONMENT);
+		IGroupConceptNode toN = n(prf);
 		if (!this.conceptGraph.contains(fromN))
 			this.conceptGraph.add(fromN);
 		if (!this.conceptGraph.contains(toN))
 			this.conceptGraph.add(toN);
 
 		this.conceptGraph.addEdge(toN, KnowledgeRelationType.EXISTS_IN, fromN);
-		conceptGraph.getProperty(toN, KnowledgeRelationType.EXISTS_IN, fromN, REL_GROUPS, true).add(group);
-		conceptGraph.getProperty(toN, KnowledgeRelationType.EXISTS_IN, fromN, GROUP_BASED_PROPERTIES, true).put(group,
-				RelationProperties.STORAGE_TYPE, StorageType.CONFIDENT);
-		conceptGraph.getProperty(toN, KnowledgeRelationType.EXISTS_IN, fromN, GROUP_BASED_PROPERTIES, true).put(group,
-				RelationProperties.DISTANCE, distance);
+		this.addRelationToGroup(toN, KnowledgeRelationType.EXISTS_IN, fromN, group);
+		version++;
+		int index = groupIndex.of(group);
+		GroupRelationProperties gbp = this.groupProperties(toN, KnowledgeRelationType.EXISTS_IN, fromN, index);
+		gbp.put(index, RelationProperties.STORAGE_TYPE, StorageType.CONFIDENT);
+		gbp.put(index, RelationProperties.DISTANCE, distance);
 
 	}
 
 	@Override
 	public void setDistance(IConcept prf, float distance) {
-		conceptGraph.add(new GroupConceptNode(IConcept.ENVIRONMENT));
-		conceptGraph.addEdge(new GroupConceptNode(prf), KnowledgeRelationType.EXISTS_IN,
-				new GroupConceptNode(IConcept.ENVIRONMENT));
-		conceptGraph.setProperty(new GroupConceptNode(prf), KnowledgeRelationType.EXISTS_IN,
-				new GroupConceptNode(IConcept.ENVIRONMENT), RelationProperties.DISTANCE, distance);
+		version++;
+		conceptGraph.add(new GroupConceptNode(IConcept.ENVIRONMENT, groupIndex));
+		conceptGraph.addEdge(n(prf), KnowledgeRelationType.EXISTS_IN,
+				n(IConcept.ENVIRONMENT));
+		conceptGraph.setProperty(n(prf), KnowledgeRelationType.EXISTS_IN,
+				n(IConcept.ENVIRONMENT), RelationProperties.DISTANCE, distance);
 	}
 
 	@Override
@@ -1152,27 +1403,97 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 
 	@Override
 	public void addConceptNodeSubgraph(IRelationGraph<? extends IConceptNode, IConceptRelationType> graph) {
+		version++;
 		if (!graph.stream().allMatch((c) -> c instanceof IGroupConceptNode)) {
 			throw new IllegalArgumentException("Trying to add non-groupNode subgraph: " + graph.representation()
 					+ " \nto this: " + this.conceptGraph.representation());
 		}
-		conceptGraph.addAll((IRelationGraph<GroupConceptNode, IConceptRelationType>) graph);
+		IRelationGraph<IGroupConceptNode, IConceptRelationType> nodes = (IRelationGraph<IGroupConceptNode, IConceptRelationType>) graph;
+		// count the groups of nodes which are new here
+		for (IGroupConceptNode node : nodes) {
+			if (!conceptGraph.contains(node)) {
+				for (IProfile group : node.knownByGroups()) {
+					this.changeGroupNodeCount(group, 1);
+				}
+			}
+		}
+		// relations which are new here and whose groups are numbered by another
+		// noosphere's index
+		List<Triplet<IGroupConceptNode, IConceptRelationType, IGroupConceptNode>> foreign = new ArrayList<>();
+		nodes.edgeIterator().forEachRemaining((edge) -> {
+			if (edge.getFirst().getGroupIndex() != groupIndex && !conceptGraph.containsEdge(edge.getFirst(),
+					edge.getSecond(), edge.getThird()))
+				foreign.add(edge);
+		});
+		conceptGraph.addAll(nodes.mapCopy(this::adopt, Function.identity()));
+		for (Triplet<IGroupConceptNode, IConceptRelationType, IGroupConceptNode> edge : foreign) {
+			this.adoptRelation(edge.getFirst(), edge.getSecond(), edge.getThird(), edge.getFirst().getGroupIndex());
+		}
+	}
+
+	/**
+	 * Return this node if its groups are numbered by this noosphere's index or it
+	 * is already here, or otherwise a copy numbered by this noosphere's index
+	 */
+	private IGroupConceptNode adopt(IGroupConceptNode node) {
+		if (node.getGroupIndex() == groupIndex || conceptGraph.contains(node))
+			return node;
+		IGroupConceptNode own = new GroupConceptNode(node.getConcept(), node.getStorageType(), groupIndex);
+		for (IProfile group : node.knownByGroups()) {
+			StorageType type = node.getStorageTypeForGroup(group);
+			if (type == StorageType.CONFIDENT)
+				own.addToGroup(group);
+			else
+				own.setStorageTypeForGroup(group, type);
+		}
+		return own;
+	}
+
+	/**
+	 * Renumber the group-based properties of a relation just added from a graph
+	 * whose groups were numbered by the given index, and count it for its groups
+	 */
+	private void adoptRelation(IGroupConceptNode from, IConceptRelationType type, IGroupConceptNode to,
+			GroupIndex source) {
+		BitSet groups = conceptGraph.getProperty(from, type, to, REL_GROUPS);
+		GroupRelationProperties gbp = conceptGraph.getProperty(from, type, to, GROUP_BASED_PROPERTIES);
+		if (groups != null)
+			conceptGraph.setProperty(from, type, to, REL_GROUPS, new BitSet());
+		if (groups != null && source != null) {
+			for (int i = groups.nextSetBit(0); i >= 0; i = groups.nextSetBit(i + 1)) {
+				IProfile group = source.get(i);
+				if (group != null)
+					this.addRelationToGroup(from, type, to, group);
+			}
+		}
+		if (gbp != null) {
+			GroupRelationProperties own = source == null ? new GroupRelationProperties()
+					: gbp.remap(groupIndex.mappingFrom(source));
+			conceptGraph.setProperty(from, type, to, GROUP_BASED_PROPERTIES, own);
+			this.noteHolder(own);
+		}
 	}
 
 	@Override
 	public void learnConceptSubgraph(IRelationGraph<IConcept, IConceptRelationType> graph) {
-		conceptGraph.addAll(graph.mapCopy(GroupConceptNode::new, Function.identity()));
+		version++;
+		conceptGraph.addAll(graph.mapCopy((c) -> new GroupConceptNode(c, groupIndex), Function.identity()));
 	}
 
 	@Override
 	public void groupsLearnConceptSubgraph(IRelationGraph<IConcept, IConceptRelationType> graph,
 			Collection<? extends IProfile> groups) {
 		IModifiableRelationGraph<GroupConceptNode, IConceptRelationType> copyGraph = graph
-				.mappedEditableCopy(GroupConceptNode::new, Function.identity());
-		copyGraph.edgeIterator().forEachRemaining((edge) -> copyGraph
-				.getProperty(edge.getFirst(), edge.getSecond(), edge.getThird(), REL_GROUPS, true).addAll(groups));
-		groups.forEach((group) -> copyGraph.forEach((nod) -> nod.addToGroup(group)));
+				.mappedEditableCopy((c) -> new GroupConceptNode(c, groupIndex), Function.identity());
 		this.conceptGraph.addAll(copyGraph);
+		for (IProfile group : groups) {
+			copyGraph.forEach((nod) -> {
+				if (conceptGraph.get(nod).addToGroup(group))
+					this.changeGroupNodeCount(group, 1);
+			});
+			copyGraph.edgeIterator().forEachRemaining(
+					(edge) -> this.addRelationToGroup(edge.getFirst(), edge.getSecond(), edge.getThird(), group));
+		}
 	}
 
 	@Override
@@ -1183,17 +1504,26 @@ public class NoosphereKnowledgeBase implements INoosphereKnowledgeBase {
 		} catch (CloneNotSupportedException e) {
 			throw new RuntimeException(e);
 		}
-		base.conceptGraph = this.conceptGraph.deepCopy(IGroupConceptNode::copy);
+		base.groupIndex = this.groupIndex.copy();
+		base.conceptGraph = this.conceptGraph.deepCopy((node) -> node.copy(base.groupIndex));
+		base.conceptGraph.owner = base;
 		base.immutableView = ImmutableGraphView.of(base.conceptGraph);
-		base.containedGroups = new HashMap<IProfile, Pair<Integer, Integer>>(
-				Maps.<IProfile, Pair<Integer, Integer>>asMap(this.containedGroups.keySet(),
-						(prof) -> containedGroups.get(prof).clone()));
+		base.containedGroups = (BitSet) this.containedGroups.clone();
+		base.groupNodeCounts = this.groupNodeCounts.clone();
+		base.groupEdgeCounts = this.groupEdgeCounts.clone();
+		base.groupPropertyHolders = new ArrayList<>();
+		base.conceptGraph.edgeIterator().forEachRemaining((edge) -> {
+			GroupRelationProperties gbp = base.conceptGraph.getProperty(edge.getFirst(), edge.getSecond(),
+					edge.getThird(), GROUP_BASED_PROPERTIES);
+			if (gbp != null)
+				base.noteHolder(gbp);
+		});
 		return base;
 	}
 
 	@Override
 	public String toString() {
-		return this.getClass().getSimpleName() + "{groups=" + this.containedGroups + ",knowledge=" + this.conceptGraph
+		return this.getClass().getSimpleName() + "{groups=" + this.allGroups() + ",knowledge=" + this.conceptGraph
 				+ "}";
 	}
 
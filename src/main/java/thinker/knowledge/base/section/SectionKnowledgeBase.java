@@ -59,6 +59,11 @@ public class SectionKnowledgeBase implements ISectionKnowledgeBase {
 		return noosphere.groupKnowsConcept(concept, self);
 	}
 
+	@Override
+	public long getVersion() {
+		return noosphere.getVersion();
+	}
+
 	@Override
 	public StorageType getStorageType(IConcept concept) {
 		return noosphere.groupGetStorageType(concept, self);
@@ -1,8 +1,7 @@
 package thinker.knowledge.node;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Set;
 
 import thinker.concepts.IConcept;
@@ -11,71 +10,148 @@ import thinker.mind.memory.StorageType;
 
 public class GroupConceptNode extends ConceptNode implements IGroupConceptNode {
 
-	private Map<IProfile, StorageType> groups;
+	/**
+	 * the index of the noosphere this node belongs to, or null for a node which is
+	 * only used to look up or view concepts and is known by no group
+	 */
+	private GroupIndex index;
+	/** the groups which know this concept, by {@link #index} */
+	private BitSet groups;
+	/** storage type of this concept for each group; null means confident */
+	private StorageType[] storageTypes;
+	/** number of relations of this concept each group knows */
+	private int[] relationCounts;
 
 	public GroupConceptNode(IConcept internal) {
 		this(internal, StorageType.CONFIDENT);
 	}
 
 	public GroupConceptNode(IConcept internal, StorageType storageType) {
+		this(internal, storageType, null);
+	}
+
+	public GroupConceptNode(IConcept internal, GroupIndex index) {
+		this(internal, StorageType.CONFIDENT, index);
+	}
+
+	public GroupConceptNode(IConcept internal, StorageType storageType, GroupIndex index) {
 		super(internal, storageType);
+		this.index = index;
 	}
 
-	/** initializes groups if it is not initialized */
-	private Map<IProfile, StorageType> wgroups() {
-		if (groups == null)
-			groups = new HashMap<>();
-		return groups;
+	/** returns the group index, if this node has one */
+	private GroupIndex windex() {
+		if (index == null)
+			throw new IllegalStateException("Node is not in a noosphere: " + this);
+		return index;
 	}
 
-	/** return the collections empmty map if groups is not initialized */
-	private Map<IProfile, StorageType> rgroups() {
+	@Override
+	public GroupIndex getGroupIndex() {
+		return index;
+	}
+
+	/** initializes groups if it is not initialized */
+	private BitSet wgroups() {
 		if (groups == null)
-			return Collections.emptyMap();
+			groups = new BitSet();
 		return groups;
 	}
 
 	@Override
 	public Set<IProfile> knownByGroups() {
-		return rgroups().keySet();
+		if (index == null)
+			return Set.of();
+		return index.asSet(groups);
+	}
+
+	@Override
+	public boolean unknownToAll() {
+		return groups == null || groups.isEmpty();
 	}
 
 	@Override
 	public boolean addToGroup(IProfile groupProfile) {
-		return wgroups().put(groupProfile, wgroups().getOrDefault(groupProfile, StorageType.CONFIDENT)) == null;
+		int i = windex().of(groupProfile);
+		if (wgroups().get(i))
+			return false;
+		groups.set(i);
+		return true;
 	}
 
 	@Override
 	public boolean removeFromGroup(IProfile groupProfile) {
-		if (groups == null)
+		if (index == null)
 			return false;
-		return groups.remove(groupProfile) != null;
+		int i = index.find(groupProfile);
+		if (groups == null || i < 0 || !groups.get(i))
+			return false;
+		groups.clear(i);
+		if (storageTypes != null && i < storageTypes.length)
+			storageTypes[i] = null;
+		return true;
 	}
 
 	@Override
 	public boolean knownByGroup(IProfile group) {
-		return rgroups().containsKey(group);
+		if (index == null || groups == null)
+			return false;
+		int i = index.find(group);
+		return i >= 0 && groups.get(i);
 	}
 
 	@Override
 	public StorageType getStorageTypeForGroup(IProfile profile) {
-		return rgroups().get(profile);
+		if (!knownByGroup(profile))
+			return null;
+		int i = index.find(profile);
+		if (storageTypes == null || i >= storageTypes.length || storageTypes[i] == null)
+			return StorageType.CONFIDENT;
+		return storageTypes[i];
 	}
 
 	public void setStorageTypeForGroup(IProfile profile, StorageType stype) {
-		wgroups().put(profile, stype);
+		int i = windex().of(profile);
+		wgroups().set(i);
+		if (storageTypes == null || i >= storageTypes.length) {
+			storageTypes = storageTypes == null ? new StorageType[i + 1] : Arrays.copyOf(storageTypes, i + 1);
+		}
+		storageTypes[i] = stype;
+	}
+
+	@Override
+	public int getGroupRelationCount(int groupIndex) {
+		if (relationCounts == null || groupIndex >= relationCounts.length)
+			return 0;
+		return relationCounts[groupIndex];
+	}
+
+	@Override
+	public void changeGroupRelationCount(int groupIndex, int by) {
+		if (relationCounts == null || groupIndex >= relationCounts.length) {
+			relationCounts = relationCounts == null ? new int[groupIndex + 1]
+					: Arrays.copyOf(relationCounts, groupIndex + 1);
+		}
+		relationCounts[groupIndex] += by;
 	}
 
 	@Override
 	public GroupConceptNode copy() {
-		GroupConceptNode gcn = new GroupConceptNode(this.getConcept(), getStorageType());
-		gcn.groups = new HashMap<>(this.groups);
+		return copy(index);
+	}
+
+	@Override
+	public GroupConceptNode copy(GroupIndex index) {
+		GroupConceptNode gcn = new GroupConceptNode(this.getConcept(), getStorageType(), index);
+		gcn.groups = this.groups == null ? null : (BitSet) this.groups.clone();
+		gcn.storageTypes = this.storageTypes == null ? null : this.storageTypes.clone();
+		gcn.relationCounts = this.relationCounts == null ? null : this.relationCounts.clone();
 		return gcn;
 	}
 
 	@Override
 	public String toString() {
 		return this.getConcept() + "[" + this.getStorageType().name().charAt(0) + "]("
-				+ (this.groups == null ? 0 : this.groups.keySet().size()) + ")";
+				+ (this.groups == null ? 0 : this.groups.cardinality()) + ")";
 	}
 }
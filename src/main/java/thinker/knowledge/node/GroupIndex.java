@@ -0,0 +1,183 @@
+package thinker.knowledge.node;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import thinker.concepts.profile.IProfile;
+
+/**
+ * Gives every group which knows something in a noosphere a small dense index,
+ * so that the groups knowing a concept or relation can be stored as a
+ * {@link BitSet} and per-group values as arrays. Each noosphere owns its own
+ * index (copied along with it), and the index of a group which no longer knows
+ * anything is released and given to the next new group, so the bitsets and
+ * arrays stay as small as the number of live groups.
+ *
+ * @author borah
+ *
+ */
+public final class GroupIndex {
+
+	private final Map<IProfile, Integer> indices;
+	/** every indexed group, at its index; null at released indices */
+	private final List<IProfile> groups;
+	/** released indices, to be reused */
+	private final BitSet free;
+
+	public GroupIndex() {
+		this.indices = new HashMap<>();
+		this.groups = new ArrayList<>();
+		this.free = new BitSet();
+	}
+
+	private GroupIndex(GroupIndex from) {
+		this.indices = new HashMap<>(from.indices);
+		this.groups = new ArrayList<>(from.groups);
+		this.free = (BitSet) from.free.clone();
+	}
+
+	/**
+	 * Return a copy of this index, with every group at the same index, for a copy
+	 * of the noosphere which owns it
+	 *
+	 * @return
+	 */
+	public GroupIndex copy() {
+		return new GroupIndex(this);
+	}
+
+	/**
+	 * Return the index of this group, giving it one if it has none (reusing a
+	 * released index if there is one)
+	 *
+	 * @param group
+	 * @return
+	 */
+	public int of(IProfile group) {
+		Integer index = indices.get(group);
+		if (index != null)
+			return index;
+		int fresh = free.nextSetBit(0);
+		if (fresh >= 0) {
+			free.clear(fresh);
+			groups.set(fresh, group);
+		} else {
+			fresh = groups.size();
+			groups.add(group);
+		}
+		indices.put(group, fresh);
+		return fresh;
+	}
+
+	/**
+	 * Return the index of this group, or -1 if it has none (in which case nothing
+	 * is known by it)
+	 *
+	 * @param group
+	 * @return
+	 */
+	public int find(Object group) {
+		Integer index = indices.get(group);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * Return the group with this index, or null if the index is not in use
+	 *
+	 * @param index
+	 * @return
+	 */
+	public IProfile get(int index) {
+		return index < 0 || index >= groups.size() ? null : groups.get(index);
+	}
+
+	/**
+	 * Release the index of this group, which must no longer be set in any bitset
+	 * or array, so that a later group can take it
+	 *
+	 * @param index
+	 */
+	public void release(int index) {
+		IProfile group = get(index);
+		if (group == null)
+			return;
+		indices.remove(group);
+		groups.set(index, null);
+		free.set(index);
+	}
+
+	/**
+	 * Return, for each index of the other group index, the index of the same group
+	 * in this one, or -1 where the other index is unused or its group has no index
+	 * here
+	 *
+	 * @param other
+	 * @return
+	 */
+	public int[] mappingFrom(GroupIndex other) {
+		int[] map = new int[other.groups.size()];
+		for (int i = 0; i < map.length; i++) {
+			IProfile group = other.groups.get(i);
+			map[i] = group == null ? -1 : this.find(group);
+		}
+		return map;
+	}
+
+	/**
+	 * Return a view of the set of groups whose indices are set in the given bits
+	 * (which may be null, for no groups)
+	 *
+	 * @param bits
+	 * @return
+	 */
+	public Set<IProfile> asSet(BitSet bits) {
+		if (bits == null)
+			return Set.of();
+		return new AbstractSet<>() {
+			@Override
+			public boolean contains(Object o) {
+				int index = find(o);
+				return index >= 0 && bits.get(index);
+			}
+
+			@Override
+			public boolean isEmpty() {
+				return bits.isEmpty();
+			}
+
+			@Override
+			public int size() {
+				return bits.cardinality();
+			}
+
+			@Override
+			public Iterator<IProfile> iterator() {
+				return new Iterator<>() {
+					private int next = bits.nextSetBit(0);
+
+					@Override
+					public boolean hasNext() {
+						return next >= 0;
+					}
+
+					@Override
+					public IProfile next() {
+						if (next < 0)
+							throw new NoSuchElementException();
+						IProfile group = get(next);
+						next = bits.nextSetBit(next + 1);
+						return group;
+					}
+				};
+			}
+		};
+	}
+
+}
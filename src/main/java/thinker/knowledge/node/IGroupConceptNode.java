@@ -55,6 +55,16 @@ public interface IGroupConceptNode extends IConceptNode {
 			return false;
 		}
 
+		@Override
+		public int getGroupRelationCount(int groupIndex) {
+			return 0;
+		}
+
+		@Override
+		public void changeGroupRelationCount(int groupIndex, int by) {
+
+		}
+
 		@Override
 		public IConcept getConcept() {
 			return null;
@@ -78,6 +88,16 @@ public interface IGroupConceptNode extends IConceptNode {
 			return this;
 		}
 
+		@Override
+		public IGroupConceptNode copy(GroupIndex index) {
+			return this;
+		}
+
+		@Override
+		public GroupIndex getGroupIndex() {
+			return null;
+		}
+
 		@Override
 		public String toString() {
 			return "_null_";
@@ -129,8 +149,44 @@ public interface IGroupConceptNode extends IConceptNode {
 	 */
 	public StorageType getStorageTypeForGroup(IProfile profile);
 
+	/**
+	 * The number of relations of this concept known by the group with the given
+	 * {@link GroupIndex}
+	 * 
+	 * @param groupIndex
+	 * @return
+	 */
+	public int getGroupRelationCount(int groupIndex);
+
+	/**
+	 * Change the number of relations of this concept known by the group with the
+	 * given {@link GroupIndex}; done by the noosphere as relations are learned and
+	 * forgotten
+	 * 
+	 * @param groupIndex
+	 * @param by
+	 */
+	public void changeGroupRelationCount(int groupIndex, int by);
+
 	public IGroupConceptNode copy();
 
+	/**
+	 * Copy this node for a noosphere whose {@link GroupIndex} numbers groups the
+	 * same way this node's does, e.g. a copy of this node's noosphere
+	 * 
+	 * @param index
+	 * @return
+	 */
+	public IGroupConceptNode copy(GroupIndex index);
+
+	/**
+	 * The index of the noosphere which this node's group data is stored by, or
+	 * null if no group can know this node
+	 * 
+	 * @return
+	 */
+	public GroupIndex getGroupIndex();
+
 	public void setStorageTypeForGroup(IProfile forGroup, StorageType type);
 
 }
@@ -6,8 +6,9 @@ import java.util.Set;
 import _utilities.collections.FilteredCollectionView;
 import _utilities.collections.ImmutableMappedCollection;
 import _utilities.collections.MappedCollection;
+import _utilities.graph.GraphBackend;
 import _utilities.graph.IInvertibleRelationType;
-import _utilities.graph.RelationGraph;
+import _utilities.graph.IModifiableRelationGraph;
 import _utilities.property.IProperty;
 import thinker.concepts.IConcept;
 import thinker.language.rules.ILFeature;
@@ -17,7 +18,21 @@ public class Lexicon implements ILexicon {
 	/** whether a feature is negative */
 	private static final IProperty<Boolean> NEGATIVE = IProperty.make("negative", boolean.class, false);
 
-	private RelationGraph<IConcept, LexicalRelation> graph = new RelationGraph<>();
+	private IModifiableRelationGraph<IConcept, LexicalRelation> graph;
+
+	public Lexicon() {
+		this(GraphBackend.HASHED);
+	}
+
+	/**
+	 * Create a lexicon whose words and concepts are stored in a graph of the given
+	 * backend
+	 *
+	 * @param backend
+	 */
+	public Lexicon(GraphBackend backend) {
+		this.graph = backend.create();
+	}
 
 	@Override
 	public boolean equals(Object obj) {
@@ -65,14 +65,13 @@ public class MemoryBase extends IndividualKnowledgeBase implements IMindKnowledg
 				.map((p) -> p.getEffectInstance(BasicStatusEffect.SLEEP)).orElse(null);
 		if (effect != null) { // if we are sleeping
 			Set<Triplet<IConceptNode, IConceptRelationType, IConceptNode>> edgesToRemove = new HashSet<>();
-			for (Triplet<IConceptNode, IConceptRelationType, IConceptNode> edge : this.conceptGraph.edgeCollection()) {
-				if (this.getStorageTypeOfRelation(edge.getEdgeStart().getConcept(), edge.getEdgeType(),
-						edge.getEdgeEnd().getConcept()) == StorageType.TEMPORARY) {
-					edgesToRemove.add(edge);
+			this.conceptGraph.forEachEdge((start, type, end) -> {
+				if (this.getStorageTypeOfRelation(start.getConcept(), type,
+						end.getConcept()) == StorageType.TEMPORARY) {
+					edgesToRemove.add(Triplet.of(start, type, end));
 				}
-				if (info.gameMap().random() < 1 - effect.intensity())
-					break;
-			}
+				return info.gameMap().random() >= 1 - effect.intensity();
+			});
 			edgesToRemove.forEach((edge) -> this.removeRelation(edge.getEdgeStart().getConcept(), edge.getEdgeType(),
 					edge.getEdgeEnd().getConcept()));
 		}
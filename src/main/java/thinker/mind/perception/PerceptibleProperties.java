@@ -1,5 +1,6 @@
 package thinker.mind.perception;
 
+import _sim.plane.PlaneSet;
 import _sim.vectors.IVector;
 import _utilities.property.IProperty;
 
@@ -13,6 +14,6 @@ public class PerceptibleProperties {
 	/** The general distance of this Thing */
 	public static final IProperty<Double> DISTANCE = IProperty.make("distance", double.class, -1.0);
 	/** The planar extent of this Thing */
-	public static final IProperty<Integer> PLANES = IProperty.make("planes", int.class, 1);
+	public static final IProperty<PlaneSet> PLANES = IProperty.make("planes", PlaneSet.class, PlaneSet.NONE);
 
 }
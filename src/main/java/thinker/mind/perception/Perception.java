@@ -15,7 +15,6 @@ import com.google.common.collect.MultimapBuilder;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Table;
-import com.google.common.collect.Tables;
 
 import _utilities.property.IProperty;
 import things.actor.IActor;
@@ -35,21 +34,56 @@ import thinker.mind.will.thoughts.perception.NeedPerceptionThought;
 
 public class Perception implements IPerception {
 
-	private Table<UUID, IProperty<?>, Object> sensed;
+	/** Default number of ticks to keep what was sensed of an entity */
+	public static final int DEFAULT_SENSE_EXPIRY = 15;
+
+	/**
+	 * What has been sensed of one entity: the parts of it which can be sensed, the
+	 * perceptible properties sensed this tick, and knowledge sensed by each sensor.
+	 * This stays valid until the entity's form changes or it expires; the
+	 * perceptible properties (location, distance, etc) only last the tick they were
+	 * sensed in
+	 */
+	private static class SensedEntity {
+		private final IVisage<?> source;
+		private final long sourceStamp;
+		private final long tick;
+		private final IVisage<?> visage;
+		private Map<IProperty<?>, Object> properties;
+		private long propertiesTick;
+		private Table<ISensor, Boolean, Collection<IKnowledgeMedium>> knowledge = HashBasedTable.create();
+
+		private SensedEntity(IVisage<?> source, IVisage<?> visage, long tick) {
+			this.source = source;
+			this.sourceStamp = source.getChangeStamp();
+			this.visage = visage;
+			this.tick = tick;
+		}
+
+		private boolean isValid(IVisage<?> currentSource, long ticks, int expiry) {
+			return source == currentSource && sourceStamp == currentSource.getChangeStamp()
+					&& ticks - tick < expiry;
+		}
+
+		@Override
+		public String toString() {
+			return visage.toString();
+		}
+	}
 
 	private Multimap<IVisage<?>, ISensor> bySensor;
 	private SetMultimap<IComponentPart, ISensor> avSensors;
-	private Table<ISensor, UUID, Multimap<Boolean, IKnowledgeMedium>> knowledgeSensed;
 	private Map<IChannelNeed, Float> needs;
 	private Map<ISensation, Float> sensations;
 	private Map<ISensation, ISensationReceptor> sensationReceptors;
 	private Set<IPerceptor> blockages;
-	private Map<UUID, IVisage<?>> visagesByUUID;
+	private Map<UUID, SensedEntity> sensedEntities;
+	/** change stamp of the perceiver's own body when sensors were last checked */
+	private long ownStamp = -1;
+	private int senseExpiry = DEFAULT_SENSE_EXPIRY;
 
 	public Perception() {
-		sensed = Tables.synchronizedTable(HashBasedTable.create());
-		visagesByUUID = Collections.synchronizedMap(new HashMap<>());
-		knowledgeSensed = Tables.synchronizedTable(HashBasedTable.create());
+		sensedEntities = Collections.synchronizedMap(new HashMap<>());
 		avSensors = Multimaps.synchronizedSetMultimap(MultimapBuilder.hashKeys().hashSetValues().build());
 		bySensor = Multimaps.synchronizedSetMultimap(MultimapBuilder.hashKeys().hashSetValues().build());
 		blockages = Collections.synchronizedSet(new HashSet<>());
@@ -63,9 +97,46 @@ public class Perception implements IPerception {
 		return this;
 	}
 
+	/**
+	 * Set how many ticks what is sensed of an entity is kept before it is sensed
+	 * again, if nothing about the entity or this perceiver's sensors changes
+	 * 
+	 * @param ticks
+	 * @return
+	 */
+	public Perception setSenseExpiry(int ticks) {
+		if (ticks < 1)
+			throw new IllegalArgumentException(ticks + "");
+		this.senseExpiry = ticks;
+		return this;
+	}
+
+	/**
+	 * Return what is sensed of this entity, sensing it anew if it changed or the
+	 * last sensing of it expired
+	 */
+	private SensedEntity sense(UUID entity, IBeingAccess info) {
+		IActor actor = info.gameMap().getActorByUUID(entity);
+		SensedEntity sensing = sensedEntities.get(entity);
+		if (sensing == null || !sensing.isValid(actor.visage(), info.ticks(), senseExpiry)) {
+			PartialVisage pv = new PartialVisage(actor.visage());
+			for (IComponentPart part : this.avSensors.keySet()) {
+				for (ISensor sensor : this.avSensors.get(part)) {
+					pv.addSensableParts(sensor.sensableParts(actor.visage(),
+							info.maybeActor().orElseThrow(() -> new UnsupportedOperationException(
+									"Cannot sense parts of " + actor + " from nonexistent perceiver... " + info)),
+							part).getPartGraph());
+				}
+			}
+			sensing = new SensedEntity(actor.visage(), pv, info.ticks());
+			sensedEntities.put(entity, sensing);
+		}
+		return sensing;
+	}
+
 	@Override
 	public String toString() {
-		return this.getClass().getSimpleName() + "{x" + (!sensed.isEmpty() ? ", sensed=" + visagesByUUID : "")
+		return this.getClass().getSimpleName() + "{x" + (!sensedEntities.isEmpty() ? ", sensed=" + sensedEntities : "")
 				+ (!avSensors.isEmpty() ? ", availableSensors=" + avSensors : "")
 				+ (!needs.isEmpty() ? ", needs=" + needs : "")
 				+ (!sensations.isEmpty() ? ", sensations=" + sensations : "")
@@ -74,23 +145,29 @@ public class Perception implements IPerception {
 
 	@Override
 	public Collection<IProperty<?>> getPerceptibleProperties(UUID e, IBeingAccess info) {
-		if (sensed.row(e).keySet().isEmpty()) {
-			IVisage<?> visage = this.getVisageFor(e, info);
-			for (IComponentPart part : this.avSensors.keySet()) {
-				for (ISensor sensor : this.avSensors.get(part)) {
-					sensor.getPerceptibleProperties(visage, part).forEach((prop, val) -> sensed.put(e, prop, val));
+		return this.perceptibleProperties(e, info).keySet();
+	}
+
+	private Map<IProperty<?>, Object> perceptibleProperties(UUID e, IBeingAccess info) {
+		SensedEntity sensing = this.sense(e, info);
+		synchronized (sensing) {
+			if (sensing.properties == null || sensing.propertiesTick != info.ticks()) {
+				Map<IProperty<?>, Object> props = new HashMap<>();
+				for (IComponentPart part : this.avSensors.keySet()) {
+					for (ISensor sensor : this.avSensors.get(part)) {
+						props.putAll(sensor.getPerceptibleProperties(sensing.visage, part));
+					}
 				}
+				sensing.properties = props;
+				sensing.propertiesTick = info.ticks();
 			}
+			return sensing.properties;
 		}
-		return sensed.row(e).keySet();
 	}
 
 	@Override
 	public <T> T getPerceptibleProperty(UUID e, IProperty<T> property, IBeingAccess info) {
-		if (!sensed.contains(e, property)) {
-			this.getPerceptibleProperties(e, info);
-		}
-		return (T) sensed.get(e, property);
+		return (T) this.perceptibleProperties(e, info).get(property);
 	}
 
 	@Override
@@ -105,20 +182,7 @@ public class Perception implements IPerception {
 
 	@Override
 	public IVisage<?> getVisageFor(UUID entity, IBeingAccess info) {
-		if (!visagesByUUID.containsKey(entity)) {
-			IActor actor = info.gameMap().getActorByUUID(entity);
-			PartialVisage pv = new PartialVisage(actor.visage());
-			for (IComponentPart part : this.avSensors.keySet()) {
-				for (ISensor sensor : this.avSensors.get(part)) {
-					pv.addSensableParts(sensor.sensableParts(actor.visage(),
-							info.maybeActor().orElseThrow(() -> new UnsupportedOperationException(
-									"Cannot sense parts of " + actor + " from nonexistent perceiver... " + info)),
-							part).getPartGraph());
-				}
-			}
-			visagesByUUID.put(entity, pv);
-		}
-		return this.visagesByUUID.get(entity);
+		return this.sense(entity, info).visage;
 	}
 
 	@Override
@@ -139,20 +203,22 @@ public class Perception implements IPerception {
 	@Override
 	public Collection<IKnowledgeMedium> getSensedKnowledge(UUID fromEntity, ISensor forSensor, boolean focused,
 			IBeingAccess info) {
-		if (!knowledgeSensed.contains(forSensor, fromEntity)
-				|| knowledgeSensed.get(forSensor, fromEntity).get(focused).isEmpty()) {
-			Multimap<Boolean, IKnowledgeMedium> knows = MultimapBuilder.hashKeys().hashSetValues().build();
-			knowledgeSensed.put(forSensor, fromEntity, knows);
-			IVisage<?> visage = this.getVisageFor(fromEntity, info);
-			for (IComponentPart sensorpart : this.avSensors.keySet()) {
-				for (ISensor sensor : this.avSensors.get(sensorpart)) {
-					for (IPart visagepart : visage.getPartGraph()) {
-						knows.get(focused).addAll(sensor.senseKnowledge(visagepart, sensorpart, focused));
+		SensedEntity sensing = this.sense(fromEntity, info);
+		synchronized (sensing) {
+			Collection<IKnowledgeMedium> knows = sensing.knowledge.get(forSensor, focused);
+			if (knows == null) {
+				knows = new HashSet<>();
+				for (IComponentPart sensorpart : this.avSensors.keySet()) {
+					for (ISensor sensor : this.avSensors.get(sensorpart)) {
+						for (IPart visagepart : sensing.visage.getPartGraph()) {
+							knows.addAll(sensor.senseKnowledge(visagepart, sensorpart, focused));
+						}
 					}
 				}
+				sensing.knowledge.put(forSensor, focused, knows);
 			}
+			return knows;
 		}
-		return knowledgeSensed.get(forSensor, fromEntity).get(focused);
 	}
 
 	@Override
@@ -187,16 +253,17 @@ public class Perception implements IPerception {
 	@Override
 	public void update(IBeingAccess info) {
 
-		avSensors.clear();
-		visagesByUUID.clear();
-		sensed.clear();
-		knowledgeSensed.clear();
 		bySensor.clear();
+		// sensors available this tick; what was sensed is only kept if these stay the
+		// same
+		SetMultimap<IComponentPart, ISensor> nowAvailable = MultimapBuilder.hashKeys().hashSetValues().build();
+		long bodyStamp = -1;
 
 		if (info.isCorporeal()) {
 			ISoma body = info.maybeSoma().orElseThrow(
 					() -> new UnsupportedOperationException("Part " + info.maybeTetherPart().get() + " lacks soma?"));
 			if (body != null) {
+				bodyStamp = body.getChangeStamp();
 
 				for (ISensation sensation : this.sensationReceptors.keySet()) {
 					if (!this.blockages.contains(sensation)) {
@@ -250,9 +317,7 @@ public class Perception implements IPerception {
 							if (blockages.contains(sensor)) {
 								continue;
 							}
-							if (!avSensors.get(sensorPart).contains(sensor)) {
-								avSensors.put(sensorPart, sensor);
-							}
+							nowAvailable.put(sensorPart, sensor);
 
 						}
 					}
@@ -263,6 +328,18 @@ public class Perception implements IPerception {
 			this.needs.entrySet().forEach((e) -> e.setValue(0f));
 		}
 
+		if (bodyStamp != ownStamp || !nowAvailable.equals(avSensors)) {
+			avSensors.clear();
+			avSensors.putAll(nowAvailable);
+			sensedEntities.clear();
+			ownStamp = bodyStamp;
+		} else {
+			long ticks = info.ticks();
+			synchronized (sensedEntities) {
+				sensedEntities.values().removeIf((sensing) -> ticks - sensing.tick >= senseExpiry);
+			}
+		}
+
 	}
 
 }
@@ -1,21 +1,17 @@
 package thinker.mind.will;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Consumer;
-
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.MultimapBuilder;
-import com.google.common.collect.Multimaps;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import metaphysics.soul.ISoul;
 import thinker.actions.searching.ActionFinder;
@@ -30,28 +26,66 @@ import thinker.mind.util.IBeingAccess;
 import thinker.mind.will.thoughts.IThought;
 import thinker.mind.will.thoughts.IThought.ThoughtType;
 
+/**
+ * Basic implementation of {@link IThinkerWill}. Only the thread ticking the
+ * will changes its thoughts; everything else (including adding and removing
+ * thoughts) is queued without locking and done at the start of the next tick,
+ * after which the thoughts are published for other threads to read.
+ * Thoughts are kept in one table, in the order they were added, with how long
+ * each has existed and whether it is focused.
+ * 
+ * @author borah
+ *
+ */
 public class ThinkerWill implements IThinkerWill {
 
+	private static final byte KEEP = 0;
+	private static final byte INTERRUPTED = 1;
+	private static final byte ENDED = 2;
+
 	private float baseMindStrainChance;
 	private int focusedCap;
-	private Multimap<UUID, IThought> thoughts;
-	private List<Consumer<ISoul>> queuedMindActions;
-	private Map<IThought, Integer> thoughtTimes;
-	private Multimap<ThoughtType, IThought> thoughtsByType;
-	private Set<IThought> focused;
+	private Queue<Consumer<ISoul>> queuedMindActions;
+	/** queued actions taken out of the queue for the current tick */
+	private List<Consumer<ISoul>> drained = new ArrayList<>();
+	/** the thoughts, with their ages and focus, in the first {@link #count} slots */
+	private IThought[] thoughts = new IThought[8];
+	private int[] ages = new int[8];
+	private boolean[] focused = new boolean[8];
+	/** what happens to each thought at the end of the current tick */
+	private byte[] fates = new byte[8];
+	private int count;
+	private int focusedCount;
+	/**
+	 * the thoughts as they were after the queued actions of the last tick were
+	 * done, for any thread to read
+	 */
+	private volatile List<IThought> published = List.of();
+	/** whether thoughts were added or removed since they were last published */
+	private boolean changed;
 	private IActionFinder afinder;
 	private IActionPicker apicker;
 	private IProfileFinder pfinder;
 
 	public ThinkerWill(float baseMindStrainChance, int focusedCap, List<RelationMutability> relmut) {
+		this(baseMindStrainChance, focusedCap, relmut, new ActionFinder());
+	}
+
+	/**
+	 * Make a will which finds actions with the given finder, which may share its
+	 * cache with the wills of other souls
+	 * 
+	 * @param baseMindStrainChance
+	 * @param focusedCap
+	 * @param relmut
+	 * @param afinder
+	 */
+	public ThinkerWill(float baseMindStrainChance, int focusedCap, List<RelationMutability> relmut,
+			IActionFinder afinder) {
 		this.focusedCap = focusedCap;
 		this.baseMindStrainChance = baseMindStrainChance;
-		this.thoughts = Multimaps.synchronizedMultimap(MultimapBuilder.hashKeys().hashSetValues().build());
-		this.thoughtTimes = Collections.synchronizedMap(new HashMap<>());
-		this.focused = Collections.synchronizedSet(new HashSet<>());
-		this.thoughtsByType = Multimaps.synchronizedMultimap(MultimapBuilder.hashKeys().hashSetValues().build());
-		this.queuedMindActions = Collections.synchronizedList(new ArrayList<>());
-		this.afinder = new ActionFinder();
+		this.queuedMindActions = new ConcurrentLinkedQueue<>();
+		this.afinder = afinder;
 		this.apicker = new ActionPicker();
 		this.pfinder = new ProfileFinder(relmut);
 	}
@@ -63,19 +97,118 @@ public class ThinkerWill implements IThinkerWill {
 
 	@Override
 	public float getMindStrainChance() {
-		int overflow = Math.max(0, focused.size() - focusedCap);
+		int overflow = Math.max(0, focusedCount - focusedCap);
 
 		return (float) (1 - (1 - baseMindStrainChance) * Math.pow(0.7, overflow));
 	}
 
 	@Override
 	public int getNumberOfFocusedThoughts() {
-		return focused.size();
+		return focusedCount;
 	}
 
 	@Override
 	public boolean isFocused(IThought thought) {
-		return focused.contains(thought);
+		int index = indexOf(thought);
+		return index >= 0 && focused[index];
+	}
+
+	/**
+	 * Return the slot of this thought, or -1 if it is not in this will
+	 * 
+	 * @param thought
+	 * @return
+	 */
+	private int indexOf(IThought thought) {
+		for (int i = 0; i < count; i++) {
+			if (thoughts[i].equals(thought))
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Return a copy of the thoughts which pass this test; may be called from any
+	 * thread, since it reads the thoughts last published by the ticking thread
+	 * rather than the table it changes
+	 * 
+	 * @param test
+	 * @return
+	 */
+	private List<IThought> copyThoughts(Predicate<IThought> test) {
+		return published.stream().filter(test).collect(Collectors.toList());
+	}
+
+	/**
+	 * Publish the thoughts for other threads to read, if they were added or
+	 * removed since they were last published
+	 */
+	private void publishThoughts() {
+		if (changed) {
+			changed = false;
+			published = List.of(Arrays.copyOf(thoughts, count));
+		}
+	}
+
+	/**
+	 * Set whether the thought in this slot is focused
+	 * 
+	 * @param index
+	 * @param focus
+	 */
+	private void setFocused(int index, boolean focus) {
+		if (focused[index] != focus) {
+			focused[index] = focus;
+			focusedCount += focus ? 1 : -1;
+		}
+	}
+
+	/**
+	 * Add a thought (or reset its age, if it is already here)
+	 * 
+	 * @param thought
+	 * @param focus
+	 */
+	private void putThought(IThought thought, boolean focus) {
+		int index = indexOf(thought);
+		if (index < 0) {
+			if (count == thoughts.length) {
+				int size = count * 2;
+				ages = Arrays.copyOf(ages, size);
+				focused = Arrays.copyOf(focused, size);
+				fates = Arrays.copyOf(fates, size);
+				thoughts = Arrays.copyOf(thoughts, size);
+			}
+			index = count;
+			thoughts[index] = thought;
+			focused[index] = false;
+			count++;
+			changed = true;
+		}
+		ages[index] = 0;
+		setFocused(index, focus);
+	}
+
+	/**
+	 * Remove the thoughts which pass this test, keeping the others in order
+	 * 
+	 * @param test
+	 */
+	private void removeThoughts(Predicate<IThought> test) {
+		int kept = 0;
+		for (int i = 0; i < count; i++) {
+			if (test.test(thoughts[i])) {
+				setFocused(i, false);
+				continue;
+			}
+			thoughts[kept] = thoughts[i];
+			ages[kept] = ages[i];
+			focused[kept] = focused[i];
+			kept++;
+		}
+		Arrays.fill(thoughts, kept, count, null);
+		changed |= kept != count;
+		count = kept;
 	}
 
 	@Override
@@ -90,12 +223,12 @@ public class ThinkerWill implements IThinkerWill {
 
 	@Override
 	public Collection<IThought> getThoughts() {
-		return thoughts.values();
+		return Collections.unmodifiableList(copyThoughts((t) -> true));
 	}
 
 	@Override
 	public Collection<IThought> getThoughtsByProcess(UUID id) {
-		return thoughts.get(id);
+		return Collections.unmodifiableList(copyThoughts((t) -> t.getProcessID().equals(id)));
 	}
 
 	protected void queueAction(Runnable action) {
@@ -113,41 +246,22 @@ public class ThinkerWill implements IThinkerWill {
 	 */
 	@Override
 	public void addThought(IThought thought, boolean forceFocus) {
-		this.queueAction((soul) -> {
-			thoughts.put(thought.getProcessID(), thought);
-			thoughtTimes.put(thought, 0);
-			thoughtsByType.put(thought.getThoughtType(), thought);
-			if (forceFocus)
-				focused.add(thought);
-			else
-				focused.remove(thought);
-
-		});
+		this.queueAction(() -> putThought(thought, forceFocus));
 	}
 
 	@Override
 	public void removeThought(IThought thought) {
-		this.queueAction(() -> {
-			thoughtTimes.remove(thought);
-			focused.remove(thought);
-			thoughtsByType.remove(thought.getThoughtType(), thought);
-			thoughts.remove(thought.getProcessID(), thought);
-		});
+		this.queueAction(() -> removeThoughts(thought::equals));
 	}
 
 	@Override
 	public Collection<IThought> getThoughtsOfType(ThoughtType type) {
-		return thoughtsByType.get(type);
+		return Collections.unmodifiableList(copyThoughts((t) -> t.getThoughtType() == type));
 	}
 
 	@Override
 	public void removeAllThoughts(ThoughtType ofType) {
-		this.queueAction(() -> {
-			Collection<IThought> col = thoughtsByType.removeAll(ofType);
-			thoughts.values().removeAll(col);
-			thoughtTimes.keySet().removeAll(col);
-			focused.removeAll(col);
-		});
+		this.queueAction(() -> removeThoughts((t) -> t.getThoughtType() == ofType));
 	}
 
 	@Override
@@ -155,66 +269,63 @@ public class ThinkerWill implements IThinkerWill {
 		ISoul inSpirit = info.maybeSoul().orElseThrow(() -> new UnsupportedOperationException(
 				"Cannot call willTick in " + this + " from a non-soul " + info.being()));
 
-		List<Consumer<ISoul>> queued = null;
-		synchronized (queuedMindActions) {
-			queued = new ArrayList<>(queuedMindActions);
-			queuedMindActions.clear();
+		Consumer<ISoul> next;
+		while ((next = queuedMindActions.poll()) != null) { // actions queued by these wait for the next tick
+			drained.add(next);
 		}
-		for (Consumer<ISoul> run : queued) {
-			run.accept(inSpirit);
+		try {
+			for (Consumer<ISoul> run : drained) {
+				run.accept(inSpirit);
+			}
+		} finally {
+			drained.clear();
+			publishThoughts();
 		}
 
 		float focus = inSpirit.getKnowledge().getFeeling(Affect.FOCUS); // amount of focus (as per the relevant affect)
 		float mindStrainChance = this.getMindStrainChance();
 		mindStrainChance = 0.99f - (1 - mindStrainChance) * focus; // focus affects the mind strain chance
 
-		for (IThought tat : thoughts.values()) {
-			if (thoughtTimes.get(tat) == null) {
-				throw new IllegalStateException("Unclear exception");
-			}
-			if (tat.forceFocus(this, thoughtTimes.get(tat), info)) {
-				this.focused.add(tat);
+		boolean anyEnded = false;
+		for (int i = 0; i < count; i++) { // focus, tick, and age each thought, and get its children
+			IThought tat = thoughts[i];
+			if (tat.forceFocus(this, ages[i], info)) {
+				setFocused(i, true);
 			}
-			if (tat.forceSubconscious(this, thoughtTimes.get(tat), info)) {
-				this.focused.remove(tat);
+			if (tat.forceSubconscious(this, ages[i], info)) {
+				setFocused(i, false);
 			}
-		}
-
-		Set<IThought> shouldDelete = new HashSet<>();
-		Set<IThought> shouldDeleteI = new HashSet<>();
-		for (IThought tat : focused) { // tick focused thoughts
-			tat.tickThoughtActively(this, thoughtTimes.get(tat), info);
-			if (info.gameMap().random() < mindStrainChance) {
-				shouldDeleteI.add(tat);
-			} else if (tat.shouldDelete(this, thoughtTimes.get(tat), info)) {
-				shouldDelete.add(tat);
-			}
-		}
-		for (IThought tat : thoughts.values()) { // tick subconscious thoughts
-			if (focused.contains(tat))
-				continue;
-			tat.tickThoughtPassively(this, thoughtTimes.get(tat), info);
-			if (tat.shouldDelete(this, thoughtTimes.get(tat), info)) {
-				shouldDelete.add(tat);
+			fates[i] = KEEP;
+			if (focused[i]) { // tick focused thoughts
+				tat.tickThoughtActively(this, ages[i], info);
+				if (info.gameMap().random() < mindStrainChance) {
+					fates[i] = INTERRUPTED;
+				} else if (tat.shouldDelete(this, ages[i], info)) {
+					fates[i] = ENDED;
+				}
+			} else { // tick subconscious thoughts
+				tat.tickThoughtPassively(this, ages[i], info);
+				if (tat.shouldDelete(this, ages[i], info)) {
+					fates[i] = ENDED;
+				}
 			}
-		}
-
-		for (IThought tat : thoughts.values()) { // tick thought times up, get children of thoughts
-			thoughtTimes.put(tat, thoughtTimes.getOrDefault(tat, 0) + 1);
+			anyEnded |= fates[i] != KEEP;
+			ages[i]++;
 			if (tat.hasChildThoughts()) {
 				Collection<Entry<IThought, Boolean>> children = tat.popChildThoughts();
 				children.forEach((pair) -> this.addThought(pair.getKey(), pair.getValue()));
 			}
 		}
-
-		for (IThought tat : shouldDeleteI) { // interrupted thoughts (focus lost)
-			tat.aboutToDelete(this, thoughtTimes.get(tat), true, info);
-		}
-		for (IThought tat : shouldDelete) { // regular thoughts (naturally ended)
-			tat.aboutToDelete(this, thoughtTimes.get(tat), false, info);
-		}
-		for (IThought tat : Iterables.concat(shouldDelete, shouldDeleteI)) {
-			this.removeThought(tat);
+		if (!anyEnded)
+			return;
+
+		for (byte fate : new byte[] { INTERRUPTED, ENDED }) { // interrupted thoughts (focus lost), then ended ones
+			for (int i = 0; i < count; i++) {
+				if (fates[i] == fate) {
+					thoughts[i].aboutToDelete(this, ages[i], fate == INTERRUPTED, info);
+					this.removeThought(thoughts[i]);
+				}
+			}
 		}
 
 	}
@@ -227,9 +338,9 @@ public class ThinkerWill implements IThinkerWill {
 	@Override
 	public String toString() {
 		return "ThinkerWill{fcap=" + this.focusedCap + ",strainChance=" + this.getMindStrainChance() + ",thoughts={"
-				+ this.thoughtTimes.keySet().stream().filter((x) -> !focused.contains(x)).reduce("",
-						(s, t) -> s + "," + t, (x, x2) -> x + x2)
-				+ "},focused=" + this.focused + "}";
+				+ this.copyThoughts((x) -> !isFocused(x)).stream().reduce("", (s, t) -> s + "," + t,
+						(x, x2) -> x + x2)
+				+ "},focused=" + this.copyThoughts(this::isFocused) + "}";
 	}
 
 }
@@ -2,6 +2,7 @@ package thinker.mind.will.thoughts.perception;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.UUID;
 
 import things.form.channelsystems.IChannelNeed;
@@ -69,10 +70,13 @@ public class NeedPerceptionThought extends PerceptionThought {
 						KnowledgeRelationType.C_PERCEPTOR_OF);
 				for (IConcept needCon : needCons) {
 					if (needCon instanceof INeedConcept needConcept) {
-						knowledge.removeAllRelations(needConcept, PropertyRelationType.HAS_VALUE);
 						EnumValueConcept enumVal = new EnumValueConcept(needLevel);
-						knowledge.learnConcept(enumVal);
-						knowledge.addTemporaryRelation(needConcept, PropertyRelationType.HAS_VALUE, enumVal);
+						// only rewrite the level if it changed, so memory is not changed for nothing
+						if (!isOnlyValue(knowledge, needConcept, enumVal)) {
+							knowledge.removeAllRelations(needConcept, PropertyRelationType.HAS_VALUE);
+							knowledge.learnConcept(enumVal);
+							knowledge.addTemporaryRelation(needConcept, PropertyRelationType.HAS_VALUE, enumVal);
+						}
 						if (needLevel.getThreshold() < 1f) {
 							IGoalConcept gc = needConcept.getRequirements();
 							knowledge.learnConcept(gc);
@@ -87,6 +91,15 @@ public class NeedPerceptionThought extends PerceptionThought {
 		}
 	}
 
+	/**
+	 * Whether the only value the knowledge gives this need is the given one
+	 */
+	private static boolean isOnlyValue(IMindKnowledgeBase knowledge, INeedConcept need, IConcept value) {
+		Iterator<? extends IConcept> values = knowledge.getConnectedConcepts(need, PropertyRelationType.HAS_VALUE)
+				.iterator();
+		return values.hasNext() && values.next().equals(value) && !values.hasNext();
+	}
+
 	@Override
 	public String toString() {
 		return this.getClass().getSimpleName() + "(id=" + this.getProcessID().toString().substring(0, 5) + "...){"